@@ -0,0 +1,151 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Block decomposition with a segment tree over per-block minima and maxima;
+ * subclasses scan the underlying array.
+ */
+abstract class AbstractRangeBoundsIndex implements RangeBoundsIndex {
+  private final int size;
+  private final int blockSize;
+  private final int leaves;
+  private final double[] treeMin;
+  private final double[] treeMax;
+
+  AbstractRangeBoundsIndex(int size, int blockSize) {
+    if (blockSize <= 0)
+      throw new IllegalArgumentException("blockSize (" + blockSize + ") must be > 0");
+    this.size = size;
+    this.blockSize = blockSize;
+    int blocks = Math.max(1, (size + blockSize - 1) / blockSize);
+    this.leaves = blocks == 1 ? 1 : Integer.highestOneBit(blocks - 1) << 1;
+    this.treeMin = new double[2 * leaves];
+    this.treeMax = new double[2 * leaves];
+    Arrays.fill(treeMin, Double.POSITIVE_INFINITY);
+    Arrays.fill(treeMax, Double.NEGATIVE_INFINITY);
+  }
+
+  /**
+   * Compute block extremes and build the tree; called by subclass
+   * constructors once the array is assigned.
+   */
+  final void build() {
+    for (int block = 0; block * blockSize < size; block++) {
+      int from = block * blockSize;
+      int to = Math.min(size, from + blockSize);
+      treeMin[leaves + block] = scanMin(from, to);
+      treeMax[leaves + block] = scanMax(from, to);
+    }
+    for (int node = leaves - 1; node > 0; node--) {
+      treeMin[node] = Math.min(treeMin[2 * node], treeMin[2 * node + 1]);
+      treeMax[node] = Math.max(treeMax[2 * node], treeMax[2 * node + 1]);
+    }
+  }
+
+  /**
+   * @return minimum valid value in [from, to), or positive infinity if none
+   */
+  abstract double scanMin(int from, int to);
+
+  /**
+   * @return maximum valid value in [from, to), or negative infinity if none
+   */
+  abstract double scanMax(int from, int to);
+
+  abstract void write(int index, double value);
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size + " blockSize=" + blockSize;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public int blockSize() {
+    return blockSize;
+  }
+
+  @Override
+  public double getMin(int from, int to) {
+    checkRange(from, to);
+    if (from == to)
+      return Dval.DVAL_DOUBLE;
+
+    double min;
+    int firstBlock = (from + blockSize - 1) / blockSize;
+    int lastBlock = to / blockSize;
+    if (firstBlock >= lastBlock) {
+      min = scanMin(from, to);
+    } else {
+      min = Math.min(scanMin(from, firstBlock * blockSize), scanMin(lastBlock * blockSize, to));
+      int lo = leaves + firstBlock;
+      int hi = leaves + lastBlock;
+      while (lo < hi) {
+        if ((lo & 1) == 1)
+          min = Math.min(min, treeMin[lo++]);
+        if ((hi & 1) == 1)
+          min = Math.min(min, treeMin[--hi]);
+        lo >>>= 1;
+        hi >>>= 1;
+      }
+    }
+    return min == Double.POSITIVE_INFINITY ? Dval.DVAL_DOUBLE : min;
+  }
+
+  @Override
+  public double getMax(int from, int to) {
+    checkRange(from, to);
+    if (from == to)
+      return Dval.DVAL_DOUBLE;
+
+    double max;
+    int firstBlock = (from + blockSize - 1) / blockSize;
+    int lastBlock = to / blockSize;
+    if (firstBlock >= lastBlock) {
+      max = scanMax(from, to);
+    } else {
+      max = Math.max(scanMax(from, firstBlock * blockSize), scanMax(lastBlock * blockSize, to));
+      int lo = leaves + firstBlock;
+      int hi = leaves + lastBlock;
+      while (lo < hi) {
+        if ((lo & 1) == 1)
+          max = Math.max(max, treeMax[lo++]);
+        if ((hi & 1) == 1)
+          max = Math.max(max, treeMax[--hi]);
+        lo >>>= 1;
+        hi >>>= 1;
+      }
+    }
+    return max == Double.NEGATIVE_INFINITY ? Dval.DVAL_DOUBLE : max;
+  }
+
+  @Override
+  public void set(int index, double value) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("index (" + index + ") not in [0, " + size + ")");
+    write(index, value);
+
+    int block = index / blockSize;
+    int from = block * blockSize;
+    int to = Math.min(size, from + blockSize);
+    int node = leaves + block;
+    treeMin[node] = scanMin(from, to);
+    treeMax[node] = scanMax(from, to);
+    for (node >>>= 1; node > 0; node >>>= 1) {
+      treeMin[node] = Math.min(treeMin[2 * node], treeMin[2 * node + 1]);
+      treeMax[node] = Math.max(treeMax[2 * node], treeMax[2 * node + 1]);
+    }
+  }
+
+  private void checkRange(int from, int to) {
+    if (from < 0 || to > size || from > to)
+      throw new IllegalArgumentException("range [" + from + ", " + to + ") not within [0, " + size + "]");
+  }
+}
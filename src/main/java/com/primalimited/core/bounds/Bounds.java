@@ -14,7 +14,10 @@ import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
 
 import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.MissingValuePolicy;
 import com.primalimited.core.math.MathUtil;
+import com.primalimited.core.series.DoubleSeries;
+import com.primalimited.core.series.FloatSeries;
 
 /**
  * Represents two bounding values, e.g. end points of a horizontal or vertical
@@ -428,15 +431,44 @@ public interface Bounds {
    * maximum valid values from the given array.
    */
   public static Bounds of(double[] array) {
+    return of(array, MissingValuePolicy.defaultPolicy());
+  }
+
+  /**
+   * Create new instance of Bounds that represents the minimum and
+   * maximum valid values from the given array, where valid values are
+   * determined by the missing value policy.  Bounds cannot hold the Dval
+   * sentinel, so under {@link MissingValuePolicy#NAN_ONLY} a Dval value is
+   * excluded from the bounds of the other values.
+   * 
+   * @param array array of values
+   * @param policy missing value policy
+   * @return new instance of Bounds that represents the minimum and
+   * maximum valid values from the given array.
+   */
+  public static Bounds of(double[] array, MissingValuePolicy policy) {
+    Objects.requireNonNull(policy, "policy");
     if (array == null || array.length == 0)
       return Bounds.nullBounds();
 
-    DoubleSummaryStatistics stats = Arrays
-        .stream(array)
-        .filter(Dval.isValid)
-        .summaryStatistics();
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (double value : array) {
+      if (!policy.isValid(value))
+        continue;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
 
-    return createFromStats(stats);
+    // bounds cannot hold the Dval sentinel; under NAN_ONLY a Dval extreme
+    // is excluded, keeping the bounds of the remaining values
+    if (Dval.isDval(min) || Dval.isDval(max))
+      return of(array, MissingValuePolicy.DVAL_OR_NAN);
+
+    if (!Bounds.valid(min, max))
+      return Bounds.nullBounds();
+
+    return immutable(min, max);
   }
 
   /**
@@ -460,6 +492,105 @@ public interface Bounds {
     return createFromStats(stats);
   }
 
+  /**
+   * Create new instance of Bounds that represents the minimum and
+   * maximum valid values from the given collection of doubles, where
+   * valid values are determined by the missing value policy.  As for
+   * {@link #of(double[], MissingValuePolicy)}, a Dval value is excluded.
+   * 
+   * @param collection collection of doubles
+   * @param policy missing value policy
+   * @return new instance of Bounds that represents the minimum and
+   * maximum valid values from the given collection of doubles.
+   */
+  public static Bounds of(Collection<Double> collection, MissingValuePolicy policy) {
+    Objects.requireNonNull(policy, "policy");
+    if (collection == null || collection.size() == 0)
+      return new NullBounds();
+
+    DoubleSummaryStatistics stats = collection
+        .stream()
+        .mapToDouble(d -> d.doubleValue())
+        .filter(policy)
+        .summaryStatistics();
+
+    // as for arrays, a Dval extreme is excluded rather than invalidating
+    // the bounds
+    if (Dval.isDval(stats.getMin()) || Dval.isDval(stats.getMax()))
+      return of(collection, MissingValuePolicy.DVAL_OR_NAN);
+
+    return createFromStats(stats);
+  }
+
+  /**
+   * Create new instance of Bounds that represents the minimum and
+   * maximum valid values of the given series.  The series maintains its
+   * bounds as values are appended, so this does not scan the values.
+   * 
+   * @param series series of doubles
+   * @return new instance of Bounds that represents the minimum and
+   * maximum valid values of the series.
+   */
+  public static Bounds of(DoubleSeries series) {
+    if (series == null)
+      return new NullBounds();
+    return series.getBounds();
+  }
+
+  /**
+   * Create new instance of Bounds that represents the minimum and
+   * maximum valid values of the given series.  The series maintains its
+   * bounds as values are appended, so this does not scan the values.
+   * 
+   * @param series series of floats
+   * @return new instance of Bounds that represents the minimum and
+   * maximum valid values of the series.
+   */
+  public static Bounds of(FloatSeries series) {
+    if (series == null)
+      return new NullBounds();
+    return series.getBounds();
+  }
+
+  /**
+   * Create new instance of Bounds between two quantiles of the valid
+   * values in the given array, e.g. quantiles 0.01 and 0.99 for bounds
+   * that ignore outliers.  Quantiles are exact, interpolating linearly
+   * between the closest ranks, and computed by selection on a copy of the
+   * array in O(n).
+   * 
+   * @param array array of values
+   * @param lower lower quantile in [0..1]
+   * @param upper upper quantile in [0..1], &gt;= lower
+   * @return new instance of Bounds between the two quantiles, or null
+   * bounds if the array has no valid values.
+   * @throws IllegalArgumentException if either quantile is not in [0..1],
+   * or lower &gt; upper
+   * @see QuantileSketch
+   */
+  public static Bounds ofQuantiles(double[] array, double lower, double upper) {
+    Objects.requireNonNull(array, "array");
+    return Quantiles.exact(array.clone(), lower, upper);
+  }
+
+  /**
+   * Create new instance of Bounds between two quantiles of the valid
+   * values in the given array, as {@link #ofQuantiles(double[], double, double)},
+   * but selecting within the array itself, which is reordered.
+   * 
+   * @param array array of values, reordered in place
+   * @param lower lower quantile in [0..1]
+   * @param upper upper quantile in [0..1], &gt;= lower
+   * @return new instance of Bounds between the two quantiles, or null
+   * bounds if the array has no valid values.
+   * @throws IllegalArgumentException if either quantile is not in [0..1],
+   * or lower &gt; upper
+   */
+  public static Bounds ofQuantilesInPlace(double[] array, double lower, double upper) {
+    Objects.requireNonNull(array, "array");
+    return Quantiles.exact(array, lower, upper);
+  }
+
   static Bounds createFromStats(DoubleSummaryStatistics stats) {
     Objects.requireNonNull(stats);
     
@@ -6,6 +6,7 @@ import java.util.Objects;
 import java.util.stream.Stream;
 
 import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.MissingValuePolicy;
 import com.primalimited.core.geometry.Coordinate;
 
 /**
@@ -42,6 +43,10 @@ public class Bounds2D {
   }
 
   public static Bounds2D from(double[] xArray, double[] yArray) {
+    return from(xArray, yArray, MissingValuePolicy.defaultPolicy());
+  }
+
+  public static Bounds2D from(double[] xArray, double[] yArray, MissingValuePolicy policy) {
     Objects.requireNonNull(xArray, "x array cannot be null");
     Objects.requireNonNull(yArray, "y array cannot be null");
     if (xArray.length == 0)
@@ -50,7 +55,7 @@ public class Bounds2D {
       throw new IllegalArgumentException("yArray is empty");
 
     Bounds2D bounds = empty();
-    bounds.expandTo(xArray, yArray);
+    bounds.expandTo(xArray, yArray, policy);
     return bounds;
   }
 
@@ -80,6 +85,17 @@ public class Bounds2D {
     return new Bounds2D(other);
   }
 
+  /**
+   * Return an immutable copy of these bounds, with value equality, for use
+   * as a key in a hash map or set.  Bounds2D itself is mutable and compares
+   * by identity.
+   *
+   * @return immutable copy of these bounds
+   */
+  public ImmutableBounds2D snapshot() {
+    return ImmutableBounds2D.of(this);
+  }
+
   protected Bounds2D() {
   }
 
@@ -221,6 +237,32 @@ public class Bounds2D {
     setValues(minX, maxX, minY, maxY);
   }
 
+  /**
+   * Update the bounding values from the x, y location, skipping the
+   * location if either value is missing under the policy.  The x and y
+   * extents are {@link Bounds}, which cannot hold the Dval sentinel, so
+   * under {@link MissingValuePolicy#NAN_ONLY} a location with a Dval
+   * coordinate is also skipped, as {@link Bounds#of(double[], MissingValuePolicy)}
+   * leaves Dval out of the bounds.
+   * @param x x to update bounds.
+   * @param y y to update bounds.
+   * @param policy missing value policy
+   */
+  public void expandTo(double x, double y, MissingValuePolicy policy) {
+    Objects.requireNonNull(policy, "policy");
+    if (!policy.isValid(x) || !policy.isValid(y))
+      return;
+    if (x == Dval.DVAL_DOUBLE || y == Dval.DVAL_DOUBLE)
+      return;
+
+    setValues(
+      Math.min(getMinX(), x),
+      Math.max(getMaxX(), x),
+      Math.min(getMinY(), y),
+      Math.max(getMaxY(), y)
+    );
+  }
+
   /**
    * Updates the bounds based on coordinate arrays.
    *
@@ -228,6 +270,18 @@ public class Bounds2D {
    * @param yArray array of Y coordinates
    */
   public void expandTo(double[] xArray, double[] yArray) {
+    expandTo(xArray, yArray, MissingValuePolicy.defaultPolicy());
+  }
+
+  /**
+   * Updates the bounds based on coordinate arrays, skipping values that
+   * are missing under the policy.
+   *
+   * @param xArray array of X coordinates
+   * @param yArray array of Y coordinates
+   * @param policy missing value policy
+   */
+  public void expandTo(double[] xArray, double[] yArray, MissingValuePolicy policy) {
     Objects.requireNonNull(xArray, "xArray");
     Objects.requireNonNull(yArray, "yArray");
 
@@ -236,8 +290,8 @@ public class Bounds2D {
     if (yArray.length == 0)
       throw new IllegalArgumentException("yArray.length cannot be zero");
 
-    Bounds x = Bounds.of(xArray);
-    Bounds y = Bounds.of(yArray);
+    Bounds x = Bounds.of(xArray, policy);
+    Bounds y = Bounds.of(yArray, policy);
     expandTo(
       x.isValid() ? x.getMin() : getMinX(),
       x.isValid() ? x.getMax() : getMaxX(),
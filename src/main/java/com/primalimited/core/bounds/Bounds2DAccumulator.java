@@ -0,0 +1,148 @@
+package com.primalimited.core.bounds;
+
+import java.util.Objects;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Accumulates the {@link Bounds2D} of a set of x, y locations that supports
+ * removal and editing as well as addition, so the extent of editable
+ * coordinates can be kept current without rescanning them.  A location is
+ * ignored if either of its values is invalid.  Locations are counted as
+ * x, y pairs, so only a location that was added can be removed.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @see BoundsAccumulator
+ */
+public final class Bounds2DAccumulator {
+  private final BoundsAccumulator x = BoundsAccumulator.create();
+  private final BoundsAccumulator y = BoundsAccumulator.create();
+  private final LocationCountMap locations = new LocationCountMap();
+
+  public static Bounds2DAccumulator create() {
+    return new Bounds2DAccumulator();
+  }
+
+  private Bounds2DAccumulator() {
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " x=" + x.getBounds().boundsText() + ", y=" + y.getBounds().boundsText();
+  }
+
+  /**
+   * Add a location.
+   *
+   * @param xValue x value
+   * @param yValue y value
+   * @return true if the location was added, false if it is invalid
+   */
+  public boolean add(double xValue, double yValue) {
+    if (!valid(xValue, yValue))
+      return false;
+    locations.increment(xValue, yValue);
+    x.add(xValue);
+    y.add(yValue);
+    return true;
+  }
+
+  /**
+   * Add all valid locations from coordinate arrays.
+   *
+   * @param xArray array of x values
+   * @param yArray array of y values
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void add(double[] xArray, double[] yArray) {
+    Objects.requireNonNull(xArray, "xArray");
+    Objects.requireNonNull(yArray, "yArray");
+    if (xArray.length != yArray.length)
+      throw new IllegalArgumentException("xArray.length (" + xArray.length + ") != yArray.length (" + yArray.length + ")");
+    for (int i = 0; i < xArray.length; i++)
+      add(xArray[i], yArray[i]);
+  }
+
+  /**
+   * Remove a location.
+   *
+   * @param xValue x value
+   * @param yValue y value
+   * @return true if the location was removed, false if it is invalid or
+   * not present; the accumulator is then unchanged
+   */
+  public boolean remove(double xValue, double yValue) {
+    if (!valid(xValue, yValue))
+      return false;
+    if (locations.decrement(xValue, yValue) < 0)
+      return false;
+    x.remove(xValue);
+    y.remove(yValue);
+    return true;
+  }
+
+  /**
+   * Replace (move) a location, e.g. when a coordinate is edited.  Either
+   * location may be invalid, in which case only the other takes effect.
+   *
+   * @param oldX x value being replaced
+   * @param oldY y value being replaced
+   * @param newX replacement x value
+   * @param newY replacement y value
+   * @throws IllegalArgumentException if the old location is valid but not
+   * present
+   */
+  public void replace(double oldX, double oldY, double newX, double newY) {
+    if (valid(oldX, oldY) && !remove(oldX, oldY))
+      throw new IllegalArgumentException("location not present: " + oldX + ", " + oldY);
+    add(newX, newY);
+  }
+
+  /**
+   * @return number of valid locations held
+   */
+  public long count() {
+    return x.count();
+  }
+
+  /**
+   * @return true if at least one valid location is held
+   */
+  public boolean isValid() {
+    return x.isValid();
+  }
+
+  /**
+   * Return a snapshot of the bounds of the locations held.
+   *
+   * @return new bounds of the locations, or an empty bounds if none are
+   * held
+   */
+  public Bounds2D getBounds() {
+    if (!isValid())
+      return Bounds2D.empty();
+    return Bounds2D.create(x.getMin(), x.getMax(), y.getMin(), y.getMax());
+  }
+
+  public Bounds getXBounds() {
+    return x.getBounds();
+  }
+
+  public Bounds getYBounds() {
+    return y.getBounds();
+  }
+
+  /**
+   * Remove all locations.
+   */
+  public void clear() {
+    locations.clear();
+    x.clear();
+    y.clear();
+  }
+
+  private static boolean valid(double xValue, double yValue) {
+    return Dval.isValid.test(xValue) && Dval.isValid.test(yValue);
+  }
+}
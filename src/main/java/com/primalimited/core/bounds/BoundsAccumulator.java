@@ -0,0 +1,232 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Accumulates the bounds of a multiset of values that supports removal as
+ * well as addition, so the extent of an editable dataset can be kept
+ * current without rescanning it.
+ * <p>
+ * Values are counted in a primitive hash multiset, and the extremes are
+ * kept in a min-heap and a max-heap of distinct values.  Heap entries for
+ * values whose count drops to zero are discarded lazily when they reach
+ * the top, so add, remove and replace each cost O(log n) amortized and
+ * reading the bounds is O(1).  Invalid values (Dval, NaN, infinite) are
+ * ignored.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class BoundsAccumulator {
+  private final DoubleCountMap counts = new DoubleCountMap();
+  private final Heap minima = new Heap();
+  private final Heap maxima = new Heap(); // holds negated values
+  private long count;
+
+  public static BoundsAccumulator create() {
+    return new BoundsAccumulator();
+  }
+
+  private BoundsAccumulator() {
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " count=" + count + " " + getBounds().boundsText();
+  }
+
+  /**
+   * Add a value.
+   *
+   * @param value value to add
+   * @return true if the value was added, false if it is invalid
+   */
+  public boolean add(double value) {
+    if (!Dval.isValid.test(value))
+      return false;
+    if (counts.increment(value) == 1) {
+      double normalized = value == 0.0 ? 0.0 : value;
+      minima.push(normalized);
+      maxima.push(-normalized);
+      if (minima.size() > 2 * counts.distinct() + 16)
+        rebuildHeaps();
+    }
+    count++;
+    return true;
+  }
+
+  /**
+   * Add all valid values of the array.
+   *
+   * @param values values to add
+   */
+  public void add(double[] values) {
+    Objects.requireNonNull(values, "values");
+    for (double value : values)
+      add(value);
+  }
+
+  /**
+   * Remove one occurrence of a value.
+   *
+   * @param value value to remove
+   * @return true if the value was present and removed, false otherwise
+   */
+  public boolean remove(double value) {
+    if (!Dval.isValid.test(value))
+      return false;
+    int remaining = counts.decrement(value);
+    if (remaining < 0)
+      return false;
+    count--;
+    if (remaining == 0)
+      prune();
+    return true;
+  }
+
+  /**
+   * Replace one occurrence of oldValue with newValue, e.g. when a value
+   * in the dataset is edited.  Either value may be invalid, in which case
+   * only the other takes effect.
+   *
+   * @param oldValue value being replaced
+   * @param newValue replacement value
+   * @throws IllegalArgumentException if oldValue is valid but not present
+   */
+  public void replace(double oldValue, double newValue) {
+    if (Dval.isValid.test(oldValue) && !remove(oldValue))
+      throw new IllegalArgumentException("value not present: " + oldValue);
+    add(newValue);
+  }
+
+  /**
+   * Return the number of occurrences of a value.
+   *
+   * @param value value
+   * @return number of occurrences
+   */
+  public int count(double value) {
+    if (!Dval.isValid.test(value))
+      return 0;
+    return counts.get(value);
+  }
+
+  /**
+   * @return number of valid values held
+   */
+  public long count() {
+    return count;
+  }
+
+  /**
+   * @return true if at least one valid value is held
+   */
+  public boolean isValid() {
+    return count > 0;
+  }
+
+  /**
+   * @return minimum value held, or Dval if none
+   */
+  public double getMin() {
+    return count == 0 ? Dval.DVAL_DOUBLE : minima.top();
+  }
+
+  /**
+   * @return maximum value held, or Dval if none
+   */
+  public double getMax() {
+    return count == 0 ? Dval.DVAL_DOUBLE : -maxima.top();
+  }
+
+  /**
+   * Return a snapshot of the bounds of the values held.
+   *
+   * @return bounds of the values, or null bounds if none are held
+   */
+  public Bounds getBounds() {
+    if (count == 0)
+      return Bounds.nullBounds();
+    return Bounds.of(getMin(), getMax());
+  }
+
+  /**
+   * Remove all values.
+   */
+  public void clear() {
+    counts.clear();
+    minima.clear();
+    maxima.clear();
+    count = 0;
+  }
+
+  private void prune() {
+    while (minima.size() > 0 && counts.get(minima.top()) == 0)
+      minima.pop();
+    while (maxima.size() > 0 && counts.get(-maxima.top()) == 0)
+      maxima.pop();
+  }
+
+  private void rebuildHeaps() {
+    double[] values = new double[counts.distinct()];
+    counts.values(values);
+    minima.clear();
+    maxima.clear();
+    for (double value : values) {
+      minima.push(value);
+      maxima.push(-value);
+    }
+  }
+
+  /**
+   * Binary min-heap of doubles.
+   */
+  private static final class Heap {
+    private double[] heap = new double[16];
+    private int size;
+
+    int size() {
+      return size;
+    }
+
+    double top() {
+      return heap[0];
+    }
+
+    void push(double value) {
+      if (size == heap.length)
+        heap = Arrays.copyOf(heap, 2 * size);
+      int i = size++;
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (heap[parent] <= value)
+          break;
+        heap[i] = heap[parent];
+        i = parent;
+      }
+      heap[i] = value;
+    }
+
+    void pop() {
+      double last = heap[--size];
+      int i = 0;
+      int half = size >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && heap[child + 1] < heap[child])
+          child++;
+        if (last <= heap[child])
+          break;
+        heap[i] = heap[child];
+        i = child;
+      }
+      heap[i] = last;
+    }
+
+    void clear() {
+      size = 0;
+    }
+  }
+}
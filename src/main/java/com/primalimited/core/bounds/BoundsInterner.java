@@ -0,0 +1,102 @@
+package com.primalimited.core.bounds;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pool of canonical immutable {@link Bounds}, so that bounds which recur,
+ * e.g. tile extents or the constants of {@link Bounds}, share one instance.
+ * Interned bounds compare equal by value, so they may be used as keys for
+ * memoized range queries; interning additionally allows identity
+ * comparison and removes duplicates from the heap.
+ * <p>
+ * The pool holds strong references to every interned bounds until it is
+ * cleared, so use one pool per bounded set of values, not one for
+ * arbitrary data.  Instances are thread safe.
+ */
+public final class BoundsInterner {
+  private final ConcurrentMap<Bounds, Bounds> pool = new ConcurrentHashMap<>();
+
+  /**
+   * @return new, empty pool
+   */
+  public static BoundsInterner create() {
+    return new BoundsInterner();
+  }
+
+  /**
+   * Create a pool that already holds the constants of {@link Bounds}, e.g.
+   * {@link Bounds#PERCENT}, so that equal bounds intern to the constants.
+   * Constants with the same value, e.g. {@link Bounds#PROBABILITY} and
+   * {@link Bounds#FRACTION}, intern to the first.
+   *
+   * @return new pool holding the constants
+   */
+  public static BoundsInterner withConstants() {
+    BoundsInterner interner = new BoundsInterner();
+    Bounds[] constants = {
+        Bounds.PROBABILITY, Bounds.FRACTION, Bounds.PERCENT, Bounds.DEGREES,
+        Bounds.LATITUDE, Bounds.LONGITUDE, Bounds.RADIANS, Bounds.RGB_8_BIT,
+    };
+    for (Bounds constant : constants)
+      interner.intern(constant);
+    return interner;
+  }
+
+  private BoundsInterner() {
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size();
+  }
+
+  /**
+   * Return the canonical instance of bounds equal to min and max.
+   *
+   * @param min min value; must be finite and &lt;= max
+   * @param max max value; must be finite and &gt;= min
+   * @return canonical immutable bounds
+   * @throws IllegalArgumentException if min or max is invalid, or if
+   * min &gt; max.
+   */
+  public Bounds intern(double min, double max) {
+    return canonical(ImmutableBounds.of(min, max));
+  }
+
+  /**
+   * Return the canonical instance of immutable bounds with the same values
+   * as the given bounds, which may be of any implementation.
+   *
+   * @param bounds bounds to intern
+   * @return canonical immutable bounds, or bounds itself if it is invalid
+   */
+  public Bounds intern(Bounds bounds) {
+    Objects.requireNonNull(bounds, "bounds");
+    if (!bounds.isValid())
+      return bounds;
+    if (bounds.getClass() != ImmutableBounds.class)
+      bounds = ImmutableBounds.of(bounds);
+    return canonical(bounds);
+  }
+
+  private Bounds canonical(Bounds bounds) {
+    Bounds existing = pool.putIfAbsent(bounds, bounds);
+    return existing == null ? bounds : existing;
+  }
+
+  /**
+   * @return number of canonical instances
+   */
+  public int size() {
+    return pool.size();
+  }
+
+  /**
+   * Remove all canonical instances; bounds already interned remain valid.
+   */
+  public void clear() {
+    pool.clear();
+  }
+}
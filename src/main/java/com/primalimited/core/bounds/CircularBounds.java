@@ -0,0 +1,386 @@
+package com.primalimited.core.bounds;
+
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Immutable arc of a circular quantity, e.g. a range of bearings, that may
+ * cross zero (e.g. 350 to 10 degrees), which {@link Bounds} cannot
+ * represent because it requires min &lt;= max.
+ * <p>
+ * An arc is a start in [0, modulus) and an extent in [0, modulus], running
+ * in the increasing direction; it includes both end points, as
+ * {@link Bounds} does.  Values are reduced modulo the modulus with
+ * arithmetic only, so containment tests need no trigonometric calls.
+ */
+public final class CircularBounds {
+  private final double start;
+  private final double extent;
+  private final double modulus;
+
+  /**
+   * Create the arc from start to end in the increasing direction.  Both
+   * are reduced modulo the modulus; if they coincide the arc is the single
+   * value.
+   *
+   * @param start start of the arc
+   * @param end end of the arc
+   * @param modulus period, e.g. 360 for degrees
+   * @return new arc
+   * @throws IllegalArgumentException if an argument is invalid, or
+   * modulus &lt;= 0
+   */
+  public static CircularBounds of(double start, double end, double modulus) {
+    validate(start, "start");
+    validate(end, "end");
+    validateModulus(modulus);
+    double s = reduce(start, modulus);
+    double extent = reduce(end, modulus) - s;
+    if (extent < 0)
+      extent += modulus;
+    return new CircularBounds(s, extent, modulus);
+  }
+
+  /**
+   * Create the arc of the given extent from start in the increasing
+   * direction.
+   *
+   * @param start start of the arc
+   * @param extent length of the arc, in [0, modulus]
+   * @param modulus period, e.g. 360 for degrees
+   * @return new arc
+   * @throws IllegalArgumentException if an argument is invalid, modulus
+   * &lt;= 0, or extent is not in [0, modulus]
+   */
+  public static CircularBounds ofExtent(double start, double extent, double modulus) {
+    validate(start, "start");
+    validate(extent, "extent");
+    validateModulus(modulus);
+    if (extent < 0 || extent > modulus)
+      throw new IllegalArgumentException("extent (" + extent + ") must be in [0, " + modulus + "]");
+    return new CircularBounds(reduce(start, modulus), extent, modulus);
+  }
+
+  /**
+   * @param modulus period, e.g. 360 for degrees
+   * @return the whole circle
+   * @throws IllegalArgumentException if modulus is invalid or &lt;= 0
+   */
+  public static CircularBounds full(double modulus) {
+    validateModulus(modulus);
+    return new CircularBounds(0, modulus, modulus);
+  }
+
+  /**
+   * @param start start of the arc, in degrees
+   * @param end end of the arc, in degrees
+   * @return new arc of degrees, modulus 360
+   * @throws IllegalArgumentException if an argument is invalid
+   */
+  public static CircularBounds degrees(double start, double end) {
+    return of(start, end, Bounds.DEGREES.getMax());
+  }
+
+  /**
+   * @param start start of the arc, in radians
+   * @param end end of the arc, in radians
+   * @return new arc of radians, modulus 2 pi
+   * @throws IllegalArgumentException if an argument is invalid
+   */
+  public static CircularBounds radians(double start, double end) {
+    return of(start, end, Bounds.RADIANS.getMax());
+  }
+
+  private static void validate(double value, String name) {
+    if (!Dval.isValid.test(value))
+      throw new IllegalArgumentException(name + " is invalid (" + value + ")");
+  }
+
+  private static void validateModulus(double modulus) {
+    if (!Dval.isValid.test(modulus) || modulus <= 0)
+      throw new IllegalArgumentException("modulus (" + modulus + ") must be finite and > 0");
+  }
+
+  /*
+   * value reduced to [0, modulus)
+   */
+  private static double reduce(double value, double modulus) {
+    double reduced = value % modulus;
+    if (reduced < 0)
+      reduced += modulus;
+    return reduced < modulus ? reduced : 0.0;
+  }
+
+  private CircularBounds(double start, double extent, double modulus) {
+    this.start = start;
+    this.extent = extent;
+    this.modulus = modulus;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " " + boundsText();
+  }
+
+  /**
+   * @return descriptive bounds text, e.g. [350..10 mod 360]
+   */
+  public String boundsText() {
+    NumberFormat nf = NumberFormat.getInstance();
+    return "[" + nf.format(start) + ".." + nf.format(getEnd()) + " mod " + nf.format(modulus) + "]";
+  }
+
+  /**
+   * @return start of the arc, in [0, modulus)
+   */
+  public double getStart() {
+    return start;
+  }
+
+  /**
+   * @return end of the arc, in [0, modulus)
+   */
+  public double getEnd() {
+    return reduce(start + extent, modulus);
+  }
+
+  /**
+   * @return length of the arc, in [0, modulus]
+   */
+  public double getExtent() {
+    return extent;
+  }
+
+  public double getModulus() {
+    return modulus;
+  }
+
+  /**
+   * @return true if the arc is the whole circle
+   */
+  public boolean isFull() {
+    return extent >= modulus;
+  }
+
+  /**
+   * @return true if the arc passes through zero after its start
+   */
+  public boolean crossesZero() {
+    return start + extent >= modulus;
+  }
+
+  /**
+   * Returns true if this arc contains the given value, after reducing it
+   * modulo the modulus.
+   *
+   * @param value value to test
+   * @return true if the arc contains the value, false otherwise or if the
+   * value is invalid
+   */
+  public boolean contains(double value) {
+    if (!Dval.isValid.test(value))
+      return false;
+    return offset(value) <= extent;
+  }
+
+  /**
+   * Test each value of an array for containment, as
+   * {@link #contains(double)}.
+   *
+   * @param values values to test
+   * @param result receives true for each value the arc contains
+   * @return number of values contained
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public int contains(double[] values, boolean[] result) {
+    Objects.requireNonNull(values, "values");
+    Objects.requireNonNull(result, "result");
+    if (values.length != result.length)
+      throw new IllegalArgumentException("values.length (" + values.length + ") != result.length (" + result.length + ")");
+    int count = 0;
+    for (int i = 0; i < values.length; i++) {
+      double value = values[i];
+      /* NaN compares false; Dval and infinities give NaN or values beyond the extent */
+      double offset = (value - start) % modulus;
+      if (offset < 0)
+        offset += modulus;
+      boolean inside = offset <= extent || offset >= modulus;
+      inside &= value != Dval.DVAL_DOUBLE && value - value == 0.0;
+      result[i] = inside;
+      if (inside)
+        count++;
+    }
+    return count;
+  }
+
+  /**
+   * Returns true if this arc and the other arc share at least one value.
+   *
+   * @param other other arc, with the same modulus
+   * @return true if the arcs overlap
+   * @throws IllegalArgumentException if the moduli differ
+   */
+  public boolean overlaps(CircularBounds other) {
+    Objects.requireNonNull(other);
+    checkModulus(other);
+    return offset(other.start) <= extent || other.offset(start) <= other.extent;
+  }
+
+  /**
+   * Returns true if this arc contains every value of the other arc.
+   *
+   * @param other other arc, with the same modulus
+   * @return true if this arc contains the other
+   * @throws IllegalArgumentException if the moduli differ
+   */
+  public boolean contains(CircularBounds other) {
+    Objects.requireNonNull(other);
+    checkModulus(other);
+    if (isFull())
+      return true;
+    if (other.isFull())
+      return false;
+    return offset(other.start) + other.extent <= extent;
+  }
+
+  /**
+   * Return the shortest arc that contains this arc and the given value.
+   *
+   * @param value value to include
+   * @return this arc if it contains the value or the value is invalid,
+   * otherwise a new, expanded arc
+   */
+  public CircularBounds expandTo(double value) {
+    if (!Dval.isValid.test(value) || contains(value))
+      return this;
+    double forward = offset(value); // extend the end up to the value
+    double backward = reduce(start - value, modulus); // extend the start back to the value
+    if (forward - extent <= backward)
+      return new CircularBounds(start, forward, modulus);
+    return new CircularBounds(reduce(value, modulus), Math.min(modulus, extent + backward), modulus);
+  }
+
+  /**
+   * Convert to linear bounds in [0, modulus]: one bounds if the arc does
+   * not cross zero, otherwise [start, modulus] and [0, end].
+   *
+   * @return one or two new instances of Bounds
+   */
+  public List<Bounds> toLinear() {
+    List<Bounds> linear = new ArrayList<>(2);
+    if (isFull()) {
+      linear.add(Bounds.of(0, modulus));
+    } else if (!crossesZero()) {
+      linear.add(Bounds.of(start, start + extent));
+    } else {
+      linear.add(Bounds.of(start, modulus));
+      linear.add(Bounds.of(0, Math.min(modulus, start + extent - modulus)));
+    }
+    return linear;
+  }
+
+  /**
+   * Merge any overlapping arcs into disjoint arcs.
+   *
+   * @param arcs arcs, all with the same modulus
+   * @return merged arcs, in ascending order of start
+   * @throws IllegalArgumentException if the moduli differ
+   */
+  public static List<CircularBounds> mergeOverlapping(Collection<CircularBounds> arcs) {
+    Objects.requireNonNull(arcs);
+    List<CircularBounds> merged = new ArrayList<>();
+    if (arcs.isEmpty())
+      return merged;
+    double modulus = arcs.iterator().next().modulus;
+
+    /* merge linear pieces in [0, modulus] */
+    List<double[]> pieces = new ArrayList<>();
+    for (CircularBounds arc : arcs) {
+      if (arc.modulus != modulus)
+        throw new IllegalArgumentException("moduli differ: " + modulus + ", " + arc.modulus);
+      for (Bounds piece : arc.toLinear())
+        pieces.add(new double[] { piece.getMin(), piece.getMax() });
+    }
+    Collections.sort(pieces, (p1, p2) -> Double.compare(p1[0], p2[0]));
+    List<double[]> linear = new ArrayList<>();
+    double[] current = pieces.get(0).clone();
+    for (double[] piece : pieces) {
+      if (piece[0] <= current[1]) {
+        current[1] = Math.max(current[1], piece[1]);
+      } else {
+        linear.add(current);
+        current = piece.clone();
+      }
+    }
+    linear.add(current);
+
+    if (linear.size() == 1 && linear.get(0)[0] == 0 && linear.get(0)[1] >= modulus) {
+      merged.add(full(modulus));
+      return merged;
+    }
+
+    /* rejoin the pieces either side of zero */
+    double[] first = linear.get(0);
+    double[] last = linear.get(linear.size() - 1);
+    boolean wraps = linear.size() > 1 && first[0] == 0 && last[1] >= modulus;
+    int from = wraps ? 1 : 0;
+    int to = wraps ? linear.size() - 1 : linear.size();
+    for (int i = from; i < to; i++) {
+      double[] piece = linear.get(i);
+      merged.add(new CircularBounds(reduce(piece[0], modulus), piece[1] - piece[0], modulus));
+    }
+    if (wraps)
+      merged.add(new CircularBounds(last[0], (modulus - last[0]) + first[1], modulus));
+    return merged;
+  }
+
+  /**
+   * Return the shortest arc that contains all of the given arcs, i.e. the
+   * circle less the largest gap between them.
+   *
+   * @param arcs arcs, all with the same modulus
+   * @return shortest covering arc
+   * @throws IllegalArgumentException if arcs is empty or the moduli differ
+   */
+  public static CircularBounds minimalCover(Collection<CircularBounds> arcs) {
+    Objects.requireNonNull(arcs);
+    if (arcs.isEmpty())
+      throw new IllegalArgumentException("arcs is empty");
+    List<CircularBounds> merged = mergeOverlapping(arcs);
+    if (merged.size() == 1)
+      return merged.get(0);
+
+    double modulus = merged.get(0).modulus;
+    int n = merged.size();
+    int after = 0; // arc following the largest gap
+    double largest = -1;
+    for (int i = 0; i < n; i++) {
+      CircularBounds arc = merged.get(i);
+      CircularBounds next = merged.get((i + 1) % n);
+      double gap = reduce(next.start - (arc.start + arc.extent), modulus);
+      if (gap > largest) {
+        largest = gap;
+        after = (i + 1) % n;
+      }
+    }
+    return ofExtent(merged.get(after).start, modulus - largest, modulus);
+  }
+
+  /*
+   * distance from start to value in the increasing direction, in [0, modulus)
+   */
+  private double offset(double value) {
+    return reduce(value - start, modulus);
+  }
+
+  private void checkModulus(CircularBounds other) {
+    if (other.modulus != modulus)
+      throw new IllegalArgumentException("moduli differ: " + modulus + ", " + other.modulus);
+  }
+}
@@ -0,0 +1,327 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Bounds of every column of a row-major matrix, computed in a single pass
+ * over the data.  Each row is read sequentially and updates the minimum and
+ * maximum of all columns at once, so no column is extracted into a
+ * temporary array and the matrix is traversed once rather than once per
+ * column.  Invalid values (Dval, NaN, infinite) are skipped.
+ * <p>
+ * The parallel factories split the rows across the common fork/join pool
+ * and merge the per-task results.
+ */
+public final class ColumnBounds {
+  /* below this many values per task the parallel factories run sequentially */
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  private final double[] mins;
+  private final double[] maxs;
+
+  /**
+   * Compute the bounds of each column of a matrix given as an array of
+   * rows.  Rows may differ in length; the number of columns is the length
+   * of the longest row.
+   *
+   * @param rows matrix rows
+   * @return bounds of each column
+   */
+  public static ColumnBounds of(double[][] rows) {
+    Objects.requireNonNull(rows, "rows");
+    ColumnBounds bounds = new ColumnBounds(maxLength(rows));
+    bounds.accumulate(rows, 0, rows.length);
+    return bounds.finish();
+  }
+
+  /**
+   * Compute the bounds of each column of a matrix given as an array of
+   * rows, splitting the rows across cores.
+   *
+   * @param rows matrix rows
+   * @return bounds of each column
+   */
+  public static ColumnBounds parallel(double[][] rows) {
+    Objects.requireNonNull(rows, "rows");
+    int columns = maxLength(rows);
+    ColumnBounds bounds = ForkJoinPool.commonPool().invoke(new Task(rows, null, 0, columns, 0, 0, rows.length));
+    return bounds.finish();
+  }
+
+  /**
+   * Compute the bounds of each column of a flat row-major matrix whose
+   * rows are stored contiguously.
+   *
+   * @param data matrix values, row after row
+   * @param columns number of columns
+   * @return bounds of each column
+   * @throws IllegalArgumentException if columns &lt;= 0 or data.length is
+   * not a multiple of columns
+   */
+  public static ColumnBounds of(double[] data, int columns) {
+    Objects.requireNonNull(data, "data");
+    return of(data, 0, rows(data, columns), columns, columns);
+  }
+
+  /**
+   * Compute the bounds of each column of a flat row-major matrix whose
+   * rows are stored contiguously, splitting the rows across cores.
+   *
+   * @param data matrix values, row after row
+   * @param columns number of columns
+   * @return bounds of each column
+   * @throws IllegalArgumentException if columns &lt;= 0 or data.length is
+   * not a multiple of columns
+   */
+  public static ColumnBounds parallel(double[] data, int columns) {
+    Objects.requireNonNull(data, "data");
+    return parallel(data, 0, rows(data, columns), columns, columns);
+  }
+
+  /**
+   * Compute the bounds of each column of a flat row-major matrix, where
+   * row r starts at index offset + r * stride.
+   *
+   * @param data matrix values
+   * @param offset index of the first value of the first row
+   * @param rows number of rows
+   * @param columns number of columns
+   * @param stride distance between the starts of consecutive rows, &gt;=
+   * columns
+   * @return bounds of each column
+   * @throws IllegalArgumentException if the layout is invalid or does not
+   * fit in the data
+   */
+  public static ColumnBounds of(double[] data, int offset, int rows, int columns, int stride) {
+    Objects.requireNonNull(data, "data");
+    validate(data, offset, rows, columns, stride);
+    ColumnBounds bounds = new ColumnBounds(columns);
+    bounds.accumulate(data, offset, columns, stride, 0, rows);
+    return bounds.finish();
+  }
+
+  /**
+   * Compute the bounds of each column of a flat row-major matrix, where
+   * row r starts at index offset + r * stride, splitting the rows across
+   * cores.
+   *
+   * @param data matrix values
+   * @param offset index of the first value of the first row
+   * @param rows number of rows
+   * @param columns number of columns
+   * @param stride distance between the starts of consecutive rows, &gt;=
+   * columns
+   * @return bounds of each column
+   * @throws IllegalArgumentException if the layout is invalid or does not
+   * fit in the data
+   */
+  public static ColumnBounds parallel(double[] data, int offset, int rows, int columns, int stride) {
+    Objects.requireNonNull(data, "data");
+    validate(data, offset, rows, columns, stride);
+    ColumnBounds bounds = ForkJoinPool.commonPool().invoke(new Task(null, data, offset, columns, stride, 0, rows));
+    return bounds.finish();
+  }
+
+  private static int maxLength(double[][] rows) {
+    int columns = 0;
+    for (double[] row : rows)
+      columns = Math.max(columns, Objects.requireNonNull(row, "row").length);
+    return columns;
+  }
+
+  private static int rows(double[] data, int columns) {
+    if (columns <= 0)
+      throw new IllegalArgumentException("columns (" + columns + ") must be > 0");
+    if (data.length % columns != 0)
+      throw new IllegalArgumentException("data.length (" + data.length + ") is not a multiple of columns (" + columns + ")");
+    return data.length / columns;
+  }
+
+  private static void validate(double[] data, int offset, int rows, int columns, int stride) {
+    if (columns <= 0)
+      throw new IllegalArgumentException("columns (" + columns + ") must be > 0");
+    if (rows < 0)
+      throw new IllegalArgumentException("rows (" + rows + ") must be >= 0");
+    if (stride < columns)
+      throw new IllegalArgumentException("stride (" + stride + ") must be >= columns (" + columns + ")");
+    if (offset < 0)
+      throw new IllegalArgumentException("offset (" + offset + ") must be >= 0");
+    long end = rows == 0 ? offset : offset + (long) (rows - 1) * stride + columns;
+    if (end > data.length)
+      throw new IllegalArgumentException("matrix of " + rows + " rows, stride " + stride + " at offset " + offset + " exceeds data.length (" + data.length + ")");
+  }
+
+  private ColumnBounds(int columns) {
+    mins = new double[columns];
+    maxs = new double[columns];
+    Arrays.fill(mins, Double.POSITIVE_INFINITY);
+    Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " columns=" + columns();
+  }
+
+  /**
+   * @return number of columns
+   */
+  public int columns() {
+    return mins.length;
+  }
+
+  /**
+   * @param column column index
+   * @return minimum valid value of the column, or Dval if none
+   */
+  public double getMin(int column) {
+    return mins[column];
+  }
+
+  /**
+   * @param column column index
+   * @return maximum valid value of the column, or Dval if none
+   */
+  public double getMax(int column) {
+    return maxs[column];
+  }
+
+  /**
+   * @param column column index
+   * @return new instance of Bounds of the column, or null bounds if the
+   * column has no valid values
+   */
+  public Bounds getBounds(int column) {
+    if (Dval.isDval(mins[column]))
+      return Bounds.nullBounds();
+    return Bounds.of(mins[column], maxs[column]);
+  }
+
+  /**
+   * @return copy of the column minimums, Dval for columns without valid
+   * values
+   */
+  public double[] getMins() {
+    return mins.clone();
+  }
+
+  /**
+   * @return copy of the column maximums, Dval for columns without valid
+   * values
+   */
+  public double[] getMaxs() {
+    return maxs.clone();
+  }
+
+  /**
+   * @return new instance of Bounds for each column
+   */
+  public Bounds[] toBounds() {
+    Bounds[] bounds = new Bounds[columns()];
+    for (int column = 0; column < bounds.length; column++)
+      bounds[column] = getBounds(column);
+    return bounds;
+  }
+
+  private void accumulate(double[][] rows, int from, int to) {
+    for (int r = from; r < to; r++) {
+      double[] row = rows[r];
+      accumulateRow(row, 0, row.length);
+    }
+  }
+
+  private void accumulate(double[] data, int offset, int columns, int stride, int from, int to) {
+    for (int r = from; r < to; r++)
+      accumulateRow(data, offset + r * stride, columns);
+  }
+
+  private void accumulateRow(double[] data, int start, int columns) {
+    double[] mins = this.mins;
+    double[] maxs = this.maxs;
+    for (int c = 0; c < columns; c++) {
+      double value = data[start + c];
+      /* value - value is NaN for NaN and infinite values */
+      if (value - value != 0.0 || value == Dval.DVAL_DOUBLE)
+        continue;
+      if (value < mins[c])
+        mins[c] = value;
+      if (value > maxs[c])
+        maxs[c] = value;
+    }
+  }
+
+  private void merge(ColumnBounds other) {
+    for (int c = 0; c < mins.length; c++) {
+      mins[c] = Math.min(mins[c], other.mins[c]);
+      maxs[c] = Math.max(maxs[c], other.maxs[c]);
+    }
+  }
+
+  private ColumnBounds finish() {
+    for (int c = 0; c < mins.length; c++) {
+      if (mins[c] > maxs[c]) {
+        mins[c] = Dval.DVAL_DOUBLE;
+        maxs[c] = Dval.DVAL_DOUBLE;
+      }
+    }
+    return this;
+  }
+
+  @SuppressWarnings("serial")
+  private static final class Task extends RecursiveTask<ColumnBounds> {
+    private final double[][] rows;
+    private final double[] data;
+    private final int offset;
+    private final int columns;
+    private final int stride;
+    private final int rowThreshold;
+    private final int from;
+    private final int to;
+
+    Task(double[][] rows, double[] data, int offset, int columns, int stride, int from, int to) {
+      this.rows = rows;
+      this.data = data;
+      this.offset = offset;
+      this.columns = columns;
+      this.stride = stride;
+      this.rowThreshold = Math.max(1, PARALLEL_THRESHOLD / Math.max(1, columns));
+      this.from = from;
+      this.to = to;
+    }
+
+    private Task(Task parent, int from, int to) {
+      this.rows = parent.rows;
+      this.data = parent.data;
+      this.offset = parent.offset;
+      this.columns = parent.columns;
+      this.stride = parent.stride;
+      this.rowThreshold = parent.rowThreshold;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected ColumnBounds compute() {
+      if (to - from <= rowThreshold) {
+        ColumnBounds bounds = new ColumnBounds(columns);
+        if (rows != null)
+          bounds.accumulate(rows, from, to);
+        else
+          bounds.accumulate(data, offset, columns, stride, from, to);
+        return bounds;
+      }
+      int mid = (from + to) >>> 1;
+      Task left = new Task(this, from, mid);
+      Task right = new Task(this, mid, to);
+      right.fork();
+      ColumnBounds bounds = left.compute();
+      bounds.merge(right.join());
+      return bounds;
+    }
+  }
+}
@@ -0,0 +1,251 @@
+package com.primalimited.core.bounds;
+
+import java.util.Objects;
+import java.util.concurrent.locks.StampedLock;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Thread-safe spatial bounds, e.g. the extent of data shared by a writer
+ * and many reader threads.  Unlike reading the four getters of a shared
+ * {@link Bounds2D}, every read here sees a consistent set of four values.
+ * <p>
+ * Reads are optimistic ({@link StampedLock#tryOptimisticRead()}): they take
+ * no lock and do not contend with each other, and only retry under a read
+ * lock if a write intervened.  Writes take the write lock; an expand that
+ * would not change the bounds is detected with an optimistic read and
+ * takes no lock.  Semantics match {@link Bounds2D}: containment is
+ * inclusive, and the bounds are invalid until first set or expanded.
+ */
+public final class ConcurrentBounds2D {
+  private final StampedLock lock = new StampedLock();
+  /* empty is +/-infinity, so expanding needs no special case */
+  private double minX = Double.POSITIVE_INFINITY;
+  private double maxX = Double.NEGATIVE_INFINITY;
+  private double minY = Double.POSITIVE_INFINITY;
+  private double maxY = Double.NEGATIVE_INFINITY;
+
+  /**
+   * @return new, invalid bounds
+   */
+  public static ConcurrentBounds2D create() {
+    return new ConcurrentBounds2D();
+  }
+
+  /**
+   * @param bounds initial bounds
+   * @return new bounds, with the values of bounds if it is valid
+   */
+  public static ConcurrentBounds2D of(Bounds2D bounds) {
+    Objects.requireNonNull(bounds, "bounds");
+    ConcurrentBounds2D concurrent = new ConcurrentBounds2D();
+    if (bounds.isValid())
+      concurrent.set(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY());
+    return concurrent;
+  }
+
+  private ConcurrentBounds2D() {
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " " + snapshot();
+  }
+
+  /**
+   * Read a consistent copy of the four values.
+   *
+   * @param out receives minX, maxX, minY, maxY, or Dval values if the bounds
+   * are invalid; length &gt;= 4
+   * @return true if the bounds are valid
+   * @throws IllegalArgumentException if out.length &lt; 4
+   */
+  public boolean read(double[] out) {
+    Objects.requireNonNull(out, "out");
+    if (out.length < 4)
+      throw new IllegalArgumentException("out.length (" + out.length + ") < 4");
+    long stamp = lock.tryOptimisticRead();
+    double x0 = minX, x1 = maxX, y0 = minY, y1 = maxY;
+    if (!lock.validate(stamp)) {
+      stamp = lock.readLock();
+      try {
+        x0 = minX; x1 = maxX; y0 = minY; y1 = maxY;
+      } finally {
+        lock.unlockRead(stamp);
+      }
+    }
+    boolean valid = x0 <= x1 && y0 <= y1;
+    out[0] = valid ? x0 : Dval.DVAL_DOUBLE;
+    out[1] = valid ? x1 : Dval.DVAL_DOUBLE;
+    out[2] = valid ? y0 : Dval.DVAL_DOUBLE;
+    out[3] = valid ? y1 : Dval.DVAL_DOUBLE;
+    return valid;
+  }
+
+  /**
+   * @return new Bounds2D with a consistent copy of the values; invalid
+   * (empty) if these bounds are invalid
+   */
+  public Bounds2D snapshot() {
+    double[] values = new double[4];
+    if (!read(values))
+      return Bounds2D.empty();
+    return Bounds2D.create(values[0], values[1], values[2], values[3]);
+  }
+
+  /**
+   * @return true if the bounds have been set or expanded to a location
+   */
+  public boolean isValid() {
+    long stamp = lock.tryOptimisticRead();
+    boolean valid = minX <= maxX && minY <= maxY;
+    if (lock.validate(stamp))
+      return valid;
+    stamp = lock.readLock();
+    try {
+      return minX <= maxX && minY <= maxY;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * @param x x coordinate
+   * @param y y coordinate
+   * @return true if the bounds are valid and contain the location
+   */
+  public boolean contains(double x, double y) {
+    long stamp = lock.tryOptimisticRead();
+    boolean contains = x >= minX && x <= maxX && y >= minY && y <= maxY;
+    if (lock.validate(stamp))
+      return contains;
+    stamp = lock.readLock();
+    try {
+      return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * @param other other bounds
+   * @return true if both bounds are valid and intersect, as
+   * {@link Bounds2D#intersects(Bounds2D)}
+   */
+  public boolean intersects(Bounds2D other) {
+    Objects.requireNonNull(other, "other");
+    if (!other.isValid())
+      return false;
+    double ox0 = other.getMinX(), ox1 = other.getMaxX(), oy0 = other.getMinY(), oy1 = other.getMaxY();
+    long stamp = lock.tryOptimisticRead();
+    boolean intersects = minX <= maxX && minY <= maxY
+        && ox0 <= maxX && ox1 >= minX && oy0 <= maxY && oy1 >= minY;
+    if (lock.validate(stamp))
+      return intersects;
+    stamp = lock.readLock();
+    try {
+      return minX <= maxX && minY <= maxY
+          && ox0 <= maxX && ox1 >= minX && oy0 <= maxY && oy1 >= minY;
+    } finally {
+      lock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Atomically expand the bounds to include a location.
+   *
+   * @param x x coordinate
+   * @param y y coordinate
+   */
+  public void expandTo(double x, double y) {
+    if (!Dval.isValid.test(x) || !Dval.isValid.test(y))
+      return;
+    expand(x, x, y, y);
+  }
+
+  /**
+   * Atomically expand the bounds to include other bounds.
+   *
+   * @param other other bounds; ignored if invalid
+   */
+  public void expandTo(Bounds2D other) {
+    Objects.requireNonNull(other, "other");
+    if (!other.isValid())
+      return;
+    expand(other.getMinX(), other.getMaxX(), other.getMinY(), other.getMaxY());
+  }
+
+  /**
+   * Atomically expand the bounds to include a rectangle.
+   *
+   * @param minX min x
+   * @param maxX max x
+   * @param minY min y
+   * @param maxY max y
+   * @throws IllegalArgumentException if the values are not valid bounds
+   */
+  public void expandTo(double minX, double maxX, double minY, double maxY) {
+    validate(minX, maxX, minY, maxY);
+    expand(minX, maxX, minY, maxY);
+  }
+
+  private void expand(double x0, double x1, double y0, double y1) {
+    long stamp = lock.tryOptimisticRead();
+    boolean inside = x0 >= minX && x1 <= maxX && y0 >= minY && y1 <= maxY;
+    if (inside && lock.validate(stamp))
+      return;
+    stamp = lock.writeLock();
+    try {
+      minX = Math.min(minX, x0);
+      maxX = Math.max(maxX, x1);
+      minY = Math.min(minY, y0);
+      maxY = Math.max(maxY, y1);
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Atomically replace the bounds.
+   *
+   * @param minX min x
+   * @param maxX max x
+   * @param minY min y
+   * @param maxY max y
+   * @throws IllegalArgumentException if the values are not valid bounds
+   */
+  public void set(double minX, double maxX, double minY, double maxY) {
+    validate(minX, maxX, minY, maxY);
+    long stamp = lock.writeLock();
+    try {
+      this.minX = minX;
+      this.maxX = maxX;
+      this.minY = minY;
+      this.maxY = maxY;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  /**
+   * Atomically make the bounds invalid, as when created.
+   */
+  public void reset() {
+    long stamp = lock.writeLock();
+    try {
+      minX = Double.POSITIVE_INFINITY;
+      maxX = Double.NEGATIVE_INFINITY;
+      minY = Double.POSITIVE_INFINITY;
+      maxY = Double.NEGATIVE_INFINITY;
+    } finally {
+      lock.unlockWrite(stamp);
+    }
+  }
+
+  private static void validate(double minX, double maxX, double minY, double maxY) {
+    if (!Bounds.valid(minX, maxX))
+      throw new IllegalArgumentException("x bounds invalid: [" + minX + ".." + maxX + "]");
+    if (!Bounds.valid(minY, maxY))
+      throw new IllegalArgumentException("y bounds invalid: [" + minY + ".." + maxY + "]");
+  }
+}
@@ -0,0 +1,134 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing multiset of double values (value to count), using linear
+ * probing with backward-shift deletion so removals leave no tombstones.
+ * Negative zero is counted as positive zero.
+ */
+final class DoubleCountMap {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] keys;
+  private int[] counts;
+  private int mask;
+  private int distinct;
+
+  DoubleCountMap() {
+    keys = new long[INITIAL_CAPACITY];
+    counts = new int[INITIAL_CAPACITY];
+    mask = INITIAL_CAPACITY - 1;
+  }
+
+  /**
+   * @return number of distinct values with a count &gt; 0
+   */
+  int distinct() {
+    return distinct;
+  }
+
+  int get(double value) {
+    long key = key(value);
+    for (int slot = slot(key); counts[slot] != 0; slot = (slot + 1) & mask)
+      if (keys[slot] == key)
+        return counts[slot];
+    return 0;
+  }
+
+  /**
+   * @return the count after incrementing
+   */
+  int increment(double value) {
+    long key = key(value);
+    int slot = slot(key);
+    while (counts[slot] != 0) {
+      if (keys[slot] == key)
+        return ++counts[slot];
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    counts[slot] = 1;
+    if (++distinct > (keys.length >>> 1) + (keys.length >>> 2))
+      resize();
+    return 1;
+  }
+
+  /**
+   * @return the count after decrementing, or -1 if the value is absent
+   */
+  int decrement(double value) {
+    long key = key(value);
+    for (int slot = slot(key); counts[slot] != 0; slot = (slot + 1) & mask) {
+      if (keys[slot] != key)
+        continue;
+      int count = --counts[slot];
+      if (count == 0) {
+        distinct--;
+        shiftBack(slot);
+      }
+      return count;
+    }
+    return -1;
+  }
+
+  /**
+   * Copy the distinct values into the array, which must hold at least
+   * distinct() values.
+   */
+  void values(double[] into) {
+    int n = 0;
+    for (int slot = 0; slot < keys.length; slot++)
+      if (counts[slot] != 0)
+        into[n++] = Double.longBitsToDouble(keys[slot]);
+  }
+
+  void clear() {
+    Arrays.fill(counts, 0);
+    distinct = 0;
+  }
+
+  private void shiftBack(int hole) {
+    int slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (counts[slot] == 0)
+        break;
+      int home = slot(keys[slot]);
+      /* move the entry into the hole unless its home lies cyclically in (hole, slot] */
+      boolean stays = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+      if (stays)
+        continue;
+      keys[hole] = keys[slot];
+      counts[hole] = counts[slot];
+      counts[slot] = 0;
+      hole = slot;
+    }
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    int[] oldCounts = counts;
+    keys = new long[oldKeys.length * 2];
+    counts = new int[oldCounts.length * 2];
+    mask = keys.length - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldCounts[i] == 0)
+        continue;
+      int slot = slot(oldKeys[i]);
+      while (counts[slot] != 0)
+        slot = (slot + 1) & mask;
+      keys[slot] = oldKeys[i];
+      counts[slot] = oldCounts[i];
+    }
+  }
+
+  private int slot(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  private static long key(double value) {
+    return Double.doubleToLongBits(value == 0.0 ? 0.0 : value);
+  }
+}
@@ -0,0 +1,40 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+final class DoubleRangeBoundsIndex extends AbstractRangeBoundsIndex {
+  private final double[] array;
+
+  DoubleRangeBoundsIndex(double[] array, int blockSize) {
+    super(array.length, blockSize);
+    this.array = array;
+    build();
+  }
+
+  @Override
+  double scanMin(int from, int to) {
+    double min = Double.POSITIVE_INFINITY;
+    for (int i = from; i < to; i++) {
+      double value = array[i];
+      if (value < min && value != Dval.DVAL_DOUBLE && value != Double.NEGATIVE_INFINITY)
+        min = value;
+    }
+    return min;
+  }
+
+  @Override
+  double scanMax(int from, int to) {
+    double max = Double.NEGATIVE_INFINITY;
+    for (int i = from; i < to; i++) {
+      double value = array[i];
+      if (value > max && value != Dval.DVAL_DOUBLE && value != Double.POSITIVE_INFINITY)
+        max = value;
+    }
+    return max;
+  }
+
+  @Override
+  void write(int index, double value) {
+    array[index] = value;
+  }
+}
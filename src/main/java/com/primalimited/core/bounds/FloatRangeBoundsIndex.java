@@ -0,0 +1,43 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+final class FloatRangeBoundsIndex extends AbstractRangeBoundsIndex {
+  private final float[] array;
+
+  FloatRangeBoundsIndex(float[] array, int blockSize) {
+    super(array.length, blockSize);
+    this.array = array;
+    build();
+  }
+
+  @Override
+  double scanMin(int from, int to) {
+    float min = Float.POSITIVE_INFINITY;
+    for (int i = from; i < to; i++) {
+      float value = array[i];
+      if (value < min && value != Dval.DVAL_FLOAT && value != Float.NEGATIVE_INFINITY)
+        min = value;
+    }
+    return min;
+  }
+
+  @Override
+  double scanMax(int from, int to) {
+    float max = Float.NEGATIVE_INFINITY;
+    for (int i = from; i < to; i++) {
+      float value = array[i];
+      if (value > max && value != Dval.DVAL_FLOAT && value != Float.POSITIVE_INFINITY)
+        max = value;
+    }
+    return max;
+  }
+
+  /**
+   * Store the value as a float, translating a double Dval to a float Dval.
+   */
+  @Override
+  void write(int index, double value) {
+    array[index] = Dval.isDval(value) ? Dval.DVAL_FLOAT : (float) value;
+  }
+}
@@ -32,6 +32,27 @@ class ImmutableBounds implements Bounds {
     return getClass().getSimpleName() + " " + boundsText();
   }
 
+  /**
+   * Immutable bounds are equal if their min and max values have the same
+   * bit patterns, as {@link Double#equals(Object)}, so 0.0 and -0.0
+   * differ.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null || getClass() != obj.getClass())
+      return false;
+    ImmutableBounds other = (ImmutableBounds) obj;
+    return Double.doubleToLongBits(min) == Double.doubleToLongBits(other.min)
+        && Double.doubleToLongBits(max) == Double.doubleToLongBits(other.max);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Double.hashCode(min) + Double.hashCode(max);
+  }
+
   @Override
   public double getMin() {
     return this.min;
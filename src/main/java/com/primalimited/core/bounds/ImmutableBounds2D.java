@@ -0,0 +1,140 @@
+package com.primalimited.core.bounds;
+
+import java.util.Objects;
+
+import com.primalimited.core.dval.MissingValuePolicy;
+import com.primalimited.core.geometry.Coordinate;
+
+/**
+ * Immutable snapshot of a {@link Bounds2D}, from {@link Bounds2D#snapshot()},
+ * with value equality so it can be used as a key in a hash map or set.  It
+ * can be passed wherever a Bounds2D is read; the methods that would modify
+ * it throw {@link UnsupportedOperationException}.
+ */
+public final class ImmutableBounds2D extends Bounds2D {
+  static ImmutableBounds2D of(Bounds2D bounds) {
+    Objects.requireNonNull(bounds, "bounds");
+    if (bounds instanceof ImmutableBounds2D)
+      return (ImmutableBounds2D) bounds;
+    return new ImmutableBounds2D(bounds);
+  }
+
+  private ImmutableBounds2D(Bounds2D from) {
+    super(from);
+  }
+
+  /**
+   * Snapshots are equal if their min and max x and y values have the same
+   * bit patterns, as {@link Double#equals(Object)}.  A snapshot is never
+   * equal to a mutable Bounds2D.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof ImmutableBounds2D))
+      return false;
+    ImmutableBounds2D other = (ImmutableBounds2D) obj;
+    return Double.doubleToLongBits(getMinX()) == Double.doubleToLongBits(other.getMinX())
+        && Double.doubleToLongBits(getMaxX()) == Double.doubleToLongBits(other.getMaxX())
+        && Double.doubleToLongBits(getMinY()) == Double.doubleToLongBits(other.getMinY())
+        && Double.doubleToLongBits(getMaxY()) == Double.doubleToLongBits(other.getMaxY());
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = Double.hashCode(getMinX());
+    hash = 31 * hash + Double.hashCode(getMaxX());
+    hash = 31 * hash + Double.hashCode(getMinY());
+    return 31 * hash + Double.hashCode(getMaxY());
+  }
+
+  @Override
+  public ImmutableBounds2D snapshot() {
+    return this;
+  }
+
+  @Override
+  public void expandTo(Bounds2D other) {
+    throw unsupported();
+  }
+
+  @Override
+  public void expandTo(double x, double y) {
+    throw unsupported();
+  }
+
+  @Override
+  public void expandTo(double x, double y, MissingValuePolicy policy) {
+    throw unsupported();
+  }
+
+  @Override
+  public void expandTo(double[] xArray, double[] yArray) {
+    throw unsupported();
+  }
+
+  @Override
+  public void expandTo(double[] xArray, double[] yArray, MissingValuePolicy policy) {
+    throw unsupported();
+  }
+
+  @Override
+  public void expandTo(double srcMinX, double srcMaxX, double srcMinY, double srcMaxY) {
+    throw unsupported();
+  }
+
+  @Override
+  public void expandTo(Coordinate c) {
+    throw unsupported();
+  }
+
+  @Override
+  public void expandTo(Coordinate[] coordinates) {
+    throw unsupported();
+  }
+
+  @Override
+  public void reset() {
+    throw unsupported();
+  }
+
+  @Override
+  public void setValues(double minX, double maxX, double minY, double maxY) {
+    throw unsupported();
+  }
+
+  @Override
+  public void setXValues(double minX, double maxX) {
+    throw unsupported();
+  }
+
+  @Override
+  public void setYValues(double minY, double maxY) {
+    throw unsupported();
+  }
+
+  @Override
+  public boolean expandByPercentage(double pct) {
+    throw unsupported();
+  }
+
+  @Override
+  public boolean expandWidthByPercentage(double pct) {
+    throw unsupported();
+  }
+
+  @Override
+  public boolean expandHeightByPercentage(double pct) {
+    throw unsupported();
+  }
+
+  @Override
+  public void makeInvalid() {
+    throw unsupported();
+  }
+
+  private static UnsupportedOperationException unsupported() {
+    return new UnsupportedOperationException("bounds snapshot is immutable");
+  }
+}
@@ -0,0 +1,58 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+final class ImmutableIntBounds implements IntBounds {
+  private final int min;
+  private final int max;
+
+  static ImmutableIntBounds of(int min, int max) {
+    return new ImmutableIntBounds(min, max);
+  }
+
+  private ImmutableIntBounds(int min, int max) {
+    if (Dval.isDval(min))
+      throw new IllegalArgumentException("min is invalid (" + min + ")");
+    if (Dval.isDval(max))
+      throw new IllegalArgumentException("max is invalid (" + max + ")");
+    if (min > max)
+      throw new IllegalArgumentException("min (" + min + ") > max (" + max + ")");
+    this.min = min;
+    this.max = max;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " " + boundsText();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null || getClass() != obj.getClass())
+      return false;
+    ImmutableIntBounds other = (ImmutableIntBounds) obj;
+    return min == other.min && max == other.max;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Integer.hashCode(min) + Integer.hashCode(max);
+  }
+
+  @Override
+  public int getMin() {
+    return this.min;
+  }
+
+  @Override
+  public int getMax() {
+    return this.max;
+  }
+
+  @Override
+  public long getRange() {
+    return (long) this.max - this.min;
+  }
+}
@@ -0,0 +1,63 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+final class ImmutableLongBounds implements LongBounds {
+  private final long min;
+  private final long max;
+
+  static ImmutableLongBounds of(long min, long max) {
+    return new ImmutableLongBounds(min, max);
+  }
+
+  private ImmutableLongBounds(long min, long max) {
+    if (Dval.isDval(min))
+      throw new IllegalArgumentException("min is invalid (" + min + ")");
+    if (Dval.isDval(max))
+      throw new IllegalArgumentException("max is invalid (" + max + ")");
+    if (min > max)
+      throw new IllegalArgumentException("min (" + min + ") > max (" + max + ")");
+    try {
+      Math.subtractExact(max, min);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("range overflows: [" + min + ".." + max + "]", e);
+    }
+    this.min = min;
+    this.max = max;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " " + boundsText();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (obj == null || getClass() != obj.getClass())
+      return false;
+    ImmutableLongBounds other = (ImmutableLongBounds) obj;
+    return min == other.min && max == other.max;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Long.hashCode(min) + Long.hashCode(max);
+  }
+
+  @Override
+  public long getMin() {
+    return this.min;
+  }
+
+  @Override
+  public long getMax() {
+    return this.max;
+  }
+
+  @Override
+  public long getRange() {
+    return this.max - this.min;
+  }
+}
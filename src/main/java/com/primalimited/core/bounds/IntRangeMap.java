@@ -0,0 +1,229 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Immutable map from disjoint {@link Bounds} to int values, e.g. alarm
+ * bands or rate tiers, for classifying large numbers of values.
+ * <p>
+ * Range minimums are stored in a flat array in Eytzinger (breadth-first)
+ * order, so a lookup is a branch-free descent of an implicit binary tree
+ * whose top levels share a few cache lines, O(log n).  Ranges are inclusive
+ * of both end points, as {@link Bounds#contains(double)}; ranges that touch
+ * overlap, so adjacent bands should end just below the next one starts,
+ * e.g. with {@link Math#nextDown(double)}.
+ *
+ * @see RangeMap
+ */
+public final class IntRangeMap {
+  private final double[] mins; // sorted
+  private final double[] maxs; // sorted by min
+  private final int[] values; // sorted by min
+  private final double[] tree; // mins in Eytzinger order, 1-based
+  private final int[] rank; // sorted index of each tree node
+  private final int noValue;
+
+  /**
+   * Create a map whose lookups return Dval for values outside every range.
+   *
+   * @param ranges disjoint ranges
+   * @param values value of each range
+   * @return new map
+   * @throws IllegalArgumentException if the arrays differ in length, a
+   * range is invalid, or ranges overlap
+   */
+  public static IntRangeMap of(Bounds[] ranges, int[] values) {
+    return of(ranges, values, Dval.DVAL_INT);
+  }
+
+  /**
+   * @param ranges disjoint ranges
+   * @param values value of each range
+   * @param noValue value returned for values outside every range
+   * @return new map
+   * @throws IllegalArgumentException if the arrays differ in length, a
+   * range is invalid, or ranges overlap
+   */
+  public static IntRangeMap of(Bounds[] ranges, int[] values, int noValue) {
+    Objects.requireNonNull(ranges, "ranges");
+    Objects.requireNonNull(values, "values");
+    if (ranges.length != values.length)
+      throw new IllegalArgumentException("ranges.length (" + ranges.length + ") != values.length (" + values.length + ")");
+    return new IntRangeMap(ranges, values, noValue);
+  }
+
+  private IntRangeMap(Bounds[] ranges, int[] values, int noValue) {
+    int n = ranges.length;
+    Integer[] order = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      Bounds range = Objects.requireNonNull(ranges[i], "range");
+      if (!range.isValid())
+        throw new IllegalArgumentException("range " + i + " is invalid: " + range.boundsText());
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> Double.compare(ranges[a].getMin(), ranges[b].getMin()));
+    for (int i = 1; i < n; i++) {
+      Bounds previous = ranges[order[i - 1]];
+      Bounds current = ranges[order[i]];
+      if (previous.overlaps(current))
+        throw new IllegalArgumentException("ranges overlap: " + previous.boundsText() + ", " + current.boundsText());
+    }
+
+    this.mins = new double[n];
+    this.maxs = new double[n];
+    this.values = new int[n];
+    for (int i = 0; i < n; i++) {
+      mins[i] = ranges[order[i]].getMin();
+      maxs[i] = ranges[order[i]].getMax();
+      this.values[i] = values[order[i]];
+    }
+    this.tree = new double[n + 1];
+    this.rank = new int[n + 1];
+    layout(0, 1);
+    this.noValue = noValue;
+  }
+
+  /*
+   * Fill the tree by in-order traversal, so node k holds the k-th smallest
+   * minimum in breadth-first position; returns the next sorted index.
+   */
+  private int layout(int next, int k) {
+    if (k <= mins.length) {
+      next = layout(next, 2 * k);
+      tree[k] = mins[next];
+      rank[k] = next++;
+      next = layout(next, 2 * k + 1);
+    }
+    return next;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size();
+  }
+
+  /**
+   * @return number of ranges
+   */
+  public int size() {
+    return mins.length;
+  }
+
+  /**
+   * @return value returned for values outside every range
+   */
+  public int getNoValue() {
+    return noValue;
+  }
+
+  /**
+   * @param index range index, in ascending order of range minimum
+   * @return new instance of Bounds of the range
+   */
+  public Bounds getRange(int index) {
+    return Bounds.of(mins[index], maxs[index]);
+  }
+
+  /**
+   * @param index range index, in ascending order of range minimum
+   * @return value of the range
+   */
+  public int getValue(int index) {
+    return values[index];
+  }
+
+  /**
+   * Return the index of the range containing a value.
+   *
+   * @param value value to classify
+   * @return index of the range, in ascending order of range minimum, or -1
+   * if no range contains the value or the value is invalid
+   */
+  public int indexOf(double value) {
+    if (!Dval.isValid.test(value))
+      return -1;
+    double[] tree = this.tree;
+    int n = tree.length - 1;
+    int k = 1;
+    while (k <= n)
+      k = 2 * k + (tree[k] <= value ? 1 : 0);
+    /* undo the trailing right turns and the final left turn */
+    k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+    int upper = k == 0 ? n : rank[k];
+    int index = upper - 1;
+    return index >= 0 && value <= maxs[index] ? index : -1;
+  }
+
+  /**
+   * Return the value of the range containing a value.
+   *
+   * @param value value to classify
+   * @return value of the range, or the no value if no range contains the
+   * value or the value is invalid
+   */
+  public int get(double value) {
+    int index = indexOf(value);
+    return index < 0 ? noValue : values[index];
+  }
+
+  /**
+   * Classify an array of values.
+   *
+   * @param input values to classify
+   * @param output receives the value of each input value's range
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void get(double[] input, int[] output) {
+    checkLengths(input, output);
+    for (int i = 0; i < input.length; i++)
+      output[i] = get(input[i]);
+  }
+
+  /**
+   * Classify an array of values across the common fork/join pool.
+   *
+   * @param input values to classify
+   * @param output receives the value of each input value's range
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void parallelGet(double[] input, int[] output) {
+    checkLengths(input, output);
+    Arrays.parallelSetAll(output, i -> get(input[i]));
+  }
+
+  /**
+   * Find the range index of each value of an array.
+   *
+   * @param input values to classify
+   * @param output receives the range index of each input value, or -1
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void indexOf(double[] input, int[] output) {
+    checkLengths(input, output);
+    for (int i = 0; i < input.length; i++)
+      output[i] = indexOf(input[i]);
+  }
+
+  /**
+   * Find the range index of each value of an array across the common
+   * fork/join pool.
+   *
+   * @param input values to classify
+   * @param output receives the range index of each input value, or -1
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void parallelIndexOf(double[] input, int[] output) {
+    checkLengths(input, output);
+    Arrays.parallelSetAll(output, i -> indexOf(input[i]));
+  }
+
+  private static void checkLengths(double[] input, int[] output) {
+    Objects.requireNonNull(input, "input");
+    Objects.requireNonNull(output, "output");
+    if (input.length != output.length)
+      throw new IllegalArgumentException("input.length (" + input.length + ") != output.length (" + output.length + ")");
+  }
+}
@@ -0,0 +1,216 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.DvalArrays;
+import com.primalimited.core.dval.MissingValuePolicy;
+
+/**
+ * Assigns each of a set of intervals, e.g. meeting bookings, to one of the
+ * fewest possible resources (rooms, workers) such that no two intervals on
+ * a resource overlap.  Overlap is inclusive, as
+ * {@link Bounds#overlaps(Bounds)}, so an interval may follow another on the
+ * same resource only if it starts after the other ends plus the turnaround
+ * gap.
+ * <p>
+ * Intervals are swept in order of minimum with a min-heap of the end times
+ * of busy resources, reusing the resource that frees up earliest; this is
+ * optimal and costs O(n log n).  All state is held in primitive arrays.
+ * Invalid intervals (Dval, NaN or infinite end points, or min &gt; max) are
+ * not assigned.
+ *
+ * @see Bounds#mergeOverlapping(java.util.Set)
+ */
+public final class IntervalAllocation {
+  private final int[] assignment;
+  private final int resources;
+  private final int[] offsets; // timeline of resource r is intervals[offsets[r], offsets[r + 1])
+  private final int[] intervals;
+
+  /**
+   * Assign intervals to resources with no turnaround gap.
+   *
+   * @param min interval minimums
+   * @param max interval maximums, same length as min
+   * @return allocation
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public static IntervalAllocation solve(double[] min, double[] max) {
+    return solve(min, max, 0.0);
+  }
+
+  /**
+   * Assign intervals to resources, leaving at least a turnaround gap
+   * between consecutive intervals on a resource.
+   *
+   * @param min interval minimums
+   * @param max interval maximums, same length as min
+   * @param gap turnaround gap; an interval may follow one ending at t only
+   * if it starts after t + gap
+   * @return allocation
+   * @throws IllegalArgumentException if the arrays differ in length, or gap
+   * is negative or invalid
+   */
+  public static IntervalAllocation solve(double[] min, double[] max, double gap) {
+    Objects.requireNonNull(min, "min");
+    Objects.requireNonNull(max, "max");
+    if (min.length != max.length)
+      throw new IllegalArgumentException("min.length (" + min.length + ") != max.length (" + max.length + ")");
+    if (!Dval.isValid.test(gap) || gap < 0)
+      throw new IllegalArgumentException("gap (" + gap + ") must be finite and >= 0");
+    return new IntervalAllocation(min, max, gap);
+  }
+
+  private IntervalAllocation(double[] min, double[] max, double gap) {
+    int n = min.length;
+    double[] keys = new double[n];
+    int valid = 0;
+    for (int i = 0; i < n; i++) {
+      if (Bounds.valid(min[i], max[i])) {
+        keys[i] = min[i];
+        valid++;
+      } else {
+        keys[i] = Dval.DVAL_DOUBLE;
+      }
+    }
+    int[] order = DvalArrays.argsort(keys, MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST);
+
+    assignment = new int[n];
+    Arrays.fill(assignment, -1);
+    EndHeap busy = new EndHeap();
+    int count = 0;
+    for (int k = 0; k < valid; k++) {
+      int i = order[k];
+      int resource;
+      if (busy.size > 0 && busy.topEnd() + gap < min[i])
+        resource = busy.pop();
+      else
+        resource = count++;
+      assignment[i] = resource;
+      busy.push(max[i], resource);
+    }
+    resources = count;
+
+    /* timelines in compressed rows, each in order of minimum */
+    offsets = new int[count + 1];
+    for (int k = 0; k < valid; k++)
+      offsets[assignment[order[k]] + 1]++;
+    for (int r = 0; r < count; r++)
+      offsets[r + 1] += offsets[r];
+    intervals = new int[valid];
+    int[] next = Arrays.copyOf(offsets, count);
+    for (int k = 0; k < valid; k++) {
+      int i = order[k];
+      intervals[next[assignment[i]]++] = i;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " intervals=" + assignment.length + " resources=" + resources;
+  }
+
+  /**
+   * @return number of resources used
+   */
+  public int getResourceCount() {
+    return resources;
+  }
+
+  /**
+   * @param interval interval index
+   * @return resource assigned to the interval, or -1 if it is invalid
+   */
+  public int getResource(int interval) {
+    return assignment[interval];
+  }
+
+  /**
+   * @return copy of the resource assigned to each interval, -1 for
+   * invalid intervals
+   */
+  public int[] getAssignment() {
+    return assignment.clone();
+  }
+
+  /**
+   * Return the intervals assigned to a resource.
+   *
+   * @param resource resource index
+   * @return indices of the intervals on the resource, in order of minimum
+   * @throws IndexOutOfBoundsException if resource is not in [0, count)
+   */
+  public int[] getTimeline(int resource) {
+    if (resource < 0 || resource >= resources)
+      throw new IndexOutOfBoundsException("resource (" + resource + ") not in [0, " + resources + ")");
+    return Arrays.copyOfRange(intervals, offsets[resource], offsets[resource + 1]);
+  }
+
+  /**
+   * @param resource resource index
+   * @return number of intervals assigned to the resource
+   * @throws IndexOutOfBoundsException if resource is not in [0, count)
+   */
+  public int getTimelineSize(int resource) {
+    if (resource < 0 || resource >= resources)
+      throw new IndexOutOfBoundsException("resource (" + resource + ") not in [0, " + resources + ")");
+    return offsets[resource + 1] - offsets[resource];
+  }
+
+  /**
+   * Binary min-heap of (end, resource), keyed by end.
+   */
+  private static final class EndHeap {
+    private double[] ends = new double[16];
+    private int[] resources = new int[16];
+    private int size;
+
+    double topEnd() {
+      return ends[0];
+    }
+
+    void push(double end, int resource) {
+      if (size == ends.length) {
+        ends = Arrays.copyOf(ends, 2 * size);
+        resources = Arrays.copyOf(resources, 2 * size);
+      }
+      int i = size++;
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (ends[parent] <= end)
+          break;
+        ends[i] = ends[parent];
+        resources[i] = resources[parent];
+        i = parent;
+      }
+      ends[i] = end;
+      resources[i] = resource;
+    }
+
+    /**
+     * @return resource of the removed top entry
+     */
+    int pop() {
+      int top = resources[0];
+      double end = ends[--size];
+      int resource = resources[size];
+      int i = 0;
+      int half = size >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        if (child + 1 < size && ends[child + 1] < ends[child])
+          child++;
+        if (end <= ends[child])
+          break;
+        ends[i] = ends[child];
+        resources[i] = resources[child];
+        i = child;
+      }
+      ends[i] = end;
+      resources[i] = resource;
+      return top;
+    }
+  }
+}
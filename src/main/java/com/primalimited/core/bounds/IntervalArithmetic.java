@@ -0,0 +1,227 @@
+package com.primalimited.core.bounds;
+
+import java.util.Objects;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Interval arithmetic on {@link Bounds}, for propagating uncertainty
+ * through calculations: each result contains every result of applying the
+ * operation to values of the operands, with end points rounded outward as
+ * described by {@link MutableInterval}.  Results that cannot be
+ * represented as finite bounds, e.g. division by bounds containing zero,
+ * are null bounds.
+ * <p>
+ * To evaluate an expression without allocating at each step, use a
+ * {@link MutableInterval}; to evaluate many, use the bulk operations over
+ * packed interval arrays, which hold interval i at [2i] (min) and [2i + 1]
+ * (max), and write Dval end points for invalid results.
+ */
+public final class IntervalArithmetic {
+  private IntervalArithmetic() {
+  }
+
+  public static Bounds add(Bounds a, Bounds b) {
+    return MutableInterval.of(a).add(b).toBounds();
+  }
+
+  public static Bounds sub(Bounds a, Bounds b) {
+    return MutableInterval.of(a).sub(b).toBounds();
+  }
+
+  public static Bounds mul(Bounds a, Bounds b) {
+    return MutableInterval.of(a).mul(b).toBounds();
+  }
+
+  /**
+   * @param a dividend
+   * @param b divisor
+   * @return a / b, or null bounds if b contains zero
+   */
+  public static Bounds div(Bounds a, Bounds b) {
+    return MutableInterval.of(a).div(b).toBounds();
+  }
+
+  public static Bounds negate(Bounds a) {
+    return MutableInterval.of(a).negate().toBounds();
+  }
+
+  /**
+   * @param a base
+   * @param exponent integer exponent
+   * @return a<sup>exponent</sup>, or null bounds if exponent is negative
+   * and a contains zero
+   */
+  public static Bounds pow(Bounds a, int exponent) {
+    return MutableInterval.of(a).pow(exponent).toBounds();
+  }
+
+  /**
+   * @param a bounds
+   * @return sqrt of the part of a that is &gt;= 0, or null bounds if a is
+   * entirely negative
+   */
+  public static Bounds sqrt(Bounds a) {
+    return MutableInterval.of(a).sqrt().toBounds();
+  }
+
+  public static Bounds exp(Bounds a) {
+    return MutableInterval.of(a).exp().toBounds();
+  }
+
+  /**
+   * @param a bounds
+   * @return natural logarithm of a, or null bounds unless a.getMin() &gt; 0
+   */
+  public static Bounds log(Bounds a) {
+    return MutableInterval.of(a).log().toBounds();
+  }
+
+  /**
+   * Add packed intervals element-wise; out may be a or b.
+   *
+   * @param a packed intervals
+   * @param b packed intervals, same length as a
+   * @param out receives the packed results, same length as a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int add(double[] a, double[] b, double[] out) {
+    return apply(a, b, out, MutableInterval::add);
+  }
+
+  /**
+   * Subtract packed intervals element-wise; out may be a or b.
+   *
+   * @param a packed intervals
+   * @param b packed intervals, same length as a
+   * @param out receives the packed results, same length as a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int sub(double[] a, double[] b, double[] out) {
+    return apply(a, b, out, MutableInterval::sub);
+  }
+
+  /**
+   * Multiply packed intervals element-wise; out may be a or b.
+   *
+   * @param a packed intervals
+   * @param b packed intervals, same length as a
+   * @param out receives the packed results, same length as a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int mul(double[] a, double[] b, double[] out) {
+    return apply(a, b, out, MutableInterval::mul);
+  }
+
+  /**
+   * Divide packed intervals element-wise; out may be a or b.
+   *
+   * @param a packed dividends
+   * @param b packed divisors, same length as a
+   * @param out receives the packed results, same length as a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int div(double[] a, double[] b, double[] out) {
+    return apply(a, b, out, MutableInterval::div);
+  }
+
+  /**
+   * @param a packed intervals
+   * @param exponent integer exponent
+   * @param out receives the packed results, same length as a; may be a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int pow(double[] a, int exponent, double[] out) {
+    return apply(a, out, interval -> interval.pow(exponent));
+  }
+
+  /**
+   * @param a packed intervals
+   * @param out receives the packed results, same length as a; may be a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int sqrt(double[] a, double[] out) {
+    return apply(a, out, MutableInterval::sqrt);
+  }
+
+  /**
+   * @param a packed intervals
+   * @param out receives the packed results, same length as a; may be a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int exp(double[] a, double[] out) {
+    return apply(a, out, MutableInterval::exp);
+  }
+
+  /**
+   * @param a packed intervals
+   * @param out receives the packed results, same length as a; may be a
+   * @return number of valid results
+   * @throws IllegalArgumentException if the lengths differ or are odd
+   */
+  public static int log(double[] a, double[] out) {
+    return apply(a, out, MutableInterval::log);
+  }
+
+  @FunctionalInterface
+  private interface BinaryOp {
+    MutableInterval apply(MutableInterval interval, double min, double max);
+  }
+
+  @FunctionalInterface
+  private interface UnaryOp {
+    MutableInterval apply(MutableInterval interval);
+  }
+
+  private static int apply(double[] a, double[] b, double[] out, BinaryOp op) {
+    Objects.requireNonNull(b, "b");
+    checkLengths(a, out);
+    if (b.length != a.length)
+      throw new IllegalArgumentException("a.length (" + a.length + ") != b.length (" + b.length + ")");
+    MutableInterval interval = MutableInterval.create();
+    int valid = 0;
+    for (int i = 0; i < a.length; i += 2) {
+      op.apply(interval.set(a[i], a[i + 1]), b[i], b[i + 1]);
+      valid += store(interval, out, i);
+    }
+    return valid;
+  }
+
+  private static int apply(double[] a, double[] out, UnaryOp op) {
+    checkLengths(a, out);
+    MutableInterval interval = MutableInterval.create();
+    int valid = 0;
+    for (int i = 0; i < a.length; i += 2) {
+      op.apply(interval.set(a[i], a[i + 1]));
+      valid += store(interval, out, i);
+    }
+    return valid;
+  }
+
+  private static int store(MutableInterval interval, double[] out, int i) {
+    if (!interval.isValid()) {
+      out[i] = Dval.DVAL_DOUBLE;
+      out[i + 1] = Dval.DVAL_DOUBLE;
+      return 0;
+    }
+    out[i] = interval.getMin();
+    out[i + 1] = interval.getMax();
+    return 1;
+  }
+
+  private static void checkLengths(double[] a, double[] out) {
+    Objects.requireNonNull(a, "a");
+    Objects.requireNonNull(out, "out");
+    if ((a.length & 1) != 0)
+      throw new IllegalArgumentException("a.length (" + a.length + ") is odd");
+    if (out.length != a.length)
+      throw new IllegalArgumentException("a.length (" + a.length + ") != out.length (" + out.length + ")");
+  }
+}
@@ -0,0 +1,509 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.DvalArrays;
+import com.primalimited.core.dval.MissingValuePolicy;
+
+/**
+ * Finds every overlapping pair between two sets of intervals, e.g. sensor
+ * outages against shipments, with the inclusive semantics of
+ * {@link Bounds#overlaps(Bounds)}.
+ * <p>
+ * Both sides are sorted by minimum, as primitive index permutations, and
+ * swept together: when an interval starts, it is paired with every
+ * interval of the other side that is still active, so the join costs
+ * O((n + m) log(n + m) + pairs) rather than O(n * m).  Each pair is
+ * reported once, as (index into side a, index into side b).  Invalid
+ * intervals (Dval, NaN or infinite end points, or min &gt; max) are
+ * skipped.
+ * <p>
+ * The parallel variants split the combined range of minimums into
+ * partitions of roughly equal numbers of intervals, one task each; a pair
+ * is reported by the partition holding the later of its two minimums.  The
+ * intervals still active at each partition boundary are found up front in
+ * one pass over each side, carrying the active set from boundary to
+ * boundary.
+ */
+public final class IntervalJoin {
+  /**
+   * Receives overlapping pairs.
+   */
+  @FunctionalInterface
+  public interface PairConsumer {
+    /**
+     * @param a index of the interval on side a
+     * @param b index of the interval on side b
+     */
+    void accept(int a, int b);
+  }
+
+  /* partitions per worker thread in the parallel variants */
+  private static final int PARTITIONS_PER_THREAD = 4;
+
+  private IntervalJoin() {
+  }
+
+  /**
+   * Report every overlapping pair to a consumer.
+   *
+   * @param aMin minimums of side a
+   * @param aMax maximums of side a, same length as aMin
+   * @param bMin minimums of side b
+   * @param bMax maximums of side b, same length as bMin
+   * @param consumer receives each pair
+   * @return number of pairs reported
+   * @throws IllegalArgumentException if either side's arrays differ in length
+   */
+  public static long join(double[] aMin, double[] aMax, double[] bMin, double[] bMax, PairConsumer consumer) {
+    Objects.requireNonNull(consumer, "consumer");
+    Side a = Side.of(aMin, aMax, false);
+    Side b = Side.of(bMin, bMax, false);
+    return sweep(a, b, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, new Active(a.max), new Active(b.max), consumer);
+  }
+
+  /**
+   * Collect every overlapping pair.
+   *
+   * @param aMin minimums of side a
+   * @param aMax maximums of side a, same length as aMin
+   * @param bMin minimums of side b
+   * @param bMax maximums of side b, same length as bMin
+   * @return pairs, in the order found
+   * @throws IllegalArgumentException if either side's arrays differ in length
+   */
+  public static Pairs join(double[] aMin, double[] aMax, double[] bMin, double[] bMax) {
+    Pairs pairs = new Pairs();
+    join(aMin, aMax, bMin, bMax, pairs::add);
+    return pairs;
+  }
+
+  /**
+   * Report every overlapping pair between two lists of bounds to a
+   * consumer.
+   *
+   * @param a bounds of side a
+   * @param b bounds of side b
+   * @param consumer receives each pair of list indices
+   * @return number of pairs reported
+   */
+  public static long join(List<Bounds> a, List<Bounds> b, PairConsumer consumer) {
+    Objects.requireNonNull(a, "a");
+    Objects.requireNonNull(b, "b");
+    return join(mins(a), maxs(a), mins(b), maxs(b), consumer);
+  }
+
+  /**
+   * Collect every overlapping pair between two lists of bounds.
+   *
+   * @param a bounds of side a
+   * @param b bounds of side b
+   * @return pairs of list indices, in the order found
+   */
+  public static Pairs join(List<Bounds> a, List<Bounds> b) {
+    Pairs pairs = new Pairs();
+    join(a, b, pairs::add);
+    return pairs;
+  }
+
+  /**
+   * Report every overlapping pair to a consumer, sorting and sweeping in
+   * parallel on the common fork/join pool.  The consumer is called
+   * concurrently from several threads and must be thread safe.
+   *
+   * @param aMin minimums of side a
+   * @param aMax maximums of side a, same length as aMin
+   * @param bMin minimums of side b
+   * @param bMax maximums of side b, same length as bMin
+   * @param consumer thread-safe receiver of each pair
+   * @return number of pairs reported
+   * @throws IllegalArgumentException if either side's arrays differ in length
+   */
+  public static long parallelJoin(double[] aMin, double[] aMax, double[] bMin, double[] bMax, PairConsumer consumer) {
+    Objects.requireNonNull(consumer, "consumer");
+    Side a = Side.of(aMin, aMax, true);
+    Side b = Side.of(bMin, bMax, true);
+    double[] splits = splits(a, b);
+    Partitions partitions = new Partitions(a, b, splits, a.activeAt(splits), b.activeAt(splits), 0, splits.length - 1, consumer, null);
+    return ForkJoinPool.commonPool().invoke(partitions);
+  }
+
+  /**
+   * Collect every overlapping pair, sorting and sweeping in parallel on
+   * the common fork/join pool.  Pairs are in the same order on every run.
+   *
+   * @param aMin minimums of side a
+   * @param aMax maximums of side a, same length as aMin
+   * @param bMin minimums of side b
+   * @param bMax maximums of side b, same length as bMin
+   * @return pairs
+   * @throws IllegalArgumentException if either side's arrays differ in length
+   */
+  public static Pairs parallelJoin(double[] aMin, double[] aMax, double[] bMin, double[] bMax) {
+    Side a = Side.of(aMin, aMax, true);
+    Side b = Side.of(bMin, bMax, true);
+    double[] splits = splits(a, b);
+    Pairs[] parts = new Pairs[splits.length - 1];
+    ForkJoinPool.commonPool().invoke(new Partitions(a, b, splits, a.activeAt(splits), b.activeAt(splits), 0, parts.length, null, parts));
+    Pairs pairs = new Pairs();
+    for (Pairs part : parts)
+      pairs.addAll(part);
+    return pairs;
+  }
+
+  private static double[] mins(List<Bounds> list) {
+    double[] mins = new double[list.size()];
+    for (int i = 0; i < mins.length; i++)
+      mins[i] = list.get(i).getMin();
+    return mins;
+  }
+
+  private static double[] maxs(List<Bounds> list) {
+    double[] maxs = new double[list.size()];
+    for (int i = 0; i < maxs.length; i++)
+      maxs[i] = list.get(i).getMax();
+    return maxs;
+  }
+
+  /*
+   * Partition boundaries: -infinity, the minimums at evenly spaced ranks of
+   * both sides combined, +infinity.
+   */
+  private static double[] splits(Side a, Side b) {
+    int total = a.size() + b.size();
+    int partitions = Math.max(1, Math.min(total / 1024, ForkJoinPool.getCommonPoolParallelism() * PARTITIONS_PER_THREAD));
+    double[] splits = new double[partitions + 1];
+    int n = 0;
+    splits[n++] = Double.NEGATIVE_INFINITY;
+    for (int p = 1; p < partitions; p++) {
+      double split = kth(a, b, (int) ((long) p * total / partitions));
+      if (split > splits[n - 1])
+        splits[n++] = split;
+    }
+    splits[n++] = Double.POSITIVE_INFINITY;
+    return Arrays.copyOf(splits, n);
+  }
+
+  /*
+   * k-th smallest minimum (0-based) of both sides combined.
+   */
+  private static double kth(Side a, Side b, int k) {
+    int lo = Math.max(0, k - b.size());
+    int hi = Math.min(k, a.size());
+    while (lo < hi) {
+      int i = (lo + hi) >>> 1; // elements taken from a
+      int j = k - i; // elements taken from b
+      if (a.sortedMin(i) < b.sortedMin(j - 1))
+        lo = i + 1;
+      else
+        hi = i;
+    }
+    int i = lo;
+    int j = k - i;
+    if (i >= a.size())
+      return b.sortedMin(j);
+    if (j >= b.size())
+      return a.sortedMin(i);
+    return Math.min(a.sortedMin(i), b.sortedMin(j));
+  }
+
+  /*
+   * Report the pairs whose later minimum is in [lo, hi), given the
+   * intervals of each side active at lo.
+   */
+  private static long sweep(Side a, Side b, double lo, double hi, Active activeA, Active activeB, PairConsumer consumer) {
+    int i = a.lowerBound(lo);
+    int j = b.lowerBound(lo);
+    int endA = a.lowerBound(hi);
+    int endB = b.lowerBound(hi);
+    long count = 0;
+    while (i < endA || j < endB) {
+      if (j == endB || (i < endA && a.sortedMin(i) <= b.sortedMin(j))) {
+        int index = a.order[i++];
+        count += activeB.pair(a.min[index], index, consumer, true);
+        activeA.add(index);
+      } else {
+        int index = b.order[j++];
+        count += activeA.pair(b.min[index], index, consumer, false);
+        activeB.add(index);
+      }
+    }
+    return count;
+  }
+
+  /**
+   * One side of the join: end points and the valid indices sorted by min.
+   */
+  private static final class Side {
+    final double[] min;
+    final double[] max;
+    final int[] order; // valid indices by ascending min
+    final double[] sorted; // min of each index in order
+
+    static Side of(double[] min, double[] max, boolean parallel) {
+      Objects.requireNonNull(min, "min");
+      Objects.requireNonNull(max, "max");
+      if (min.length != max.length)
+        throw new IllegalArgumentException("min.length (" + min.length + ") != max.length (" + max.length + ")");
+      double[] keys = new double[min.length];
+      int valid = 0;
+      for (int i = 0; i < keys.length; i++) {
+        if (Bounds.valid(min[i], max[i])) {
+          keys[i] = min[i];
+          valid++;
+        } else {
+          keys[i] = Dval.DVAL_DOUBLE;
+        }
+      }
+      int[] order = parallel
+          ? DvalArrays.parallelArgsort(keys, MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST)
+          : DvalArrays.argsort(keys, MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST);
+      order = Arrays.copyOf(order, valid);
+      return new Side(min, max, order);
+    }
+
+    private Side(double[] min, double[] max, int[] order) {
+      this.min = min;
+      this.max = max;
+      this.order = order;
+      this.sorted = new double[order.length];
+      for (int i = 0; i < order.length; i++)
+        sorted[i] = min[order[i]];
+    }
+
+    int size() {
+      return order.length;
+    }
+
+    double sortedMin(int i) {
+      return sorted[i];
+    }
+
+    /**
+     * @return first sorted position whose min is &gt;= value
+     */
+    int lowerBound(double value) {
+      int lo = 0;
+      int hi = sorted.length;
+      while (lo < hi) {
+        int mid = (lo + hi) >>> 1;
+        if (sorted[mid] < value)
+          lo = mid + 1;
+        else
+          hi = mid;
+      }
+      return lo;
+    }
+
+    /**
+     * @return for each split but the last, the intervals that start before
+     * it and end at or after it, in sorted order; found in one pass by
+     * carrying the active set forward from split to split
+     */
+    Active[] activeAt(double[] splits) {
+      Active[] active = new Active[splits.length - 1];
+      Active current = new Active(max);
+      int i = 0;
+      for (int p = 0; p < active.length; p++) {
+        double split = splits[p];
+        while (i < sorted.length && sorted[i] < split)
+          current.add(order[i++]);
+        current.retain(split);
+        active[p] = current.copy();
+      }
+      return active;
+    }
+  }
+
+  /**
+   * Indices of the intervals of one side that may still overlap.
+   */
+  private static final class Active {
+    private final double[] max;
+    private int[] indices = new int[16];
+    private int size;
+
+    Active(double[] max) {
+      this.max = max;
+    }
+
+    void add(int index) {
+      if (size == indices.length)
+        indices = Arrays.copyOf(indices, 2 * size);
+      indices[size++] = index;
+    }
+
+    /**
+     * Drop the intervals that end before value, keeping the order.
+     */
+    void retain(double value) {
+      int kept = 0;
+      for (int i = 0; i < size; i++)
+        if (max[indices[i]] >= value)
+          indices[kept++] = indices[i];
+      size = kept;
+    }
+
+    Active copy() {
+      Active copy = new Active(max);
+      copy.indices = Arrays.copyOf(indices, Math.max(16, size));
+      copy.size = size;
+      return copy;
+    }
+
+    /**
+     * Pair an interval starting at start with every active interval that
+     * ends at or after start, dropping those that end before it.
+     */
+    int pair(double start, int other, PairConsumer consumer, boolean otherIsA) {
+      int kept = 0;
+      for (int i = 0; i < size; i++) {
+        int index = indices[i];
+        if (max[index] < start)
+          continue;
+        indices[kept++] = index;
+        if (otherIsA)
+          consumer.accept(other, index);
+        else
+          consumer.accept(index, other);
+      }
+      size = kept;
+      return kept;
+    }
+  }
+
+  /**
+   * Sweeps partitions [from, to), each reporting to the consumer, or to
+   * its own element of parts when there is no consumer.
+   */
+  @SuppressWarnings("serial")
+  private static final class Partitions extends RecursiveTask<Long> {
+    private final Side a;
+    private final Side b;
+    private final double[] splits;
+    private final Active[] activeA; // active at each split
+    private final Active[] activeB;
+    private final int from;
+    private final int to;
+    private final PairConsumer consumer;
+    private final Pairs[] parts;
+
+    Partitions(Side a, Side b, double[] splits, Active[] activeA, Active[] activeB, int from, int to, PairConsumer consumer, Pairs[] parts) {
+      this.a = a;
+      this.b = b;
+      this.splits = splits;
+      this.activeA = activeA;
+      this.activeB = activeB;
+      this.from = from;
+      this.to = to;
+      this.consumer = consumer;
+      this.parts = parts;
+    }
+
+    @Override
+    protected Long compute() {
+      if (to - from == 1) {
+        if (consumer != null)
+          return sweep(a, b, splits[from], splits[to], activeA[from], activeB[from], consumer);
+        Pairs pairs = new Pairs();
+        parts[from] = pairs;
+        return sweep(a, b, splits[from], splits[to], activeA[from], activeB[from], pairs::add);
+      }
+      int mid = (from + to) >>> 1;
+      Partitions left = new Partitions(a, b, splits, activeA, activeB, from, mid, consumer, parts);
+      Partitions right = new Partitions(a, b, splits, activeA, activeB, mid, to, consumer, parts);
+      right.fork();
+      long count = left.compute();
+      return count + right.join();
+    }
+  }
+
+  /**
+   * Growable buffer of index pairs in primitive arrays.
+   */
+  public static final class Pairs {
+    private int[] a = new int[16];
+    private int[] b = new int[16];
+    private int size;
+
+    Pairs() {
+    }
+
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + " size=" + size;
+    }
+
+    /**
+     * @return number of pairs
+     */
+    public int size() {
+      return size;
+    }
+
+    /**
+     * @param i pair number
+     * @return index of the interval on side a
+     */
+    public int getA(int i) {
+      if (i < 0 || i >= size)
+        throw new IndexOutOfBoundsException("pair (" + i + ") not in [0, " + size + ")");
+      return a[i];
+    }
+
+    /**
+     * @param i pair number
+     * @return index of the interval on side b
+     */
+    public int getB(int i) {
+      if (i < 0 || i >= size)
+        throw new IndexOutOfBoundsException("pair (" + i + ") not in [0, " + size + ")");
+      return b[i];
+    }
+
+    /**
+     * @return copy of the side a index of each pair
+     */
+    public int[] getAIndices() {
+      return Arrays.copyOf(a, size);
+    }
+
+    /**
+     * @return copy of the side b index of each pair
+     */
+    public int[] getBIndices() {
+      return Arrays.copyOf(b, size);
+    }
+
+    void add(int aIndex, int bIndex) {
+      if (size == a.length)
+        grow(size + 1);
+      a[size] = aIndex;
+      b[size] = bIndex;
+      size++;
+    }
+
+    void addAll(Pairs other) {
+      if (size + other.size > a.length)
+        grow(size + other.size);
+      System.arraycopy(other.a, 0, a, size, other.size);
+      System.arraycopy(other.b, 0, b, size, other.size);
+      size += other.size;
+    }
+
+    private void grow(int minCapacity) {
+      if (minCapacity < 0)
+        throw new IllegalStateException("too many pairs");
+      int capacity = Math.max(minCapacity, a.length + (a.length >> 1));
+      if (capacity < 0)
+        capacity = minCapacity;
+      a = Arrays.copyOf(a, capacity);
+      b = Arrays.copyOf(b, capacity);
+    }
+  }
+}
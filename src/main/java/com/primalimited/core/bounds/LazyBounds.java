@@ -0,0 +1,146 @@
+package com.primalimited.core.bounds;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounds computed on first access from a supplier, e.g. a scan of a large
+ * column, so that datasets whose bounds are never read never pay for the
+ * scan.
+ * <p>
+ * The supplier is called at most once per computation, even under
+ * concurrent access; the result is published safely to all threads.  The
+ * bounds are recomputed on the next access after {@link #invalidate()}, or,
+ * if a version supplier is given, whenever the version differs from the
+ * version at the last computation, e.g. a modification count of the data.
+ * A computation that overlaps a call to {@link #invalidate()} is returned
+ * to its caller but not kept, so later accesses recompute.
+ * <p>
+ * Valid results are copied to immutable bounds, and invalid results are
+ * replaced by null bounds.  The getters each read the current computation,
+ * so a caller that needs several values from one computation should call
+ * {@link #get()} once.
+ */
+public final class LazyBounds implements Bounds {
+  private static final long NO_VERSION = 0L;
+
+  private final Supplier<? extends Bounds> supplier;
+  private final LongSupplier version;
+  private final AtomicLong generation = new AtomicLong();
+  private volatile Computed computed;
+
+  /**
+   * @param supplier computes the bounds
+   * @return new lazy bounds, computed on first access
+   */
+  public static LazyBounds of(Supplier<? extends Bounds> supplier) {
+    return of(supplier, () -> NO_VERSION);
+  }
+
+  /**
+   * @param supplier computes the bounds
+   * @param version data version; the bounds are recomputed on access when
+   * it changes
+   * @return new lazy bounds, computed on first access
+   */
+  public static LazyBounds of(Supplier<? extends Bounds> supplier, LongSupplier version) {
+    Objects.requireNonNull(supplier, "supplier");
+    Objects.requireNonNull(version, "version");
+    return new LazyBounds(supplier, version);
+  }
+
+  private LazyBounds(Supplier<? extends Bounds> supplier, LongSupplier version) {
+    this.supplier = supplier;
+    this.version = version;
+  }
+
+  @Override
+  public String toString() {
+    Computed current = computed;
+    String text = current == null ? "[not computed]" : current.bounds.boundsText();
+    return getClass().getSimpleName() + " " + text;
+  }
+
+  /**
+   * Return the bounds, computing them if this is the first access, or they
+   * have been invalidated or the version has changed.
+   *
+   * @return immutable bounds, or null bounds if the supplier returned
+   * invalid bounds
+   * @throws NullPointerException if the supplier returns null
+   */
+  public Bounds get() {
+    long v = version.getAsLong();
+    long g = generation.get();
+    Computed current = computed;
+    if (current != null && current.matches(v, g))
+      return current.bounds;
+    synchronized (this) {
+      g = generation.get();
+      current = computed;
+      if (current != null && current.matches(v, g))
+        return current.bounds;
+      Bounds bounds = Objects.requireNonNull(supplier.get(), "supplier returned null");
+      bounds = bounds.isValid() ? ImmutableBounds.of(bounds) : Bounds.nullBounds();
+      // invalidated while computing: the result may predate the change
+      if (generation.get() == g)
+        computed = new Computed(bounds, v, g);
+      return bounds;
+    }
+  }
+
+  /**
+   * @return true if the bounds have been computed and not invalidated;
+   * does not check the version
+   */
+  public boolean isComputed() {
+    Computed current = computed;
+    return current != null && current.generation == generation.get();
+  }
+
+  /**
+   * Discard the computed bounds, so the next access recomputes them.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+    computed = null;
+  }
+
+  @Override
+  public double getMin() {
+    return get().getMin();
+  }
+
+  @Override
+  public double getMax() {
+    return get().getMax();
+  }
+
+  @Override
+  public double getRange() {
+    return get().getRange();
+  }
+
+  @Override
+  public boolean isValid() {
+    return get().isValid();
+  }
+
+  private static final class Computed {
+    final Bounds bounds;
+    final long version;
+    final long generation;
+
+    Computed(Bounds bounds, long version, long generation) {
+      this.bounds = bounds;
+      this.version = version;
+      this.generation = generation;
+    }
+
+    boolean matches(long version, long generation) {
+      return this.version == version && this.generation == generation;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing multiset of x, y locations (location to count), using
+ * linear probing with backward-shift deletion, as {@link DoubleCountMap}.
+ * Negative zero is counted as positive zero.
+ */
+final class LocationCountMap {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] xKeys;
+  private long[] yKeys;
+  private int[] counts;
+  private int mask;
+  private int distinct;
+
+  LocationCountMap() {
+    xKeys = new long[INITIAL_CAPACITY];
+    yKeys = new long[INITIAL_CAPACITY];
+    counts = new int[INITIAL_CAPACITY];
+    mask = INITIAL_CAPACITY - 1;
+  }
+
+  /**
+   * @return number of distinct locations with a count &gt; 0
+   */
+  int distinct() {
+    return distinct;
+  }
+
+  int get(double x, double y) {
+    long xKey = key(x);
+    long yKey = key(y);
+    for (int slot = slot(xKey, yKey); counts[slot] != 0; slot = (slot + 1) & mask)
+      if (xKeys[slot] == xKey && yKeys[slot] == yKey)
+        return counts[slot];
+    return 0;
+  }
+
+  /**
+   * @return the count after incrementing
+   */
+  int increment(double x, double y) {
+    long xKey = key(x);
+    long yKey = key(y);
+    int slot = slot(xKey, yKey);
+    while (counts[slot] != 0) {
+      if (xKeys[slot] == xKey && yKeys[slot] == yKey)
+        return ++counts[slot];
+      slot = (slot + 1) & mask;
+    }
+    xKeys[slot] = xKey;
+    yKeys[slot] = yKey;
+    counts[slot] = 1;
+    if (++distinct > (counts.length >>> 1) + (counts.length >>> 2))
+      resize();
+    return 1;
+  }
+
+  /**
+   * @return the count after decrementing, or -1 if the location is absent
+   */
+  int decrement(double x, double y) {
+    long xKey = key(x);
+    long yKey = key(y);
+    for (int slot = slot(xKey, yKey); counts[slot] != 0; slot = (slot + 1) & mask) {
+      if (xKeys[slot] != xKey || yKeys[slot] != yKey)
+        continue;
+      int count = --counts[slot];
+      if (count == 0) {
+        distinct--;
+        shiftBack(slot);
+      }
+      return count;
+    }
+    return -1;
+  }
+
+  void clear() {
+    Arrays.fill(counts, 0);
+    distinct = 0;
+  }
+
+  private void shiftBack(int hole) {
+    int slot = hole;
+    while (true) {
+      slot = (slot + 1) & mask;
+      if (counts[slot] == 0)
+        break;
+      int home = slot(xKeys[slot], yKeys[slot]);
+      /* move the entry into the hole unless its home lies cyclically in (hole, slot] */
+      boolean stays = hole <= slot ? (hole < home && home <= slot) : (hole < home || home <= slot);
+      if (stays)
+        continue;
+      xKeys[hole] = xKeys[slot];
+      yKeys[hole] = yKeys[slot];
+      counts[hole] = counts[slot];
+      counts[slot] = 0;
+      hole = slot;
+    }
+  }
+
+  private void resize() {
+    long[] oldXKeys = xKeys;
+    long[] oldYKeys = yKeys;
+    int[] oldCounts = counts;
+    xKeys = new long[oldXKeys.length * 2];
+    yKeys = new long[oldYKeys.length * 2];
+    counts = new int[oldCounts.length * 2];
+    mask = counts.length - 1;
+    for (int i = 0; i < oldCounts.length; i++) {
+      if (oldCounts[i] == 0)
+        continue;
+      int slot = slot(oldXKeys[i], oldYKeys[i]);
+      while (counts[slot] != 0)
+        slot = (slot + 1) & mask;
+      xKeys[slot] = oldXKeys[i];
+      yKeys[slot] = oldYKeys[i];
+      counts[slot] = oldCounts[i];
+    }
+  }
+
+  private int slot(long xKey, long yKey) {
+    long h = (xKey * 0x9E3779B97F4A7C15L) ^ (yKey * 0xC2B2AE3D27D4EB4FL);
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  private static long key(double value) {
+    return Double.doubleToLongBits(value == 0.0 ? 0.0 : value);
+  }
+}
@@ -0,0 +1,362 @@
+package com.primalimited.core.bounds;
+
+import java.math.BigInteger;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Represents two bounding long values, e.g. the start and end of a span of
+ * epoch nanoseconds, with the same contract as {@link Bounds} but in exact
+ * integer arithmetic.  Values above 2^53 cannot be represented exactly as
+ * doubles, so adjacent timestamps would collapse in a {@link Bounds}.
+ * <p>
+ * {@link Dval#DVAL_LONG} is the missing value, and so is never a valid min
+ * or max.  The range (max - min) must fit in a long.
+ *
+ * @see IntBounds
+ */
+public interface LongBounds {
+  /**
+   * Return the minimum value
+   * @return the minimum value
+   */
+  public long getMin();
+
+  /**
+   * Return the maximum value
+   * @return the maximum value
+   */
+  public long getMax();
+
+  /**
+   * Return the range of data (e.g. max-min)
+   * @return the range of data
+   */
+  public long getRange();
+
+  /**
+   * Implementations may use this as part of their toString() implementation.
+   *
+   * @return descriptive bounds text
+   */
+  public default String boundsText() {
+    NumberFormat nf = NumberFormat.getInstance();
+    return "["
+        + format(nf, getMin())
+        + ".."
+        + format(nf, getMax())
+        + "]";
+  }
+
+  /**
+   * Build formatted text representing this bounds.
+   *
+   * @return formatted text representing this bounds.
+   */
+  public default String format() {
+    NumberFormat nf = NumberFormat.getInstance();
+    return String.format(
+      "min=%s max=%s range=%s",
+      format(nf, getMin()),
+      format(nf, getMax()),
+      format(nf, getRange())
+    );
+  }
+
+  /**
+   * Return true if bounds are valid, false otherwise
+   * @return true if bounds are valid, false otherwise
+   */
+  public default boolean isValid() {
+    return valid(getMin(), getMax());
+  }
+
+  /**
+   * Returns true if this bounds represents a null bounds,
+   * false otherwise.
+   *
+   * @return true if this bounds represents a null bounds,
+   * false otherwise.
+   */
+  public default boolean isNull() {
+    return Dval.isDval(getMin()) && Dval.isDval(getMax());
+  }
+
+  /**
+   * Return true if min == max, false otherwise.
+   * @return return true if min == max, false otherwise.
+   */
+  public default boolean rangeIsZero() {
+    return isValid() && getMin() == getMax();
+  }
+
+  /**
+   * Return true if this bounds overlaps other bounds, false
+   * otherwise.
+   *
+   * @param other other bounds
+   * @return true if this bounds overlaps other bounds, false
+   * otherwise.
+   */
+  public default boolean overlaps(LongBounds other) {
+    Objects.requireNonNull(other);
+    if (!other.isValid() || !isValid())
+      return false;
+    return getMax() >= other.getMin() && getMin() <= other.getMax();
+  }
+
+  /**
+   * Returns true if this bounds contains the given value.
+   *
+   * @param value the value to evaluate
+   * @return true if this bounds contains the given value,
+   * false otherwise.
+   */
+  public default boolean contains(long value) {
+    return isValid() && value >= getMin() && value <= getMax();
+  }
+
+  /**
+   * Determine a discrete bin number for a value, given nBins for range; useful for
+   * histograms, time buckets, value windows, etc.  The bin is computed
+   * exactly, as floor((value - min) * nBins / range).
+   *
+   * @param value value
+   * @param nBins number of bins for the range
+   * @return the bin, if value is within range, -1 otherwise
+   */
+  public default int getBin(long value, int nBins) {
+    if (nBins <= 0 || Dval.isDval(nBins))
+      return -1;
+    if (!contains(value))
+      return -1;
+    long range = getRange();
+    if (range == 0)
+      return 0;
+    long offset = value - getMin();
+    long bin;
+    try {
+      bin = Math.multiplyExact(offset, (long) nBins) / range;
+    } catch (ArithmeticException e) {
+      bin = BigInteger.valueOf(offset)
+          .multiply(BigInteger.valueOf(nBins))
+          .divide(BigInteger.valueOf(range))
+          .longValue();
+    }
+    return (int) Math.min(nBins - 1, bin);
+  }
+
+  /**
+   * Get fraction between bounds for value
+   *
+   * @param value value
+   * @return fraction between bounds endpoints, or Dval if value not within bounds
+   */
+  public default double getFractionBetween(long value) {
+    if (!contains(value))
+      return Dval.DVAL_DOUBLE;
+    if (rangeIsZero())
+      return 0.0;
+    return (double) (value - getMin()) / getRange();
+  }
+
+  /**
+   * Bound the given value to this bounds, i.e. if the value
+   * is less than the min of the bounds, return bounds min,
+   * if the value is greater than the max of the bounds, return
+   * the bounds max, otherwise just return the value.
+   *
+   * @param value value to bind
+   * @return bounds min if value &lt; min, bounds max if
+   * value &gt; max, otherwise return the value argument.
+   */
+  public default long bound(long value) {
+    return Math.min(getMax(), Math.max(getMin(), value));
+  }
+
+  /**
+   * Convert to double bounds; values beyond 2^53 are rounded.
+   *
+   * @return new instance of Bounds, or null bounds if this bounds is
+   * invalid
+   */
+  public default Bounds toBounds() {
+    if (!isValid())
+      return Bounds.nullBounds();
+    return Bounds.of(getMin(), getMax());
+  }
+
+  /**
+   * Factory method to create bounds given two values, min and max.
+   *
+   * @param min min value; must not be Dval, and &lt;= max
+   * @param max max value; must not be Dval, and &gt;= min
+   * @return new instance of a LongBounds, initialized with min and max.
+   * @throws IllegalArgumentException if min or max is Dval, if
+   * min &gt; max, or if the range overflows a long.
+   */
+  public static LongBounds of(long min, long max) {
+    return ImmutableLongBounds.of(min, max);
+  }
+
+  /**
+   * Create a null bounds, used to indicate that bounds do not
+   * exist, but without resorting to null.
+   *
+   * @return special instance of bounds that represents
+   * null bounds.
+   */
+  public static LongBounds nullBounds() {
+    return NullLongBounds.INSTANCE;
+  }
+
+  /**
+   * Create new instance of LongBounds that represents the minimum and
+   * maximum valid (non-Dval) values from the given array.
+   *
+   * @param array array of values
+   * @return new instance of LongBounds, or null bounds if the array has
+   * no valid values.
+   * @throws IllegalArgumentException if the range overflows a long
+   */
+  public static LongBounds of(long[] array) {
+    if (array == null || array.length == 0)
+      return nullBounds();
+
+    long min = Long.MAX_VALUE;
+    long max = Long.MIN_VALUE;
+    boolean any = false;
+    for (long value : array) {
+      if (Dval.isDval(value))
+        continue;
+      any = true;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    return any ? of(min, max) : nullBounds();
+  }
+
+  /**
+   * Return new instance of bounds that represents the original
+   * bounds, expanded to the given value.  If the original is invalid,
+   * the result is the value alone.
+   *
+   * @param original original bounds
+   * @param value value for which to expand
+   * @return new instance of bounds that represents the original
+   * bounds, expanded to the given value.
+   * @throws IllegalArgumentException if the range overflows a long
+   */
+  public static LongBounds expand(LongBounds original, long value) {
+    Objects.requireNonNull(original);
+    if (Dval.isDval(value))
+      return original;
+    if (!original.isValid())
+      return of(value, value);
+    return of(Math.min(original.getMin(), value), Math.max(original.getMax(), value));
+  }
+
+  /**
+   * Return new instance of bounds that represents the original bounds
+   * expanded to the valid values of the given array.
+   *
+   * @param original original bounds
+   * @param array array of values for which to expand
+   * @return new instance of bounds that represents the original
+   * bounds expanded to the array of values.
+   * @throws IllegalArgumentException if the range overflows a long
+   */
+  public static LongBounds expand(LongBounds original, long[] array) {
+    Objects.requireNonNull(original);
+    LongBounds arrayBounds = of(array);
+    if (!arrayBounds.isValid())
+      return original;
+    if (!original.isValid())
+      return arrayBounds;
+    return minMax(original, arrayBounds);
+  }
+
+  /**
+   * Return new instance of bounds with the lesser minimum and greater
+   * maximum of the given bounds.
+   *
+   * @param bounds0 bounds
+   * @param bounds1 bounds
+   * @return new instance of bounds that represents the minimum and
+   * maximum of the given bounds arguments.
+   * @throws IllegalArgumentException if either bounds argument is
+   * invalid, or the range overflows a long
+   */
+  public static LongBounds minMax(LongBounds bounds0, LongBounds bounds1) {
+    Objects.requireNonNull(bounds0);
+    Objects.requireNonNull(bounds1);
+    if (!bounds0.isValid())
+      throw new IllegalArgumentException("bounds0 is invalid:" + bounds0.format());
+    if (!bounds1.isValid())
+      throw new IllegalArgumentException("bounds1 is invalid:" + bounds1.format());
+    return of(Math.min(bounds0.getMin(), bounds1.getMin()), Math.max(bounds0.getMax(), bounds1.getMax()));
+  }
+
+  /**
+   * Return true if both arguments constitute a valid LongBounds: min &lt;=
+   * max, neither is Dval, and max - min does not overflow.
+   *
+   * @param min min value
+   * @param max max value
+   * @return true if both arguments constitute a valid LongBounds
+   */
+  public static boolean valid(long min, long max) {
+    if (Dval.isDval(min) || Dval.isDval(max))
+      return false;
+    if (min > max)
+      return false;
+    return max - min >= 0;
+  }
+
+  /**
+   * Merge any overlapping bounds in the given set of bounds, e.g. trace
+   * spans, into disjoint bounds sorted by min.  Bounds that share an end
+   * point overlap.
+   *
+   * @param set set of bounds
+   * @return merged list of overlapping bounds.
+   * @throws IllegalArgumentException if a merged range overflows a long
+   */
+  public static List<LongBounds> mergeOverlapping(Set<LongBounds> set) {
+    Objects.requireNonNull(set);
+
+    List<LongBounds> sorted = set.stream()
+        .filter(b -> b.isValid())
+        .collect(Collectors.toList());
+    Collections.sort(sorted, (b1, b2) -> Long.compare(b1.getMin(), b2.getMin()));
+
+    List<LongBounds> merged = new ArrayList<>();
+    if (sorted.isEmpty())
+      return merged;
+    long min = sorted.get(0).getMin();
+    long max = sorted.get(0).getMax();
+    for (LongBounds current : sorted) {
+      if (current.getMin() <= max) {
+        max = Math.max(max, current.getMax());
+      } else {
+        merged.add(of(min, max));
+        min = current.getMin();
+        max = current.getMax();
+      }
+    }
+    merged.add(of(min, max));
+    return merged;
+  }
+
+  static String format(NumberFormat nf, long value) {
+    Objects.requireNonNull(nf);
+    return Dval.isDval(value) ? "Dval" : nf.format(value);
+  }
+}
@@ -0,0 +1,277 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Mutable interval for evaluating long interval-arithmetic expressions in
+ * place, without allocating a new {@link Bounds} at each step, e.g.
+ * <pre>
+ * MutableInterval x = MutableInterval.of(a).mul(b).add(c).sqrt();
+ * </pre>
+ * Each operation replaces this interval with one that contains every
+ * result of applying the operation to values of the operands.  End points
+ * are rounded outward by one ulp with {@link Math#nextDown(double)} and
+ * {@link Math#nextUp(double)}; Java's basic arithmetic is correctly rounded
+ * and {@link Math#exp(double)}, {@link Math#log(double)} and
+ * {@link Math#pow(double, double)} are within one ulp, so the result
+ * contains the exact result.
+ * <p>
+ * If a result cannot be represented as finite bounds, e.g. division by an
+ * interval containing zero, overflow, or a domain error, this interval
+ * becomes invalid (Dval end points), and stays invalid through later
+ * operations.  Instances are not thread safe.
+ *
+ * @see IntervalArithmetic
+ */
+public final class MutableInterval implements Bounds {
+  private double min;
+  private double max;
+
+  /**
+   * @return new invalid interval, to be {@link #set(double, double) set}
+   */
+  public static MutableInterval create() {
+    return new MutableInterval(Dval.DVAL_DOUBLE, Dval.DVAL_DOUBLE);
+  }
+
+  /**
+   * @param min min value
+   * @param max max value
+   * @return new interval, invalid if min and max are not valid bounds
+   */
+  public static MutableInterval of(double min, double max) {
+    return create().set(min, max);
+  }
+
+  /**
+   * @param bounds initial bounds
+   * @return new interval, invalid if bounds is invalid
+   */
+  public static MutableInterval of(Bounds bounds) {
+    return create().set(bounds);
+  }
+
+  private MutableInterval(double min, double max) {
+    this.min = min;
+    this.max = max;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " " + boundsText();
+  }
+
+  @Override
+  public double getMin() {
+    return min;
+  }
+
+  @Override
+  public double getMax() {
+    return max;
+  }
+
+  @Override
+  public double getRange() {
+    return isValid() ? max - min : Dval.DVAL_DOUBLE;
+  }
+
+  /**
+   * @return new instance of Bounds of this interval, or null bounds if this
+   * interval is invalid
+   */
+  public Bounds toBounds() {
+    return isValid() ? Bounds.of(min, max) : Bounds.nullBounds();
+  }
+
+  /**
+   * @param min min value
+   * @param max max value
+   * @return this interval, invalid if min and max are not valid bounds
+   */
+  public MutableInterval set(double min, double max) {
+    return result(min, max);
+  }
+
+  /**
+   * @param bounds bounds
+   * @return this interval, invalid if bounds is invalid
+   */
+  public MutableInterval set(Bounds bounds) {
+    return result(bounds.getMin(), bounds.getMax());
+  }
+
+  /**
+   * @return this interval, made invalid
+   */
+  public MutableInterval setNull() {
+    this.min = Dval.DVAL_DOUBLE;
+    this.max = Dval.DVAL_DOUBLE;
+    return this;
+  }
+
+  public MutableInterval add(Bounds other) {
+    return add(other.getMin(), other.getMax());
+  }
+
+  /**
+   * @param min min value of the other operand
+   * @param max max value of the other operand
+   * @return this interval, replaced by this + [min, max]
+   */
+  public MutableInterval add(double min, double max) {
+    if (!operable(min, max))
+      return setNull();
+    return result(Math.nextDown(this.min + min), Math.nextUp(this.max + max));
+  }
+
+  public MutableInterval sub(Bounds other) {
+    return sub(other.getMin(), other.getMax());
+  }
+
+  /**
+   * @param min min value of the other operand
+   * @param max max value of the other operand
+   * @return this interval, replaced by this - [min, max]
+   */
+  public MutableInterval sub(double min, double max) {
+    if (!operable(min, max))
+      return setNull();
+    return result(Math.nextDown(this.min - max), Math.nextUp(this.max - min));
+  }
+
+  public MutableInterval mul(Bounds other) {
+    return mul(other.getMin(), other.getMax());
+  }
+
+  /**
+   * @param min min value of the other operand
+   * @param max max value of the other operand
+   * @return this interval, replaced by this * [min, max]
+   */
+  public MutableInterval mul(double min, double max) {
+    if (!operable(min, max))
+      return setNull();
+    double p1 = this.min * min;
+    double p2 = this.min * max;
+    double p3 = this.max * min;
+    double p4 = this.max * max;
+    double lo = Math.min(Math.min(p1, p2), Math.min(p3, p4));
+    double hi = Math.max(Math.max(p1, p2), Math.max(p3, p4));
+    return result(Math.nextDown(lo), Math.nextUp(hi));
+  }
+
+  public MutableInterval div(Bounds other) {
+    return div(other.getMin(), other.getMax());
+  }
+
+  /**
+   * Divide by an interval.  A divisor containing zero gives an unbounded
+   * result, so this interval becomes invalid.
+   *
+   * @param min min value of the divisor
+   * @param max max value of the divisor
+   * @return this interval, replaced by this / [min, max]
+   */
+  public MutableInterval div(double min, double max) {
+    if (!operable(min, max) || (min <= 0 && max >= 0))
+      return setNull();
+    double q1 = this.min / min;
+    double q2 = this.min / max;
+    double q3 = this.max / min;
+    double q4 = this.max / max;
+    double lo = Math.min(Math.min(q1, q2), Math.min(q3, q4));
+    double hi = Math.max(Math.max(q1, q2), Math.max(q3, q4));
+    return result(Math.nextDown(lo), Math.nextUp(hi));
+  }
+
+  /**
+   * @return this interval, replaced by -this; exact
+   */
+  public MutableInterval negate() {
+    if (!isValid())
+      return this;
+    return result(-max, -min);
+  }
+
+  /**
+   * Raise to an integer power.  Even powers of an interval containing zero
+   * have a minimum of zero; negative powers of an interval containing zero
+   * are unbounded, so this interval becomes invalid.
+   *
+   * @param exponent exponent
+   * @return this interval, replaced by this<sup>exponent</sup>
+   */
+  public MutableInterval pow(int exponent) {
+    if (!isValid())
+      return this;
+    if (exponent == 0)
+      return result(1.0, 1.0);
+    if (exponent == 1)
+      return this;
+    if (exponent < 0 && min <= 0 && max >= 0)
+      return setNull();
+    double n = Math.abs((double) exponent);
+    double lo = Math.pow(min, n);
+    double hi = Math.pow(max, n);
+    if ((exponent & 1) == 1)
+      result(Math.nextDown(lo), Math.nextUp(hi));
+    else if (min >= 0)
+      result(Math.max(0.0, Math.nextDown(lo)), Math.nextUp(hi));
+    else if (max <= 0)
+      result(Math.max(0.0, Math.nextDown(hi)), Math.nextUp(lo));
+    else
+      result(0.0, Math.nextUp(Math.max(lo, hi)));
+    if (exponent > 0 || !isValid())
+      return this;
+    if (min <= 0 && max >= 0) // underflow
+      return setNull();
+    return result(Math.nextDown(1.0 / max), Math.nextUp(1.0 / min));
+  }
+
+  /**
+   * Square root.  Values below zero are outside the domain and are
+   * ignored; if every value is below zero this interval becomes invalid.
+   *
+   * @return this interval, replaced by sqrt(this)
+   */
+  public MutableInterval sqrt() {
+    if (!isValid() || max < 0)
+      return setNull();
+    double lo = min <= 0 ? 0.0 : Math.max(0.0, Math.nextDown(Math.sqrt(min)));
+    return result(lo, Math.nextUp(Math.sqrt(max)));
+  }
+
+  /**
+   * @return this interval, replaced by exp(this); invalid if it overflows
+   */
+  public MutableInterval exp() {
+    if (!isValid())
+      return this;
+    return result(Math.max(0.0, Math.nextDown(Math.exp(min))), Math.nextUp(Math.exp(max)));
+  }
+
+  /**
+   * Natural logarithm.  The result is unbounded if the interval reaches
+   * zero, so this interval becomes invalid unless min &gt; 0.
+   *
+   * @return this interval, replaced by log(this)
+   */
+  public MutableInterval log() {
+    if (!isValid() || min <= 0)
+      return setNull();
+    return result(Math.nextDown(Math.log(min)), Math.nextUp(Math.log(max)));
+  }
+
+  private boolean operable(double min, double max) {
+    return isValid() && Bounds.valid(min, max);
+  }
+
+  private MutableInterval result(double min, double max) {
+    if (!Bounds.valid(min, max))
+      return setNull();
+    this.min = min;
+    this.max = max;
+    return this;
+  }
+}
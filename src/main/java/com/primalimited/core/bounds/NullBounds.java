@@ -12,6 +12,19 @@ class NullBounds implements Bounds {
     return getClass().getSimpleName() + " " + boundsText(); 
   }
 
+  /**
+   * All null bounds are equal.
+   */
+  @Override
+  public boolean equals(Object obj) {
+    return obj != null && getClass() == obj.getClass();
+  }
+
+  @Override
+  public int hashCode() {
+    return NullBounds.class.hashCode();
+  }
+
   @Override
   public double getMin() {
     return Dval.DVAL_DOUBLE;
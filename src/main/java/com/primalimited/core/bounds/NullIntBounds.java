@@ -0,0 +1,35 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+final class NullIntBounds implements IntBounds {
+  static final NullIntBounds INSTANCE = new NullIntBounds();
+
+  private NullIntBounds() {
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " " + boundsText();
+  }
+
+  @Override
+  public int getMin() {
+    return Dval.DVAL_INT;
+  }
+
+  @Override
+  public int getMax() {
+    return Dval.DVAL_INT;
+  }
+
+  @Override
+  public long getRange() {
+    return Dval.DVAL_LONG;
+  }
+
+  @Override
+  public boolean isValid() {
+    return false;
+  }
+}
@@ -0,0 +1,35 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+final class NullLongBounds implements LongBounds {
+  static final NullLongBounds INSTANCE = new NullLongBounds();
+
+  private NullLongBounds() {
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " " + boundsText();
+  }
+
+  @Override
+  public long getMin() {
+    return Dval.DVAL_LONG;
+  }
+
+  @Override
+  public long getMax() {
+    return Dval.DVAL_LONG;
+  }
+
+  @Override
+  public long getRange() {
+    return Dval.DVAL_LONG;
+  }
+
+  @Override
+  public boolean isValid() {
+    return false;
+  }
+}
@@ -0,0 +1,251 @@
+package com.primalimited.core.bounds;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.DvalArrays;
+import com.primalimited.core.dval.MissingValuePolicy;
+
+/**
+ * Bounded-memory streaming quantile sketch (KLL), for robust bounds over
+ * data that is too large to hold or arrives incrementally.  Values are fed
+ * with {@link #add(double)}; Dval, NaN and infinite values are skipped.
+ * <p>
+ * Memory is O(k) regardless of the number of values, and the rank error of
+ * a quantile is roughly 1.7/k (about 1% at the default k of 200).  The exact
+ * minimum and maximum are also tracked, so quantiles 0 and 1 are exact.
+ * <p>
+ * Instances are not thread safe.  To sketch in parallel, feed one sketch per
+ * thread and {@link #merge(QuantileSketch)} them.
+ */
+public final class QuantileSketch {
+  public static final int DEFAULT_K = 200;
+
+  private static final int MIN_CAPACITY = 8;
+  private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+  private final int k;
+  private final SplittableRandom random;
+  private double[][] levels = new double[1][];
+  private int[] sizes = new int[1];
+  private int[] capacities = new int[1];
+  private long count;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public static QuantileSketch create() {
+    return new QuantileSketch(DEFAULT_K);
+  }
+
+  /**
+   * Create a sketch with the given accuracy parameter.
+   *
+   * @param k accuracy parameter; larger is more accurate and uses more
+   * memory
+   * @return new sketch
+   * @throws IllegalArgumentException if k &lt; 8
+   */
+  public static QuantileSketch create(int k) {
+    if (k < MIN_CAPACITY)
+      throw new IllegalArgumentException("k (" + k + ") < " + MIN_CAPACITY);
+    return new QuantileSketch(k);
+  }
+
+  private QuantileSketch(int k) {
+    this.k = k;
+    this.random = new SplittableRandom(k);
+    this.levels[0] = new double[k];
+    this.capacities[0] = k;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " k=" + k + " count=" + count + " retained=" + retained();
+  }
+
+  /**
+   * Add a value; missing values are skipped.
+   *
+   * @param value value to add
+   */
+  public void add(double value) {
+    if (!MissingValuePolicy.DVAL_OR_NAN.isValid(value))
+      return;
+    count++;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    append(0, value);
+    if (sizes[0] >= capacities[0]) {
+      compact(0);
+      compress();
+    }
+  }
+
+  /**
+   * Add all values of the array; missing values are skipped.
+   *
+   * @param values values to add
+   */
+  public void add(double[] values) {
+    Objects.requireNonNull(values, "values");
+    for (double value : values)
+      add(value);
+  }
+
+  /**
+   * Merge the other sketch into this one; the other sketch is unchanged,
+   * unless it is this sketch, which then counts each value twice.
+   *
+   * @param other sketch to merge
+   */
+  public void merge(QuantileSketch other) {
+    Objects.requireNonNull(other, "other");
+    if (other.count == 0)
+      return;
+    // snapshot the level sizes: appending grows them when other == this
+    int[] otherSizes = other.sizes.clone();
+    long otherCount = other.count;
+    for (int h = 0; h < otherSizes.length; h++)
+      for (int i = 0; i < otherSizes[h]; i++)
+        append(h, other.levels[h][i]);
+    count += otherCount;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    compress();
+  }
+
+  /**
+   * Return the number of values added (and merged) into this sketch.
+   * @return number of values
+   */
+  public long count() {
+    return count;
+  }
+
+  public double getMin() {
+    return count == 0 ? Dval.DVAL_DOUBLE : min;
+  }
+
+  public double getMax() {
+    return count == 0 ? Dval.DVAL_DOUBLE : max;
+  }
+
+  /**
+   * Return the approximate value at quantile q.
+   *
+   * @param q quantile in [0..1]
+   * @return approximate quantile, or Dval if the sketch is empty
+   * @throws IllegalArgumentException if q is not in [0..1]
+   */
+  public double quantile(double q) {
+    if (!Bounds.PROBABILITY.contains(q))
+      throw new IllegalArgumentException("quantile (" + q + ") not in [0..1]");
+    if (count == 0)
+      return Dval.DVAL_DOUBLE;
+    if (q == 0.0)
+      return min;
+    if (q == 1.0)
+      return max;
+
+    int retained = retained();
+    double[] values = new double[retained];
+    long[] weights = new long[retained];
+    int n = 0;
+    for (int h = 0; h < levels.length; h++) {
+      for (int i = 0; i < sizes[h]; i++) {
+        values[n] = levels[h][i];
+        weights[n++] = 1L << h;
+      }
+    }
+
+    int[] order = DvalArrays.argsort(values, MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST);
+    double target = q * count;
+    long cumulative = 0;
+    for (int index : order) {
+      cumulative += weights[index];
+      if (cumulative >= target)
+        return values[index];
+    }
+    return max;
+  }
+
+  /**
+   * Return approximate bounds between two quantiles.
+   *
+   * @param lower lower quantile in [0..1]
+   * @param upper upper quantile in [0..1], &gt;= lower
+   * @return bounds between the quantiles, or null bounds if the sketch is
+   * empty
+   * @throws IllegalArgumentException if either quantile is not in [0..1],
+   * or lower &gt; upper
+   */
+  public Bounds toBounds(double lower, double upper) {
+    Quantiles.validate(lower, upper);
+    if (count == 0)
+      return Bounds.nullBounds();
+    return Bounds.of(quantile(lower), quantile(upper));
+  }
+
+  int retained() {
+    int retained = 0;
+    for (int h = 0; h < levels.length; h++)
+      retained += sizes[h];
+    return retained;
+  }
+
+  private int totalCapacity() {
+    int total = 0;
+    for (int capacity : capacities)
+      total += capacity;
+    return total;
+  }
+
+  private void append(int level, double value) {
+    while (level >= levels.length)
+      addLevel();
+    double[] items = levels[level];
+    if (sizes[level] == items.length)
+      levels[level] = items = Arrays.copyOf(items, Math.max(MIN_CAPACITY, 2 * items.length));
+    items[sizes[level]++] = value;
+  }
+
+  private void addLevel() {
+    levels = Arrays.copyOf(levels, levels.length + 1);
+    sizes = Arrays.copyOf(sizes, sizes.length + 1);
+    levels[levels.length - 1] = new double[MIN_CAPACITY];
+
+    /* level capacities decay geometrically below the top level, which holds k */
+    capacities = new int[levels.length];
+    for (int h = 0; h < levels.length; h++) {
+      int depth = levels.length - 1 - h;
+      capacities[h] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+  }
+
+  private void compress() {
+    while (retained() >= totalCapacity()) {
+      int h = 0;
+      while (sizes[h] < capacities[h])
+        h++;
+      compact(h);
+    }
+  }
+
+  /**
+   * Sort the level and promote every other item to the next level, where
+   * each carries twice the weight; an odd item out stays behind.
+   */
+  private void compact(int level) {
+    if (level + 1 == levels.length)
+      addLevel();
+    double[] items = levels[level];
+    int size = sizes[level];
+    Arrays.sort(items, 0, size);
+    int start = size & 1;
+    for (int i = start + random.nextInt(2); i < size; i += 2)
+      append(level + 1, items[i]);
+    sizes[level] = start;
+  }
+}
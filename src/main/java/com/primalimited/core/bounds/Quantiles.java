@@ -0,0 +1,58 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.DvalArrays;
+import com.primalimited.core.dval.MissingValuePolicy;
+
+/**
+ * Exact quantiles by in-place selection, using linear interpolation between
+ * the closest ranks.
+ */
+final class Quantiles {
+  private Quantiles() {
+  }
+
+  static void validate(double lower, double upper) {
+    if (!Bounds.PROBABILITY.contains(lower))
+      throw new IllegalArgumentException("lower quantile (" + lower + ") not in [0..1]");
+    if (!Bounds.PROBABILITY.contains(upper))
+      throw new IllegalArgumentException("upper quantile (" + upper + ") not in [0..1]");
+    if (lower > upper)
+      throw new IllegalArgumentException("lower quantile (" + lower + ") > upper quantile (" + upper + ")");
+  }
+
+  /**
+   * Bounds between two quantiles of the valid values in the array, which
+   * is reordered.
+   */
+  static Bounds exact(double[] array, double lower, double upper) {
+    validate(lower, upper);
+    int count = DvalArrays.partitionValid(array, MissingValuePolicy.defaultPolicy());
+    if (count == 0)
+      return Bounds.nullBounds();
+
+    double min = quantile(array, 0, count, lower);
+    int from = (int) Math.floor(lower * (count - 1));
+    double max = quantile(array, from, count, upper);
+    return Bounds.of(min, max);
+  }
+
+  /**
+   * Quantile q of the valid values in array[0, count), selecting within
+   * [from, count); values before from must be no greater than any value
+   * at or after it.
+   */
+  private static double quantile(double[] array, int from, int count, double q) {
+    double position = q * (count - 1);
+    int k = (int) Math.floor(position);
+    double value = DvalArrays.select(array, from, count, k);
+    double fraction = position - k;
+    if (fraction == 0.0 || k + 1 >= count)
+      return value;
+
+    /* after selection every value beyond k is >= value; the next rank is their minimum */
+    double next = array[k + 1];
+    for (int i = k + 2; i < count; i++)
+      next = Math.min(next, array[i]);
+    return value + fraction * (next - value);
+  }
+}
@@ -0,0 +1,114 @@
+package com.primalimited.core.bounds;
+
+import java.util.Objects;
+
+/**
+ * Index over a double or float array that answers the bounds of any index
+ * range [from, to) without copying or rescanning the whole range, e.g. the
+ * visible part of a series while zooming a chart.
+ * <p>
+ * The array is divided into blocks whose minimum and maximum are held in a
+ * segment tree, so a query scans at most two partial blocks and visits
+ * O(log(n / blockSize)) tree nodes.  Larger blocks use less memory (two
+ * doubles per block, doubled for the tree) at the cost of longer edge
+ * scans; a block size of 1 is a plain segment tree.  Invalid values (Dval,
+ * NaN, infinite) are skipped.
+ * <p>
+ * The index refers to the array rather than copying it.  Change values
+ * through {@link #set(int, double)} so the index stays current.  Queries may
+ * run concurrently with each other but not with {@link #set(int, double)}.
+ */
+public interface RangeBoundsIndex {
+  public static final int DEFAULT_BLOCK_SIZE = 32;
+
+  /**
+   * @return number of values indexed
+   */
+  public int size();
+
+  /**
+   * @return number of values per block
+   */
+  public int blockSize();
+
+  /**
+   * Return the minimum valid value in [from, to).
+   *
+   * @param from first index, inclusive
+   * @param to last index, exclusive
+   * @return minimum valid value, or Dval if the range has none
+   * @throws IllegalArgumentException if the range is not within [0, size]
+   */
+  public double getMin(int from, int to);
+
+  /**
+   * Return the maximum valid value in [from, to).
+   *
+   * @param from first index, inclusive
+   * @param to last index, exclusive
+   * @return maximum valid value, or Dval if the range has none
+   * @throws IllegalArgumentException if the range is not within [0, size]
+   */
+  public double getMax(int from, int to);
+
+  /**
+   * Return the bounds of the valid values in [from, to).
+   *
+   * @param from first index, inclusive
+   * @param to last index, exclusive
+   * @return new instance of Bounds, or null bounds if the range has no
+   * valid values
+   * @throws IllegalArgumentException if the range is not within [0, size]
+   */
+  public default Bounds getBounds(int from, int to) {
+    double min = getMin(from, to);
+    double max = getMax(from, to);
+    if (!Bounds.valid(min, max))
+      return Bounds.nullBounds();
+    return Bounds.of(min, max);
+  }
+
+  /**
+   * Set the value at index in the underlying array and update the index,
+   * in O(blockSize + log(n / blockSize)).
+   *
+   * @param index array index
+   * @param value new value
+   * @throws IndexOutOfBoundsException if index is not in [0, size)
+   */
+  public void set(int index, double value);
+
+  public static RangeBoundsIndex of(double[] array) {
+    return of(array, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Build an index over the array.
+   *
+   * @param array array of values; referenced, not copied
+   * @param blockSize number of values per block, &gt; 0
+   * @return new index
+   * @throws IllegalArgumentException if blockSize &lt;= 0
+   */
+  public static RangeBoundsIndex of(double[] array, int blockSize) {
+    Objects.requireNonNull(array, "array");
+    return new DoubleRangeBoundsIndex(array, blockSize);
+  }
+
+  public static RangeBoundsIndex of(float[] array) {
+    return of(array, DEFAULT_BLOCK_SIZE);
+  }
+
+  /**
+   * Build an index over the array.
+   *
+   * @param array array of values; referenced, not copied
+   * @param blockSize number of values per block, &gt; 0
+   * @return new index
+   * @throws IllegalArgumentException if blockSize &lt;= 0
+   */
+  public static RangeBoundsIndex of(float[] array, int blockSize) {
+    Objects.requireNonNull(array, "array");
+    return new FloatRangeBoundsIndex(array, blockSize);
+  }
+}
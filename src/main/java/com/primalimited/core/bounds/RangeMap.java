@@ -0,0 +1,155 @@
+package com.primalimited.core.bounds;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable map from disjoint {@link Bounds} to object values, e.g.
+ * geological zones, for classifying large numbers of values.  Lookup is
+ * the same as {@link IntRangeMap}, to which this delegates with range
+ * indices as the int values.
+ *
+ * @param <T> value type
+ * @see IntRangeMap
+ */
+public final class RangeMap<T> {
+  private final IntRangeMap index;
+  private final List<T> values; // sorted by range min
+
+  /**
+   * @param <T> value type
+   * @param ranges disjoint ranges
+   * @param values value of each range, same size as ranges
+   * @return new map
+   * @throws IllegalArgumentException if the lists differ in size, a range
+   * is invalid, or ranges overlap
+   */
+  public static <T> RangeMap<T> of(List<Bounds> ranges, List<T> values) {
+    Objects.requireNonNull(ranges, "ranges");
+    Objects.requireNonNull(values, "values");
+    if (ranges.size() != values.size())
+      throw new IllegalArgumentException("ranges.size() (" + ranges.size() + ") != values.size() (" + values.size() + ")");
+    int[] positions = new int[ranges.size()];
+    Arrays.setAll(positions, i -> i);
+    IntRangeMap index = IntRangeMap.of(ranges.toArray(new Bounds[0]), positions, -1);
+    List<T> sorted = new ArrayList<>(values.size());
+    for (int i = 0; i < index.size(); i++)
+      sorted.add(values.get(index.getValue(i)));
+    return new RangeMap<>(index, sorted);
+  }
+
+  private RangeMap(IntRangeMap index, List<T> values) {
+    this.index = index;
+    this.values = values;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size();
+  }
+
+  /**
+   * @return number of ranges
+   */
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * @param position range index, in ascending order of range minimum
+   * @return new instance of Bounds of the range
+   */
+  public Bounds getRange(int position) {
+    return index.getRange(position);
+  }
+
+  /**
+   * @param position range index, in ascending order of range minimum
+   * @return value of the range
+   */
+  public T getValue(int position) {
+    return values.get(position);
+  }
+
+  /**
+   * Return the index of the range containing a value.
+   *
+   * @param value value to classify
+   * @return index of the range, in ascending order of range minimum, or -1
+   * if no range contains the value or the value is invalid
+   */
+  public int indexOf(double value) {
+    return index.indexOf(value);
+  }
+
+  /**
+   * Return the value of the range containing a value.
+   *
+   * @param value value to classify
+   * @return value of the range, or null if no range contains the value or
+   * the value is invalid
+   */
+  public T get(double value) {
+    return getOrDefault(value, null);
+  }
+
+  /**
+   * Return the value of the range containing a value.
+   *
+   * @param value value to classify
+   * @param noValue value to return if no range contains the value
+   * @return value of the range, or noValue if no range contains the value
+   * or the value is invalid
+   */
+  public T getOrDefault(double value, T noValue) {
+    int position = index.indexOf(value);
+    return position < 0 ? noValue : values.get(position);
+  }
+
+  /**
+   * Classify an array of values.
+   *
+   * @param input values to classify
+   * @param output receives the value of each input value's range, or null
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void get(double[] input, T[] output) {
+    checkLengths(input, output);
+    for (int i = 0; i < input.length; i++)
+      output[i] = get(input[i]);
+  }
+
+  /**
+   * Classify an array of values across the common fork/join pool.
+   *
+   * @param input values to classify
+   * @param output receives the value of each input value's range, or null
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void parallelGet(double[] input, T[] output) {
+    checkLengths(input, output);
+    Arrays.parallelSetAll(output, i -> get(input[i]));
+  }
+
+  /**
+   * Find the range index of each value of an array across the common
+   * fork/join pool; the indices may then be used with
+   * {@link #getValue(int)}, or to index per-range primitive arrays.
+   *
+   * @param input values to classify
+   * @param output receives the range index of each input value, or -1
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void parallelIndexOf(double[] input, int[] output) {
+    index.parallelIndexOf(input, output);
+  }
+
+  private static void checkLengths(double[] input, Object[] output) {
+    Objects.requireNonNull(input, "input");
+    Objects.requireNonNull(output, "output");
+    if (input.length != output.length)
+      throw new IllegalArgumentException("input.length (" + input.length + ") != output.length (" + output.length + ")");
+  }
+}
@@ -0,0 +1,246 @@
+package com.primalimited.core.bounds;
+
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Tracks the bounds of the most recent values of a series, either the last
+ * N samples or the samples within a duration of the latest timestamp.
+ * <p>
+ * Minimum and maximum are kept in monotonic deques over primitive ring
+ * buffers, so adding a sample costs O(1) amortized and reading the bounds
+ * never scans the window.  Invalid values (Dval, NaN, infinite) occupy a
+ * slot in a count-based window but never affect the bounds.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class SlidingWindowBounds {
+  /* deques start at most this large, and grow as needed */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  private final boolean timeBased;
+  private final long span;
+  private final MonotonicDeque minima;
+  private final MonotonicDeque maxima;
+  private long sequence;
+  private long latest = Long.MIN_VALUE;
+
+  /**
+   * Create a tracker for the bounds of the last size samples.
+   *
+   * @param size number of samples in the window
+   * @return new tracker
+   * @throws IllegalArgumentException if size &lt;= 0
+   */
+  public static SlidingWindowBounds ofCount(int size) {
+    if (size <= 0)
+      throw new IllegalArgumentException("size (" + size + ") must be > 0");
+    return new SlidingWindowBounds(false, size, Math.min(size, INITIAL_CAPACITY));
+  }
+
+  /**
+   * Create a tracker for the bounds of samples whose timestamp is within
+   * duration of the latest timestamp, i.e. in (latest - duration, latest].
+   * Timestamps may be in any unit, e.g. milliseconds or nanoseconds.
+   *
+   * @param duration window duration, in timestamp units
+   * @return new tracker
+   * @throws IllegalArgumentException if duration &lt;= 0
+   */
+  public static SlidingWindowBounds ofDuration(long duration) {
+    if (duration <= 0)
+      throw new IllegalArgumentException("duration (" + duration + ") must be > 0");
+    return new SlidingWindowBounds(true, duration, INITIAL_CAPACITY);
+  }
+
+  private SlidingWindowBounds(boolean timeBased, long span, int capacity) {
+    this.timeBased = timeBased;
+    this.span = span;
+    this.minima = new MonotonicDeque(capacity, true);
+    this.maxima = new MonotonicDeque(capacity, false);
+  }
+
+  @Override
+  public String toString() {
+    String window = timeBased ? "duration=" + span : "count=" + span;
+    return getClass().getSimpleName() + " " + window + " " + getBounds().boundsText();
+  }
+
+  /**
+   * Add the next sample to a count-based window.
+   *
+   * @param value sample value
+   * @throws IllegalStateException if this is a time-based window
+   */
+  public void add(double value) {
+    if (timeBased)
+      throw new IllegalStateException("time-based window requires a timestamp");
+    long key = sequence++;
+    latest = key;
+    push(key, value);
+  }
+
+  /**
+   * Add the next sample to a time-based window.
+   *
+   * @param timestamp sample timestamp; must not precede the latest timestamp
+   * @param value sample value
+   * @throws IllegalStateException if this is a count-based window
+   * @throws IllegalArgumentException if timestamp precedes the latest
+   * timestamp
+   */
+  public void add(long timestamp, double value) {
+    if (!timeBased)
+      throw new IllegalStateException("count-based window does not take timestamps");
+    advanceTo(timestamp);
+    push(timestamp, value);
+  }
+
+  /**
+   * Advance the latest time of a time-based window without adding a
+   * sample, evicting samples that fall out of the window.
+   *
+   * @param timestamp new latest timestamp; must not precede the latest
+   * timestamp
+   * @throws IllegalStateException if this is a count-based window
+   * @throws IllegalArgumentException if timestamp precedes the latest
+   * timestamp
+   */
+  public void advanceTo(long timestamp) {
+    if (!timeBased)
+      throw new IllegalStateException("count-based window does not take timestamps");
+    if (timestamp < latest)
+      throw new IllegalArgumentException("timestamp (" + timestamp + ") < latest (" + latest + ")");
+    latest = timestamp;
+    evict();
+  }
+
+  /**
+   * Return a snapshot of the bounds of the valid values in the window.
+   *
+   * @return bounds of the window, or null bounds if the window holds no
+   * valid values
+   */
+  public Bounds getBounds() {
+    if (minima.isEmpty())
+      return Bounds.nullBounds();
+    return Bounds.of(minima.front(), maxima.front());
+  }
+
+  /**
+   * @return minimum valid value in the window, or Dval if none
+   */
+  public double getMin() {
+    return minima.isEmpty() ? Dval.DVAL_DOUBLE : minima.front();
+  }
+
+  /**
+   * @return maximum valid value in the window, or Dval if none
+   */
+  public double getMax() {
+    return maxima.isEmpty() ? Dval.DVAL_DOUBLE : maxima.front();
+  }
+
+  /**
+   * @return true if the window holds at least one valid value
+   */
+  public boolean isValid() {
+    return !minima.isEmpty();
+  }
+
+  /**
+   * Remove all samples.
+   */
+  public void clear() {
+    minima.clear();
+    maxima.clear();
+    sequence = 0;
+    latest = Long.MIN_VALUE;
+  }
+
+  private void push(long key, double value) {
+    evict();
+    if (Dval.isValid.test(value)) {
+      minima.push(key, value);
+      maxima.push(key, value);
+    }
+  }
+
+  private void evict() {
+    long threshold = latest - span;
+    if (threshold > latest)
+      return; // underflow, nothing can be older
+    minima.evict(threshold);
+    maxima.evict(threshold);
+  }
+
+  /**
+   * Deque of (key, value) entries whose values are monotonic from front to
+   * back, ascending for minima and descending for maxima; the front holds
+   * the extreme of the window.
+   */
+  private static final class MonotonicDeque {
+    private final boolean minimum;
+    private long[] keys;
+    private double[] values;
+    private int mask;
+    private int head;
+    private int size;
+
+    MonotonicDeque(int capacity, boolean minimum) {
+      this.minimum = minimum;
+      int length = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+      this.keys = new long[length];
+      this.values = new double[length];
+      this.mask = length - 1;
+    }
+
+    boolean isEmpty() {
+      return size == 0;
+    }
+
+    double front() {
+      return values[head];
+    }
+
+    void push(long key, double value) {
+      while (size > 0) {
+        double back = values[(head + size - 1) & mask];
+        if (minimum ? back < value : back > value)
+          break;
+        size--;
+      }
+      if (size == keys.length)
+        grow();
+      int tail = (head + size) & mask;
+      keys[tail] = key;
+      values[tail] = value;
+      size++;
+    }
+
+    void evict(long threshold) {
+      while (size > 0 && keys[head] <= threshold) {
+        head = (head + 1) & mask;
+        size--;
+      }
+    }
+
+    void clear() {
+      head = 0;
+      size = 0;
+    }
+
+    private void grow() {
+      int length = keys.length;
+      long[] newKeys = new long[2 * length];
+      double[] newValues = new double[2 * length];
+      for (int i = 0; i < size; i++) {
+        newKeys[i] = keys[(head + i) & mask];
+        newValues[i] = values[(head + i) & mask];
+      }
+      keys = newKeys;
+      values = newValues;
+      mask = newKeys.length - 1;
+      head = 0;
+    }
+  }
+}
@@ -156,4 +156,48 @@ public class Dval {
   public static boolean hasAnyNonDval(double[] array) {
     return Arrays.stream(array).anyMatch(d -> !Dval.isDval(d));
   }
+
+  /**
+   * Return true if any value in the array is missing under the policy.
+   *
+   * @param array array of values
+   * @param policy missing value policy
+   * @return true if any value is missing, false otherwise
+   */
+  public static boolean hasMissing(double[] array, MissingValuePolicy policy) {
+    Objects.requireNonNull(array, "array");
+    Objects.requireNonNull(policy, "policy");
+    for (double value : array)
+      if (!policy.isValid(value))
+        return true;
+    return false;
+  }
+
+  /**
+   * Return true if every value in the array is missing under the policy.
+   *
+   * @param array array of values
+   * @param policy missing value policy
+   * @return true if every value is missing (or the array is empty),
+   * false otherwise
+   */
+  public static boolean allValuesAreMissing(double[] array, MissingValuePolicy policy) {
+    return !hasAnyValid(array, policy);
+  }
+
+  /**
+   * Return true if any value in the array is valid under the policy.
+   *
+   * @param array array of values
+   * @param policy missing value policy
+   * @return true if any value is valid, false otherwise
+   */
+  public static boolean hasAnyValid(double[] array, MissingValuePolicy policy) {
+    Objects.requireNonNull(array, "array");
+    Objects.requireNonNull(policy, "policy");
+    for (double value : array)
+      if (policy.isValid(value))
+        return true;
+    return false;
+  }
 }
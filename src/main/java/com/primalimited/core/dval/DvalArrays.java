@@ -0,0 +1,398 @@
+package com.primalimited.core.dval;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Sorting, ranking and selection of primitive double arrays that treat
+ * missing values (Dval, NaN, per {@link MissingValuePolicy}) as missing
+ * rather than as very large numbers.  Missing values are gathered at one
+ * end of the array, per {@link Placement}, and valid values are ordered as
+ * {@link Arrays#sort(double[])} would order them.
+ */
+public final class DvalArrays {
+  /**
+   * Where missing values are placed in a sorted result.
+   */
+  public enum Placement {
+    /** Missing values precede all valid values. */
+    FIRST,
+    /** Missing values follow all valid values. */
+    LAST
+  }
+
+  /* below this size parallel variants run sequentially */
+  static final int PARALLEL_THRESHOLD = 1 << 13;
+  private static final int INSERTION_SORT_THRESHOLD = 16;
+
+  /**
+   * Class constructor (private).  This class contains only static methods,
+   * therefore it is unnecessary to instantiate this class.
+   */
+  private DvalArrays() {
+  }
+
+  /**
+   * Sort the array in place using the default missing value policy,
+   * placing missing values last.
+   *
+   * @param array array to sort
+   * @return the number of valid values, which occupy [0, count)
+   */
+  public static int sort(double[] array) {
+    return sort(array, MissingValuePolicy.defaultPolicy(), Placement.LAST);
+  }
+
+  /**
+   * Sort the array in place, gathering missing values at one end.  The
+   * order of missing values among themselves is unspecified.
+   *
+   * @param array array to sort
+   * @param policy missing value policy
+   * @param placement where to place missing values
+   * @return the number of valid values; these occupy [0, count) when
+   * placement is LAST, and [length - count, length) when FIRST
+   */
+  public static int sort(double[] array, MissingValuePolicy policy, Placement placement) {
+    return sort(array, policy, placement, false);
+  }
+
+  /**
+   * Sort the array in place, as {@link #sort(double[], MissingValuePolicy, Placement)},
+   * using {@link Arrays#parallelSort(double[], int, int)} for the valid values.
+   *
+   * @param array array to sort
+   * @param policy missing value policy
+   * @param placement where to place missing values
+   * @return the number of valid values
+   */
+  public static int parallelSort(double[] array, MissingValuePolicy policy, Placement placement) {
+    return sort(array, policy, placement, true);
+  }
+
+  private static int sort(double[] array, MissingValuePolicy policy, Placement placement, boolean parallel) {
+    Objects.requireNonNull(array, "array");
+    Objects.requireNonNull(policy, "policy");
+    Objects.requireNonNull(placement, "placement");
+
+    int count;
+    int from;
+    if (placement == Placement.LAST) {
+      count = partitionValid(array, policy);
+      from = 0;
+    } else {
+      count = array.length - partitionMissing(array, policy);
+      from = array.length - count;
+    }
+
+    if (parallel)
+      Arrays.parallelSort(array, from, from + count);
+    else
+      Arrays.sort(array, from, from + count);
+    return count;
+  }
+
+  /**
+   * Return the permutation of indices that sorts the array, without
+   * modifying the array.  Valid values are ordered stably; missing values
+   * keep their original relative order.
+   *
+   * @param array array of values
+   * @param policy missing value policy
+   * @param placement where to place indices of missing values
+   * @return index permutation, i.e. array[result[0]] is the smallest valid
+   * value when placement is LAST
+   */
+  public static int[] argsort(double[] array, MissingValuePolicy policy, Placement placement) {
+    return argsort(array, policy, placement, false);
+  }
+
+  /**
+   * Return the permutation of indices that sorts the array, as
+   * {@link #argsort(double[], MissingValuePolicy, Placement)}, sorting large
+   * arrays in parallel on the common fork/join pool.
+   *
+   * @param array array of values
+   * @param policy missing value policy
+   * @param placement where to place indices of missing values
+   * @return index permutation
+   */
+  public static int[] parallelArgsort(double[] array, MissingValuePolicy policy, Placement placement) {
+    return argsort(array, policy, placement, true);
+  }
+
+  private static int[] argsort(double[] array, MissingValuePolicy policy, Placement placement, boolean parallel) {
+    Objects.requireNonNull(array, "array");
+    Objects.requireNonNull(policy, "policy");
+    Objects.requireNonNull(placement, "placement");
+
+    int length = array.length;
+    int count = 0;
+    for (double value : array)
+      if (policy.isValid(value))
+        count++;
+
+    double[] keys = new double[count];
+    int[] valid = new int[count];
+    int[] result = new int[length];
+    int missingAt = placement == Placement.LAST ? count : 0;
+    int validAt = 0;
+    for (int i = 0; i < length; i++) {
+      double value = array[i];
+      if (policy.isValid(value)) {
+        keys[validAt] = value;
+        valid[validAt++] = i;
+      } else {
+        result[missingAt++] = i;
+      }
+    }
+
+    MergeSort task = new MergeSort(keys, valid, new double[count], new int[count], 0, count, parallel);
+    if (parallel && count >= PARALLEL_THRESHOLD)
+      ForkJoinPool.commonPool().invoke(task);
+    else
+      task.compute();
+
+    System.arraycopy(valid, 0, result, placement == Placement.LAST ? 0 : length - count, count);
+    return result;
+  }
+
+  /**
+   * Return the k-th smallest valid value (k is zero based), using an
+   * introselect that runs in O(n) worst case.  The array is reordered:
+   * valid values are moved to [0, count), and the selected value ends up at
+   * index k with no greater value before it and no smaller value after it.
+   *
+   * @param array array of values, reordered in place
+   * @param k zero-based rank among valid values
+   * @param policy missing value policy
+   * @return the k-th smallest valid value, or Dval if k is not in
+   * [0, count of valid values)
+   */
+  public static double select(double[] array, int k, MissingValuePolicy policy) {
+    Objects.requireNonNull(array, "array");
+    Objects.requireNonNull(policy, "policy");
+    int count = partitionValid(array, policy);
+    if (k < 0 || k >= count)
+      return Dval.DVAL_DOUBLE;
+    selectInRange(array, 0, count, k);
+    return array[k];
+  }
+
+  /**
+   * Move values that are valid under the policy to the front of the array.
+   *
+   * @param array array of values, reordered in place
+   * @param policy missing value policy
+   * @return the number of valid values, which occupy [0, count)
+   */
+  public static int partitionValid(double[] array, MissingValuePolicy policy) {
+    Objects.requireNonNull(array, "array");
+    Objects.requireNonNull(policy, "policy");
+    int count = 0;
+    for (int i = 0; i < array.length; i++) {
+      double value = array[i];
+      if (policy.isValid(value)) {
+        array[i] = array[count];
+        array[count++] = value;
+      }
+    }
+    return count;
+  }
+
+  private static int partitionMissing(double[] array, MissingValuePolicy policy) {
+    int count = 0;
+    for (int i = 0; i < array.length; i++) {
+      double value = array[i];
+      if (!policy.isValid(value)) {
+        array[i] = array[count];
+        array[count++] = value;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Reorder array[from, to) so that array[k] holds the value it would hold
+   * were the range sorted, with no greater value before and no smaller
+   * value after it.  The range is assumed to hold valid values only, e.g.
+   * the first count values after {@link #partitionValid}.
+   *
+   * @param array array of values, reordered in place
+   * @param from first index, inclusive
+   * @param to last index, exclusive
+   * @param k index to select, from &lt;= k &lt; to
+   * @return the selected value, array[k]
+   * @throws IllegalArgumentException if k is not in [from, to)
+   */
+  public static double select(double[] array, int from, int to, int k) {
+    Objects.requireNonNull(array, "array");
+    if (from < 0 || to > array.length || k < from || k >= to)
+      throw new IllegalArgumentException("k (" + k + ") not in [" + from + ", " + to + ")");
+    selectInRange(array, from, to, k);
+    return array[k];
+  }
+
+  private static void selectInRange(double[] a, int from, int to, int k) {
+    int lo = from;
+    int hi = to;
+    int depth = 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, hi - lo)));
+    while (hi - lo > INSERTION_SORT_THRESHOLD) {
+      double pivot = depth-- > 0 ? medianOfThree(a, lo, hi) : medianOfMedians(a, lo, hi);
+
+      /* three-way partition: [lo, lt) < pivot, [lt, gt) == pivot, [gt, hi) > pivot */
+      int lt = lo;
+      int gt = hi;
+      int i = lo;
+      while (i < gt) {
+        int c = Double.compare(a[i], pivot);
+        if (c < 0)
+          swap(a, lt++, i++);
+        else if (c > 0)
+          swap(a, i, --gt);
+        else
+          i++;
+      }
+
+      if (k < lt)
+        hi = lt;
+      else if (k >= gt)
+        lo = gt;
+      else
+        return;
+    }
+    insertionSort(a, lo, hi);
+  }
+
+  private static double medianOfThree(double[] a, int lo, int hi) {
+    double x = a[lo];
+    double y = a[lo + ((hi - lo) >>> 1)];
+    double z = a[hi - 1];
+    if (Double.compare(x, y) > 0) {
+      double t = x;
+      x = y;
+      y = t;
+    }
+    if (Double.compare(y, z) > 0)
+      y = Double.compare(x, z) > 0 ? x : z;
+    return y;
+  }
+
+  private static double medianOfMedians(double[] a, int lo, int hi) {
+    int medians = lo;
+    for (int i = lo; i < hi; i += 5) {
+      int end = Math.min(i + 5, hi);
+      insertionSort(a, i, end);
+      swap(a, medians++, i + ((end - i) >>> 1));
+    }
+    int mid = lo + ((medians - lo) >>> 1);
+    selectInRange(a, lo, medians, mid);
+    return a[mid];
+  }
+
+  private static void insertionSort(double[] a, int lo, int hi) {
+    for (int i = lo + 1; i < hi; i++) {
+      double value = a[i];
+      int j = i - 1;
+      while (j >= lo && Double.compare(a[j], value) > 0) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = value;
+    }
+  }
+
+  private static void swap(double[] a, int i, int j) {
+    double t = a[i];
+    a[i] = a[j];
+    a[j] = t;
+  }
+
+  /**
+   * Stable merge sort of keys, carrying an index array along.
+   */
+  @SuppressWarnings("serial")
+  private static final class MergeSort extends RecursiveAction {
+    private final double[] keys;
+    private final int[] indices;
+    private final double[] keyBuffer;
+    private final int[] indexBuffer;
+    private final int lo;
+    private final int hi;
+    private final boolean parallel;
+
+    MergeSort(double[] keys, int[] indices, double[] keyBuffer, int[] indexBuffer, int lo, int hi, boolean parallel) {
+      this.keys = keys;
+      this.indices = indices;
+      this.keyBuffer = keyBuffer;
+      this.indexBuffer = indexBuffer;
+      this.lo = lo;
+      this.hi = hi;
+      this.parallel = parallel;
+    }
+
+    @Override
+    protected void compute() {
+      if (hi - lo <= INSERTION_SORT_THRESHOLD) {
+        insertionSort();
+        return;
+      }
+
+      int mid = (lo + hi) >>> 1;
+      MergeSort left = new MergeSort(keys, indices, keyBuffer, indexBuffer, lo, mid, parallel);
+      MergeSort right = new MergeSort(keys, indices, keyBuffer, indexBuffer, mid, hi, parallel);
+      if (parallel && hi - lo >= PARALLEL_THRESHOLD) {
+        invokeAll(left, right);
+      } else {
+        left.compute();
+        right.compute();
+      }
+
+      if (Double.compare(keys[mid - 1], keys[mid]) <= 0)
+        return;
+      merge(mid);
+    }
+
+    private void merge(int mid) {
+      int i = lo;
+      int j = mid;
+      int out = lo;
+      while (i < mid && j < hi) {
+        if (Double.compare(keys[i], keys[j]) <= 0) {
+          keyBuffer[out] = keys[i];
+          indexBuffer[out++] = indices[i++];
+        } else {
+          keyBuffer[out] = keys[j];
+          indexBuffer[out++] = indices[j++];
+        }
+      }
+      while (i < mid) {
+        keyBuffer[out] = keys[i];
+        indexBuffer[out++] = indices[i++];
+      }
+      while (j < hi) {
+        keyBuffer[out] = keys[j];
+        indexBuffer[out++] = indices[j++];
+      }
+      System.arraycopy(keyBuffer, lo, keys, lo, hi - lo);
+      System.arraycopy(indexBuffer, lo, indices, lo, hi - lo);
+    }
+
+    private void insertionSort() {
+      for (int i = lo + 1; i < hi; i++) {
+        double key = keys[i];
+        int index = indices[i];
+        int j = i - 1;
+        while (j >= lo && Double.compare(keys[j], key) > 0) {
+          keys[j + 1] = keys[j];
+          indices[j + 1] = indices[j];
+          j--;
+        }
+        keys[j + 1] = key;
+        indices[j + 1] = index;
+      }
+    }
+  }
+}
@@ -0,0 +1,383 @@
+package com.primalimited.core.dval;
+
+import java.util.Objects;
+
+/**
+ * Bulk conversion between primitive arrays of different widths that
+ * translates Dval sentinels, e.g. a {@link Dval#DVAL_FLOAT} becomes a
+ * {@link Dval#DVAL_DOUBLE} rather than the large (valid) double 3.4E+38.
+ * <p>
+ * Widening conversions need no policy.  Narrowing conversions take an
+ * {@link Overflow} policy for values that do not fit the destination type
+ * and, from floating point to integer types, a {@link Rounding} policy.
+ * Integer destinations never receive their own Dval unless the source value
+ * was missing, so saturation stops one short of the sentinel (e.g.
+ * {@code Dval.DVAL_INT - 1}).  NaN becomes the integer Dval.
+ * <p>
+ * Each kernel is a simple counted loop over a per-element helper, which the
+ * JIT unrolls and, for the widening cases, vectorizes.
+ */
+public final class DvalConversion {
+  /**
+   * Policy for values that cannot be represented in the destination type.
+   */
+  public enum Overflow {
+    /** Replace the value with the destination Dval. */
+    DVAL,
+    /** Clamp the value to the nearest valid destination value. */
+    SATURATE
+  }
+
+  /**
+   * Rounding applied when converting floating point values to integers.
+   */
+  public enum Rounding {
+    /** Round toward zero, as a Java cast does. */
+    TRUNCATE,
+    /** Round to the nearest integer, ties to even. */
+    NEAREST,
+    /** Round toward negative infinity. */
+    FLOOR,
+    /** Round toward positive infinity. */
+    CEILING
+  }
+
+  private static final double LONG_LIMIT = 0x1p63;
+  private static final int MAX_VALID_INT = Dval.DVAL_INT - 1;
+  private static final long MAX_VALID_LONG = Dval.DVAL_LONG - 1;
+  private static final byte MIN_VALID_BYTE = Dval.DVAL_BYTE + 1;
+
+  /**
+   * Class constructor (private).  This class contains only static methods,
+   * therefore it is unnecessary to instantiate this class.
+   */
+  private DvalConversion() {
+  }
+
+  /* widening to double */
+
+  public static void convert(float[] src, double[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      float value = src[i];
+      dst[i] = value == Dval.DVAL_FLOAT ? Dval.DVAL_DOUBLE : value;
+    }
+  }
+
+  public static void convert(long[] src, double[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      long value = src[i];
+      dst[i] = value == Dval.DVAL_LONG ? Dval.DVAL_DOUBLE : value;
+    }
+  }
+
+  public static void convert(int[] src, double[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      int value = src[i];
+      dst[i] = value == Dval.DVAL_INT ? Dval.DVAL_DOUBLE : value;
+    }
+  }
+
+  public static void convert(byte[] src, double[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      byte value = src[i];
+      dst[i] = value == Dval.DVAL_BYTE ? Dval.DVAL_DOUBLE : value;
+    }
+  }
+
+  /* widening to float */
+
+  public static void convert(long[] src, float[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      long value = src[i];
+      dst[i] = value == Dval.DVAL_LONG ? Dval.DVAL_FLOAT : value;
+    }
+  }
+
+  public static void convert(int[] src, float[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      int value = src[i];
+      dst[i] = value == Dval.DVAL_INT ? Dval.DVAL_FLOAT : value;
+    }
+  }
+
+  public static void convert(byte[] src, float[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      byte value = src[i];
+      dst[i] = value == Dval.DVAL_BYTE ? Dval.DVAL_FLOAT : value;
+    }
+  }
+
+  /* widening between integer types */
+
+  public static void convert(int[] src, long[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      int value = src[i];
+      dst[i] = value == Dval.DVAL_INT ? Dval.DVAL_LONG : value;
+    }
+  }
+
+  public static void convert(byte[] src, long[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      byte value = src[i];
+      dst[i] = value == Dval.DVAL_BYTE ? Dval.DVAL_LONG : value;
+    }
+  }
+
+  public static void convert(byte[] src, int[] dst) {
+    checkLengths(src.length, dst.length);
+    for (int i = 0; i < src.length; i++) {
+      byte value = src[i];
+      dst[i] = value == Dval.DVAL_BYTE ? Dval.DVAL_INT : value;
+    }
+  }
+
+  /* narrowing from double */
+
+  public static void convert(double[] src, float[] dst) {
+    convert(src, dst, Overflow.DVAL);
+  }
+
+  /**
+   * Convert doubles to floats.  Infinities are preserved; finite values
+   * outside the float range are handled by the overflow policy.
+   *
+   * @param src source array
+   * @param dst destination array, at least as long as src
+   * @param overflow policy for finite values outside the float range
+   */
+  public static void convert(double[] src, float[] dst, Overflow overflow) {
+    checkLengths(src.length, dst.length);
+    Objects.requireNonNull(overflow, "overflow");
+    for (int i = 0; i < src.length; i++)
+      dst[i] = toFloat(src[i], overflow);
+  }
+
+  public static void convert(double[] src, long[] dst) {
+    convert(src, dst, Overflow.DVAL, Rounding.TRUNCATE);
+  }
+
+  public static void convert(double[] src, long[] dst, Overflow overflow, Rounding rounding) {
+    checkLengths(src.length, dst.length);
+    checkPolicies(overflow, rounding);
+    for (int i = 0; i < src.length; i++) {
+      double value = src[i];
+      dst[i] = value == Dval.DVAL_DOUBLE ? Dval.DVAL_LONG : toLong(value, overflow, rounding);
+    }
+  }
+
+  public static void convert(double[] src, int[] dst) {
+    convert(src, dst, Overflow.DVAL, Rounding.TRUNCATE);
+  }
+
+  public static void convert(double[] src, int[] dst, Overflow overflow, Rounding rounding) {
+    checkLengths(src.length, dst.length);
+    checkPolicies(overflow, rounding);
+    for (int i = 0; i < src.length; i++) {
+      double value = src[i];
+      dst[i] = value == Dval.DVAL_DOUBLE ? Dval.DVAL_INT : toInt(value, overflow, rounding);
+    }
+  }
+
+  public static void convert(double[] src, byte[] dst) {
+    convert(src, dst, Overflow.DVAL, Rounding.TRUNCATE);
+  }
+
+  public static void convert(double[] src, byte[] dst, Overflow overflow, Rounding rounding) {
+    checkLengths(src.length, dst.length);
+    checkPolicies(overflow, rounding);
+    for (int i = 0; i < src.length; i++) {
+      double value = src[i];
+      dst[i] = value == Dval.DVAL_DOUBLE ? Dval.DVAL_BYTE : toByte(value, overflow, rounding);
+    }
+  }
+
+  /* narrowing from float */
+
+  public static void convert(float[] src, long[] dst) {
+    convert(src, dst, Overflow.DVAL, Rounding.TRUNCATE);
+  }
+
+  public static void convert(float[] src, long[] dst, Overflow overflow, Rounding rounding) {
+    checkLengths(src.length, dst.length);
+    checkPolicies(overflow, rounding);
+    for (int i = 0; i < src.length; i++) {
+      float value = src[i];
+      dst[i] = value == Dval.DVAL_FLOAT ? Dval.DVAL_LONG : toLong(value, overflow, rounding);
+    }
+  }
+
+  public static void convert(float[] src, int[] dst) {
+    convert(src, dst, Overflow.DVAL, Rounding.TRUNCATE);
+  }
+
+  public static void convert(float[] src, int[] dst, Overflow overflow, Rounding rounding) {
+    checkLengths(src.length, dst.length);
+    checkPolicies(overflow, rounding);
+    for (int i = 0; i < src.length; i++) {
+      float value = src[i];
+      dst[i] = value == Dval.DVAL_FLOAT ? Dval.DVAL_INT : toInt(value, overflow, rounding);
+    }
+  }
+
+  public static void convert(float[] src, byte[] dst) {
+    convert(src, dst, Overflow.DVAL, Rounding.TRUNCATE);
+  }
+
+  public static void convert(float[] src, byte[] dst, Overflow overflow, Rounding rounding) {
+    checkLengths(src.length, dst.length);
+    checkPolicies(overflow, rounding);
+    for (int i = 0; i < src.length; i++) {
+      float value = src[i];
+      dst[i] = value == Dval.DVAL_FLOAT ? Dval.DVAL_BYTE : toByte(value, overflow, rounding);
+    }
+  }
+
+  /* narrowing between integer types */
+
+  public static void convert(long[] src, int[] dst) {
+    convert(src, dst, Overflow.DVAL);
+  }
+
+  public static void convert(long[] src, int[] dst, Overflow overflow) {
+    checkLengths(src.length, dst.length);
+    Objects.requireNonNull(overflow, "overflow");
+    boolean saturate = overflow == Overflow.SATURATE;
+    for (int i = 0; i < src.length; i++) {
+      long value = src[i];
+      if (value == Dval.DVAL_LONG)
+        dst[i] = Dval.DVAL_INT;
+      else if (value >= Integer.MIN_VALUE && value <= MAX_VALID_INT)
+        dst[i] = (int) value;
+      else if (saturate)
+        dst[i] = value < 0 ? Integer.MIN_VALUE : MAX_VALID_INT;
+      else
+        dst[i] = Dval.DVAL_INT;
+    }
+  }
+
+  public static void convert(long[] src, byte[] dst) {
+    convert(src, dst, Overflow.DVAL);
+  }
+
+  public static void convert(long[] src, byte[] dst, Overflow overflow) {
+    checkLengths(src.length, dst.length);
+    Objects.requireNonNull(overflow, "overflow");
+    boolean saturate = overflow == Overflow.SATURATE;
+    for (int i = 0; i < src.length; i++) {
+      long value = src[i];
+      if (value == Dval.DVAL_LONG)
+        dst[i] = Dval.DVAL_BYTE;
+      else if (value >= MIN_VALID_BYTE && value <= Byte.MAX_VALUE)
+        dst[i] = (byte) value;
+      else if (saturate)
+        dst[i] = value < 0 ? MIN_VALID_BYTE : Byte.MAX_VALUE;
+      else
+        dst[i] = Dval.DVAL_BYTE;
+    }
+  }
+
+  public static void convert(int[] src, byte[] dst) {
+    convert(src, dst, Overflow.DVAL);
+  }
+
+  public static void convert(int[] src, byte[] dst, Overflow overflow) {
+    checkLengths(src.length, dst.length);
+    Objects.requireNonNull(overflow, "overflow");
+    boolean saturate = overflow == Overflow.SATURATE;
+    for (int i = 0; i < src.length; i++) {
+      int value = src[i];
+      if (value == Dval.DVAL_INT)
+        dst[i] = Dval.DVAL_BYTE;
+      else if (value >= MIN_VALID_BYTE && value <= Byte.MAX_VALUE)
+        dst[i] = (byte) value;
+      else if (saturate)
+        dst[i] = value < 0 ? MIN_VALID_BYTE : Byte.MAX_VALUE;
+      else
+        dst[i] = Dval.DVAL_BYTE;
+    }
+  }
+
+  /* per-element helpers */
+
+  static float toFloat(double value, Overflow overflow) {
+    if (value == Dval.DVAL_DOUBLE)
+      return Dval.DVAL_FLOAT;
+    float result = (float) value;
+    if (Float.isInfinite(result) && !Double.isInfinite(value)) {
+      if (overflow == Overflow.DVAL)
+        return Dval.DVAL_FLOAT;
+      return value < 0 ? -Float.MAX_VALUE : Float.MAX_VALUE;
+    }
+    if (result == Dval.DVAL_FLOAT) {
+      // a valid double rounded onto the sentinel; step off it
+      return value < Dval.DVAL_FLOAT ? Math.nextDown(result) : Math.nextUp(result);
+    }
+    return result;
+  }
+
+  static long toLong(double value, Overflow overflow, Rounding rounding) {
+    if (Double.isNaN(value))
+      return Dval.DVAL_LONG;
+    double rounded = round(value, rounding);
+    if (rounded >= -LONG_LIMIT && rounded < LONG_LIMIT)
+      return (long) rounded;
+    if (overflow == Overflow.DVAL)
+      return Dval.DVAL_LONG;
+    return rounded < 0 ? Long.MIN_VALUE : MAX_VALID_LONG;
+  }
+
+  static int toInt(double value, Overflow overflow, Rounding rounding) {
+    if (Double.isNaN(value))
+      return Dval.DVAL_INT;
+    double rounded = round(value, rounding);
+    if (rounded >= Integer.MIN_VALUE && rounded <= MAX_VALID_INT)
+      return (int) rounded;
+    if (overflow == Overflow.DVAL)
+      return Dval.DVAL_INT;
+    return rounded < 0 ? Integer.MIN_VALUE : MAX_VALID_INT;
+  }
+
+  static byte toByte(double value, Overflow overflow, Rounding rounding) {
+    if (Double.isNaN(value))
+      return Dval.DVAL_BYTE;
+    double rounded = round(value, rounding);
+    if (rounded >= MIN_VALID_BYTE && rounded <= Byte.MAX_VALUE)
+      return (byte) rounded;
+    if (overflow == Overflow.DVAL)
+      return Dval.DVAL_BYTE;
+    return rounded < 0 ? MIN_VALID_BYTE : Byte.MAX_VALUE;
+  }
+
+  static double round(double value, Rounding rounding) {
+    switch (rounding) {
+      case NEAREST:
+        return Math.rint(value);
+      case FLOOR:
+        return Math.floor(value);
+      case CEILING:
+        return Math.ceil(value);
+      case TRUNCATE:
+      default:
+        return value < 0 ? Math.ceil(value) : Math.floor(value);
+    }
+  }
+
+  private static void checkLengths(int srcLength, int dstLength) {
+    if (dstLength < srcLength)
+      throw new IllegalArgumentException("dst.length (" + dstLength + ") < src.length (" + srcLength + ")");
+  }
+
+  private static void checkPolicies(Overflow overflow, Rounding rounding) {
+    Objects.requireNonNull(overflow, "overflow");
+    Objects.requireNonNull(rounding, "rounding");
+  }
+}
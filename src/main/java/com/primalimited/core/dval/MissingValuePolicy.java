@@ -0,0 +1,77 @@
+package com.primalimited.core.dval;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * Determines which double values are treated as missing (invalid) when
+ * scanning data, e.g. computing bounds.  As a {@link DoublePredicate} the
+ * policy tests true for valid (non-missing) values.
+ */
+public enum MissingValuePolicy implements DoublePredicate {
+  /**
+   * Dval, NaN and infinite values are missing.  This is the library default,
+   * and matches {@link Dval#isValid}.
+   */
+  DVAL_OR_NAN {
+    @Override
+    public boolean isValid(double value) {
+      return value != Dval.DVAL_DOUBLE && value - value == 0.0;
+    }
+  },
+
+  /**
+   * NaN and infinite values are missing; Dval is not tested for.  Use for
+   * data that marks missing values with NaN only.  Bounds cannot hold the
+   * Dval sentinel, so a Dval value is left out of computed bounds without
+   * discarding the other values.
+   */
+  NAN_ONLY {
+    @Override
+    public boolean isValid(double value) {
+      return value - value == 0.0;
+    }
+  },
+
+  /**
+   * Only Dval is missing.  Use for data known to be finite; a NaN that slips
+   * through produces invalid (null) bounds.
+   */
+  DVAL_ONLY {
+    @Override
+    public boolean isValid(double value) {
+      return value != Dval.DVAL_DOUBLE;
+    }
+  };
+
+  /**
+   * Return the default policy, {@link #DVAL_OR_NAN}.
+   *
+   * @return the default policy
+   */
+  public static MissingValuePolicy defaultPolicy() {
+    return DVAL_OR_NAN;
+  }
+
+  /**
+   * Return true if the value is valid (not missing) under this policy.
+   *
+   * @param value value to test
+   * @return true if the value is valid, false if it is missing
+   */
+  public abstract boolean isValid(double value);
+
+  /**
+   * Return true if the value is missing under this policy.
+   *
+   * @param value value to test
+   * @return true if the value is missing, false otherwise
+   */
+  public boolean isMissing(double value) {
+    return !isValid(value);
+  }
+
+  @Override
+  public boolean test(double value) {
+    return isValid(value);
+  }
+}
@@ -0,0 +1,39 @@
+package com.primalimited.core.geometry;
+
+/**
+ * Distance between two locations, as a function of their separation along
+ * x and y.  A metric must be symmetric in the sign of each separation and
+ * non-decreasing in the magnitude of each, so that the distance along one
+ * axis is a lower bound of the distance; spatial indexes such as
+ * {@link KdTree} rely on this to prune their search.
+ */
+@FunctionalInterface
+public interface DistanceMetric {
+  /** Straight-line distance. */
+  DistanceMetric EUCLIDEAN = (dx, dy) -> Math.sqrt(dx * dx + dy * dy);
+
+  /**
+   * Square of the straight-line distance, which orders neighbors the same
+   * as {@link #EUCLIDEAN} without a square root.
+   */
+  DistanceMetric SQUARED_EUCLIDEAN = (dx, dy) -> dx * dx + dy * dy;
+
+  /** Sum of the separations along x and y. */
+  DistanceMetric MANHATTAN = (dx, dy) -> Math.abs(dx) + Math.abs(dy);
+
+  /**
+   * @param dx separation along x
+   * @param dy separation along y
+   * @return distance
+   */
+  double distance(double dx, double dy);
+
+  /**
+   * @param delta separation along one axis
+   * @return lower bound of the distance between locations separated by
+   * delta along one axis
+   */
+  default double axisDistance(double delta) {
+    return distance(delta, 0.0);
+  }
+}
@@ -0,0 +1,596 @@
+package com.primalimited.core.geometry;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.DvalArrays;
+import com.primalimited.core.dval.MissingValuePolicy;
+
+/**
+ * Static 2D k-d tree over points, for k-nearest-neighbor and fixed-radius
+ * searches, e.g. snapping to or finding the nearest of millions of assets.
+ * <p>
+ * The tree is implicit: points are reordered in primitive arrays so that
+ * the median of each range, by x at even depths and y at odd depths, is at
+ * the middle of the range, with the points before and after it forming
+ * its subtrees; no node objects or links are stored.  Building selects
+ * medians by introselect, falling back to median of medians, in
+ * O(n log n) worst case.  Nearest-neighbor searches keep the best k
+ * candidates in a bounded max-heap held in the caller's result arrays.
+ * <p>
+ * Results are indices into the arrays the tree was built from, with their
+ * distances under the tree's {@link DistanceMetric}.  Points with invalid
+ * coordinates (Dval, NaN, infinite) are not indexed.  Instances are
+ * immutable and safe to query from multiple threads.
+ */
+public final class KdTree {
+  /**
+   * Indices and distances of the points found by a search, in ascending
+   * order of distance.
+   */
+  public static final class Neighbors {
+    private final int[] indices;
+    private final double[] distances;
+
+    private Neighbors(int[] indices, double[] distances) {
+      this.indices = indices;
+      this.distances = distances;
+    }
+
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + " size=" + size();
+    }
+
+    public int size() {
+      return indices.length;
+    }
+
+    /**
+     * @param i neighbor, in ascending order of distance
+     * @return index of the neighbor's point
+     */
+    public int getIndex(int i) {
+      return indices[i];
+    }
+
+    /**
+     * @param i neighbor, in ascending order of distance
+     * @return distance of the neighbor's point
+     */
+    public double getDistance(int i) {
+      return distances[i];
+    }
+
+    /**
+     * @return copy of the point indices
+     */
+    public int[] getIndices() {
+      return indices.clone();
+    }
+
+    /**
+     * @return copy of the distances
+     */
+    public double[] getDistances() {
+      return distances.clone();
+    }
+  }
+
+  static final int PARALLEL_THRESHOLD = 1 << 15;
+
+  private final DistanceMetric metric;
+  private final double[] xs; // tree order
+  private final double[] ys;
+  private final int[] ids; // original index of each point
+
+  /**
+   * @param x point x coordinates
+   * @param y point y coordinates, same length as x
+   * @return new tree with the {@link DistanceMetric#EUCLIDEAN} metric
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public static KdTree of(double[] x, double[] y) {
+    return of(x, y, DistanceMetric.EUCLIDEAN);
+  }
+
+  /**
+   * @param x point x coordinates
+   * @param y point y coordinates, same length as x
+   * @param metric distance metric for searches
+   * @return new tree
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public static KdTree of(double[] x, double[] y, DistanceMetric metric) {
+    return build(x, y, metric, false);
+  }
+
+  /**
+   * @param coordinates points; null coordinates are not indexed
+   * @return new tree with the {@link DistanceMetric#EUCLIDEAN} metric
+   */
+  public static KdTree of(Coordinate[] coordinates) {
+    return of(coordinates, DistanceMetric.EUCLIDEAN);
+  }
+
+  /**
+   * @param coordinates points; null coordinates are not indexed
+   * @param metric distance metric for searches
+   * @return new tree
+   */
+  public static KdTree of(Coordinate[] coordinates, DistanceMetric metric) {
+    Objects.requireNonNull(coordinates, "coordinates");
+    double[] x = new double[coordinates.length];
+    double[] y = new double[coordinates.length];
+    for (int i = 0; i < coordinates.length; i++) {
+      Coordinate c = coordinates[i];
+      x[i] = c == null ? Double.NaN : c.x;
+      y[i] = c == null ? Double.NaN : c.y;
+    }
+    return of(x, y, metric);
+  }
+
+  /**
+   * Build a tree, as {@link #of(double[], double[], DistanceMetric)}, with
+   * subtrees built in parallel on the common fork/join pool.
+   *
+   * @param x point x coordinates
+   * @param y point y coordinates, same length as x
+   * @param metric distance metric for searches
+   * @return new tree
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public static KdTree parallel(double[] x, double[] y, DistanceMetric metric) {
+    return build(x, y, metric, true);
+  }
+
+  private static KdTree build(double[] x, double[] y, DistanceMetric metric, boolean parallel) {
+    Objects.requireNonNull(x, "x");
+    Objects.requireNonNull(y, "y");
+    Objects.requireNonNull(metric, "metric");
+    if (x.length != y.length)
+      throw new IllegalArgumentException("x.length (" + x.length + ") != y.length (" + y.length + ")");
+    int count = 0;
+    for (int i = 0; i < x.length; i++)
+      if (Dval.isValid.test(x[i]) && Dval.isValid.test(y[i]))
+        count++;
+    double[] xs = new double[count];
+    double[] ys = new double[count];
+    int[] ids = new int[count];
+    int k = 0;
+    for (int i = 0; i < x.length; i++) {
+      if (Dval.isValid.test(x[i]) && Dval.isValid.test(y[i])) {
+        xs[k] = x[i];
+        ys[k] = y[i];
+        ids[k++] = i;
+      }
+    }
+    Build task = new Build(xs, ys, ids, 0, count, 0, parallel);
+    if (parallel && count >= PARALLEL_THRESHOLD)
+      ForkJoinPool.commonPool().invoke(task);
+    else
+      task.compute();
+    return new KdTree(metric, xs, ys, ids);
+  }
+
+  private KdTree(DistanceMetric metric, double[] xs, double[] ys, int[] ids) {
+    this.metric = metric;
+    this.xs = xs;
+    this.ys = ys;
+    this.ids = ids;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size();
+  }
+
+  /**
+   * @return number of points indexed, excluding those with invalid
+   * coordinates
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  public DistanceMetric getMetric() {
+    return metric;
+  }
+
+  /**
+   * @param x query x
+   * @param y query y
+   * @return index of the nearest point, or -1 if the tree is empty or the
+   * query is invalid
+   */
+  public int nearest(double x, double y) {
+    int[] index = { -1 };
+    nearest(x, y, 1, index, new double[1], 0);
+    return index[0];
+  }
+
+  /**
+   * @param x query x
+   * @param y query y
+   * @param k maximum number of neighbors, &gt;= 1
+   * @return the nearest k points, or fewer if the tree has fewer
+   * @throws IllegalArgumentException if k &lt; 1
+   */
+  public Neighbors nearest(double x, double y, int k) {
+    checkK(k);
+    int capacity = Math.min(k, Math.max(1, ids.length));
+    int[] indices = new int[capacity];
+    double[] distances = new double[capacity];
+    int found = nearest(x, y, capacity, indices, distances, 0);
+    return new Neighbors(Arrays.copyOf(indices, found), Arrays.copyOf(distances, found));
+  }
+
+  /**
+   * Find the nearest k points without allocating results.
+   *
+   * @param x query x
+   * @param y query y
+   * @param k maximum number of neighbors, &gt;= 1
+   * @param indices receives the point indices at [offset, offset + k), in
+   * ascending order of distance
+   * @param distances receives the distances at [offset, offset + k)
+   * @param offset start of the results in the arrays
+   * @return number of neighbors found, at most k; the rest of the k
+   * results are -1 and Dval
+   * @throws IllegalArgumentException if k &lt; 1
+   * @throws IndexOutOfBoundsException if the arrays are too short
+   */
+  public int nearest(double x, double y, int k, int[] indices, double[] distances, int offset) {
+    checkK(k);
+    Objects.requireNonNull(indices, "indices");
+    Objects.requireNonNull(distances, "distances");
+    if (offset < 0 || offset + k > indices.length || offset + k > distances.length)
+      throw new IndexOutOfBoundsException("results [" + offset + ", " + (offset + k) + ") exceed arrays of length "
+          + indices.length + ", " + distances.length);
+    Heap heap = new Heap(indices, distances, offset, k);
+    if (Dval.isValid.test(x) && Dval.isValid.test(y))
+      nearest(x, y, 0, ids.length, 0, heap);
+    return heap.sort();
+  }
+
+  private void nearest(double x, double y, int from, int to, int depth, Heap heap) {
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      double dx = x - xs[mid];
+      double dy = y - ys[mid];
+      heap.offer(ids[mid], metric.distance(dx, dy));
+      double delta = (depth & 1) == 0 ? dx : dy;
+      depth++;
+      /* search the near side, then the far side only if it may be closer */
+      if (delta < 0) {
+        nearest(x, y, from, mid, depth, heap);
+        if (heap.size == heap.k && metric.axisDistance(delta) > heap.top())
+          return;
+        from = mid + 1;
+      } else {
+        nearest(x, y, mid + 1, to, depth, heap);
+        if (heap.size == heap.k && metric.axisDistance(delta) > heap.top())
+          return;
+        to = mid;
+      }
+    }
+  }
+
+  /**
+   * Find the points within a distance of a location, inclusive.
+   *
+   * @param x query x
+   * @param y query y
+   * @param radius maximum distance, under the tree's metric
+   * @return points found, in ascending order of distance
+   * @throws IllegalArgumentException if radius is negative or invalid
+   */
+  public Neighbors withinRadius(double x, double y, double radius) {
+    if (!Dval.isValid.test(radius) || radius < 0)
+      throw new IllegalArgumentException("radius (" + radius + ") must be finite and >= 0");
+    Found found = new Found();
+    if (Dval.isValid.test(x) && Dval.isValid.test(y))
+      withinRadius(x, y, radius, 0, ids.length, 0, found);
+    double[] distances = Arrays.copyOf(found.distances, found.size);
+    int[] order = DvalArrays.argsort(distances, MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST);
+    int[] indices = new int[found.size];
+    double[] sorted = new double[found.size];
+    for (int i = 0; i < order.length; i++) {
+      indices[i] = found.indices[order[i]];
+      sorted[i] = distances[order[i]];
+    }
+    return new Neighbors(indices, sorted);
+  }
+
+  private void withinRadius(double x, double y, double radius, int from, int to, int depth, Found found) {
+    while (from < to) {
+      int mid = (from + to) >>> 1;
+      double dx = x - xs[mid];
+      double dy = y - ys[mid];
+      double distance = metric.distance(dx, dy);
+      if (distance <= radius)
+        found.add(ids[mid], distance);
+      double delta = (depth & 1) == 0 ? dx : dy;
+      depth++;
+      boolean farInRange = metric.axisDistance(delta) <= radius;
+      if (delta < 0) {
+        withinRadius(x, y, radius, from, mid, depth, found);
+        if (!farInRange)
+          return;
+        from = mid + 1;
+      } else {
+        withinRadius(x, y, radius, mid + 1, to, depth, found);
+        if (!farInRange)
+          return;
+        to = mid;
+      }
+    }
+  }
+
+  /**
+   * Find the nearest k points of each of many queries, across the common
+   * fork/join pool.
+   *
+   * @param x query x coordinates
+   * @param y query y coordinates, same length as x
+   * @param k maximum number of neighbors per query, &gt;= 1
+   * @param indices receives the point indices of query q at
+   * [q * k, (q + 1) * k), length &gt;= x.length * k
+   * @param distances receives the distances, as indices
+   * @return number of neighbors found for each query
+   * @throws IllegalArgumentException if the query arrays differ in length,
+   * k &lt; 1, or the result arrays are too short
+   */
+  public int[] parallelNearest(double[] x, double[] y, int k, int[] indices, double[] distances) {
+    checkQueries(x, y);
+    checkK(k);
+    Objects.requireNonNull(indices, "indices");
+    Objects.requireNonNull(distances, "distances");
+    long required = (long) x.length * k;
+    if (indices.length < required || distances.length < required)
+      throw new IllegalArgumentException("result arrays (" + indices.length + ", " + distances.length + ") shorter than "
+          + required);
+    int[] counts = new int[x.length];
+    Arrays.parallelSetAll(counts, q -> nearest(x[q], y[q], k, indices, distances, q * k));
+    return counts;
+  }
+
+  /**
+   * Find the points within a distance of each of many queries, across the
+   * common fork/join pool.
+   *
+   * @param x query x coordinates
+   * @param y query y coordinates, same length as x
+   * @param radius maximum distance, under the tree's metric
+   * @return points found for each query
+   * @throws IllegalArgumentException if the arrays differ in length, or
+   * radius is negative or invalid
+   */
+  public Neighbors[] parallelWithinRadius(double[] x, double[] y, double radius) {
+    checkQueries(x, y);
+    if (!Dval.isValid.test(radius) || radius < 0)
+      throw new IllegalArgumentException("radius (" + radius + ") must be finite and >= 0");
+    Neighbors[] result = new Neighbors[x.length];
+    Arrays.parallelSetAll(result, q -> withinRadius(x[q], y[q], radius));
+    return result;
+  }
+
+  private static void checkK(int k) {
+    if (k < 1)
+      throw new IllegalArgumentException("k (" + k + ") must be >= 1");
+  }
+
+  private static void checkQueries(double[] x, double[] y) {
+    Objects.requireNonNull(x, "x");
+    Objects.requireNonNull(y, "y");
+    if (x.length != y.length)
+      throw new IllegalArgumentException("x.length (" + x.length + ") != y.length (" + y.length + ")");
+  }
+
+  /**
+   * Max-heap by distance of at most k candidates, held in result arrays.
+   */
+  private static final class Heap {
+    final int[] indices;
+    final double[] distances;
+    final int offset;
+    final int k;
+    int size;
+
+    Heap(int[] indices, double[] distances, int offset, int k) {
+      this.indices = indices;
+      this.distances = distances;
+      this.offset = offset;
+      this.k = k;
+    }
+
+    double top() {
+      return distances[offset];
+    }
+
+    void offer(int index, double distance) {
+      if (size < k) {
+        int i = size++;
+        while (i > 0) {
+          int parent = (i - 1) >>> 1;
+          if (distances[offset + parent] >= distance)
+            break;
+          indices[offset + i] = indices[offset + parent];
+          distances[offset + i] = distances[offset + parent];
+          i = parent;
+        }
+        indices[offset + i] = index;
+        distances[offset + i] = distance;
+      } else if (distance < distances[offset]) {
+        siftDown(index, distance, size);
+      }
+    }
+
+    /* place (index, distance) at the root of the heap of n and sift down */
+    private void siftDown(int index, double distance, int n) {
+      int i = 0;
+      int half = n >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        if (child + 1 < n && distances[offset + child + 1] > distances[offset + child])
+          child++;
+        if (distance >= distances[offset + child])
+          break;
+        indices[offset + i] = indices[offset + child];
+        distances[offset + i] = distances[offset + child];
+        i = child;
+      }
+      indices[offset + i] = index;
+      distances[offset + i] = distance;
+    }
+
+    /**
+     * Heapsort in place into ascending order, and fill unused results.
+     *
+     * @return number of results
+     */
+    int sort() {
+      for (int n = size - 1; n > 0; n--) {
+        int index = indices[offset + n];
+        double distance = distances[offset + n];
+        indices[offset + n] = indices[offset];
+        distances[offset + n] = distances[offset];
+        siftDown(index, distance, n);
+      }
+      for (int i = size; i < k; i++) {
+        indices[offset + i] = -1;
+        distances[offset + i] = Dval.DVAL_DOUBLE;
+      }
+      return size;
+    }
+  }
+
+  /**
+   * Growable results of a radius search.
+   */
+  private static final class Found {
+    int[] indices = new int[16];
+    double[] distances = new double[16];
+    int size;
+
+    void add(int index, double distance) {
+      if (size == indices.length) {
+        indices = Arrays.copyOf(indices, 2 * size);
+        distances = Arrays.copyOf(distances, 2 * size);
+      }
+      indices[size] = index;
+      distances[size++] = distance;
+    }
+  }
+
+  /**
+   * Build the implicit tree over [from, to): select the median by the
+   * depth's axis, then build the halves either side of it.
+   */
+  @SuppressWarnings("serial")
+  private static final class Build extends RecursiveAction {
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ids;
+    private final int from;
+    private final int to;
+    private final int depth;
+    private final boolean parallel;
+
+    Build(double[] xs, double[] ys, int[] ids, int from, int to, int depth, boolean parallel) {
+      this.xs = xs;
+      this.ys = ys;
+      this.ids = ids;
+      this.from = from;
+      this.to = to;
+      this.depth = depth;
+      this.parallel = parallel;
+    }
+
+    @Override
+    protected void compute() {
+      int lo = from;
+      int hi = to;
+      int d = depth;
+      while (hi - lo > 1) {
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi, mid, (d & 1) == 0 ? xs : ys);
+        d++;
+        if (parallel && hi - lo >= PARALLEL_THRESHOLD) {
+          invokeAll(new Build(xs, ys, ids, lo, mid, d, true), new Build(xs, ys, ids, mid + 1, hi, d, true));
+          return;
+        }
+        new Build(xs, ys, ids, lo, mid, d, false).compute();
+        lo = mid + 1;
+      }
+    }
+
+    /*
+     * Reorder [lo, hi) so that position k holds the value that would be
+     * there if sorted by key, with no greater key before it and no smaller
+     * after it; three-way partitioning keeps duplicate keys linear, and
+     * median-of-medians pivots after 2 log n rounds keep it O(n) worst
+     * case, as DvalArrays.select.
+     */
+    private void select(int lo, int hi, int k, double[] keys) {
+      int depth = 2 * (31 - Integer.numberOfLeadingZeros(Math.max(1, hi - lo)));
+      while (hi - lo > 1) {
+        double pivot = depth-- > 0 ? medianOfThree(lo, hi, keys) : medianOfMedians(lo, hi, keys);
+        int lt = lo, i = lo, gt = hi;
+        while (i < gt) {
+          double key = keys[i];
+          if (key < pivot)
+            swap(lt++, i++);
+          else if (key > pivot)
+            swap(i, --gt);
+          else
+            i++;
+        }
+        if (k < lt)
+          hi = lt;
+        else if (k >= gt)
+          lo = gt;
+        else
+          return;
+      }
+    }
+
+    private static double medianOfThree(int lo, int hi, double[] keys) {
+      double a = keys[lo], b = keys[(lo + hi) >>> 1], c = keys[hi - 1];
+      return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    /*
+     * Median of the medians of groups of five, which are moved to the
+     * front of the range.
+     */
+    private double medianOfMedians(int lo, int hi, double[] keys) {
+      int medians = lo;
+      for (int i = lo; i < hi; i += 5) {
+        int end = Math.min(i + 5, hi);
+        for (int j = i + 1; j < end; j++)
+          for (int m = j; m > i && keys[m - 1] > keys[m]; m--)
+            swap(m - 1, m);
+        swap(medians++, i + ((end - i) >>> 1));
+      }
+      int mid = lo + ((medians - lo) >>> 1);
+      select(lo, medians, mid, keys);
+      return keys[mid];
+    }
+
+    private void swap(int i, int j) {
+      double x = xs[i];
+      xs[i] = xs[j];
+      xs[j] = x;
+      double y = ys[i];
+      ys[i] = ys[j];
+      ys[j] = y;
+      int id = ids[i];
+      ids[i] = ids[j];
+      ids[j] = id;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.primalimited.core.geometry;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.primalimited.core.bounds.Bounds2D;
+
+/**
+ * {@link Spatial} whose bounds are computed on first access from a
+ * supplier, e.g. a scan of a dataset's coordinates, so that datasets which
+ * are never queried never pay for the scan.
+ * <p>
+ * As {@link com.primalimited.core.bounds.LazyBounds}, the supplier is
+ * called at most once per computation under concurrent access, and the
+ * bounds are recomputed after {@link #invalidate()} or when the version
+ * changes; a computation that overlaps {@link #invalidate()} is not kept.
+ * {@link Bounds2D} is mutable, so the result is copied when
+ * computed and {@link #getBounds()} returns a new copy on each call.
+ */
+public final class LazySpatial implements Spatial {
+  private static final long NO_VERSION = 0L;
+
+  private final Supplier<? extends Bounds2D> supplier;
+  private final LongSupplier version;
+  private final AtomicLong generation = new AtomicLong();
+  private volatile Computed computed;
+
+  /**
+   * @param supplier computes the bounds
+   * @return new lazy spatial, computed on first access
+   */
+  public static LazySpatial of(Supplier<? extends Bounds2D> supplier) {
+    return of(supplier, () -> NO_VERSION);
+  }
+
+  /**
+   * @param supplier computes the bounds
+   * @param version data version; the bounds are recomputed on access when
+   * it changes
+   * @return new lazy spatial, computed on first access
+   */
+  public static LazySpatial of(Supplier<? extends Bounds2D> supplier, LongSupplier version) {
+    Objects.requireNonNull(supplier, "supplier");
+    Objects.requireNonNull(version, "version");
+    return new LazySpatial(supplier, version);
+  }
+
+  private LazySpatial(Supplier<? extends Bounds2D> supplier, LongSupplier version) {
+    this.supplier = supplier;
+    this.version = version;
+  }
+
+  @Override
+  public String toString() {
+    Computed current = computed;
+    return getClass().getSimpleName() + " " + (current == null ? "[not computed]" : current.bounds);
+  }
+
+  /**
+   * @return new copy of the bounds, computing them if this is the first
+   * access, or they have been invalidated or the version has changed
+   * @throws NullPointerException if the supplier returns null
+   */
+  @Override
+  public Bounds2D getBounds() {
+    long v = version.getAsLong();
+    long g = generation.get();
+    Computed current = computed;
+    if (current == null || !current.matches(v, g)) {
+      synchronized (this) {
+        g = generation.get();
+        current = computed;
+        if (current == null || !current.matches(v, g)) {
+          Bounds2D bounds = Objects.requireNonNull(supplier.get(), "supplier returned null");
+          current = new Computed(Bounds2D.from(bounds), v, g);
+          // invalidated while computing: the result may predate the change
+          if (generation.get() == g)
+            computed = current;
+        }
+      }
+    }
+    return Bounds2D.from(current.bounds);
+  }
+
+  /**
+   * @return true if the bounds have been computed and not invalidated;
+   * does not check the version
+   */
+  public boolean isComputed() {
+    Computed current = computed;
+    return current != null && current.generation == generation.get();
+  }
+
+  /**
+   * Discard the computed bounds, so the next access recomputes them.
+   */
+  public void invalidate() {
+    generation.incrementAndGet();
+    computed = null;
+  }
+
+  private static final class Computed {
+    final Bounds2D bounds; // never modified
+    final long version;
+    final long generation;
+
+    Computed(Bounds2D bounds, long version, long generation) {
+      this.bounds = bounds;
+      this.version = version;
+      this.generation = generation;
+    }
+
+    boolean matches(long version, long generation) {
+      return this.version == version && this.generation == generation;
+    }
+  }
+}
@@ -0,0 +1,518 @@
+package com.primalimited.core.geometry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.bounds.Bounds2D;
+import com.primalimited.core.dval.DvalArrays;
+import com.primalimited.core.dval.MissingValuePolicy;
+
+/**
+ * Persistent, packed Hilbert R-tree over rectangles, written once to a file
+ * and then queried directly from the memory-mapped file, so opening an
+ * index costs no parsing or deserialization, and processes on a host that
+ * open the same file share its pages.
+ * <p>
+ * Items are sorted by the Hilbert curve value of their centers, and each
+ * consecutive run of nodeSize entries becomes a node of the level above.
+ * The file is little endian:
+ * <pre>
+ * header    magic, version, nodeSize, item count, entry count (ints), padded to 32 bytes
+ * boxes     min x, max x, min y, max y (doubles) of each entry: items, then nodes by level
+ * indices   each entry: item's original index, or node's first child entry (ints)
+ * ends      each node: end of its child entries (ints)
+ * </pre>
+ * A file is mapped in chunks of 1 GB, so its size is not limited by the
+ * 2 GB capacity of a single buffer; an index holds up to
+ * {@link Integer#MAX_VALUE} entries, about 2 billion items (a file of about
+ * 75 GB) at the default node size.  Query semantics are those of
+ * {@link Bounds2D#intersects(Bounds2D)}; items with invalid bounds are not
+ * indexed.  Instances are immutable and safe to query from multiple
+ * threads.  The mapping remains until the instance is garbage collected.
+ *
+ * @see PackedRTree
+ */
+public final class MappedRTree {
+  private static final int MAGIC = 0x50525452;
+  private static final int VERSION = 1;
+  private static final int HEADER_BYTES = 32;
+  private static final int BOX_BYTES = 32;
+  private static final int HILBERT_MAX = (1 << 16) - 1;
+
+  /* log2 of the chunk size; chunks hold whole boxes, so no value spans two */
+  static final int CHUNK_SHIFT = 30;
+  private static final int MIN_CHUNK_SHIFT = 5;
+
+  private final Chunks data;
+  private final int nodeSize;
+  private final int size;
+  private final int total;
+  private final long indicesOffset;
+  private final long endsOffset;
+
+  /**
+   * Write an index of the items, with the default node size.
+   *
+   * @param path file to write; replaced if it exists
+   * @param bounds item bounds; null or invalid bounds are not indexed
+   * @return number of items indexed
+   * @throws IOException if the file cannot be written
+   * @throws IllegalArgumentException if the index would have more than
+   * {@link Integer#MAX_VALUE} entries
+   */
+  public static int write(Path path, Bounds2D[] bounds) throws IOException {
+    Objects.requireNonNull(bounds, "bounds");
+    int n = bounds.length;
+    double[] minX = new double[n];
+    double[] maxX = new double[n];
+    double[] minY = new double[n];
+    double[] maxY = new double[n];
+    for (int i = 0; i < n; i++) {
+      Bounds2D b = bounds[i];
+      boolean valid = b != null && b.isValid();
+      minX[i] = valid ? b.getMinX() : Double.NaN;
+      maxX[i] = valid ? b.getMaxX() : Double.NaN;
+      minY[i] = valid ? b.getMinY() : Double.NaN;
+      maxY[i] = valid ? b.getMaxY() : Double.NaN;
+    }
+    return write(path, minX, maxX, minY, maxY, PackedRTree.DEFAULT_NODE_SIZE);
+  }
+
+  /**
+   * Write an index of the items.
+   *
+   * @param path file to write; replaced if it exists
+   * @param minX item minimum x values
+   * @param maxX item maximum x values
+   * @param minY item minimum y values
+   * @param maxY item maximum y values
+   * @param nodeSize maximum number of children of a node, &gt;= 2
+   * @return number of items indexed
+   * @throws IOException if the file cannot be written
+   * @throws IllegalArgumentException if the arrays differ in length,
+   * nodeSize &lt; 2, or the index would have more than
+   * {@link Integer#MAX_VALUE} entries
+   */
+  public static int write(Path path, double[] minX, double[] maxX, double[] minY, double[] maxY, int nodeSize) throws IOException {
+    return write(path, minX, maxX, minY, maxY, nodeSize, CHUNK_SHIFT);
+  }
+
+  static int write(Path path, double[] minX, double[] maxX, double[] minY, double[] maxY, int nodeSize, int chunkShift) throws IOException {
+    Objects.requireNonNull(path, "path");
+    Objects.requireNonNull(minX, "minX");
+    Objects.requireNonNull(maxX, "maxX");
+    Objects.requireNonNull(minY, "minY");
+    Objects.requireNonNull(maxY, "maxY");
+    int n = minX.length;
+    if (maxX.length != n || minY.length != n || maxY.length != n)
+      throw new IllegalArgumentException("array lengths differ: " + n + ", " + maxX.length + ", " + minY.length + ", " + maxY.length);
+    if (nodeSize < 2)
+      throw new IllegalArgumentException("nodeSize (" + nodeSize + ") must be >= 2");
+    checkChunkShift(chunkShift);
+
+    /* valid items and their extent */
+    int[] items = new int[n];
+    int count = 0;
+    double x0 = Double.POSITIVE_INFINITY, x1 = Double.NEGATIVE_INFINITY;
+    double y0 = Double.POSITIVE_INFINITY, y1 = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      if (Bounds.valid(minX[i], maxX[i]) && Bounds.valid(minY[i], maxY[i])) {
+        items[count++] = i;
+        x0 = Math.min(x0, minX[i]);
+        x1 = Math.max(x1, maxX[i]);
+        y0 = Math.min(y0, minY[i]);
+        y1 = Math.max(y1, maxY[i]);
+      }
+    }
+
+    long entries = count;
+    if (count > 0) {
+      long level = count;
+      do {
+        level = (level + nodeSize - 1) / nodeSize;
+        entries += level;
+      } while (level > 1);
+    }
+    if (entries > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("index of " + count + " items would have " + entries + " entries, more than " + Integer.MAX_VALUE);
+    int total = (int) entries;
+    long length = HEADER_BYTES + (long) total * (BOX_BYTES + 4) + (long) (total - count) * 4;
+
+    /* Hilbert order of the item centers */
+    double[] keys = new double[count];
+    double width = x1 > x0 ? x1 - x0 : 1;
+    double height = y1 > y0 ? y1 - y0 : 1;
+    for (int k = 0; k < count; k++) {
+      int i = items[k];
+      int hx = (int) Math.floor(HILBERT_MAX * ((minX[i] + maxX[i]) * 0.5 - x0) / width);
+      int hy = (int) Math.floor(HILBERT_MAX * ((minY[i] + maxY[i]) * 0.5 - y0) / height);
+      keys[k] = hilbert(Math.min(HILBERT_MAX, Math.max(0, hx)), Math.min(HILBERT_MAX, Math.max(0, hy)));
+    }
+    int[] order = DvalArrays.parallelArgsort(keys, MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST);
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      Chunks data = Chunks.map(channel, FileChannel.MapMode.READ_WRITE, length, chunkShift);
+      data.putInt(0, MAGIC);
+      data.putInt(4, VERSION);
+      data.putInt(8, nodeSize);
+      data.putInt(12, count);
+      data.putInt(16, total);
+      long indicesOffset = HEADER_BYTES + (long) total * BOX_BYTES;
+      long endsOffset = indicesOffset + (long) total * 4;
+
+      for (int k = 0; k < count; k++) {
+        int i = items[order[k]];
+        putBox(data, k, minX[i], maxX[i], minY[i], maxY[i]);
+        data.putInt(indicesOffset + 4L * k, i);
+      }
+
+      /* levels of nodes over runs of nodeSize entries, up to the root */
+      int start = 0;
+      int levelCount = count;
+      while (count > 0 && (start == 0 || levelCount > 1)) {
+        int parentStart = start + levelCount;
+        int parents = (levelCount + nodeSize - 1) / nodeSize;
+        for (int p = 0; p < parents; p++) {
+          int first = start + p * nodeSize;
+          int last = (int) Math.min((long) first + nodeSize, parentStart);
+          double px0 = Double.POSITIVE_INFINITY, px1 = Double.NEGATIVE_INFINITY;
+          double py0 = Double.POSITIVE_INFINITY, py1 = Double.NEGATIVE_INFINITY;
+          for (int c = first; c < last; c++) {
+            long at = boxOffset(c);
+            ByteBuffer chunk = data.chunk(at);
+            int offset = data.offset(at);
+            px0 = Math.min(px0, chunk.getDouble(offset));
+            px1 = Math.max(px1, chunk.getDouble(offset + 8));
+            py0 = Math.min(py0, chunk.getDouble(offset + 16));
+            py1 = Math.max(py1, chunk.getDouble(offset + 24));
+          }
+          int node = parentStart + p;
+          putBox(data, node, px0, px1, py0, py1);
+          data.putInt(indicesOffset + 4L * node, first);
+          data.putInt(endsOffset + 4L * (node - count), last);
+        }
+        start = parentStart;
+        levelCount = parents;
+      }
+      data.force();
+    }
+    return count;
+  }
+
+  private static long boxOffset(int entry) {
+    return HEADER_BYTES + (long) entry * BOX_BYTES;
+  }
+
+  private static void putBox(Chunks data, int entry, double x0, double x1, double y0, double y1) {
+    long at = boxOffset(entry);
+    ByteBuffer chunk = data.chunk(at);
+    int offset = data.offset(at);
+    chunk.putDouble(offset, x0);
+    chunk.putDouble(offset + 8, x1);
+    chunk.putDouble(offset + 16, y0);
+    chunk.putDouble(offset + 24, y1);
+  }
+
+  private static void checkChunkShift(int chunkShift) {
+    if (chunkShift < MIN_CHUNK_SHIFT || chunkShift > CHUNK_SHIFT)
+      throw new IllegalArgumentException("chunkShift (" + chunkShift + ") not in [" + MIN_CHUNK_SHIFT + ".." + CHUNK_SHIFT + "]");
+  }
+
+  /**
+   * Open an index written by {@link #write(Path, double[], double[], double[], double[], int)},
+   * mapping the file read only.
+   *
+   * @param path index file
+   * @return index
+   * @throws IOException if the file cannot be read, or is not a valid index
+   */
+  public static MappedRTree open(Path path) throws IOException {
+    return open(path, CHUNK_SHIFT);
+  }
+
+  static MappedRTree open(Path path, int chunkShift) throws IOException {
+    Objects.requireNonNull(path, "path");
+    checkChunkShift(chunkShift);
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long length = channel.size();
+      if (length < HEADER_BYTES)
+        throw new IOException("not an index: bad header");
+      return of(Chunks.map(channel, FileChannel.MapMode.READ_ONLY, length, chunkShift));
+    }
+  }
+
+  /**
+   * Query an index held in a buffer, e.g. read from another source; the
+   * buffer's position, limit and byte order are not used or changed.
+   *
+   * @param buffer index bytes, from index 0
+   * @return index
+   * @throws IOException if the buffer is not a valid index
+   */
+  public static MappedRTree wrap(ByteBuffer buffer) throws IOException {
+    return wrap(buffer, CHUNK_SHIFT);
+  }
+
+  static MappedRTree wrap(ByteBuffer buffer, int chunkShift) throws IOException {
+    Objects.requireNonNull(buffer, "buffer");
+    checkChunkShift(chunkShift);
+    if (buffer.capacity() < HEADER_BYTES)
+      throw new IOException("not an index: bad header");
+    return of(Chunks.split(buffer, chunkShift));
+  }
+
+  private static MappedRTree of(Chunks data) throws IOException {
+    if (data.getInt(0) != MAGIC)
+      throw new IOException("not an index: bad header");
+    if (data.getInt(4) != VERSION)
+      throw new IOException("unsupported index version " + data.getInt(4));
+    int nodeSize = data.getInt(8);
+    int size = data.getInt(12);
+    int total = data.getInt(16);
+    long expected = HEADER_BYTES + (long) total * (BOX_BYTES + 4) + (long) (total - size) * 4;
+    if (nodeSize < 2 || size < 0 || total < size || (size == 0) != (total == 0) || data.length < expected)
+      throw new IOException("corrupt index: nodeSize=" + nodeSize + " size=" + size + " entries=" + total
+          + " bytes=" + data.length);
+    return new MappedRTree(data, nodeSize, size, total);
+  }
+
+  private MappedRTree(Chunks data, int nodeSize, int size, int total) {
+    this.data = data;
+    this.nodeSize = nodeSize;
+    this.size = size;
+    this.total = total;
+    this.indicesOffset = HEADER_BYTES + (long) total * BOX_BYTES;
+    this.endsOffset = indicesOffset + (long) total * 4;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size + " nodeSize=" + nodeSize;
+  }
+
+  /**
+   * @return number of items indexed
+   */
+  public int size() {
+    return size;
+  }
+
+  public int getNodeSize() {
+    return nodeSize;
+  }
+
+  /**
+   * @return new instance of the bounds of all items, invalid (empty) if
+   * there are none
+   */
+  public Bounds2D getBounds() {
+    if (size == 0)
+      return Bounds2D.empty();
+    long at = boxOffset(total - 1);
+    ByteBuffer chunk = data.chunk(at);
+    int offset = data.offset(at);
+    return Bounds2D.create(chunk.getDouble(offset), chunk.getDouble(offset + 8), chunk.getDouble(offset + 16), chunk.getDouble(offset + 24));
+  }
+
+  /**
+   * Visit the items whose bounds intersect the query, as
+   * {@link Bounds2D#intersects(Bounds2D)}.
+   *
+   * @param query query bounds; no items are visited if it is invalid
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean intersects(Bounds2D query, PackedRTree.Visitor visitor) {
+    Objects.requireNonNull(query, "query");
+    if (!query.isValid())
+      return true;
+    return intersects(query.getMinX(), query.getMaxX(), query.getMinY(), query.getMaxY(), visitor);
+  }
+
+  /**
+   * Visit the items whose bounds intersect the query rectangle.
+   *
+   * @param qx0 query min x
+   * @param qx1 query max x
+   * @param qy0 query min y
+   * @param qy1 query max y
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean intersects(double qx0, double qx1, double qy0, double qy1, PackedRTree.Visitor visitor) {
+    Objects.requireNonNull(visitor, "visitor");
+    if (size == 0 || !Bounds.valid(qx0, qx1) || !Bounds.valid(qy0, qy1))
+      return true;
+    Chunks data = this.data;
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = total - 1;
+    while (top > 0) {
+      int node = stack[--top];
+      int first = data.getInt(indicesOffset + 4L * node);
+      int end = data.getInt(endsOffset + 4L * (node - size));
+      boolean leaves = first < size;
+      for (int c = first; c < end; c++) {
+        long at = boxOffset(c);
+        ByteBuffer chunk = data.chunk(at);
+        int offset = data.offset(at);
+        if (chunk.getDouble(offset) > qx1 || chunk.getDouble(offset + 8) < qx0
+            || chunk.getDouble(offset + 16) > qy1 || chunk.getDouble(offset + 24) < qy0)
+          continue;
+        if (!leaves) {
+          if (top == stack.length)
+            stack = Arrays.copyOf(stack, 2 * top);
+          stack[top++] = c;
+        } else if (!visitor.visit(data.getInt(indicesOffset + 4L * c))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Return the items whose bounds intersect the query.
+   *
+   * @param query query bounds
+   * @return indices of the items found, in no particular order
+   */
+  public int[] intersects(Bounds2D query) {
+    int[][] found = { new int[16] };
+    int[] count = { 0 };
+    intersects(query, index -> {
+      if (count[0] == found[0].length)
+        found[0] = Arrays.copyOf(found[0], 2 * count[0]);
+      found[0][count[0]++] = index;
+      return true;
+    });
+    return Arrays.copyOf(found[0], count[0]);
+  }
+
+  /*
+   * Position of (x, y), each in [0, 2^16), along a Hilbert curve of order
+   * 16, by the bitwise method of "Hacker's Delight" as used by Flatbush.
+   */
+  static long hilbert(int x, int y) {
+    int a = x ^ y;
+    int b = 0xFFFF ^ a;
+    int c = 0xFFFF ^ (x | y);
+    int d = x & (y ^ 0xFFFF);
+
+    int A = a | (b >>> 1);
+    int B = (a >>> 1) ^ a;
+    int C = ((c >>> 1) ^ (b & (d >>> 1))) ^ c;
+    int D = ((a & (c >>> 1)) ^ (d >>> 1)) ^ d;
+
+    a = A; b = B; c = C; d = D;
+    A = (a & (a >>> 2)) ^ (b & (b >>> 2));
+    B = (a & (b >>> 2)) ^ (b & ((a ^ b) >>> 2));
+    C ^= (a & (c >>> 2)) ^ (b & (d >>> 2));
+    D ^= (b & (c >>> 2)) ^ ((a ^ b) & (d >>> 2));
+
+    a = A; b = B; c = C; d = D;
+    A = (a & (a >>> 4)) ^ (b & (b >>> 4));
+    B = (a & (b >>> 4)) ^ (b & ((a ^ b) >>> 4));
+    C ^= (a & (c >>> 4)) ^ (b & (d >>> 4));
+    D ^= (b & (c >>> 4)) ^ ((a ^ b) & (d >>> 4));
+
+    a = A; b = B; c = C; d = D;
+    C ^= (a & (c >>> 8)) ^ (b & (d >>> 8));
+    D ^= (b & (c >>> 8)) ^ ((a ^ b) & (d >>> 8));
+
+    a = C ^ (C >>> 1);
+    b = D ^ (D >>> 1);
+
+    int i0 = x ^ y;
+    int i1 = b | (0xFFFF ^ (i0 | a));
+
+    return ((long) interleave(i1) << 1 | interleave(i0)) & 0xFFFFFFFFL;
+  }
+
+  /*
+   * Spread the low 16 bits to the even bits.
+   */
+  private static int interleave(int v) {
+    v = (v | (v << 8)) & 0x00FF00FF;
+    v = (v | (v << 4)) & 0x0F0F0F0F;
+    v = (v | (v << 2)) & 0x33333333;
+    return (v | (v << 1)) & 0x55555555;
+  }
+
+  /**
+   * Little-endian bytes at long offsets, held in buffers of 2^shift bytes
+   * each.  Boxes start on 32-byte boundaries and ints on 4-byte boundaries,
+   * so with shift &gt;= 5 no value spans two buffers.
+   */
+  private static final class Chunks {
+    final ByteBuffer[] chunks;
+    final int shift;
+    final long mask;
+    final long length;
+
+    static Chunks map(FileChannel channel, FileChannel.MapMode mode, long length, int shift) throws IOException {
+      long size = 1L << shift;
+      ByteBuffer[] chunks = new ByteBuffer[(int) ((length + size - 1) >>> shift)];
+      for (int i = 0; i < chunks.length; i++) {
+        long position = (long) i << shift;
+        MappedByteBuffer mapped = channel.map(mode, position, Math.min(size, length - position));
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        chunks[i] = mapped;
+      }
+      return new Chunks(chunks, shift, length);
+    }
+
+    static Chunks split(ByteBuffer buffer, int shift) {
+      int length = buffer.capacity();
+      int size = 1 << shift;
+      ByteBuffer[] chunks = new ByteBuffer[(int) (((long) length + size - 1) >>> shift)];
+      for (int i = 0; i < chunks.length; i++) {
+        ByteBuffer view = buffer.duplicate();
+        view.clear();
+        int position = i << shift;
+        view.position(position);
+        view.limit(Math.min(length, position + size));
+        chunks[i] = view.slice().order(ByteOrder.LITTLE_ENDIAN);
+      }
+      return new Chunks(chunks, shift, length);
+    }
+
+    private Chunks(ByteBuffer[] chunks, int shift, long length) {
+      this.chunks = chunks;
+      this.shift = shift;
+      this.mask = (1L << shift) - 1;
+      this.length = length;
+    }
+
+    ByteBuffer chunk(long position) {
+      return chunks[(int) (position >>> shift)];
+    }
+
+    int offset(long position) {
+      return (int) (position & mask);
+    }
+
+    int getInt(long position) {
+      return chunk(position).getInt(offset(position));
+    }
+
+    void putInt(long position, int value) {
+      chunk(position).putInt(offset(position), value);
+    }
+
+    void force() {
+      for (ByteBuffer chunk : chunks)
+        if (chunk instanceof MappedByteBuffer)
+          ((MappedByteBuffer) chunk).force();
+    }
+  }
+}
@@ -0,0 +1,413 @@
+package com.primalimited.core.geometry;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.bounds.Bounds2D;
+import com.primalimited.core.dval.DvalArrays;
+import com.primalimited.core.dval.MissingValuePolicy;
+
+/**
+ * Static R-tree over rectangles, e.g. the bounds of the features of a map
+ * layer, for finding the features that intersect, contain or lie within a
+ * query rectangle such as a viewport.
+ * <p>
+ * The tree is bulk loaded with Sort-Tile-Recursive (STR) packing: each
+ * level is sorted into vertical slices by x center, each slice by y
+ * center, and consecutive runs of nodeSize entries become the nodes of the
+ * next level up.  Items and nodes are stored level by level in four
+ * primitive arrays of min x, max x, min y and max y, with no node objects,
+ * so a query touches a few contiguous runs of memory.
+ * <p>
+ * Query semantics are those of {@link Bounds2D}: rectangles are closed, so
+ * rectangles that share only an edge or corner intersect.  Items with
+ * invalid bounds are not indexed and are never reported.  Instances are
+ * immutable and safe to query from multiple threads.
+ */
+public final class PackedRTree {
+  /**
+   * Receives the items found by a query.
+   */
+  @FunctionalInterface
+  public interface Visitor {
+    /**
+     * @param index index of the item in the arrays or list the tree was
+     * built from
+     * @return true to continue the search, false to stop it
+     */
+    boolean visit(int index);
+  }
+
+  /** Default maximum number of children of a node. */
+  public static final int DEFAULT_NODE_SIZE = 16;
+
+  private final int nodeSize;
+  private final int size; // items, at positions [0, size)
+  private final double[] minX;
+  private final double[] maxX;
+  private final double[] minY;
+  private final double[] maxY;
+  private final int[] indices; // item: original index; node: position of first child
+  private final int[] ends; // node at position p: children end at ends[p - size]
+
+  /**
+   * @param minX item minimum x values
+   * @param maxX item maximum x values
+   * @param minY item minimum y values
+   * @param maxY item maximum y values
+   * @return new tree over the items, with the default node size
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public static PackedRTree of(double[] minX, double[] maxX, double[] minY, double[] maxY) {
+    return of(minX, maxX, minY, maxY, DEFAULT_NODE_SIZE);
+  }
+
+  /**
+   * @param minX item minimum x values
+   * @param maxX item maximum x values
+   * @param minY item minimum y values
+   * @param maxY item maximum y values
+   * @param nodeSize maximum number of children of a node, &gt;= 2
+   * @return new tree over the items
+   * @throws IllegalArgumentException if the arrays differ in length, or
+   * nodeSize &lt; 2
+   */
+  public static PackedRTree of(double[] minX, double[] maxX, double[] minY, double[] maxY, int nodeSize) {
+    Objects.requireNonNull(minX, "minX");
+    Objects.requireNonNull(maxX, "maxX");
+    Objects.requireNonNull(minY, "minY");
+    Objects.requireNonNull(maxY, "maxY");
+    int n = minX.length;
+    if (maxX.length != n || minY.length != n || maxY.length != n)
+      throw new IllegalArgumentException("array lengths differ: " + n + ", " + maxX.length + ", " + minY.length + ", " + maxY.length);
+    if (nodeSize < 2)
+      throw new IllegalArgumentException("nodeSize (" + nodeSize + ") must be >= 2");
+    return new PackedRTree(minX, maxX, minY, maxY, nodeSize);
+  }
+
+  /**
+   * @param bounds item bounds; null or invalid bounds are not indexed
+   * @return new tree over the items, with the default node size
+   */
+  public static PackedRTree of(Bounds2D[] bounds) {
+    Objects.requireNonNull(bounds, "bounds");
+    int n = bounds.length;
+    double[] minX = new double[n];
+    double[] maxX = new double[n];
+    double[] minY = new double[n];
+    double[] maxY = new double[n];
+    for (int i = 0; i < n; i++) {
+      Bounds2D b = bounds[i];
+      boolean valid = b != null && b.isValid();
+      minX[i] = valid ? b.getMinX() : Double.NaN;
+      maxX[i] = valid ? b.getMaxX() : Double.NaN;
+      minY[i] = valid ? b.getMinY() : Double.NaN;
+      maxY[i] = valid ? b.getMaxY() : Double.NaN;
+    }
+    return of(minX, maxX, minY, maxY);
+  }
+
+  /**
+   * @param features features; the bounds of each are read once
+   * @return new tree over the features' bounds, with the default node size
+   */
+  public static PackedRTree of(List<? extends Spatial> features) {
+    Objects.requireNonNull(features, "features");
+    Bounds2D[] bounds = new Bounds2D[features.size()];
+    for (int i = 0; i < bounds.length; i++)
+      bounds[i] = features.get(i).getBounds();
+    return of(bounds);
+  }
+
+  private PackedRTree(double[] x0, double[] x1, double[] y0, double[] y1, int nodeSize) {
+    this.nodeSize = nodeSize;
+    int count = 0;
+    for (int i = 0; i < x0.length; i++)
+      if (Bounds.valid(x0[i], x1[i]) && Bounds.valid(y0[i], y1[i]))
+        count++;
+    this.size = count;
+
+    /* positions of each level: items, then nodes up to the single root */
+    int total = count;
+    int levelCount = count;
+    do {
+      levelCount = (levelCount + nodeSize - 1) / nodeSize;
+      total += levelCount;
+    } while (levelCount > 1);
+    if (count == 0)
+      total = 0;
+
+    minX = new double[total];
+    maxX = new double[total];
+    minY = new double[total];
+    maxY = new double[total];
+    indices = new int[total];
+    ends = new int[total - count];
+    if (count == 0)
+      return;
+
+    /* current level, in input order */
+    double[] lx0 = new double[count], lx1 = new double[count], ly0 = new double[count], ly1 = new double[count];
+    int[] lid = new int[count];
+    int[] lend = new int[count]; // nodes: end of children
+    int k = 0;
+    for (int i = 0; i < x0.length; i++) {
+      if (Bounds.valid(x0[i], x1[i]) && Bounds.valid(y0[i], y1[i])) {
+        lx0[k] = x0[i];
+        lx1[k] = x1[i];
+        ly0[k] = y0[i];
+        ly1[k] = y1[i];
+        lid[k++] = i;
+      }
+    }
+
+    int start = 0;
+    levelCount = count;
+    while (true) {
+      int[] order = strOrder(lx0, lx1, ly0, ly1, levelCount);
+      for (int j = 0; j < levelCount; j++) {
+        int from = order[j];
+        int to = start + j;
+        minX[to] = lx0[from];
+        maxX[to] = lx1[from];
+        minY[to] = ly0[from];
+        maxY[to] = ly1[from];
+        indices[to] = lid[from];
+        if (to >= size)
+          ends[to - size] = lend[from];
+      }
+      if (start > 0 && levelCount == 1)
+        break;
+
+      /* parents: runs of nodeSize consecutive entries */
+      int parents = (levelCount + nodeSize - 1) / nodeSize;
+      for (int p = 0; p < parents; p++) {
+        int first = start + p * nodeSize;
+        int last = Math.min(first + nodeSize, start + levelCount);
+        double px0 = Double.POSITIVE_INFINITY, px1 = Double.NEGATIVE_INFINITY;
+        double py0 = Double.POSITIVE_INFINITY, py1 = Double.NEGATIVE_INFINITY;
+        for (int c = first; c < last; c++) {
+          px0 = Math.min(px0, minX[c]);
+          px1 = Math.max(px1, maxX[c]);
+          py0 = Math.min(py0, minY[c]);
+          py1 = Math.max(py1, maxY[c]);
+        }
+        lx0[p] = px0;
+        lx1[p] = px1;
+        ly0[p] = py0;
+        ly1[p] = py1;
+        lid[p] = first;
+        lend[p] = last;
+      }
+      start += levelCount;
+      levelCount = parents;
+    }
+  }
+
+  /*
+   * STR order of the first n entries: sort by x center into vertical
+   * slices of whole nodes, then each slice by y center.
+   */
+  private int[] strOrder(double[] x0, double[] x1, double[] y0, double[] y1, int n) {
+    if (n <= nodeSize)
+      return identity(n);
+    double[] keys = new double[n];
+    for (int i = 0; i < n; i++)
+      keys[i] = x0[i] + (x1[i] - x0[i]) * 0.5;
+    int[] order = DvalArrays.parallelArgsort(keys, MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST);
+    int nodes = (n + nodeSize - 1) / nodeSize;
+    int slices = (int) Math.ceil(Math.sqrt(nodes));
+    int sliceSize = nodeSize * ((nodes + slices - 1) / slices);
+    double[] sliceKeys = new double[Math.min(sliceSize, n)];
+    int[] sliceOrder = new int[sliceKeys.length];
+    for (int from = 0; from < n; from += sliceSize) {
+      int to = Math.min(from + sliceSize, n);
+      for (int j = from; j < to; j++) {
+        int i = order[j];
+        sliceKeys[j - from] = y0[i] + (y1[i] - y0[i]) * 0.5;
+      }
+      int[] byY = DvalArrays.argsort(Arrays.copyOf(sliceKeys, to - from), MissingValuePolicy.DVAL_OR_NAN, DvalArrays.Placement.LAST);
+      for (int j = 0; j < byY.length; j++)
+        sliceOrder[j] = order[from + byY[j]];
+      System.arraycopy(sliceOrder, 0, order, from, to - from);
+    }
+    return order;
+  }
+
+  private static int[] identity(int n) {
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++)
+      order[i] = i;
+    return order;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size + " nodeSize=" + nodeSize;
+  }
+
+  /**
+   * @return number of items indexed, excluding those with invalid bounds
+   */
+  public int size() {
+    return size;
+  }
+
+  public int getNodeSize() {
+    return nodeSize;
+  }
+
+  /**
+   * @return new instance of the bounds of all items, invalid (empty) if
+   * there are none
+   */
+  public Bounds2D getBounds() {
+    if (size == 0)
+      return Bounds2D.empty();
+    int root = minX.length - 1;
+    return Bounds2D.create(minX[root], maxX[root], minY[root], maxY[root]);
+  }
+
+  /**
+   * Visit the items whose bounds intersect the query, as
+   * {@link Bounds2D#intersects(Bounds2D)}.
+   *
+   * @param query query bounds; no items are visited if it is invalid
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean intersects(Bounds2D query, Visitor visitor) {
+    Objects.requireNonNull(query, "query");
+    if (!query.isValid())
+      return true;
+    return intersects(query.getMinX(), query.getMaxX(), query.getMinY(), query.getMaxY(), visitor);
+  }
+
+  /**
+   * Visit the items whose bounds intersect the query rectangle.
+   *
+   * @param qx0 query min x
+   * @param qx1 query max x
+   * @param qy0 query min y
+   * @param qy1 query max y
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean intersects(double qx0, double qx1, double qy0, double qy1, Visitor visitor) {
+    return search(INTERSECTS, qx0, qx1, qy0, qy1, visitor);
+  }
+
+  /**
+   * Return the items whose bounds intersect the query.
+   *
+   * @param query query bounds
+   * @return indices of the items found, in no particular order
+   */
+  public int[] intersects(Bounds2D query) {
+    int[][] found = { new int[16] };
+    int[] count = { 0 };
+    intersects(query, index -> {
+      if (count[0] == found[0].length)
+        found[0] = Arrays.copyOf(found[0], 2 * count[0]);
+      found[0][count[0]++] = index;
+      return true;
+    });
+    return Arrays.copyOf(found[0], count[0]);
+  }
+
+  /**
+   * Visit the items whose bounds contain the query, as
+   * {@link Bounds2D#contains(Bounds2D)} called on the item.
+   *
+   * @param query query bounds; no items are visited if it is invalid
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean contains(Bounds2D query, Visitor visitor) {
+    Objects.requireNonNull(query, "query");
+    if (!query.isValid())
+      return true;
+    return contains(query.getMinX(), query.getMaxX(), query.getMinY(), query.getMaxY(), visitor);
+  }
+
+  /**
+   * Visit the items whose bounds contain the query rectangle.
+   *
+   * @param qx0 query min x
+   * @param qx1 query max x
+   * @param qy0 query min y
+   * @param qy1 query max y
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean contains(double qx0, double qx1, double qy0, double qy1, Visitor visitor) {
+    return search(CONTAINS, qx0, qx1, qy0, qy1, visitor);
+  }
+
+  /**
+   * Visit the items whose bounds lie within the query, as
+   * {@link Bounds2D#contains(Bounds2D)} called on the query.
+   *
+   * @param query query bounds; no items are visited if it is invalid
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean within(Bounds2D query, Visitor visitor) {
+    Objects.requireNonNull(query, "query");
+    if (!query.isValid())
+      return true;
+    return within(query.getMinX(), query.getMaxX(), query.getMinY(), query.getMaxY(), visitor);
+  }
+
+  /**
+   * Visit the items whose bounds lie within the query rectangle.
+   *
+   * @param qx0 query min x
+   * @param qx1 query max x
+   * @param qy0 query min y
+   * @param qy1 query max y
+   * @param visitor receives the index of each item found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean within(double qx0, double qx1, double qy0, double qy1, Visitor visitor) {
+    return search(WITHIN, qx0, qx1, qy0, qy1, visitor);
+  }
+
+  private static final int INTERSECTS = 0;
+  private static final int CONTAINS = 1;
+  private static final int WITHIN = 2;
+
+  private boolean search(int mode, double qx0, double qx1, double qy0, double qy1, Visitor visitor) {
+    Objects.requireNonNull(visitor, "visitor");
+    if (size == 0 || !Bounds.valid(qx0, qx1) || !Bounds.valid(qy0, qy1))
+      return true;
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = minX.length - 1;
+    while (top > 0) {
+      int node = stack[--top];
+      int first = indices[node];
+      int end = ends[node - size];
+      boolean leaves = first < size;
+      for (int c = first; c < end; c++) {
+        /* every mode requires intersection */
+        if (minX[c] > qx1 || maxX[c] < qx0 || minY[c] > qy1 || maxY[c] < qy0)
+          continue;
+        /* a node that does not contain the query has no item that does */
+        if (mode == CONTAINS && (minX[c] > qx0 || maxX[c] < qx1 || minY[c] > qy0 || maxY[c] < qy1))
+          continue;
+        if (!leaves) {
+          if (top == stack.length)
+            stack = Arrays.copyOf(stack, 2 * top);
+          stack[top++] = c;
+        } else if (mode != WITHIN || (minX[c] >= qx0 && maxX[c] <= qx1 && minY[c] >= qy0 && maxY[c] <= qy1)) {
+          if (!visitor.visit(indices[c]))
+            return false;
+        }
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,486 @@
+package com.primalimited.core.geometry;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.bounds.Bounds2D;
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Dynamic point quadtree over a fixed extent, for point sets that change
+ * continually, e.g. live vehicle positions, and rectangle range queries.
+ * <p>
+ * Points are an int id and an x, y location, held in primitive buckets at
+ * the leaves.  A leaf splits into four quadrants when its bucket exceeds
+ * the node capacity, unless it is at the maximum depth or all of its points
+ * coincide, so duplicate points never cause unbounded subdivision; a
+ * subtree collapses back into one leaf when a delete leaves it holding no
+ * more than the capacity.  Nodes are held in primitive arrays and reused.
+ * A point on a quadrant's dividing line belongs to the upper quadrant.
+ * <p>
+ * Ids are not required to be unique; delete and move act on one point
+ * with the given id and location.  Instances are not thread safe.
+ */
+public final class PointQuadtree {
+  /**
+   * Receives the points found by a query.
+   */
+  @FunctionalInterface
+  public interface Visitor {
+    /**
+     * @param id point id
+     * @param x point x
+     * @param y point y
+     * @return true to continue the search, false to stop it
+     */
+    boolean visit(int id, double x, double y);
+  }
+
+  /** Default maximum number of points of a leaf before it splits. */
+  public static final int DEFAULT_CAPACITY = 16;
+  /** Default maximum depth of a leaf; the root is at depth 0. */
+  public static final int DEFAULT_MAX_DEPTH = 16;
+  private static final int MAX_DEPTH_LIMIT = 30;
+
+  private final double minX;
+  private final double maxX;
+  private final double minY;
+  private final double maxY;
+  private final int capacity;
+  private final int maxDepth;
+
+  /* nodes; the children of an internal node are 4 consecutive nodes */
+  private int[] firstChild; // -1 for a leaf
+  private int[] counts; // points in the subtree
+  private double[][] bucketX; // leaf points
+  private double[][] bucketY;
+  private int[][] bucketIds;
+  private int nodeCount;
+  private int[] freeBlocks = new int[4];
+  private int freeBlockCount;
+
+  /**
+   * @param extent extent of the tree; points outside it cannot be inserted
+   * @return new, empty tree with the default capacity and maximum depth
+   * @throws IllegalArgumentException if the extent is invalid
+   */
+  public static PointQuadtree create(Bounds2D extent) {
+    return create(extent, DEFAULT_CAPACITY, DEFAULT_MAX_DEPTH);
+  }
+
+  /**
+   * @param extent extent of the tree; points outside it cannot be inserted
+   * @param capacity maximum number of points of a leaf before it splits,
+   * &gt;= 1
+   * @param maxDepth maximum depth of a leaf, in [0, 30]
+   * @return new, empty tree
+   * @throws IllegalArgumentException if the extent is invalid, or capacity
+   * or maxDepth is out of range
+   */
+  public static PointQuadtree create(Bounds2D extent, int capacity, int maxDepth) {
+    Objects.requireNonNull(extent, "extent");
+    if (!extent.isValid())
+      throw new IllegalArgumentException("extent is invalid: " + extent);
+    if (capacity < 1)
+      throw new IllegalArgumentException("capacity (" + capacity + ") must be >= 1");
+    if (maxDepth < 0 || maxDepth > MAX_DEPTH_LIMIT)
+      throw new IllegalArgumentException("maxDepth (" + maxDepth + ") not in [0, " + MAX_DEPTH_LIMIT + "]");
+    return new PointQuadtree(extent, capacity, maxDepth);
+  }
+
+  private PointQuadtree(Bounds2D extent, int capacity, int maxDepth) {
+    this.minX = extent.getMinX();
+    this.maxX = extent.getMaxX();
+    this.minY = extent.getMinY();
+    this.maxY = extent.getMaxY();
+    this.capacity = capacity;
+    this.maxDepth = maxDepth;
+    clear();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size() + " nodes=" + (nodeCount - 4 * freeBlockCount);
+  }
+
+  /**
+   * @return number of points
+   */
+  public int size() {
+    return counts[0];
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * @return new instance of the extent of the tree
+   */
+  public Bounds2D getExtent() {
+    return Bounds2D.create(minX, maxX, minY, maxY);
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /**
+   * Remove all points.
+   */
+  public void clear() {
+    firstChild = new int[16];
+    counts = new int[16];
+    bucketX = new double[16][];
+    bucketY = new double[16][];
+    bucketIds = new int[16][];
+    freeBlockCount = 0;
+    nodeCount = 1;
+    firstChild[0] = -1;
+  }
+
+  /**
+   * @param x x coordinate
+   * @param y y coordinate
+   * @return true if the location is valid and inside the extent
+   */
+  public boolean inExtent(double x, double y) {
+    return Dval.isValid.test(x) && Dval.isValid.test(y)
+        && x >= minX && x <= maxX && y >= minY && y <= maxY;
+  }
+
+  /**
+   * Insert a point.
+   *
+   * @param id point id
+   * @param x point x
+   * @param y point y
+   * @return true if inserted, false if the location is invalid or outside
+   * the extent
+   */
+  public boolean insert(int id, double x, double y) {
+    if (!inExtent(x, y))
+      return false;
+    int node = 0;
+    int depth = 0;
+    double x0 = minX, x1 = maxX, y0 = minY, y1 = maxY;
+    while (firstChild[node] >= 0) {
+      counts[node]++;
+      double midX = x0 + (x1 - x0) * 0.5;
+      double midY = y0 + (y1 - y0) * 0.5;
+      int quadrant = 0;
+      if (x >= midX) {
+        quadrant |= 1;
+        x0 = midX;
+      } else {
+        x1 = midX;
+      }
+      if (y >= midY) {
+        quadrant |= 2;
+        y0 = midY;
+      } else {
+        y1 = midY;
+      }
+      node = firstChild[node] + quadrant;
+      depth++;
+    }
+    append(node, id, x, y);
+    if (counts[node] > capacity)
+      split(node, depth, x0, x1, y0, y1);
+    return true;
+  }
+
+  /**
+   * Delete a point.
+   *
+   * @param id point id
+   * @param x point x, as inserted
+   * @param y point y, as inserted
+   * @return true if a point with the id and location was found and deleted
+   */
+  public boolean delete(int id, double x, double y) {
+    if (!inExtent(x, y))
+      return false;
+    int[] path = new int[maxDepth + 1];
+    int depth = 0;
+    int node = 0;
+    double x0 = minX, x1 = maxX, y0 = minY, y1 = maxY;
+    while (firstChild[node] >= 0) {
+      path[depth++] = node;
+      double midX = x0 + (x1 - x0) * 0.5;
+      double midY = y0 + (y1 - y0) * 0.5;
+      int quadrant = 0;
+      if (x >= midX) {
+        quadrant |= 1;
+        x0 = midX;
+      } else {
+        x1 = midX;
+      }
+      if (y >= midY) {
+        quadrant |= 2;
+        y0 = midY;
+      } else {
+        y1 = midY;
+      }
+      node = firstChild[node] + quadrant;
+    }
+
+    double[] bx = bucketX[node];
+    double[] by = bucketY[node];
+    int[] bid = bucketIds[node];
+    int count = counts[node];
+    int found = -1;
+    for (int i = 0; i < count; i++) {
+      if (bid[i] == id && bx[i] == x && by[i] == y) {
+        found = i;
+        break;
+      }
+    }
+    if (found < 0)
+      return false;
+    count--;
+    bx[found] = bx[count];
+    by[found] = by[count];
+    bid[found] = bid[count];
+    counts[node] = count;
+
+    for (int d = 0; d < depth; d++)
+      counts[path[d]]--;
+    /* collapse the highest ancestor that now fits in one leaf */
+    for (int d = 0; d < depth; d++) {
+      if (counts[path[d]] <= capacity) {
+        collapse(path[d]);
+        break;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Move a point to a new location.
+   *
+   * @param id point id
+   * @param oldX current x
+   * @param oldY current y
+   * @param newX new x
+   * @param newY new y
+   * @return true if moved; false, with no change, if the new location is
+   * invalid or outside the extent, or no point has the id and current
+   * location
+   */
+  public boolean move(int id, double oldX, double oldY, double newX, double newY) {
+    if (!inExtent(newX, newY))
+      return false;
+    if (!delete(id, oldX, oldY))
+      return false;
+    return insert(id, newX, newY);
+  }
+
+  /**
+   * Visit the points inside a range, inclusive of its edges, as
+   * {@link Bounds2D#contains(double, double)}.
+   *
+   * @param range query range; no points are visited if it is invalid
+   * @param visitor receives each point found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean query(Bounds2D range, Visitor visitor) {
+    Objects.requireNonNull(range, "range");
+    if (!range.isValid())
+      return true;
+    return query(range.getMinX(), range.getMaxX(), range.getMinY(), range.getMaxY(), visitor);
+  }
+
+  /**
+   * Visit the points inside a rectangle, inclusive of its edges.
+   *
+   * @param qx0 query min x
+   * @param qx1 query max x
+   * @param qy0 query min y
+   * @param qy1 query max y
+   * @param visitor receives each point found
+   * @return false if the visitor stopped the search, true otherwise
+   */
+  public boolean query(double qx0, double qx1, double qy0, double qy1, Visitor visitor) {
+    Objects.requireNonNull(visitor, "visitor");
+    if (!Bounds.valid(qx0, qx1) || !Bounds.valid(qy0, qy1))
+      return true;
+    return query(0, minX, maxX, minY, maxY, qx0, qx1, qy0, qy1, visitor);
+  }
+
+  /**
+   * Return the ids of the points inside a range.
+   *
+   * @param range query range
+   * @return ids of the points found, in no particular order
+   */
+  public int[] query(Bounds2D range) {
+    int[][] found = { new int[16] };
+    int[] count = { 0 };
+    query(range, (id, x, y) -> {
+      if (count[0] == found[0].length)
+        found[0] = Arrays.copyOf(found[0], 2 * count[0]);
+      found[0][count[0]++] = id;
+      return true;
+    });
+    return Arrays.copyOf(found[0], count[0]);
+  }
+
+  private boolean query(int node, double x0, double x1, double y0, double y1,
+      double qx0, double qx1, double qy0, double qy1, Visitor visitor) {
+    if (counts[node] == 0 || x0 > qx1 || x1 < qx0 || y0 > qy1 || y1 < qy0)
+      return true;
+    int first = firstChild[node];
+    if (first < 0) {
+      double[] bx = bucketX[node];
+      double[] by = bucketY[node];
+      int[] bid = bucketIds[node];
+      boolean inside = x0 >= qx0 && x1 <= qx1 && y0 >= qy0 && y1 <= qy1;
+      for (int i = 0, count = counts[node]; i < count; i++) {
+        double x = bx[i];
+        double y = by[i];
+        if ((inside || (x >= qx0 && x <= qx1 && y >= qy0 && y <= qy1)) && !visitor.visit(bid[i], x, y))
+          return false;
+      }
+      return true;
+    }
+    double midX = x0 + (x1 - x0) * 0.5;
+    double midY = y0 + (y1 - y0) * 0.5;
+    return query(first, x0, midX, y0, midY, qx0, qx1, qy0, qy1, visitor)
+        && query(first + 1, midX, x1, y0, midY, qx0, qx1, qy0, qy1, visitor)
+        && query(first + 2, x0, midX, midY, y1, qx0, qx1, qy0, qy1, visitor)
+        && query(first + 3, midX, x1, midY, y1, qx0, qx1, qy0, qy1, visitor);
+  }
+
+  private void append(int node, int id, double x, double y) {
+    int count = counts[node];
+    if (bucketX[node] == null) {
+      int length = Math.max(4, Math.min(capacity + 1, 16));
+      bucketX[node] = new double[length];
+      bucketY[node] = new double[length];
+      bucketIds[node] = new int[length];
+    } else if (count == bucketX[node].length) {
+      bucketX[node] = Arrays.copyOf(bucketX[node], 2 * count);
+      bucketY[node] = Arrays.copyOf(bucketY[node], 2 * count);
+      bucketIds[node] = Arrays.copyOf(bucketIds[node], 2 * count);
+    }
+    bucketX[node][count] = x;
+    bucketY[node][count] = y;
+    bucketIds[node][count] = id;
+    counts[node] = count + 1;
+  }
+
+  /*
+   * Split an over-full leaf into quadrants, and those in turn, unless at
+   * the maximum depth, the points all coincide, or the node is too small
+   * to divide.
+   */
+  private void split(int node, int depth, double x0, double x1, double y0, double y1) {
+    if (depth >= maxDepth)
+      return;
+    double midX = x0 + (x1 - x0) * 0.5;
+    double midY = y0 + (y1 - y0) * 0.5;
+    if (!(midX > x0 && midX < x1) && !(midY > y0 && midY < y1))
+      return;
+    double[] bx = bucketX[node];
+    double[] by = bucketY[node];
+    int[] bid = bucketIds[node];
+    int count = counts[node];
+    boolean coincident = true;
+    for (int i = 1; i < count && coincident; i++)
+      coincident = bx[i] == bx[0] && by[i] == by[0];
+    if (coincident)
+      return;
+
+    int first = allocateBlock();
+    firstChild[node] = first;
+    bucketX[node] = null;
+    bucketY[node] = null;
+    bucketIds[node] = null;
+    for (int i = 0; i < count; i++) {
+      int quadrant = (bx[i] >= midX ? 1 : 0) | (by[i] >= midY ? 2 : 0);
+      append(first + quadrant, bid[i], bx[i], by[i]);
+    }
+    if (counts[first] > capacity)
+      split(first, depth + 1, x0, midX, y0, midY);
+    if (counts[first + 1] > capacity)
+      split(first + 1, depth + 1, midX, x1, y0, midY);
+    if (counts[first + 2] > capacity)
+      split(first + 2, depth + 1, x0, midX, midY, y1);
+    if (counts[first + 3] > capacity)
+      split(first + 3, depth + 1, midX, x1, midY, y1);
+  }
+
+  /*
+   * Gather the points of an internal node's subtree into its own bucket and
+   * free its descendants.
+   */
+  private void collapse(int node) {
+    int count = counts[node];
+    double[] bx = new double[Math.max(4, count)];
+    double[] by = new double[bx.length];
+    int[] bid = new int[bx.length];
+    gather(node, bx, by, bid, 0);
+    bucketX[node] = bx;
+    bucketY[node] = by;
+    bucketIds[node] = bid;
+    firstChild[node] = -1;
+  }
+
+  private int gather(int node, double[] bx, double[] by, int[] bid, int at) {
+    int first = firstChild[node];
+    if (first < 0) {
+      int count = counts[node];
+      if (count > 0) {
+        System.arraycopy(bucketX[node], 0, bx, at, count);
+        System.arraycopy(bucketY[node], 0, by, at, count);
+        System.arraycopy(bucketIds[node], 0, bid, at, count);
+      }
+      return at + count;
+    }
+    for (int c = first; c < first + 4; c++) {
+      at = gather(c, bx, by, bid, at);
+      bucketX[c] = null;
+      bucketY[c] = null;
+      bucketIds[c] = null;
+      counts[c] = 0;
+      firstChild[c] = -1;
+    }
+    freeBlock(first);
+    return at;
+  }
+
+  private int allocateBlock() {
+    int first;
+    if (freeBlockCount > 0) {
+      first = freeBlocks[--freeBlockCount];
+    } else {
+      first = nodeCount;
+      nodeCount += 4;
+      if (nodeCount > firstChild.length) {
+        int length = Math.max(2 * firstChild.length, nodeCount);
+        firstChild = Arrays.copyOf(firstChild, length);
+        counts = Arrays.copyOf(counts, length);
+        bucketX = Arrays.copyOf(bucketX, length);
+        bucketY = Arrays.copyOf(bucketY, length);
+        bucketIds = Arrays.copyOf(bucketIds, length);
+      }
+    }
+    for (int c = first; c < first + 4; c++) {
+      firstChild[c] = -1;
+      counts[c] = 0;
+    }
+    return first;
+  }
+
+  private void freeBlock(int first) {
+    if (freeBlockCount == freeBlocks.length)
+      freeBlocks = Arrays.copyOf(freeBlocks, 2 * freeBlockCount);
+    freeBlocks[freeBlockCount++] = first;
+  }
+}
@@ -0,0 +1,251 @@
+package com.primalimited.core.geometry;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.bounds.Bounds2D;
+
+/**
+ * Collection of {@link Spatial} features, e.g. a map layer, that keeps the
+ * aggregate bounds of its features current as they are added, updated and
+ * removed, without rescanning the collection.
+ * <p>
+ * Each feature occupies a slot, identified by the handle returned from
+ * {@link #add(Spatial)}; freed slots are reused.  The bounds of the slots
+ * are the leaves of a tournament tree held in four primitive arrays (min x,
+ * max x, min y, max y), each internal node holding the aggregate of its
+ * children, so add, update and remove cost O(log n) and the aggregate
+ * bounds are read from the root in O(1).  A feature's bounds are read when
+ * it is added or updated; call {@link #update(int)} after the feature
+ * moves.  Features with invalid bounds are held but do not contribute.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @param <T> feature type
+ */
+public final class SpatialCollection<T extends Spatial> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private Object[] features;
+  private int[] free; // stack of freed handles below high
+  private int freeCount;
+  private int high; // handles at or above high have never been used
+  private int size;
+
+  /* tournament tree, root at 1, leaf of handle h at capacity + h */
+  private double[] minX;
+  private double[] maxX;
+  private double[] minY;
+  private double[] maxY;
+
+  /**
+   * @param <T> feature type
+   * @return new, empty collection
+   */
+  public static <T extends Spatial> SpatialCollection<T> create() {
+    return new SpatialCollection<>();
+  }
+
+  private SpatialCollection() {
+    allocate(INITIAL_CAPACITY);
+  }
+
+  private void allocate(int capacity) {
+    features = features == null ? new Object[capacity] : Arrays.copyOf(features, capacity);
+    free = free == null ? new int[capacity] : Arrays.copyOf(free, capacity);
+    double[] x0 = minX, x1 = maxX, y0 = minY, y1 = maxY;
+    minX = new double[2 * capacity];
+    maxX = new double[2 * capacity];
+    minY = new double[2 * capacity];
+    maxY = new double[2 * capacity];
+    Arrays.fill(minX, Double.POSITIVE_INFINITY);
+    Arrays.fill(maxX, Double.NEGATIVE_INFINITY);
+    Arrays.fill(minY, Double.POSITIVE_INFINITY);
+    Arrays.fill(maxY, Double.NEGATIVE_INFINITY);
+    if (x0 != null) {
+      int old = x0.length / 2;
+      System.arraycopy(x0, old, minX, capacity, old);
+      System.arraycopy(x1, old, maxX, capacity, old);
+      System.arraycopy(y0, old, minY, capacity, old);
+      System.arraycopy(y1, old, maxY, capacity, old);
+    }
+    for (int node = capacity - 1; node >= 1; node--)
+      pull(node);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size + " " + getBounds();
+  }
+
+  /**
+   * @return number of features
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Add a feature, reading its bounds.
+   *
+   * @param feature feature to add
+   * @return handle of the feature, for {@link #update(int)},
+   * {@link #remove(int)} and {@link #get(int)}
+   */
+  public int add(T feature) {
+    Objects.requireNonNull(feature, "feature");
+    int handle;
+    if (freeCount > 0) {
+      handle = free[--freeCount];
+    } else {
+      if (high == features.length)
+        allocate(2 * features.length);
+      handle = high++;
+    }
+    features[handle] = feature;
+    size++;
+    setLeaf(handle, feature.getBounds());
+    return handle;
+  }
+
+  /**
+   * @param handle feature handle
+   * @return the feature
+   * @throws IllegalArgumentException if the handle is not in use
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int handle) {
+    check(handle);
+    return (T) features[handle];
+  }
+
+  /**
+   * @param handle feature handle
+   * @return true if the handle refers to a feature of this collection
+   */
+  public boolean contains(int handle) {
+    return handle >= 0 && handle < high && features[handle] != null;
+  }
+
+  /**
+   * Re-read the bounds of a feature, e.g. after it moved.
+   *
+   * @param handle feature handle
+   * @throws IllegalArgumentException if the handle is not in use
+   */
+  public void update(int handle) {
+    setLeaf(handle, get(handle).getBounds());
+  }
+
+  /**
+   * Replace a feature, reading the bounds of the replacement.
+   *
+   * @param handle feature handle
+   * @param feature replacement feature
+   * @return the replaced feature
+   * @throws IllegalArgumentException if the handle is not in use
+   */
+  public T update(int handle, T feature) {
+    Objects.requireNonNull(feature, "feature");
+    T previous = get(handle);
+    features[handle] = feature;
+    setLeaf(handle, feature.getBounds());
+    return previous;
+  }
+
+  /**
+   * Remove a feature; its handle may be reused by a later add.
+   *
+   * @param handle feature handle
+   * @return the removed feature
+   * @throws IllegalArgumentException if the handle is not in use
+   */
+  public T remove(int handle) {
+    T previous = get(handle);
+    features[handle] = null;
+    free[freeCount++] = handle;
+    size--;
+    setLeaf(handle, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+    return previous;
+  }
+
+  /**
+   * Remove all features.
+   */
+  public void clear() {
+    features = null;
+    free = null;
+    minX = null;
+    maxX = null;
+    minY = null;
+    maxY = null;
+    freeCount = 0;
+    high = 0;
+    size = 0;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * @return true if any feature has valid bounds
+   */
+  public boolean isValid() {
+    return minX[1] <= maxX[1] && minY[1] <= maxY[1];
+  }
+
+  /**
+   * @return new instance of the aggregate bounds of all features, invalid
+   * (empty) if no feature has valid bounds; O(1)
+   */
+  public Bounds2D getBounds() {
+    if (!isValid())
+      return Bounds2D.empty();
+    return Bounds2D.create(minX[1], maxX[1], minY[1], maxY[1]);
+  }
+
+  private void check(int handle) {
+    if (!contains(handle))
+      throw new IllegalArgumentException("no feature for handle " + handle);
+  }
+
+  private void setLeaf(int handle, Bounds2D bounds) {
+    if (bounds != null && bounds.isValid())
+      setLeaf(handle, bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY());
+    else
+      setLeaf(handle, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY);
+  }
+
+  private void setLeaf(int handle, double x0, double x1, double y0, double y1) {
+    int node = features.length + handle;
+    minX[node] = x0;
+    maxX[node] = x1;
+    minY[node] = y0;
+    maxY[node] = y1;
+    /* stop once an ancestor is unchanged, as are those above it */
+    node >>>= 1;
+    while (node >= 1 && pull(node))
+      node >>>= 1;
+  }
+
+  /*
+   * Recompute a node from its children; returns true if it changed.
+   */
+  private boolean pull(int node) {
+    int left = 2 * node;
+    int right = left + 1;
+    double x0 = Math.min(minX[left], minX[right]);
+    double x1 = Math.max(maxX[left], maxX[right]);
+    double y0 = Math.min(minY[left], minY[right]);
+    double y1 = Math.max(maxY[left], maxY[right]);
+    if (x0 == minX[node] && x1 == maxX[node] && y0 == minY[node] && y1 == maxY[node])
+      return false;
+    minX[node] = x0;
+    maxX[node] = x1;
+    minY[node] = y0;
+    maxY[node] = y1;
+    return true;
+  }
+}
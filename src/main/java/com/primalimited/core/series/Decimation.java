@@ -0,0 +1,344 @@
+package com.primalimited.core.series;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Min/max decimation of an x, y series into a fixed number of x bins, e.g.
+ * one bin per pixel column of a chart.  For each bin the minimum, maximum,
+ * first and last y values (first and last by array index) and the number of
+ * samples are computed in a single pass, with bins assigned exactly as
+ * {@link Bounds#getBin(double, int)} assigns them.
+ * <p>
+ * Samples with an invalid x or y value (Dval, NaN, infinite), or with x
+ * outside the x bounds, are skipped.  Empty bins hold Dval.
+ */
+public final class Decimation {
+  /* below this many samples per task the parallel mode runs sequentially */
+  static final int PARALLEL_THRESHOLD = 1 << 16;
+
+  private final Bounds xBounds;
+  private final double[] min;
+  private final double[] max;
+  private final double[] first;
+  private final double[] last;
+  private final int[] count;
+
+  /**
+   * Decimate the series in a single pass.
+   *
+   * @param xBounds x bounds covered by the bins
+   * @param bins number of bins, e.g. pixel width of a chart
+   * @param x x values
+   * @param y y values, same length as x
+   * @return decimation of the series
+   * @throws IllegalArgumentException if xBounds is invalid, bins &lt;= 0,
+   * or the arrays differ in length
+   */
+  public static Decimation of(Bounds xBounds, int bins, double[] x, double[] y) {
+    validate(xBounds, bins, x, y);
+    Accumulator accumulator = new Accumulator(xBounds, bins);
+    accumulator.accumulate(x, y, 0, x.length);
+    return new Decimation(xBounds, accumulator);
+  }
+
+  /**
+   * Decimate the series, splitting it across the common fork/join pool;
+   * the result is identical to {@link #of(Bounds, int, double[], double[])}.
+   *
+   * @param xBounds x bounds covered by the bins
+   * @param bins number of bins, e.g. pixel width of a chart
+   * @param x x values
+   * @param y y values, same length as x
+   * @return decimation of the series
+   * @throws IllegalArgumentException if xBounds is invalid, bins &lt;= 0,
+   * or the arrays differ in length
+   */
+  public static Decimation parallel(Bounds xBounds, int bins, double[] x, double[] y) {
+    validate(xBounds, bins, x, y);
+    Accumulator accumulator = ForkJoinPool.commonPool().invoke(new Task(xBounds, bins, x, y, 0, x.length));
+    return new Decimation(xBounds, accumulator);
+  }
+
+  /**
+   * Downsample a series with Largest-Triangle-Three-Buckets, which keeps
+   * the visual shape of a line chart with far fewer points.  Points with an
+   * invalid x or y value are skipped; x values should be ascending.
+   *
+   * @param x x values
+   * @param y y values, same length as x
+   * @param threshold number of points to keep
+   * @return ascending indices of the points kept; all valid points if
+   * threshold &lt; 3 or there are no more than threshold valid points
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public static int[] lttb(double[] x, double[] y, int threshold) {
+    Objects.requireNonNull(x, "x");
+    Objects.requireNonNull(y, "y");
+    if (x.length != y.length)
+      throw new IllegalArgumentException("x.length (" + x.length + ") != y.length (" + y.length + ")");
+
+    int[] valid = new int[x.length];
+    int n = 0;
+    for (int i = 0; i < x.length; i++)
+      if (Dval.isValid.test(x[i]) && Dval.isValid.test(y[i]))
+        valid[n++] = i;
+    if (threshold < 3 || n <= threshold)
+      return Arrays.copyOf(valid, n);
+
+    int[] kept = new int[threshold];
+    double bucketSize = (double) (n - 2) / (threshold - 2);
+    int a = 0;
+    kept[0] = valid[0];
+    for (int bucket = 0; bucket < threshold - 2; bucket++) {
+      /* average of the next bucket is the third triangle vertex */
+      int nextFrom = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      int nextTo = Math.min(n, (int) Math.floor((bucket + 2) * bucketSize) + 1);
+      double avgX = 0;
+      double avgY = 0;
+      for (int i = nextFrom; i < nextTo; i++) {
+        avgX += x[valid[i]];
+        avgY += y[valid[i]];
+      }
+      int nextCount = nextTo - nextFrom;
+      avgX /= nextCount;
+      avgY /= nextCount;
+
+      int from = (int) Math.floor(bucket * bucketSize) + 1;
+      int to = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      double ax = x[valid[a]];
+      double ay = y[valid[a]];
+      double maxArea = -1;
+      int chosen = from;
+      for (int i = from; i < to; i++) {
+        double area = Math.abs((ax - avgX) * (y[valid[i]] - ay) - (ax - x[valid[i]]) * (avgY - ay));
+        if (area > maxArea) {
+          maxArea = area;
+          chosen = i;
+        }
+      }
+      kept[bucket + 1] = valid[chosen];
+      a = chosen;
+    }
+    kept[threshold - 1] = valid[n - 1];
+    return kept;
+  }
+
+  private static void validate(Bounds xBounds, int bins, double[] x, double[] y) {
+    Objects.requireNonNull(xBounds, "xBounds");
+    Objects.requireNonNull(x, "x");
+    Objects.requireNonNull(y, "y");
+    if (!xBounds.isValid())
+      throw new IllegalArgumentException("xBounds is invalid: " + xBounds.boundsText());
+    if (bins <= 0)
+      throw new IllegalArgumentException("bins (" + bins + ") must be > 0");
+    if (x.length != y.length)
+      throw new IllegalArgumentException("x.length (" + x.length + ") != y.length (" + y.length + ")");
+  }
+
+  private Decimation(Bounds xBounds, Accumulator accumulator) {
+    this.xBounds = xBounds;
+    this.min = accumulator.min;
+    this.max = accumulator.max;
+    this.first = accumulator.first;
+    this.last = accumulator.last;
+    this.count = accumulator.count;
+    for (int bin = 0; bin < count.length; bin++) {
+      if (count[bin] == 0) {
+        min[bin] = Dval.DVAL_DOUBLE;
+        max[bin] = Dval.DVAL_DOUBLE;
+        first[bin] = Dval.DVAL_DOUBLE;
+        last[bin] = Dval.DVAL_DOUBLE;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " bins=" + bins() + " x=" + xBounds.boundsText();
+  }
+
+  public int bins() {
+    return count.length;
+  }
+
+  public Bounds getXBounds() {
+    return xBounds;
+  }
+
+  /**
+   * Return the bounds of y values in a bin.
+   *
+   * @param bin bin number
+   * @return new instance of Bounds, or null bounds if the bin is empty
+   */
+  public Bounds getBounds(int bin) {
+    if (count[bin] == 0)
+      return Bounds.nullBounds();
+    return Bounds.of(min[bin], max[bin]);
+  }
+
+  public double getMin(int bin) {
+    return min[bin];
+  }
+
+  public double getMax(int bin) {
+    return max[bin];
+  }
+
+  public double getFirst(int bin) {
+    return first[bin];
+  }
+
+  public double getLast(int bin) {
+    return last[bin];
+  }
+
+  public int getCount(int bin) {
+    return count[bin];
+  }
+
+  /**
+   * @return copy of the per-bin minimum y values
+   */
+  public double[] getMins() {
+    return min.clone();
+  }
+
+  /**
+   * @return copy of the per-bin maximum y values
+   */
+  public double[] getMaxes() {
+    return max.clone();
+  }
+
+  /**
+   * @return copy of the per-bin first y values
+   */
+  public double[] getFirsts() {
+    return first.clone();
+  }
+
+  /**
+   * @return copy of the per-bin last y values
+   */
+  public double[] getLasts() {
+    return last.clone();
+  }
+
+  /**
+   * @return copy of the per-bin sample counts
+   */
+  public int[] getCounts() {
+    return count.clone();
+  }
+
+  private static final class Accumulator {
+    private final double xMin;
+    private final double xMax;
+    private final double xRange;
+    private final int bins;
+    final double[] min;
+    final double[] max;
+    final double[] first;
+    final double[] last;
+    final int[] count;
+
+    Accumulator(Bounds xBounds, int bins) {
+      this.xMin = xBounds.getMin();
+      this.xMax = xBounds.getMax();
+      this.xRange = xBounds.getRange();
+      this.bins = bins;
+      this.min = new double[bins];
+      this.max = new double[bins];
+      this.first = new double[bins];
+      this.last = new double[bins];
+      this.count = new int[bins];
+    }
+
+    void accumulate(double[] x, double[] y, int from, int to) {
+      for (int i = from; i < to; i++) {
+        double xValue = x[i];
+        double yValue = y[i];
+        if (!(xValue >= xMin && xValue <= xMax) || Dval.isDval(xValue) || !Dval.isValid.test(yValue))
+          continue;
+
+        /* same arithmetic as Bounds.getBin */
+        int bin = xRange == 0.0 ? 0 : (int) Math.floor(((xValue - xMin) / xRange) * bins);
+        bin = Math.max(0, Math.min(bins - 1, bin));
+        if (count[bin]++ == 0) {
+          min[bin] = yValue;
+          max[bin] = yValue;
+          first[bin] = yValue;
+        } else {
+          if (yValue < min[bin])
+            min[bin] = yValue;
+          if (yValue > max[bin])
+            max[bin] = yValue;
+        }
+        last[bin] = yValue;
+      }
+    }
+
+    /**
+     * Merge the accumulator of the samples that follow this one's.
+     */
+    void merge(Accumulator following) {
+      for (int bin = 0; bin < bins; bin++) {
+        int other = following.count[bin];
+        if (other == 0)
+          continue;
+        if (count[bin] == 0) {
+          min[bin] = following.min[bin];
+          max[bin] = following.max[bin];
+          first[bin] = following.first[bin];
+        } else {
+          min[bin] = Math.min(min[bin], following.min[bin]);
+          max[bin] = Math.max(max[bin], following.max[bin]);
+        }
+        last[bin] = following.last[bin];
+        count[bin] += other;
+      }
+    }
+  }
+
+  @SuppressWarnings("serial")
+  private static final class Task extends RecursiveTask<Accumulator> {
+    private final Bounds xBounds;
+    private final int bins;
+    private final double[] x;
+    private final double[] y;
+    private final int from;
+    private final int to;
+
+    Task(Bounds xBounds, int bins, double[] x, double[] y, int from, int to) {
+      this.xBounds = xBounds;
+      this.bins = bins;
+      this.x = x;
+      this.y = y;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Accumulator compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        Accumulator accumulator = new Accumulator(xBounds, bins);
+        accumulator.accumulate(x, y, from, to);
+        return accumulator;
+      }
+      int mid = (from + to) >>> 1;
+      Task left = new Task(xBounds, bins, x, y, from, mid);
+      Task right = new Task(xBounds, bins, x, y, mid, to);
+      right.fork();
+      Accumulator accumulator = left.compute();
+      accumulator.merge(right.join());
+      return accumulator;
+    }
+  }
+}
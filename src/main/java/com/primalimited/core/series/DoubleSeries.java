@@ -0,0 +1,270 @@
+package com.primalimited.core.series;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Growable sequence of primitive doubles that keeps the bounds of its valid
+ * values current as values are appended, so reading the bounds never
+ * rescans the data and values are never boxed.  Invalid values (Dval, NaN,
+ * infinite) are stored but do not affect the bounds.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @see FloatSeries
+ */
+public final class DoubleSeries {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final Bounds view = new View();
+  private double[] values;
+  private int size;
+  private int validCount;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public static DoubleSeries create() {
+    return new DoubleSeries(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param initialCapacity number of values to allocate space for
+   * @return new, empty series
+   * @throws IllegalArgumentException if initialCapacity &lt; 0
+   */
+  public static DoubleSeries create(int initialCapacity) {
+    if (initialCapacity < 0)
+      throw new IllegalArgumentException("initialCapacity (" + initialCapacity + ") must be >= 0");
+    return new DoubleSeries(initialCapacity);
+  }
+
+  /**
+   * @param values values to copy into the series
+   * @return new series holding a copy of the values
+   */
+  public static DoubleSeries of(double[] values) {
+    Objects.requireNonNull(values, "values");
+    DoubleSeries series = new DoubleSeries(values.length);
+    series.addAll(values);
+    return series;
+  }
+
+  private DoubleSeries(int initialCapacity) {
+    values = new double[initialCapacity];
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size + " " + view.boundsText();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return number of valid values in the series
+   */
+  public int validCount() {
+    return validCount;
+  }
+
+  /**
+   * Append a value.
+   *
+   * @param value value to append
+   */
+  public void add(double value) {
+    if (size == values.length)
+      grow(size + 1);
+    values[size++] = value;
+    include(value);
+  }
+
+  /**
+   * Append all values of an array.
+   *
+   * @param array values to append
+   */
+  public void addAll(double[] array) {
+    Objects.requireNonNull(array, "array");
+    addAll(array, 0, array.length);
+  }
+
+  /**
+   * Append the values of an array from index from (inclusive) to index to
+   * (exclusive).
+   *
+   * @param array values to append
+   * @param from first index to append
+   * @param to index after the last to append
+   * @throws IllegalArgumentException if the index range is invalid
+   */
+  public void addAll(double[] array, int from, int to) {
+    Objects.requireNonNull(array, "array");
+    if (from < 0 || to > array.length || from > to)
+      throw new IllegalArgumentException("invalid range [" + from + ", " + to + ") for length " + array.length);
+    int count = to - from;
+    if (size + count > values.length)
+      grow(size + count);
+    System.arraycopy(array, from, values, size, count);
+    size += count;
+
+    double newMin = min;
+    double newMax = max;
+    int valid = 0;
+    for (int i = from; i < to; i++) {
+      double value = array[i];
+      if (!Dval.isValid.test(value))
+        continue;
+      valid++;
+      if (value < newMin)
+        newMin = value;
+      if (value > newMax)
+        newMax = value;
+    }
+    validCount += valid;
+    min = newMin;
+    max = newMax;
+  }
+
+  /**
+   * @param index index of the value
+   * @return value at the index
+   * @throws IndexOutOfBoundsException if index is not in [0, size)
+   */
+  public double get(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("index (" + index + ") not in [0, " + size + ")");
+    return values[index];
+  }
+
+  /**
+   * @return minimum valid value, or Dval if none
+   */
+  public double getMin() {
+    return validCount == 0 ? Dval.DVAL_DOUBLE : min;
+  }
+
+  /**
+   * @return maximum valid value, or Dval if none
+   */
+  public double getMax() {
+    return validCount == 0 ? Dval.DVAL_DOUBLE : max;
+  }
+
+  /**
+   * Return a read-only view of the bounds of the valid values, which
+   * follows the series as values are appended.  The view is null bounds
+   * while the series holds no valid values.
+   *
+   * @return live, read-only bounds of the series
+   */
+  public Bounds bounds() {
+    return view;
+  }
+
+  /**
+   * Return a snapshot of the bounds of the valid values.
+   *
+   * @return new instance of Bounds, or null bounds if the series holds no
+   * valid values
+   */
+  public Bounds getBounds() {
+    if (validCount == 0)
+      return Bounds.nullBounds();
+    return Bounds.of(min, max);
+  }
+
+  /**
+   * Return a read-only buffer over values from index from (inclusive) to
+   * index to (exclusive) without copying.  The buffer shares storage with
+   * the series until the series next grows or is cleared.
+   *
+   * @param from first index
+   * @param to index after the last
+   * @return read-only buffer over the values
+   * @throws IllegalArgumentException if the index range is invalid
+   */
+  public DoubleBuffer slice(int from, int to) {
+    if (from < 0 || to > size || from > to)
+      throw new IllegalArgumentException("invalid range [" + from + ", " + to + ") for size " + size);
+    return DoubleBuffer.wrap(values, from, to - from).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * @return read-only buffer over all values, without copying
+   */
+  public DoubleBuffer asBuffer() {
+    return slice(0, size);
+  }
+
+  /**
+   * @return copy of the values
+   */
+  public double[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Remove all values, keeping the allocated capacity.
+   */
+  public void clear() {
+    size = 0;
+    validCount = 0;
+    min = Double.POSITIVE_INFINITY;
+    max = Double.NEGATIVE_INFINITY;
+  }
+
+  private void include(double value) {
+    if (!Dval.isValid.test(value))
+      return;
+    validCount++;
+    if (value < min)
+      min = value;
+    if (value > max)
+      max = value;
+  }
+
+  private void grow(int minCapacity) {
+    if (minCapacity < 0)
+      throw new IllegalStateException("series is too large");
+    int capacity = values.length + (values.length >> 1);
+    if (capacity < minCapacity || capacity < 0)
+      capacity = Math.max(minCapacity, DEFAULT_CAPACITY);
+    values = Arrays.copyOf(values, capacity);
+  }
+
+  /**
+   * Live bounds of the series.
+   */
+  private final class View implements Bounds {
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + " " + boundsText();
+    }
+
+    @Override
+    public double getMin() {
+      return DoubleSeries.this.getMin();
+    }
+
+    @Override
+    public double getMax() {
+      return DoubleSeries.this.getMax();
+    }
+
+    @Override
+    public double getRange() {
+      return validCount == 0 ? Dval.DVAL_DOUBLE : max - min;
+    }
+  }
+}
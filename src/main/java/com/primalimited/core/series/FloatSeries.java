@@ -0,0 +1,275 @@
+package com.primalimited.core.series;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Growable sequence of primitive floats that keeps the bounds of its valid
+ * values current as values are appended, so reading the bounds never
+ * rescans the data and values are never boxed.  Invalid values (Dval, NaN,
+ * infinite) are stored but do not affect the bounds;
+ * bounds are reported as doubles.
+ * <p>
+ * Instances are not thread safe.
+ *
+ * @see DoubleSeries
+ */
+public final class FloatSeries {
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private final Bounds view = new View();
+  private float[] values;
+  private int size;
+  private int validCount;
+  private float min = Float.POSITIVE_INFINITY;
+  private float max = Float.NEGATIVE_INFINITY;
+
+  public static FloatSeries create() {
+    return new FloatSeries(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param initialCapacity number of values to allocate space for
+   * @return new, empty series
+   * @throws IllegalArgumentException if initialCapacity &lt; 0
+   */
+  public static FloatSeries create(int initialCapacity) {
+    if (initialCapacity < 0)
+      throw new IllegalArgumentException("initialCapacity (" + initialCapacity + ") must be >= 0");
+    return new FloatSeries(initialCapacity);
+  }
+
+  /**
+   * @param values values to copy into the series
+   * @return new series holding a copy of the values
+   */
+  public static FloatSeries of(float[] values) {
+    Objects.requireNonNull(values, "values");
+    FloatSeries series = new FloatSeries(values.length);
+    series.addAll(values);
+    return series;
+  }
+
+  private FloatSeries(int initialCapacity) {
+    values = new float[initialCapacity];
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " size=" + size + " " + view.boundsText();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return number of valid values in the series
+   */
+  public int validCount() {
+    return validCount;
+  }
+
+  /**
+   * Append a value.
+   *
+   * @param value value to append
+   */
+  public void add(float value) {
+    if (size == values.length)
+      grow(size + 1);
+    values[size++] = value;
+    include(value);
+  }
+
+  /**
+   * Append all values of an array.
+   *
+   * @param array values to append
+   */
+  public void addAll(float[] array) {
+    Objects.requireNonNull(array, "array");
+    addAll(array, 0, array.length);
+  }
+
+  /**
+   * Append the values of an array from index from (inclusive) to index to
+   * (exclusive).
+   *
+   * @param array values to append
+   * @param from first index to append
+   * @param to index after the last to append
+   * @throws IllegalArgumentException if the index range is invalid
+   */
+  public void addAll(float[] array, int from, int to) {
+    Objects.requireNonNull(array, "array");
+    if (from < 0 || to > array.length || from > to)
+      throw new IllegalArgumentException("invalid range [" + from + ", " + to + ") for length " + array.length);
+    int count = to - from;
+    if (size + count > values.length)
+      grow(size + count);
+    System.arraycopy(array, from, values, size, count);
+    size += count;
+
+    float newMin = min;
+    float newMax = max;
+    int valid = 0;
+    for (int i = from; i < to; i++) {
+      float value = array[i];
+      if (!valid(value))
+        continue;
+      valid++;
+      if (value < newMin)
+        newMin = value;
+      if (value > newMax)
+        newMax = value;
+    }
+    validCount += valid;
+    min = newMin;
+    max = newMax;
+  }
+
+  /**
+   * @param index index of the value
+   * @return value at the index
+   * @throws IndexOutOfBoundsException if index is not in [0, size)
+   */
+  public float get(int index) {
+    if (index < 0 || index >= size)
+      throw new IndexOutOfBoundsException("index (" + index + ") not in [0, " + size + ")");
+    return values[index];
+  }
+
+  /**
+   * @return minimum valid value, or Dval if none
+   */
+  public double getMin() {
+    return validCount == 0 ? Dval.DVAL_DOUBLE : min;
+  }
+
+  /**
+   * @return maximum valid value, or Dval if none
+   */
+  public double getMax() {
+    return validCount == 0 ? Dval.DVAL_DOUBLE : max;
+  }
+
+  /**
+   * Return a read-only view of the bounds of the valid values, which
+   * follows the series as values are appended.  The view is null bounds
+   * while the series holds no valid values.
+   *
+   * @return live, read-only bounds of the series
+   */
+  public Bounds bounds() {
+    return view;
+  }
+
+  /**
+   * Return a snapshot of the bounds of the valid values.
+   *
+   * @return new instance of Bounds, or null bounds if the series holds no
+   * valid values
+   */
+  public Bounds getBounds() {
+    if (validCount == 0)
+      return Bounds.nullBounds();
+    return Bounds.of(min, max);
+  }
+
+  /**
+   * Return a read-only buffer over values from index from (inclusive) to
+   * index to (exclusive) without copying.  The buffer shares storage with
+   * the series until the series next grows or is cleared.
+   *
+   * @param from first index
+   * @param to index after the last
+   * @return read-only buffer over the values
+   * @throws IllegalArgumentException if the index range is invalid
+   */
+  public FloatBuffer slice(int from, int to) {
+    if (from < 0 || to > size || from > to)
+      throw new IllegalArgumentException("invalid range [" + from + ", " + to + ") for size " + size);
+    return FloatBuffer.wrap(values, from, to - from).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * @return read-only buffer over all values, without copying
+   */
+  public FloatBuffer asBuffer() {
+    return slice(0, size);
+  }
+
+  /**
+   * @return copy of the values
+   */
+  public float[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Remove all values, keeping the allocated capacity.
+   */
+  public void clear() {
+    size = 0;
+    validCount = 0;
+    min = Float.POSITIVE_INFINITY;
+    max = Float.NEGATIVE_INFINITY;
+  }
+
+  private void include(float value) {
+    if (!valid(value))
+      return;
+    validCount++;
+    if (value < min)
+      min = value;
+    if (value > max)
+      max = value;
+  }
+
+  private static boolean valid(float value) {
+    return value != Dval.DVAL_FLOAT && !Float.isNaN(value) && !Float.isInfinite(value);
+  }
+
+  private void grow(int minCapacity) {
+    if (minCapacity < 0)
+      throw new IllegalStateException("series is too large");
+    int capacity = values.length + (values.length >> 1);
+    if (capacity < minCapacity || capacity < 0)
+      capacity = Math.max(minCapacity, DEFAULT_CAPACITY);
+    values = Arrays.copyOf(values, capacity);
+  }
+
+  /**
+   * Live bounds of the series.
+   */
+  private final class View implements Bounds {
+    @Override
+    public String toString() {
+      return getClass().getSimpleName() + " " + boundsText();
+    }
+
+    @Override
+    public double getMin() {
+      return FloatSeries.this.getMin();
+    }
+
+    @Override
+    public double getMax() {
+      return FloatSeries.this.getMax();
+    }
+
+    @Override
+    public double getRange() {
+      return validCount == 0 ? Dval.DVAL_DOUBLE : (double) max - min;
+    }
+  }
+}
@@ -0,0 +1,368 @@
+package com.primalimited.core.series;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.dval.Dval;
+
+/**
+ * Multi-resolution rollup of a time series: minimum, maximum, sum and count
+ * of the values in fixed-width time buckets, kept at several resolutions
+ * (e.g. second, minute, hour, day) each with its own retention.
+ * <p>
+ * Every level is a ring of buckets in primitive columns, so adding a sample
+ * updates one bucket per level without allocating.  A range query takes the
+ * whole buckets of the coarsest level that fit within the range and fills
+ * the edges from successively finer levels.  At the finest level retained
+ * for an edge, buckets that only partly overlap the range are included
+ * whole, so results are exact to the resolution of that level.
+ * <p>
+ * Samples older than a level's retention (relative to the newest sample of
+ * that level) are dropped from that level only.  Invalid values (Dval, NaN,
+ * infinite) are ignored.  Timestamps may be in any unit, matching the
+ * bucket widths.
+ * <p>
+ * Instances are not thread safe.
+ */
+public final class RollupStore {
+  private static final long SECOND = 1_000L;
+  private static final long MINUTE = 60 * SECOND;
+  private static final long HOUR = 60 * MINUTE;
+  private static final long DAY = 24 * HOUR;
+
+  private final Level[] levels;
+
+  /**
+   * Create a store with levels of the given bucket widths and retentions,
+   * finest first.
+   *
+   * @param bucketWidths bucket width of each level, in timestamp units;
+   * each must be a multiple (&gt; 1) of the previous one
+   * @param retentions number of buckets retained by each level
+   * @return new store
+   * @throws IllegalArgumentException if there are no levels, the arrays
+   * differ in length, a width or retention is &lt;= 0, or a width is not a
+   * multiple of the previous one
+   */
+  public static RollupStore create(long[] bucketWidths, int[] retentions) {
+    Objects.requireNonNull(bucketWidths, "bucketWidths");
+    Objects.requireNonNull(retentions, "retentions");
+    if (bucketWidths.length == 0)
+      throw new IllegalArgumentException("at least one level is required");
+    if (bucketWidths.length != retentions.length)
+      throw new IllegalArgumentException("bucketWidths.length (" + bucketWidths.length + ") != retentions.length (" + retentions.length + ")");
+    for (int i = 0; i < bucketWidths.length; i++) {
+      if (bucketWidths[i] <= 0)
+        throw new IllegalArgumentException("bucketWidths[" + i + "] (" + bucketWidths[i] + ") must be > 0");
+      if (retentions[i] <= 0)
+        throw new IllegalArgumentException("retentions[" + i + "] (" + retentions[i] + ") must be > 0");
+      if (i > 0 && (bucketWidths[i] <= bucketWidths[i - 1] || bucketWidths[i] % bucketWidths[i - 1] != 0))
+        throw new IllegalArgumentException("bucketWidths[" + i + "] (" + bucketWidths[i] + ") must be a multiple of bucketWidths[" + (i - 1) + "] (" + bucketWidths[i - 1] + ")");
+    }
+    return new RollupStore(bucketWidths, retentions);
+  }
+
+  /**
+   * Create a store for millisecond timestamps with second, minute, hour and
+   * day levels, retaining one day of seconds, 30 days of minutes, a year of
+   * hours and ten years of days.
+   *
+   * @return new store
+   */
+  public static RollupStore ofMillis() {
+    return create(
+        new long[] { SECOND, MINUTE, HOUR, DAY },
+        new int[] { 86_400, 43_200, 8_784, 3_660 }
+    );
+  }
+
+  private RollupStore(long[] bucketWidths, int[] retentions) {
+    levels = new Level[bucketWidths.length];
+    for (int i = 0; i < levels.length; i++)
+      levels[i] = new Level(bucketWidths[i], retentions[i]);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + " levels=" + levels.length + " " + getBounds().boundsText();
+  }
+
+  /**
+   * @return number of levels
+   */
+  public int levels() {
+    return levels.length;
+  }
+
+  /**
+   * @param level level, 0 being the finest
+   * @return bucket width of the level, in timestamp units
+   */
+  public long getBucketWidth(int level) {
+    return levels[level].width;
+  }
+
+  /**
+   * @param level level, 0 being the finest
+   * @return number of buckets retained by the level
+   */
+  public int getRetention(int level) {
+    return levels[level].retention;
+  }
+
+  /**
+   * Add a sample.  Samples may arrive out of order; a sample is dropped
+   * from any level whose retention it falls outside of.
+   *
+   * @param timestamp sample timestamp
+   * @param value sample value
+   * @return true if the sample was added, false if the value is invalid
+   */
+  public boolean add(long timestamp, double value) {
+    if (!Dval.isValid.test(value))
+      return false;
+    for (Level level : levels)
+      level.add(timestamp, value);
+    return true;
+  }
+
+  /**
+   * Add samples from parallel arrays.
+   *
+   * @param timestamps sample timestamps
+   * @param values sample values, same length as timestamps
+   * @throws IllegalArgumentException if the arrays differ in length
+   */
+  public void add(long[] timestamps, double[] values) {
+    Objects.requireNonNull(timestamps, "timestamps");
+    Objects.requireNonNull(values, "values");
+    if (timestamps.length != values.length)
+      throw new IllegalArgumentException("timestamps.length (" + timestamps.length + ") != values.length (" + values.length + ")");
+    for (int i = 0; i < timestamps.length; i++)
+      add(timestamps[i], values[i]);
+  }
+
+  /**
+   * Return the bounds of the values retained in a time range.
+   *
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @return bounds of the values, or null bounds if there are none
+   */
+  public Bounds getBounds(long from, long to) {
+    Aggregate aggregate = collect(from, to);
+    if (aggregate.count == 0)
+      return Bounds.nullBounds();
+    return Bounds.of(aggregate.min, aggregate.max);
+  }
+
+  /**
+   * @return bounds of all values retained, or null bounds if there are none
+   */
+  public Bounds getBounds() {
+    return getBounds(Long.MIN_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Return the number of values retained in a time range.
+   *
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @return number of values
+   */
+  public long getCount(long from, long to) {
+    return collect(from, to).count;
+  }
+
+  /**
+   * Return the sum of the values retained in a time range.
+   *
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @return sum of the values, 0 if there are none
+   */
+  public double getSum(long from, long to) {
+    return collect(from, to).sum;
+  }
+
+  /**
+   * Return the mean of the values retained in a time range.
+   *
+   * @param from start of the range, inclusive
+   * @param to end of the range, exclusive
+   * @return mean of the values, or Dval if there are none
+   */
+  public double getMean(long from, long to) {
+    Aggregate aggregate = collect(from, to);
+    return aggregate.count == 0 ? Dval.DVAL_DOUBLE : aggregate.sum / aggregate.count;
+  }
+
+  /**
+   * Remove all samples.
+   */
+  public void clear() {
+    for (Level level : levels)
+      level.clear();
+  }
+
+  private Aggregate collect(long from, long to) {
+    Aggregate aggregate = new Aggregate();
+    if (from < to)
+      collect(levels.length - 1, from, to, aggregate);
+    return aggregate;
+  }
+
+  private void collect(int index, long from, long to, Aggregate aggregate) {
+    Level level = levels[index];
+    if (from >= to || level.isEmpty())
+      return;
+    if (index == 0) {
+      level.overlapping(from, to, aggregate);
+      return;
+    }
+
+    /* whole buckets of this level within the range, limited to those retained */
+    long width = level.width;
+    long first = Math.max(ceilDiv(from, width), level.oldest());
+    long last = Math.min(Math.floorDiv(to, width) - 1, level.newest);
+    if (first > last) {
+      finer(index, from, to, aggregate);
+      return;
+    }
+    level.whole(first, last, aggregate);
+    finer(index, from, first * width, aggregate);
+    finer(index, (last + 1) * width, to, aggregate);
+  }
+
+  /*
+   * Fill part of a range from the next finer level.  Whatever precedes the
+   * finer level's retention is taken from overlapping buckets of this
+   * level, up to a bucket boundary so no sample is counted twice.
+   */
+  private void finer(int index, long from, long to, Aggregate aggregate) {
+    if (from >= to)
+      return;
+    Level level = levels[index];
+    Level finer = levels[index - 1];
+    if (finer.isEmpty())
+      return;
+    long finerStart = finer.oldest() * finer.width;
+    if (from < finerStart) {
+      long split = Math.min(to, ceilDiv(finerStart, level.width) * level.width);
+      level.overlapping(from, split, aggregate);
+      from = split;
+    }
+    collect(index - 1, from, to, aggregate);
+  }
+
+  /*
+   * Ceiling of x / y for y > 0, without negating x, which overflows for
+   * Long.MIN_VALUE.
+   */
+  static long ceilDiv(long x, long y) {
+    return x / y + (x % y > 0 ? 1 : 0);
+  }
+
+  /**
+   * Ring of buckets at one resolution, in primitive columns.
+   */
+  private static final class Level {
+    private final long width;
+    private final int retention;
+    private final long[] bucket;
+    private final double[] min;
+    private final double[] max;
+    private final double[] sum;
+    private final long[] count;
+    private long newest = Long.MIN_VALUE;
+
+    Level(long width, int retention) {
+      this.width = width;
+      this.retention = retention;
+      this.bucket = new long[retention];
+      this.min = new double[retention];
+      this.max = new double[retention];
+      this.sum = new double[retention];
+      this.count = new long[retention];
+    }
+
+    boolean isEmpty() {
+      return newest == Long.MIN_VALUE;
+    }
+
+    /**
+     * @return index of the oldest bucket retained
+     */
+    long oldest() {
+      return newest - retention + 1;
+    }
+
+    void add(long timestamp, double value) {
+      long index = Math.floorDiv(timestamp, width);
+      if (isEmpty() || index > newest)
+        newest = index;
+      else if (index < oldest())
+        return;
+
+      int slot = slot(index);
+      if (bucket[slot] != index || count[slot] == 0) {
+        bucket[slot] = index;
+        min[slot] = value;
+        max[slot] = value;
+        sum[slot] = value;
+        count[slot] = 1;
+        return;
+      }
+      if (value < min[slot])
+        min[slot] = value;
+      if (value > max[slot])
+        max[slot] = value;
+      sum[slot] += value;
+      count[slot]++;
+    }
+
+    /**
+     * Aggregate retained buckets first through last, inclusive.
+     */
+    void whole(long first, long last, Aggregate aggregate) {
+      for (long index = first; index <= last; index++) {
+        int slot = slot(index);
+        if (bucket[slot] == index && count[slot] > 0)
+          aggregate.add(min[slot], max[slot], sum[slot], count[slot]);
+      }
+    }
+
+    /**
+     * Aggregate retained buckets that overlap [from, to).
+     */
+    void overlapping(long from, long to, Aggregate aggregate) {
+      long first = Math.max(Math.floorDiv(from, width), oldest());
+      long last = Math.min(Math.floorDiv(to - 1, width), newest);
+      whole(first, last, aggregate);
+    }
+
+    void clear() {
+      Arrays.fill(count, 0);
+      newest = Long.MIN_VALUE;
+    }
+
+    private int slot(long index) {
+      return (int) Math.floorMod(index, (long) retention);
+    }
+  }
+
+  private static final class Aggregate {
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    double sum;
+    long count;
+
+    void add(double bucketMin, double bucketMax, double bucketSum, long bucketCount) {
+      min = Math.min(min, bucketMin);
+      max = Math.max(max, bucketMax);
+      sum += bucketSum;
+      count += bucketCount;
+    }
+  }
+}
@@ -0,0 +1,7 @@
+/**
+ * Primitive data series, decimation and rollups for plotting and
+ * monitoring.
+ * 
+ * @author Jim Newpower
+ */
+package com.primalimited.core.series;
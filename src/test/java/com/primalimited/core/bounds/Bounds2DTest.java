@@ -1,9 +1,11 @@
 package com.primalimited.core.bounds;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -13,6 +15,7 @@ import java.util.Collection;
 import org.junit.jupiter.api.Test;
 
 import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.MissingValuePolicy;
 import com.primalimited.core.geometry.Coordinate;
 
 public class Bounds2DTest {
@@ -903,6 +906,38 @@ public class Bounds2DTest {
     assertTrue(Dval.isDval(bounds.computeArea()));
   }
   
+  @Test
+  public void fromArraysWithPolicy() {
+    double[] x = new double[] { 1, Double.NaN, 3 };
+    double[] y = new double[] { Double.NaN, 5, 9 };
+    Bounds2D bounds = Bounds2D.from(x, y, MissingValuePolicy.NAN_ONLY);
+    assertEquals(1, bounds.getMinX(), 1e-10);
+    assertEquals(3, bounds.getMaxX(), 1e-10);
+    assertEquals(5, bounds.getMinY(), 1e-10);
+    assertEquals(9, bounds.getMaxY(), 1e-10);
+  }
+
+  @Test
+  public void expandToPointWithPolicy() {
+    Bounds2D bounds = Bounds2D.create(0, 1, 0, 1);
+    bounds.expandTo(Double.NaN, 5, MissingValuePolicy.NAN_ONLY);
+    assertEquals(1, bounds.getMaxY(), 1e-10);
+    bounds.expandTo(4, 5, MissingValuePolicy.NAN_ONLY);
+    assertEquals(4, bounds.getMaxX(), 1e-10);
+    assertEquals(5, bounds.getMaxY(), 1e-10);
+
+    // extents cannot hold Dval, so the location is skipped as a whole
+    bounds.expandTo(Dval.DVAL_DOUBLE, 7, MissingValuePolicy.NAN_ONLY);
+    assertEquals(4, bounds.getMaxX(), 1e-10);
+    assertEquals(5, bounds.getMaxY(), 1e-10);
+
+    Bounds2D empty = Bounds2D.empty();
+    empty.expandTo(2, -3, MissingValuePolicy.NAN_ONLY);
+    assertTrue(empty.isValid());
+    assertEquals(2, empty.getMinX(), 1e-10);
+    assertEquals(-3, empty.getMaxY(), 1e-10);
+  }
+
   private static Bounds2D validMock() {
     double minX = 0;
     double maxX = 100;
@@ -930,4 +965,43 @@ public class Bounds2DTest {
     double maxY = container.getMaxY() - offset;
     return Bounds2D.create(minX, maxX, minY, maxY);
   }
+
+  @Test
+  public void snapshotValueEquality() {
+    Bounds2D a = Bounds2D.create(0, 10, 20, 30);
+    Bounds2D b = Bounds2D.from(a);
+    // mutable bounds compare by identity
+    assertNotEquals(a, b);
+
+    ImmutableBounds2D snapshot = a.snapshot();
+    assertEquals(snapshot, b.snapshot());
+    assertEquals(snapshot.hashCode(), b.snapshot().hashCode());
+    assertSame(snapshot, snapshot.snapshot());
+    assertNotEquals(snapshot, a);
+    assertEquals(Bounds2D.empty().snapshot(), Bounds2D.empty().snapshot());
+    b.expandTo(11, 25);
+    assertNotEquals(snapshot, b.snapshot());
+    assertNotEquals(snapshot, Bounds2D.create(0, 10, 20, 31).snapshot());
+    assertNotEquals(Bounds2D.empty().snapshot(), snapshot);
+
+    // the snapshot is unchanged by later changes to its source
+    a.expandTo(100, 100);
+    assertEquals(10, snapshot.getMaxX(), 0.0);
+    assertTrue(snapshot.intersects(a));
+  }
+
+  @Test
+  public void snapshotIsImmutable() {
+    ImmutableBounds2D snapshot = Bounds2D.create(0, 1, 0, 1).snapshot();
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.expandTo(5, 5));
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.expandTo(Bounds2D.create(2, 3, 2, 3)));
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.setValues(0, 2, 0, 2));
+    assertThrows(UnsupportedOperationException.class, () -> snapshot.expandByPercentage(10));
+    assertThrows(UnsupportedOperationException.class, snapshot::reset);
+    assertThrows(UnsupportedOperationException.class, snapshot::makeInvalid);
+    assertEquals(1, snapshot.getMaxX(), 0.0);
+    Bounds2D copy = Bounds2D.from(snapshot);
+    copy.expandTo(5, 5);
+    assertEquals(5, copy.getMaxX(), 0.0);
+  }
 }
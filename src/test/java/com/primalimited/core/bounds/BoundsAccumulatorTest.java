@@ -0,0 +1,164 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class BoundsAccumulatorTest {
+  @Test
+  public void empty() {
+    BoundsAccumulator accumulator = BoundsAccumulator.create();
+    assertFalse(accumulator.isValid());
+    assertTrue(accumulator.getBounds().isNull());
+    assertTrue(Dval.isDval(accumulator.getMin()));
+  }
+
+  @Test
+  public void addAndRemove() {
+    BoundsAccumulator accumulator = BoundsAccumulator.create();
+    accumulator.add(new double[] { 5, 1, 9, 1, Dval.DVAL_DOUBLE, Double.NaN });
+    assertEquals(4, accumulator.count());
+    assertEquals(1, accumulator.getMin(), 0.0);
+    assertEquals(9, accumulator.getMax(), 0.0);
+
+    assertTrue(accumulator.remove(9));
+    assertEquals(5, accumulator.getMax(), 0.0);
+
+    assertTrue(accumulator.remove(1));
+    assertEquals(1, accumulator.getMin(), 0.0);
+    assertTrue(accumulator.remove(1));
+    assertEquals(5, accumulator.getMin(), 0.0);
+
+    assertFalse(accumulator.remove(1));
+    assertFalse(accumulator.remove(Dval.DVAL_DOUBLE));
+    assertEquals(1, accumulator.count());
+  }
+
+  @Test
+  public void replace() {
+    BoundsAccumulator accumulator = BoundsAccumulator.create();
+    accumulator.add(new double[] { 2, 4, 6 });
+    accumulator.replace(6, 3);
+    assertEquals(4, accumulator.getMax(), 0.0);
+    accumulator.replace(Dval.DVAL_DOUBLE, 10);
+    assertEquals(10, accumulator.getMax(), 0.0);
+    accumulator.replace(2, Double.NaN);
+    assertEquals(3, accumulator.getMin(), 0.0);
+    assertThrows(IllegalArgumentException.class, () -> accumulator.replace(100, 1));
+    assertEquals(3, accumulator.count());
+  }
+
+  @Test
+  public void zeroSigns() {
+    BoundsAccumulator accumulator = BoundsAccumulator.create();
+    accumulator.add(-0.0);
+    assertEquals(1, accumulator.count(0.0));
+    assertTrue(accumulator.remove(0.0));
+    assertFalse(accumulator.isValid());
+  }
+
+  @Test
+  public void matchesRescan() {
+    Random random = new Random(17);
+    BoundsAccumulator accumulator = BoundsAccumulator.create();
+    double[] data = new double[500];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = random.nextInt(100);
+      accumulator.add(data[i]);
+    }
+    for (int edit = 0; edit < 20_000; edit++) {
+      int index = random.nextInt(data.length);
+      double value = random.nextInt(20) == 0 ? Dval.DVAL_DOUBLE : random.nextInt(1000) - 500;
+      accumulator.replace(data[index], value);
+      data[index] = value;
+
+      Bounds expected = Bounds.of(data);
+      assertEquals(expected.getMin(), accumulator.getMin(), 0.0);
+      assertEquals(expected.getMax(), accumulator.getMax(), 0.0);
+    }
+    assertEquals(Arrays.stream(data).filter(Dval.isValid).count(), accumulator.count());
+  }
+
+  @Test
+  public void clear() {
+    BoundsAccumulator accumulator = BoundsAccumulator.create();
+    accumulator.add(1);
+    accumulator.clear();
+    assertFalse(accumulator.isValid());
+    accumulator.add(2);
+    assertEquals(2, accumulator.getMin(), 0.0);
+  }
+
+  @Test
+  public void twoDimensional() {
+    Bounds2DAccumulator accumulator = Bounds2DAccumulator.create();
+    assertFalse(accumulator.getBounds().isValid());
+
+    accumulator.add(new double[] { 0, 10, 5 }, new double[] { 1, 2, Dval.DVAL_DOUBLE });
+    assertEquals(2, accumulator.count());
+    Bounds2D bounds = accumulator.getBounds();
+    assertEquals(0, bounds.getMinX(), 0.0);
+    assertEquals(10, bounds.getMaxX(), 0.0);
+    assertEquals(1, bounds.getMinY(), 0.0);
+    assertEquals(2, bounds.getMaxY(), 0.0);
+
+    accumulator.replace(10, 2, 3, -4);
+    bounds = accumulator.getBounds();
+    assertEquals(3, bounds.getMaxX(), 0.0);
+    assertEquals(-4, bounds.getMinY(), 0.0);
+
+    assertFalse(accumulator.remove(99, 1));
+    assertTrue(accumulator.remove(0, 1));
+    assertEquals(3, accumulator.getXBounds().getMin(), 0.0);
+    assertEquals(-4, accumulator.getYBounds().getMax(), 0.0);
+
+    assertThrows(IllegalArgumentException.class, () -> accumulator.replace(50, 50, 1, 1));
+    assertThrows(IllegalArgumentException.class, () -> accumulator.add(new double[1], new double[2]));
+  }
+
+  @Test
+  public void removeRequiresExactLocation() {
+    Bounds2DAccumulator accumulator = Bounds2DAccumulator.create();
+    accumulator.add(1, 2);
+    accumulator.add(3, 4);
+    assertFalse(accumulator.remove(1, 4));
+    assertEquals(2, accumulator.count());
+    assertThrows(IllegalArgumentException.class, () -> accumulator.replace(3, 2, 0, 0));
+
+    assertTrue(accumulator.remove(1, 2));
+    assertFalse(accumulator.remove(1, 2));
+    Bounds2D bounds = accumulator.getBounds();
+    assertEquals(3, bounds.getMinX(), 0.0);
+    assertEquals(4, bounds.getMinY(), 0.0);
+
+    // duplicates and signed zero
+    accumulator.add(-0.0, 0.0);
+    accumulator.add(0.0, 0.0);
+    assertTrue(accumulator.remove(0.0, -0.0));
+    assertTrue(accumulator.remove(0.0, 0.0));
+    assertFalse(accumulator.remove(0.0, 0.0));
+    assertEquals(1, accumulator.count());
+
+    Random random = new Random(3);
+    double[][] points = new double[1000][];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = new double[] { random.nextInt(50), random.nextInt(50) };
+      accumulator.add(points[i][0], points[i][1]);
+    }
+    for (double[] point : points)
+      assertTrue(accumulator.remove(point[0], point[1]));
+    assertEquals(1, accumulator.count());
+    assertEquals(3, accumulator.getXBounds().getMin(), 0.0);
+    assertEquals(4, accumulator.getYBounds().getMax(), 0.0);
+    accumulator.clear();
+    assertFalse(accumulator.remove(3, 4));
+  }
+}
@@ -0,0 +1,41 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class BoundsInternerTest {
+  @Test
+  public void internSharesInstances() {
+    BoundsInterner interner = BoundsInterner.create();
+    Bounds first = interner.intern(0, 256);
+    assertSame(first, interner.intern(0, 256));
+    assertSame(first, interner.intern(Bounds.of(0, 256)));
+    assertSame(first, interner.intern(MutableBounds.of(0, 256)));
+    assertEquals(1, interner.size());
+    interner.intern(256, 512);
+    assertEquals(2, interner.size());
+    interner.clear();
+    assertEquals(0, interner.size());
+    assertEquals(first, interner.intern(0, 256));
+  }
+
+  @Test
+  public void withConstants() {
+    BoundsInterner interner = BoundsInterner.withConstants();
+    assertSame(Bounds.PERCENT, interner.intern(0, 100));
+    assertSame(Bounds.DEGREES, interner.intern(Bounds.of(0, 360)));
+    assertSame(Bounds.PROBABILITY, interner.intern(Bounds.FRACTION));
+  }
+
+  @Test
+  public void invalid() {
+    BoundsInterner interner = BoundsInterner.create();
+    Bounds nullBounds = Bounds.nullBounds();
+    assertSame(nullBounds, interner.intern(nullBounds));
+    assertEquals(0, interner.size());
+    assertThrows(IllegalArgumentException.class, () -> interner.intern(2, 1));
+  }
+}
@@ -9,14 +9,17 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
 import com.primalimited.core.dval.Dval;
+import com.primalimited.core.dval.MissingValuePolicy;
 
 public class BoundsTest {
   @Test
@@ -711,4 +714,98 @@ public class BoundsTest {
   public void createFromNullBoundsObject() {
     assertThrows(IllegalArgumentException.class, () -> ImmutableBounds.of(new NullBounds()));
   }
+
+  @Test
+  public void ofArrayWithNaNOnlyPolicy() {
+    double[] array = new double[] { Double.NaN, 4, -2, Double.NaN };
+    Bounds bounds = Bounds.of(array, MissingValuePolicy.NAN_ONLY);
+    assertEquals(-2, bounds.getMin(), 1e-10);
+    assertEquals(4, bounds.getMax(), 1e-10);
+  }
+
+  @Test
+  public void ofArrayWithNaNOnlyPolicyExcludesDval() {
+    Bounds bounds = Bounds.of(new double[] { 1, 2, Dval.DVAL_DOUBLE }, MissingValuePolicy.NAN_ONLY);
+    assertEquals(1, bounds.getMin(), 1e-10);
+    assertEquals(2, bounds.getMax(), 1e-10);
+
+    List<Double> list = new ArrayList<>();
+    list.add(Dval.DVAL_DOUBLE);
+    list.add(-5.0);
+    list.add(Double.NaN);
+    bounds = Bounds.of(list, MissingValuePolicy.NAN_ONLY);
+    assertEquals(-5, bounds.getMin(), 1e-10);
+    assertEquals(-5, bounds.getMax(), 1e-10);
+
+    assertTrue(Bounds.of(new double[] { Dval.DVAL_DOUBLE }, MissingValuePolicy.NAN_ONLY).isNull());
+  }
+
+  @Test
+  public void ofArrayWithDvalOnlyPolicy() {
+    double[] array = new double[] { Dval.DVAL_DOUBLE, 4, -2 };
+    Bounds bounds = Bounds.of(array, MissingValuePolicy.DVAL_ONLY);
+    assertEquals(-2, bounds.getMin(), 1e-10);
+    assertEquals(4, bounds.getMax(), 1e-10);
+
+    // NaN is not screened by DVAL_ONLY, and poisons the result
+    assertFalse(Bounds.of(new double[] { 1, Double.NaN }, MissingValuePolicy.DVAL_ONLY).isValid());
+  }
+
+  @Test
+  public void ofArrayAllMissing() {
+    double[] array = new double[] { Dval.DVAL_DOUBLE, Double.NaN };
+    assertTrue(Bounds.of(array, MissingValuePolicy.DVAL_OR_NAN).isNull());
+  }
+
+  @Test
+  public void ofCollectionWithPolicy() {
+    List<Double> list = new ArrayList<>();
+    list.add(Double.NaN);
+    list.add(3.0);
+    list.add(7.0);
+    Bounds bounds = Bounds.of(list, MissingValuePolicy.NAN_ONLY);
+    assertEquals(3, bounds.getMin(), 1e-10);
+    assertEquals(7, bounds.getMax(), 1e-10);
+  }
+
+  @Test
+  public void ofQuantilesIgnoresOutliers() {
+    double[] array = new double[103];
+    for (int i = 0; i < 101; i++)
+      array[i] = i;
+    array[101] = 1e9;
+    array[102] = Dval.DVAL_DOUBLE;
+    double[] copy = array.clone();
+
+    Bounds bounds = Bounds.ofQuantiles(array, 0.0, 0.99);
+    assertEquals(0, bounds.getMin(), 1e-10);
+    assertEquals(99.99, bounds.getMax(), 1e-9);
+    for (int i = 0; i < array.length; i++)
+      assertEquals(copy[i], array[i], 0.0);
+
+    Bounds median = Bounds.ofQuantilesInPlace(array, 0.5, 0.5);
+    assertEquals(50.5, median.getMin(), 1e-10);
+    assertTrue(median.rangeIsZero());
+  }
+
+  @Test
+  public void ofQuantilesMatchesSortedInterpolation() {
+    Random random = new Random(3);
+    double[] array = new double[1001];
+    for (int i = 0; i < array.length; i++)
+      array[i] = random.nextGaussian();
+    double[] sorted = array.clone();
+    Arrays.sort(sorted);
+
+    Bounds bounds = Bounds.ofQuantiles(array, 0.1, 0.9);
+    assertEquals(sorted[100], bounds.getMin(), 1e-12);
+    assertEquals(sorted[900], bounds.getMax(), 1e-12);
+  }
+
+  @Test
+  public void ofQuantilesInvalid() {
+    assertTrue(Bounds.ofQuantiles(new double[] { Double.NaN }, 0, 1).isNull());
+    assertThrows(IllegalArgumentException.class, () -> Bounds.ofQuantiles(new double[] { 1 }, -0.1, 1));
+    assertThrows(IllegalArgumentException.class, () -> Bounds.ofQuantiles(new double[] { 1 }, 0.6, 0.4));
+  }
 }
@@ -0,0 +1,161 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class CircularBoundsTest {
+  private static final double DELTA = 1e-9;
+
+  @Test
+  public void wrapsThroughZero() {
+    CircularBounds arc = CircularBounds.degrees(350, 10);
+    assertEquals(350, arc.getStart(), DELTA);
+    assertEquals(10, arc.getEnd(), DELTA);
+    assertEquals(20, arc.getExtent(), DELTA);
+    assertTrue(arc.crossesZero());
+    assertTrue(arc.contains(0));
+    assertTrue(arc.contains(350));
+    assertTrue(arc.contains(10));
+    assertTrue(arc.contains(-5));
+    assertTrue(arc.contains(725)); // 5 degrees
+    assertFalse(arc.contains(11));
+    assertFalse(arc.contains(180));
+    assertFalse(arc.contains(Double.NaN));
+    assertFalse(arc.contains(Dval.DVAL_DOUBLE));
+
+    List<Bounds> linear = arc.toLinear();
+    assertEquals(2, linear.size());
+    assertEquals(350, linear.get(0).getMin(), DELTA);
+    assertEquals(360, linear.get(0).getMax(), DELTA);
+    assertEquals(0, linear.get(1).getMin(), DELTA);
+    assertEquals(10, linear.get(1).getMax(), DELTA);
+
+    CircularBounds plain = CircularBounds.degrees(10, 20);
+    assertFalse(plain.crossesZero());
+    assertEquals(1, plain.toLinear().size());
+    assertEquals("[350..10 mod 360]", arc.boundsText());
+  }
+
+  @Test
+  public void bulkContainsMatchesSingle() {
+    Random random = new Random(79);
+    CircularBounds[] arcs = new CircularBounds[] {
+        CircularBounds.degrees(350, 10),
+        CircularBounds.degrees(10, 20),
+        CircularBounds.degrees(45, 45),
+        CircularBounds.full(360),
+        CircularBounds.radians(-0.5, 0.5),
+    };
+    double[] values = new double[2_000];
+    for (int i = 0; i < values.length; i++)
+      values[i] = random.nextInt(10) == 0 ? Math.floor(random.nextDouble() * 72) * 5 - 720 : random.nextDouble() * 1_440 - 720;
+    values[0] = Double.NaN;
+    values[1] = Dval.DVAL_DOUBLE;
+    values[2] = Double.POSITIVE_INFINITY;
+    values[3] = 45;
+    for (CircularBounds arc : arcs) {
+      boolean[] expected = new boolean[values.length];
+      int count = 0;
+      for (int i = 0; i < values.length; i++) {
+        expected[i] = arc.contains(values[i]);
+        if (expected[i])
+          count++;
+      }
+      boolean[] result = new boolean[values.length];
+      assertEquals(count, arc.contains(values, result));
+      for (int i = 0; i < values.length; i++)
+        assertEquals(expected[i], result[i], "value " + values[i] + " in " + arc);
+    }
+  }
+
+  @Test
+  public void overlapsAndContainsArcs() {
+    CircularBounds arc = CircularBounds.degrees(350, 10);
+    assertTrue(arc.overlaps(CircularBounds.degrees(10, 20)));
+    assertTrue(arc.overlaps(CircularBounds.degrees(300, 351)));
+    assertTrue(arc.overlaps(CircularBounds.degrees(355, 356)));
+    assertTrue(CircularBounds.degrees(355, 356).overlaps(arc));
+    assertFalse(arc.overlaps(CircularBounds.degrees(11, 349)));
+    assertTrue(arc.overlaps(CircularBounds.full(360)));
+    assertTrue(arc.contains(CircularBounds.degrees(355, 5)));
+    assertFalse(arc.contains(CircularBounds.degrees(355, 15)));
+    assertTrue(CircularBounds.full(360).contains(arc));
+    assertThrows(IllegalArgumentException.class, () -> arc.overlaps(CircularBounds.radians(0, 1)));
+  }
+
+  @Test
+  public void expandTo() {
+    CircularBounds arc = CircularBounds.degrees(350, 10);
+    assertSame(arc, arc.expandTo(5));
+    assertSame(arc, arc.expandTo(Double.NaN));
+    CircularBounds forward = arc.expandTo(30);
+    assertEquals(350, forward.getStart(), DELTA);
+    assertEquals(40, forward.getExtent(), DELTA);
+    CircularBounds backward = arc.expandTo(300);
+    assertEquals(300, backward.getStart(), DELTA);
+    assertEquals(70, backward.getExtent(), DELTA);
+    assertEquals(20, arc.getExtent(), DELTA);
+  }
+
+  @Test
+  public void mergeOverlapping() {
+    List<CircularBounds> merged = CircularBounds.mergeOverlapping(Arrays.asList(
+        CircularBounds.degrees(350, 10),
+        CircularBounds.degrees(5, 20),
+        CircularBounds.degrees(100, 120),
+        CircularBounds.degrees(120, 130),
+        CircularBounds.degrees(340, 349)));
+    assertEquals(3, merged.size());
+    assertEquals(100, merged.get(0).getStart(), DELTA);
+    assertEquals(30, merged.get(0).getExtent(), DELTA);
+    assertEquals(340, merged.get(1).getStart(), DELTA);
+    assertEquals(9, merged.get(1).getExtent(), DELTA);
+    assertEquals(350, merged.get(2).getStart(), DELTA);
+    assertEquals(30, merged.get(2).getExtent(), DELTA);
+
+    List<CircularBounds> full = CircularBounds.mergeOverlapping(Arrays.asList(
+        CircularBounds.degrees(0, 180), CircularBounds.degrees(180, 0)));
+    assertEquals(1, full.size());
+    assertTrue(full.get(0).isFull());
+    assertTrue(CircularBounds.mergeOverlapping(Collections.emptyList()).isEmpty());
+  }
+
+  @Test
+  public void minimalCover() {
+    /* largest gap is 20..340, so the cover wraps through zero */
+    CircularBounds cover = CircularBounds.minimalCover(Arrays.asList(
+        CircularBounds.degrees(340, 350),
+        CircularBounds.degrees(0, 20),
+        CircularBounds.degrees(355, 5)));
+    assertEquals(340, cover.getStart(), DELTA);
+    assertEquals(40, cover.getExtent(), DELTA);
+
+    CircularBounds points = CircularBounds.minimalCover(Arrays.asList(
+        CircularBounds.degrees(90, 90),
+        CircularBounds.degrees(100, 100),
+        CircularBounds.degrees(200, 200)));
+    assertEquals(90, points.getStart(), DELTA);
+    assertEquals(110, points.getExtent(), DELTA);
+    assertThrows(IllegalArgumentException.class, () -> CircularBounds.minimalCover(Collections.emptyList()));
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> CircularBounds.of(0, 1, 0));
+    assertThrows(IllegalArgumentException.class, () -> CircularBounds.of(Double.NaN, 1, 360));
+    assertThrows(IllegalArgumentException.class, () -> CircularBounds.ofExtent(0, 361, 360));
+    assertThrows(IllegalArgumentException.class, () -> CircularBounds.degrees(0, 1).contains(new double[1], new boolean[2]));
+  }
+}
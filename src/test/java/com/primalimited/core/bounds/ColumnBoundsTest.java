@@ -0,0 +1,122 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class ColumnBoundsTest {
+  private static double[] column(double[][] rows, int column) {
+    double[] values = new double[rows.length];
+    for (int r = 0; r < rows.length; r++)
+      values[r] = column < rows[r].length ? rows[r][column] : Dval.DVAL_DOUBLE;
+    return values;
+  }
+
+  private static double[][] matrix(int rows, int columns, long seed) {
+    Random random = new Random(seed);
+    double[][] matrix = new double[rows][columns];
+    for (int r = 0; r < rows; r++) {
+      for (int c = 0; c < columns; c++) {
+        int kind = random.nextInt(40);
+        matrix[r][c] =
+            kind == 0 ? Dval.DVAL_DOUBLE
+            : kind == 1 ? Double.NaN
+            : kind == 2 ? Double.NEGATIVE_INFINITY
+            : random.nextGaussian() * (c + 1);
+      }
+    }
+    return matrix;
+  }
+
+  @Test
+  public void matchesBoundsOfEachColumn() {
+    double[][] rows = matrix(500, 13, 47);
+    ColumnBounds bounds = ColumnBounds.of(rows);
+    assertEquals(13, bounds.columns());
+    for (int c = 0; c < 13; c++) {
+      Bounds expected = Bounds.of(column(rows, c));
+      assertEquals(expected.getMin(), bounds.getMin(c), 0.0);
+      assertEquals(expected.getMax(), bounds.getMax(c), 0.0);
+      assertEquals(expected.getMin(), bounds.getBounds(c).getMin(), 0.0);
+    }
+  }
+
+  @Test
+  public void flatAndStridedLayouts() {
+    double[][] rows = matrix(300, 7, 53);
+    ColumnBounds expected = ColumnBounds.of(rows);
+
+    double[] flat = new double[300 * 7];
+    for (int r = 0; r < 300; r++)
+      System.arraycopy(rows[r], 0, flat, r * 7, 7);
+    assertArrayEquals(expected.getMins(), ColumnBounds.of(flat, 7).getMins(), 0.0);
+    assertArrayEquals(expected.getMaxs(), ColumnBounds.of(flat, 7).getMaxs(), 0.0);
+
+    /* padded rows after a header, padding holds values that must not be read */
+    int offset = 5;
+    int stride = 10;
+    double[] strided = new double[offset + 300 * stride];
+    Arrays.fill(strided, 1e9);
+    for (int r = 0; r < 300; r++)
+      System.arraycopy(rows[r], 0, strided, offset + r * stride, 7);
+    ColumnBounds fromStrided = ColumnBounds.of(strided, offset, 300, 7, stride);
+    assertArrayEquals(expected.getMins(), fromStrided.getMins(), 0.0);
+    assertArrayEquals(expected.getMaxs(), fromStrided.getMaxs(), 0.0);
+    assertArrayEquals(expected.getMaxs(), ColumnBounds.parallel(strided, offset, 300, 7, stride).getMaxs(), 0.0);
+  }
+
+  @Test
+  public void parallelMatchesSequential() {
+    double[][] rows = matrix(40_000, 20, 59);
+    ColumnBounds sequential = ColumnBounds.of(rows);
+    ColumnBounds parallel = ColumnBounds.parallel(rows);
+    assertArrayEquals(sequential.getMins(), parallel.getMins(), 0.0);
+    assertArrayEquals(sequential.getMaxs(), parallel.getMaxs(), 0.0);
+
+    double[] flat = new double[40_000 * 20];
+    for (int r = 0; r < rows.length; r++)
+      System.arraycopy(rows[r], 0, flat, r * 20, 20);
+    assertArrayEquals(sequential.getMins(), ColumnBounds.parallel(flat, 20).getMins(), 0.0);
+  }
+
+  @Test
+  public void raggedAndInvalidColumns() {
+    double[][] rows = new double[][] {
+      { 1, Dval.DVAL_DOUBLE },
+      { 3 },
+      { -2, Double.NaN, 8 },
+    };
+    ColumnBounds bounds = ColumnBounds.of(rows);
+    assertEquals(3, bounds.columns());
+    assertEquals(-2, bounds.getMin(0), 0.0);
+    assertEquals(3, bounds.getMax(0), 0.0);
+    assertTrue(Dval.isDval(bounds.getMin(1)));
+    assertTrue(bounds.getBounds(1).isNull());
+    assertEquals(8, bounds.getBounds(2).getMin(), 0.0);
+    Bounds[] all = bounds.toBounds();
+    assertEquals(3, all.length);
+    assertTrue(all[1].isNull());
+
+    assertEquals(0, ColumnBounds.of(new double[0][]).columns());
+    assertEquals(2, ColumnBounds.of(new double[0], 0, 0, 2, 2).columns());
+  }
+
+  @Test
+  public void invalidLayouts() {
+    double[] data = new double[10];
+    assertThrows(IllegalArgumentException.class, () -> ColumnBounds.of(data, 3));
+    assertThrows(IllegalArgumentException.class, () -> ColumnBounds.of(data, 0));
+    assertThrows(IllegalArgumentException.class, () -> ColumnBounds.of(data, 0, 2, 4, 3));
+    assertThrows(IllegalArgumentException.class, () -> ColumnBounds.of(data, 1, 2, 5, 5));
+    assertThrows(IllegalArgumentException.class, () -> ColumnBounds.of(data, -1, 1, 5, 5));
+    assertThrows(IllegalArgumentException.class, () -> ColumnBounds.parallel(data, 0, -1, 5, 5));
+  }
+}
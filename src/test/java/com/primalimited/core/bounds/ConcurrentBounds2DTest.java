@@ -0,0 +1,98 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class ConcurrentBounds2DTest {
+  @Test
+  public void expandAndRead() {
+    ConcurrentBounds2D bounds = ConcurrentBounds2D.create();
+    assertFalse(bounds.isValid());
+    assertFalse(bounds.contains(0, 0));
+    double[] values = new double[4];
+    assertFalse(bounds.read(values));
+    assertEquals(Dval.DVAL_DOUBLE, values[0], 0.0);
+    assertFalse(bounds.snapshot().isValid());
+
+    bounds.expandTo(1, 2);
+    assertTrue(bounds.isValid());
+    bounds.expandTo(-1, 5);
+    bounds.expandTo(Double.NaN, 100);
+    assertTrue(bounds.read(values));
+    assertArrayEquals(new double[] { -1, 1, 2, 5 }, values, 0.0);
+    assertTrue(bounds.contains(0, 3));
+    assertTrue(bounds.contains(1, 5));
+    assertFalse(bounds.contains(2, 3));
+
+    bounds.expandTo(Bounds2D.create(0, 10, 0, 1));
+    assertEquals(Bounds2D.create(-1, 10, 0, 5).snapshot(), bounds.snapshot().snapshot());
+    bounds.expandTo(0, 1, 0, 1); // inside, no change
+    assertEquals(Bounds2D.create(-1, 10, 0, 5).snapshot(), bounds.snapshot().snapshot());
+  }
+
+  @Test
+  public void intersects() {
+    ConcurrentBounds2D bounds = ConcurrentBounds2D.of(Bounds2D.create(0, 10, 0, 10));
+    assertTrue(bounds.intersects(Bounds2D.create(10, 20, 10, 20)));
+    assertTrue(bounds.intersects(Bounds2D.create(2, 3, 2, 3)));
+    assertFalse(bounds.intersects(Bounds2D.create(11, 20, 0, 10)));
+    assertFalse(bounds.intersects(Bounds2D.empty()));
+    bounds.reset();
+    assertFalse(bounds.intersects(Bounds2D.create(2, 3, 2, 3)));
+    assertFalse(ConcurrentBounds2D.of(Bounds2D.empty()).isValid());
+  }
+
+  @Test
+  public void setAndValidate() {
+    ConcurrentBounds2D bounds = ConcurrentBounds2D.create();
+    bounds.set(0, 1, 2, 3);
+    assertEquals(Bounds2D.create(0, 1, 2, 3).snapshot(), bounds.snapshot().snapshot());
+    bounds.set(5, 6, 7, 8);
+    assertEquals(Bounds2D.create(5, 6, 7, 8).snapshot(), bounds.snapshot().snapshot());
+    assertThrows(IllegalArgumentException.class, () -> bounds.set(1, 0, 2, 3));
+    assertThrows(IllegalArgumentException.class, () -> bounds.expandTo(0, 1, Double.NaN, 3));
+    assertThrows(IllegalArgumentException.class, () -> bounds.read(new double[3]));
+  }
+
+  @Test
+  public void readersSeeConsistentValues() throws InterruptedException {
+    /* the writer keeps maxX == maxY, so a torn read shows them unequal */
+    ConcurrentBounds2D bounds = ConcurrentBounds2D.create();
+    bounds.set(0, 0, 0, 0);
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicInteger torn = new AtomicInteger();
+    Thread[] readers = new Thread[4];
+    for (int t = 0; t < readers.length; t++) {
+      readers[t] = new Thread(() -> {
+        double[] values = new double[4];
+        while (!done.get()) {
+          bounds.read(values);
+          if (values[1] != values[3])
+            torn.incrementAndGet();
+        }
+      });
+      readers[t].start();
+    }
+    for (int i = 1; i <= 200_000; i++) {
+      if (i % 1000 == 0)
+        bounds.set(0, i, 0, i);
+      else
+        bounds.expandTo(i, i);
+    }
+    done.set(true);
+    for (Thread reader : readers)
+      reader.join();
+    assertEquals(0, torn.get());
+    assertEquals(Bounds2D.create(0, 200_000, 0, 200_000).snapshot(), bounds.snapshot().snapshot());
+  }
+}
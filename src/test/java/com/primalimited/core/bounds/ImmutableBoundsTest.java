@@ -1,8 +1,14 @@
 package com.primalimited.core.bounds;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.jupiter.api.Test;
 
 public class ImmutableBoundsTest {
@@ -38,4 +44,31 @@ public class ImmutableBoundsTest {
   public void testToString() {
     assertEquals("ImmutableBounds [0..100]", ImmutableBounds.of(Bounds.PERCENT).toString());
   }
+
+  @Test
+  public void valueEquality() {
+    Bounds a = Bounds.of(1, 2);
+    Bounds b = Bounds.of(1, 2);
+    assertEquals(a, b);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertEquals(Bounds.PROBABILITY, Bounds.FRACTION);
+    assertNotEquals(a, Bounds.of(1, 3));
+    assertNotEquals(Bounds.of(0.0, 1), Bounds.of(-0.0, 1));
+    assertNotEquals(a, MutableBounds.of(1, 2));
+    assertNotEquals(a, null);
+
+    Map<Bounds, String> cache = new HashMap<>();
+    cache.put(a, "a");
+    assertEquals("a", cache.get(Bounds.of(1, 2)));
+  }
+
+  @Test
+  public void mergeOverlappingDeduplicates() {
+    Set<Bounds> set = new HashSet<>();
+    set.add(Bounds.of(1, 2));
+    set.add(Bounds.of(1, 2));
+    set.add(Bounds.of(5, 6));
+    assertEquals(2, set.size());
+    assertEquals(2, Bounds.mergeOverlapping(set).size());
+  }
 }
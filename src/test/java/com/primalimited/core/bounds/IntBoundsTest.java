@@ -0,0 +1,80 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class IntBoundsTest {
+  @Test
+  public void fullRangeDoesNotOverflow() {
+    IntBounds bounds = IntBounds.of(Integer.MIN_VALUE, Integer.MAX_VALUE - 1);
+    assertEquals(0xFFFF_FFFEL, bounds.getRange());
+    assertEquals(0, bounds.getBin(Integer.MIN_VALUE, 4));
+    assertEquals(2, bounds.getBin(0, 4));
+    assertEquals(3, bounds.getBin(Integer.MAX_VALUE - 1, 4));
+    assertEquals(-1, bounds.getBin(Integer.MAX_VALUE, 4));
+    assertEquals(0.5, bounds.getFractionBetween(0), 1e-9);
+  }
+
+  @Test
+  public void overlapsAndContains() {
+    IntBounds a = IntBounds.of(0, 10);
+    assertTrue(a.overlaps(IntBounds.of(10, 20)));
+    assertFalse(a.overlaps(IntBounds.of(11, 20)));
+    assertTrue(a.contains(0));
+    assertTrue(a.contains(10));
+    assertFalse(a.contains(11));
+    assertEquals(10, a.bound(99));
+    assertEquals(0, a.bound(-99));
+    assertTrue(IntBounds.of(3, 3).rangeIsZero());
+    assertEquals(0, IntBounds.of(3, 3).getBin(3, 7));
+  }
+
+  @Test
+  public void validity() {
+    assertThrows(IllegalArgumentException.class, () -> IntBounds.of(2, 1));
+    assertThrows(IllegalArgumentException.class, () -> IntBounds.of(Dval.DVAL_INT, Dval.DVAL_INT));
+    IntBounds nullBounds = IntBounds.nullBounds();
+    assertTrue(nullBounds.isNull());
+    assertFalse(nullBounds.isValid());
+    assertFalse(nullBounds.contains(0));
+    assertEquals("[Dval..Dval]", nullBounds.boundsText());
+    assertTrue(nullBounds.format().endsWith("range=Dval"));
+  }
+
+  @Test
+  public void arraysAndMerge() {
+    IntBounds bounds = IntBounds.of(new int[] { 7, Dval.DVAL_INT, -2, 4 });
+    assertEquals(-2, bounds.getMin());
+    assertEquals(7, bounds.getMax());
+    assertTrue(IntBounds.of((int[]) null).isNull());
+    assertEquals(9, IntBounds.expand(bounds, 9).getMax());
+    assertEquals(-5, IntBounds.expand(bounds, new int[] { -5 }).getMin());
+
+    Set<IntBounds> set = new HashSet<>();
+    set.add(IntBounds.of(0, 4));
+    set.add(IntBounds.of(2, 6));
+    set.add(IntBounds.of(8, 9));
+    List<IntBounds> merged = IntBounds.mergeOverlapping(set);
+    assertEquals(2, merged.size());
+    assertEquals(6, merged.get(0).getMax());
+    assertEquals(8, merged.get(1).getMin());
+  }
+
+  @Test
+  public void valueEquality() {
+    assertEquals(IntBounds.of(1, 2), IntBounds.of(1, 2));
+    assertEquals(IntBounds.of(1, 2).hashCode(), IntBounds.of(1, 2).hashCode());
+    assertNotEquals(IntBounds.of(1, 2), IntBounds.of(0, 2));
+  }
+}
@@ -0,0 +1,99 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class IntRangeMapTest {
+  private static int linear(Bounds[] ranges, int[] values, double value, int noValue) {
+    if (!Dval.isValid.test(value))
+      return noValue;
+    for (int i = 0; i < ranges.length; i++)
+      if (ranges[i].contains(value))
+        return values[i];
+    return noValue;
+  }
+
+  @Test
+  public void matchesLinearScan() {
+    Random random = new Random(61);
+    for (int n = 0; n < 70; n++) {
+      /* shuffled disjoint ranges with gaps */
+      Bounds[] ranges = new Bounds[n];
+      int[] values = new int[n];
+      double start = 0;
+      for (int i = 0; i < n; i++) {
+        double min = start + random.nextInt(3);
+        double max = min + random.nextInt(4);
+        ranges[i] = Bounds.of(min, max);
+        values[i] = 100 + i;
+        start = max + 0.5;
+      }
+      for (int i = n - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        Bounds range = ranges[i];
+        ranges[i] = ranges[j];
+        ranges[j] = range;
+        int value = values[i];
+        values[i] = values[j];
+        values[j] = value;
+      }
+
+      IntRangeMap map = IntRangeMap.of(ranges, values, -7);
+      assertEquals(n, map.size());
+      double[] input = new double[500];
+      int[] expected = new int[input.length];
+      for (int i = 0; i < input.length; i++) {
+        input[i] = random.nextInt(12) == 0 ? Double.NaN : random.nextDouble() * (start + 4) - 2;
+        if (i % 5 == 0)
+          input[i] = Math.floor(input[i]); // hit end points
+        expected[i] = linear(ranges, values, input[i], -7);
+        assertEquals(expected[i], map.get(input[i]));
+      }
+      int[] output = new int[input.length];
+      map.get(input, output);
+      assertArrayEquals(expected, output);
+      map.parallelGet(input, output);
+      assertArrayEquals(expected, output);
+    }
+  }
+
+  @Test
+  public void sortedAccessors() {
+    IntRangeMap map = IntRangeMap.of(
+        new Bounds[] { Bounds.of(10, 20), Bounds.of(0, 5) },
+        new int[] { 2, 1 });
+    assertEquals(Dval.DVAL_INT, map.getNoValue());
+    assertEquals(0, map.getRange(0).getMin(), 0.0);
+    assertEquals(1, map.getValue(0));
+    assertEquals(2, map.getValue(1));
+    assertEquals(1, map.indexOf(20));
+    assertEquals(-1, map.indexOf(20.5));
+    assertEquals(Dval.DVAL_INT, map.get(Dval.DVAL_DOUBLE));
+    assertEquals(Dval.DVAL_INT, map.get(-1));
+
+    int[] indices = new int[3];
+    map.parallelIndexOf(new double[] { 3, 7, 15 }, indices);
+    assertArrayEquals(new int[] { 0, -1, 1 }, indices);
+  }
+
+  @Test
+  public void rejectsOverlapsAndInvalidRanges() {
+    assertThrows(IllegalArgumentException.class, () -> IntRangeMap.of(
+        new Bounds[] { Bounds.of(0, 1), Bounds.of(1, 2) }, new int[] { 1, 2 }));
+    assertThrows(IllegalArgumentException.class, () -> IntRangeMap.of(
+        new Bounds[] { Bounds.of(0, 10), Bounds.of(20, 30), Bounds.of(5, 6) }, new int[] { 1, 2, 3 }));
+    assertThrows(IllegalArgumentException.class, () -> IntRangeMap.of(
+        new Bounds[] { Bounds.nullBounds() }, new int[] { 1 }));
+    assertThrows(IllegalArgumentException.class, () -> IntRangeMap.of(
+        new Bounds[] { Bounds.of(0, 1) }, new int[0]));
+    IntRangeMap map = IntRangeMap.of(new Bounds[0], new int[0]);
+    assertThrows(IllegalArgumentException.class, () -> map.get(new double[1], new int[2]));
+  }
+}
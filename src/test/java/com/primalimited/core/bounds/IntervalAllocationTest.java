@@ -0,0 +1,92 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class IntervalAllocationTest {
+  /* most intervals covering any one start point, with ends extended by gap */
+  private static int depth(double[] min, double[] max, double gap) {
+    int depth = 0;
+    for (int i = 0; i < min.length; i++) {
+      int covering = 0;
+      for (int j = 0; j < min.length; j++)
+        if (min[j] <= min[i] && min[i] <= max[j] + gap)
+          covering++;
+      depth = Math.max(depth, covering);
+    }
+    return depth;
+  }
+
+  private static void assertFeasible(IntervalAllocation allocation, double[] min, double[] max, double gap) {
+    int assigned = 0;
+    for (int r = 0; r < allocation.getResourceCount(); r++) {
+      int[] timeline = allocation.getTimeline(r);
+      assertEquals(timeline.length, allocation.getTimelineSize(r));
+      assertTrue(timeline.length > 0);
+      for (int k = 0; k < timeline.length; k++) {
+        assertEquals(r, allocation.getResource(timeline[k]));
+        if (k > 0)
+          assertTrue(max[timeline[k - 1]] + gap < min[timeline[k]]);
+      }
+      assigned += timeline.length;
+    }
+    int valid = 0;
+    for (int i = 0; i < min.length; i++)
+      if (allocation.getResource(i) >= 0)
+        valid++;
+    assertEquals(valid, assigned);
+  }
+
+  @Test
+  public void usesFewestResources() {
+    Random random = new Random(73);
+    for (double gap : new double[] { 0, 2.5 }) {
+      int n = 2_000;
+      double[] min = new double[n];
+      double[] max = new double[n];
+      for (int i = 0; i < n; i++) {
+        min[i] = random.nextInt(5_000);
+        max[i] = min[i] + random.nextInt(40);
+      }
+      IntervalAllocation allocation = IntervalAllocation.solve(min, max, gap);
+      assertEquals(depth(min, max, gap), allocation.getResourceCount());
+      assertFeasible(allocation, min, max, gap);
+    }
+  }
+
+  @Test
+  public void bookings() {
+    /* [9..10] and [10..11] touch, so they need separate rooms */
+    double[] min = new double[] { 9, 10, 13, 9.5, Dval.DVAL_DOUBLE, 12 };
+    double[] max = new double[] { 10, 11, 14, 9.75, 10, 11 };
+    IntervalAllocation allocation = IntervalAllocation.solve(min, max);
+    assertEquals(2, allocation.getResourceCount());
+    assertEquals(-1, allocation.getResource(4));
+    assertEquals(-1, allocation.getResource(5)); // min > max
+    assertFeasible(allocation, min, max, 0);
+    assertArrayEquals(new int[] { 0, 2 }, allocation.getTimeline(allocation.getResource(0)));
+
+    /* with a turnaround of an hour [10..11] can no longer follow [9.5..9.75] */
+    IntervalAllocation withGap = IntervalAllocation.solve(min, max, 1);
+    assertEquals(3, withGap.getResourceCount());
+    assertFeasible(withGap, min, max, 1);
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> IntervalAllocation.solve(new double[1], new double[2]));
+    assertThrows(IllegalArgumentException.class, () -> IntervalAllocation.solve(new double[1], new double[1], -1));
+    assertThrows(IllegalArgumentException.class, () -> IntervalAllocation.solve(new double[1], new double[1], Double.NaN));
+    IntervalAllocation empty = IntervalAllocation.solve(new double[0], new double[0]);
+    assertEquals(0, empty.getResourceCount());
+    assertThrows(IndexOutOfBoundsException.class, () -> empty.getTimeline(0));
+  }
+}
@@ -0,0 +1,93 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class IntervalArithmeticTest {
+  private static final double DELTA = 1e-12;
+
+  @Test
+  public void boundsOperations() {
+    Bounds a = Bounds.of(1, 2);
+    Bounds b = Bounds.of(-1, 3);
+    Bounds sum = IntervalArithmetic.add(a, b);
+    assertEquals(0, sum.getMin(), DELTA);
+    assertEquals(5, sum.getMax(), DELTA);
+    assertTrue(sum.getMin() < 0);
+    Bounds product = IntervalArithmetic.mul(a, b);
+    assertEquals(-2, product.getMin(), DELTA);
+    assertEquals(6, product.getMax(), DELTA);
+    Bounds difference = IntervalArithmetic.sub(a, b);
+    assertEquals(-2, difference.getMin(), DELTA);
+    assertEquals(3, difference.getMax(), DELTA);
+    assertFalse(IntervalArithmetic.div(a, b).isValid());
+    Bounds quotient = IntervalArithmetic.div(b, Bounds.of(2, 4));
+    assertEquals(-0.5, quotient.getMin(), DELTA);
+    assertEquals(1.5, quotient.getMax(), DELTA);
+    Bounds negated = IntervalArithmetic.negate(a);
+    assertEquals(-2, negated.getMin(), 0.0);
+    assertEquals(-1, negated.getMax(), 0.0);
+    assertEquals(9, IntervalArithmetic.pow(b, 2).getMax(), DELTA);
+    assertEquals(Math.sqrt(2), IntervalArithmetic.sqrt(a).getMax(), DELTA);
+    assertEquals(Math.exp(2), IntervalArithmetic.exp(a).getMax(), DELTA);
+    assertEquals(Math.log(2), IntervalArithmetic.log(a).getMax(), DELTA);
+    assertFalse(IntervalArithmetic.log(b).isValid());
+    assertFalse(IntervalArithmetic.add(a, Bounds.nullBounds()).isValid());
+  }
+
+  @Test
+  public void packedBinary() {
+    double[] a = { 1, 2, 3, 4, 5, 6 };
+    double[] b = { 1, 1, -1, 1, 2, 3 };
+    double[] out = new double[6];
+    assertEquals(2, IntervalArithmetic.div(a, b, out));
+    assertEquals(1, out[0], DELTA);
+    assertEquals(2, out[1], DELTA);
+    assertEquals(Dval.DVAL_DOUBLE, out[2], 0.0);
+    assertEquals(Dval.DVAL_DOUBLE, out[3], 0.0);
+    assertEquals(5.0 / 3, out[4], DELTA);
+    assertEquals(3, out[5], DELTA);
+
+    assertEquals(3, IntervalArithmetic.add(a, b, out));
+    assertEquals(7, out[4], DELTA);
+    assertEquals(9, out[5], DELTA);
+    assertEquals(3, IntervalArithmetic.sub(a, b, out));
+    assertEquals(2, out[4], DELTA);
+    assertEquals(4, out[5], DELTA);
+    /* in place */
+    assertEquals(3, IntervalArithmetic.mul(a, b, a));
+    assertEquals(-4, a[2], DELTA);
+    assertEquals(4, a[3], DELTA);
+    assertEquals(18, a[5], DELTA);
+  }
+
+  @Test
+  public void packedUnary() {
+    double[] a = { -4, 9, Dval.DVAL_DOUBLE, Dval.DVAL_DOUBLE, 1, 1 };
+    double[] out = new double[6];
+    assertEquals(2, IntervalArithmetic.sqrt(a, out));
+    assertEquals(0, out[0], 0.0);
+    assertEquals(3, out[1], DELTA);
+    assertEquals(Dval.DVAL_DOUBLE, out[2], 0.0);
+    assertEquals(2, IntervalArithmetic.exp(a, out));
+    assertEquals(Math.E, out[5], DELTA);
+    assertEquals(1, IntervalArithmetic.log(a, out));
+    assertEquals(0, out[5], DELTA);
+    assertEquals(2, IntervalArithmetic.pow(a, 2, a));
+    assertEquals(0, a[0], 0.0);
+    assertEquals(81, a[1], DELTA);
+  }
+
+  @Test
+  public void packedLengths() {
+    assertThrows(IllegalArgumentException.class, () -> IntervalArithmetic.sqrt(new double[3], new double[3]));
+    assertThrows(IllegalArgumentException.class, () -> IntervalArithmetic.sqrt(new double[2], new double[4]));
+    assertThrows(IllegalArgumentException.class, () -> IntervalArithmetic.add(new double[2], new double[4], new double[2]));
+  }
+}
@@ -0,0 +1,117 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class IntervalJoinTest {
+  private static double[][] intervals(int n, double span, double maxLength, Random random) {
+    double[] min = new double[n];
+    double[] max = new double[n];
+    for (int i = 0; i < n; i++) {
+      /* integer end points so that touching intervals are common */
+      min[i] = Math.floor(random.nextDouble() * span);
+      max[i] = min[i] + Math.floor(random.nextDouble() * maxLength);
+    }
+    return new double[][] { min, max };
+  }
+
+  private static Set<Long> bruteForce(double[][] a, double[][] b) {
+    Set<Long> pairs = new HashSet<>();
+    for (int i = 0; i < a[0].length; i++) {
+      if (!Bounds.valid(a[0][i], a[1][i]))
+        continue;
+      Bounds bi = Bounds.of(a[0][i], a[1][i]);
+      for (int j = 0; j < b[0].length; j++)
+        if (Bounds.valid(b[0][j], b[1][j]) && bi.overlaps(Bounds.of(b[0][j], b[1][j])))
+          pairs.add(key(i, j));
+    }
+    return pairs;
+  }
+
+  private static long key(int a, int b) {
+    return ((long) a << 32) | b;
+  }
+
+  private static Set<Long> toSet(IntervalJoin.Pairs pairs) {
+    Set<Long> set = new HashSet<>();
+    for (int i = 0; i < pairs.size(); i++)
+      assertTrue(set.add(key(pairs.getA(i), pairs.getB(i))), "duplicate pair");
+    return set;
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    Random random = new Random(67);
+    double[][] a = intervals(1_500, 10_000, 40, random);
+    double[][] b = intervals(1_200, 10_000, 60, random);
+    a[0][3] = Dval.DVAL_DOUBLE;
+    a[1][4] = Double.NaN;
+    b[0][5] = 10;
+    b[1][5] = 5; // min > max
+    Set<Long> expected = bruteForce(a, b);
+    assertTrue(expected.size() > 100);
+
+    IntervalJoin.Pairs pairs = IntervalJoin.join(a[0], a[1], b[0], b[1]);
+    assertEquals(expected, toSet(pairs));
+
+    AtomicLong count = new AtomicLong();
+    assertEquals(expected.size(), IntervalJoin.join(a[0], a[1], b[0], b[1], (i, j) -> count.incrementAndGet()));
+    assertEquals(expected.size(), count.get());
+  }
+
+  @Test
+  public void parallelMatchesSequential() {
+    Random random = new Random(71);
+    double[][] a = intervals(60_000, 1_000_000, 200, random);
+    double[][] b = intervals(50_000, 1_000_000, 100, random);
+    /* a few long intervals that span many partitions */
+    for (int i = 0; i < 5; i++) {
+      a[1][i] = a[0][i] + 500_000;
+      b[1][i] = b[0][i] + 300_000;
+    }
+
+    Set<Long> expected = toSet(IntervalJoin.join(a[0], a[1], b[0], b[1]));
+    IntervalJoin.Pairs parallel = IntervalJoin.parallelJoin(a[0], a[1], b[0], b[1]);
+    assertEquals(expected, toSet(parallel));
+
+    IntervalJoin.Pairs again = IntervalJoin.parallelJoin(a[0], a[1], b[0], b[1]);
+    assertArrayEquals(parallel.getAIndices(), again.getAIndices());
+    assertArrayEquals(parallel.getBIndices(), again.getBIndices());
+
+    Set<Long> concurrent = ConcurrentHashMap.newKeySet();
+    long count = IntervalJoin.parallelJoin(a[0], a[1], b[0], b[1], (i, j) -> concurrent.add(key(i, j)));
+    assertEquals(expected.size(), count);
+    assertEquals(expected, concurrent);
+  }
+
+  @Test
+  public void listsAndTouchingIntervals() {
+    IntervalJoin.Pairs pairs = IntervalJoin.join(
+        Arrays.asList(Bounds.of(0, 10), Bounds.of(20, 30), Bounds.nullBounds()),
+        Arrays.asList(Bounds.of(10, 20), Bounds.of(31, 40), Bounds.of(5, 5)));
+    Set<Long> expected = new HashSet<>(Arrays.asList(key(0, 0), key(1, 0), key(0, 2)));
+    assertEquals(expected, toSet(pairs));
+    assertEquals(0, IntervalJoin.join(new double[0], new double[0], new double[0], new double[0]).size());
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> IntervalJoin.join(new double[1], new double[2], new double[0], new double[0]));
+    IntervalJoin.Pairs pairs = IntervalJoin.join(new double[1], new double[1], new double[1], new double[1]);
+    assertEquals(1, pairs.size());
+    assertThrows(IndexOutOfBoundsException.class, () -> pairs.getA(1));
+  }
+}
@@ -0,0 +1,112 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class LazyBoundsTest {
+  @Test
+  public void computedOnceOnFirstAccess() {
+    AtomicInteger calls = new AtomicInteger();
+    LazyBounds lazy = LazyBounds.of(() -> {
+      calls.incrementAndGet();
+      return Bounds.of(new double[] { 3, 1, 2 });
+    });
+    assertFalse(lazy.isComputed());
+    assertEquals(0, calls.get());
+    assertEquals(1, lazy.getMin(), 0.0);
+    assertEquals(3, lazy.getMax(), 0.0);
+    assertEquals(2, lazy.getRange(), 0.0);
+    assertTrue(lazy.contains(2.5));
+    assertTrue(lazy.isComputed());
+    assertSame(lazy.get(), lazy.get());
+    assertEquals(Bounds.of(1, 3), lazy.get());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void invalidateAndVersion() {
+    double[] data = { 1, 2 };
+    AtomicLong version = new AtomicLong();
+    AtomicInteger calls = new AtomicInteger();
+    LazyBounds lazy = LazyBounds.of(() -> {
+      calls.incrementAndGet();
+      return Bounds.of(data);
+    }, version::get);
+    assertEquals(2, lazy.getMax(), 0.0);
+    data[1] = 10;
+    assertEquals(2, lazy.getMax(), 0.0);
+    version.incrementAndGet();
+    assertEquals(10, lazy.getMax(), 0.0);
+    assertEquals(2, calls.get());
+    lazy.invalidate();
+    assertFalse(lazy.isComputed());
+    assertEquals(10, lazy.getMax(), 0.0);
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void invalidateDuringComputationIsNotLost() {
+    double[] data = { 1, 2 };
+    AtomicInteger calls = new AtomicInteger();
+    LazyBounds[] holder = new LazyBounds[1];
+    holder[0] = LazyBounds.of(() -> {
+      Bounds bounds = Bounds.of(data);
+      // the data changes and is invalidated after the scan, before publication
+      if (calls.incrementAndGet() == 1) {
+        data[1] = 10;
+        holder[0].invalidate();
+      }
+      return bounds;
+    });
+    LazyBounds lazy = holder[0];
+    assertEquals(2, lazy.getMax(), 0.0);
+    assertFalse(lazy.isComputed());
+    assertEquals(10, lazy.getMax(), 0.0);
+    assertTrue(lazy.isComputed());
+    assertEquals(10, lazy.getMax(), 0.0);
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void invalidResultIsNullBounds() {
+    LazyBounds lazy = LazyBounds.of(Bounds::empty);
+    assertFalse(lazy.isValid());
+    assertTrue(lazy.get() instanceof NullBounds);
+    assertThrows(NullPointerException.class, () -> LazyBounds.of(() -> null).get());
+  }
+
+  @Test
+  public void concurrentAccessComputesOnce() throws InterruptedException {
+    AtomicInteger calls = new AtomicInteger();
+    LazyBounds lazy = LazyBounds.of(() -> {
+      calls.incrementAndGet();
+      return Bounds.of(0, 1);
+    });
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        lazy.get();
+      });
+      threads[t].start();
+    }
+    start.countDown();
+    for (Thread thread : threads)
+      thread.join();
+    assertEquals(1, calls.get());
+  }
+}
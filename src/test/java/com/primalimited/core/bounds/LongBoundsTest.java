@@ -0,0 +1,129 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class LongBoundsTest {
+  /* epoch nanoseconds, beyond exact double precision */
+  private static final long T = 1_700_000_000_000_000_000L;
+
+  @Test
+  public void exactNearEpochNanos() {
+    LongBounds a = LongBounds.of(T, T + 1);
+    LongBounds b = LongBounds.of(T + 2, T + 3);
+    assertFalse(a.overlaps(b));
+    assertFalse(b.overlaps(a));
+    assertTrue(a.overlaps(LongBounds.of(T + 1, T + 5)));
+    assertTrue(a.contains(T + 1));
+    assertFalse(a.contains(T + 2));
+    assertEquals(1, a.getRange());
+
+    /* the same spans collapse as doubles */
+    assertTrue(a.toBounds().overlaps(b.toBounds()));
+  }
+
+  @Test
+  public void bins() {
+    LongBounds bounds = LongBounds.of(T, T + 99);
+    assertEquals(0, bounds.getBin(T, 10));
+    assertEquals(0, bounds.getBin(T + 9, 10));
+    assertEquals(1, bounds.getBin(T + 10, 10));
+    assertEquals(9, bounds.getBin(T + 99, 10));
+    assertEquals(-1, bounds.getBin(T - 1, 10));
+    assertEquals(-1, bounds.getBin(T + 100, 10));
+    assertEquals(-1, bounds.getBin(T, 0));
+    assertEquals(0, LongBounds.of(T, T).getBin(T, 10));
+
+    /* product overflows a long, falls back to exact big integer arithmetic */
+    LongBounds wide = LongBounds.of(0, Long.MAX_VALUE - 1);
+    assertEquals(500_000, wide.getBin(Long.MAX_VALUE / 2, 1_000_000));
+    assertEquals(499_999, wide.getBin(Long.MAX_VALUE / 2 - 1, 1_000_000));
+    assertEquals(999_999, wide.getBin(Long.MAX_VALUE - 1, 1_000_000));
+    assertEquals(0.5, wide.getFractionBetween(Long.MAX_VALUE / 2), 1e-12);
+  }
+
+  @Test
+  public void validity() {
+    assertThrows(IllegalArgumentException.class, () -> LongBounds.of(2, 1));
+    assertThrows(IllegalArgumentException.class, () -> LongBounds.of(0, Dval.DVAL_LONG));
+    assertThrows(IllegalArgumentException.class, () -> LongBounds.of(Long.MIN_VALUE, 0));
+    assertTrue(LongBounds.valid(Long.MIN_VALUE, -1));
+    assertFalse(LongBounds.valid(Long.MIN_VALUE, 0));
+    assertFalse(LongBounds.valid(Dval.DVAL_LONG, Dval.DVAL_LONG));
+
+    LongBounds nullBounds = LongBounds.nullBounds();
+    assertTrue(nullBounds.isNull());
+    assertFalse(nullBounds.isValid());
+    assertFalse(nullBounds.contains(0));
+    assertFalse(nullBounds.overlaps(LongBounds.of(0, 1)));
+    assertEquals(-1, nullBounds.getBin(0, 10));
+    assertEquals("[Dval..Dval]", nullBounds.boundsText());
+    assertTrue(nullBounds.toBounds().isNull());
+  }
+
+  @Test
+  public void arraysAndExpand() {
+    assertTrue(LongBounds.of(new long[0]).isNull());
+    assertTrue(LongBounds.of(new long[] { Dval.DVAL_LONG }).isNull());
+    LongBounds bounds = LongBounds.of(new long[] { T + 5, Dval.DVAL_LONG, T - 3, T });
+    assertEquals(T - 3, bounds.getMin());
+    assertEquals(T + 5, bounds.getMax());
+
+    LongBounds expanded = LongBounds.expand(bounds, T + 7);
+    assertEquals(T + 7, expanded.getMax());
+    assertEquals(T - 3, expanded.getMin());
+    assertEquals(T + 5, LongBounds.expand(bounds, Dval.DVAL_LONG).getMax());
+    assertEquals(T, LongBounds.expand(LongBounds.nullBounds(), T).getMin());
+    assertEquals(T - 10, LongBounds.expand(bounds, new long[] { T - 10, T }).getMin());
+
+    assertEquals(T + 5, bounds.bound(T + 50));
+    assertEquals(T - 3, bounds.bound(0));
+    assertEquals(T, bounds.bound(T));
+
+    LongBounds minMax = LongBounds.minMax(LongBounds.of(1, 2), LongBounds.of(5, 6));
+    assertEquals(1, minMax.getMin());
+    assertEquals(6, minMax.getMax());
+    assertThrows(IllegalArgumentException.class, () -> LongBounds.minMax(LongBounds.nullBounds(), minMax));
+  }
+
+  @Test
+  public void mergeOverlapping() {
+    Set<LongBounds> set = new HashSet<>();
+    set.add(LongBounds.of(T + 10, T + 20));
+    set.add(LongBounds.of(T, T + 3));
+    set.add(LongBounds.of(T + 3, T + 5));
+    set.add(LongBounds.of(T + 15, T + 30));
+    set.add(LongBounds.of(T + 6, T + 6));
+    set.add(LongBounds.nullBounds());
+
+    List<LongBounds> merged = LongBounds.mergeOverlapping(set);
+    assertEquals(3, merged.size());
+    assertEquals(T, merged.get(0).getMin());
+    assertEquals(T + 5, merged.get(0).getMax());
+    assertEquals(T + 6, merged.get(1).getMin());
+    assertEquals(T + 6, merged.get(1).getMax());
+    assertEquals(T + 10, merged.get(2).getMin());
+    assertEquals(T + 30, merged.get(2).getMax());
+
+    assertTrue(LongBounds.mergeOverlapping(new HashSet<>()).isEmpty());
+  }
+
+  @Test
+  public void valueEquality() {
+    assertEquals(LongBounds.of(1, 2), LongBounds.of(1, 2));
+    assertEquals(LongBounds.of(1, 2).hashCode(), LongBounds.of(1, 2).hashCode());
+    assertNotEquals(LongBounds.of(1, 2), LongBounds.of(1, 3));
+    assertNotEquals(LongBounds.of(1, 2), IntBounds.of(1, 2));
+  }
+}
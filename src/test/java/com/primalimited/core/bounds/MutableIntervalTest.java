@@ -0,0 +1,150 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.function.DoubleBinaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class MutableIntervalTest {
+  private static final double DELTA = 1e-12;
+
+  @Test
+  public void outwardRounding() {
+    MutableInterval sum = MutableInterval.of(0.1, 0.1).add(0.2, 0.2);
+    assertTrue(sum.getMin() < sum.getMax());
+    assertTrue(sum.getMin() <= 0.30000000000000004);
+    assertTrue(sum.getMax() >= 0.30000000000000004);
+    assertEquals(Math.nextDown(0.1 + 0.2), sum.getMin(), 0.0);
+    assertEquals(Math.nextUp(0.1 + 0.2), sum.getMax(), 0.0);
+  }
+
+  @Test
+  public void arithmetic() {
+    MutableInterval x = MutableInterval.of(1, 2);
+    assertSame(x, x.add(Bounds.of(3, 4)));
+    assertEquals(4, x.getMin(), DELTA);
+    assertEquals(6, x.getMax(), DELTA);
+
+    x.set(1, 2).sub(3, 5);
+    assertEquals(-4, x.getMin(), DELTA);
+    assertEquals(-1, x.getMax(), DELTA);
+
+    x.set(-1, 2).mul(-3, 4);
+    assertEquals(-6, x.getMin(), DELTA);
+    assertEquals(8, x.getMax(), DELTA);
+
+    x.set(1, 2).div(-4, -2);
+    assertEquals(-1, x.getMin(), DELTA);
+    assertEquals(-0.25, x.getMax(), DELTA);
+
+    x.set(1, 2).negate();
+    assertEquals(-2, x.getMin(), 0.0);
+    assertEquals(-1, x.getMax(), 0.0);
+  }
+
+  @Test
+  public void divisorContainingZero() {
+    assertFalse(MutableInterval.of(1, 2).div(-1, 1).isValid());
+    assertFalse(MutableInterval.of(1, 2).div(0, 1).isValid());
+    assertFalse(MutableInterval.of(1, 2).div(-1, 0).isValid());
+    MutableInterval x = MutableInterval.of(1, 2).div(0, 0);
+    assertEquals(Dval.DVAL_DOUBLE, x.getMin(), 0.0);
+    assertEquals(Dval.DVAL_DOUBLE, x.getRange(), 0.0);
+    /* invalid stays invalid */
+    assertFalse(x.add(1, 1).exp().negate().pow(2).isValid());
+    assertTrue(x.toBounds() instanceof NullBounds);
+  }
+
+  @Test
+  public void pow() {
+    MutableInterval x = MutableInterval.of(-2, 3).pow(2);
+    assertEquals(0, x.getMin(), 0.0);
+    assertEquals(9, x.getMax(), DELTA);
+    x.set(-3, -2).pow(2);
+    assertEquals(4, x.getMin(), DELTA);
+    assertEquals(9, x.getMax(), DELTA);
+    x.set(-2, 3).pow(3);
+    assertEquals(-8, x.getMin(), DELTA);
+    assertEquals(27, x.getMax(), DELTA);
+    x.set(2, 4).pow(-1);
+    assertEquals(0.25, x.getMin(), DELTA);
+    assertEquals(0.5, x.getMax(), DELTA);
+    x.set(-4, -2).pow(-2);
+    assertEquals(1.0 / 16, x.getMin(), DELTA);
+    assertEquals(0.25, x.getMax(), DELTA);
+    x.set(-2, 3).pow(0);
+    assertEquals(1, x.getMin(), 0.0);
+    assertEquals(1, x.getMax(), 0.0);
+    assertFalse(MutableInterval.of(-1, 1).pow(-2).isValid());
+    assertFalse(MutableInterval.of(2, 3).pow(Integer.MIN_VALUE).isValid());
+    assertFalse(MutableInterval.of(10, 20).pow(400).isValid());
+  }
+
+  @Test
+  public void functions() {
+    MutableInterval x = MutableInterval.of(-4, 9).sqrt();
+    assertEquals(0, x.getMin(), 0.0);
+    assertEquals(3, x.getMax(), DELTA);
+    assertFalse(MutableInterval.of(-4, -1).sqrt().isValid());
+
+    x.set(0, 1).exp();
+    assertEquals(1, x.getMin(), DELTA);
+    assertEquals(Math.E, x.getMax(), DELTA);
+    assertFalse(MutableInterval.of(0, 1000).exp().isValid());
+
+    x.set(1, Math.E).log();
+    assertEquals(0, x.getMin(), DELTA);
+    assertEquals(1, x.getMax(), DELTA);
+    assertFalse(MutableInterval.of(0, 1).log().isValid());
+  }
+
+  @Test
+  public void invalidOperands() {
+    assertFalse(MutableInterval.create().isValid());
+    assertFalse(MutableInterval.of(2, 1).isValid());
+    assertFalse(MutableInterval.of(1, 2).add(Double.NaN, 1).isValid());
+    assertFalse(MutableInterval.of(1, 2).mul(Bounds.nullBounds()).isValid());
+    assertFalse(MutableInterval.of(Double.MAX_VALUE, Double.MAX_VALUE).add(Double.MAX_VALUE, Double.MAX_VALUE).isValid());
+  }
+
+  @Test
+  public void resultsContainPointResults() {
+    Random random = new Random(42);
+    DoubleBinaryOperator[] ops = {
+        (p, q) -> p + q, (p, q) -> p - q, (p, q) -> p * q, (p, q) -> p / q,
+    };
+    MutableInterval x = MutableInterval.create();
+    for (int trial = 0; trial < 2_000; trial++) {
+      double a = random.nextGaussian() * 10;
+      double b = a + random.nextDouble() * 5;
+      double c = random.nextGaussian() * 10;
+      double d = c + random.nextDouble() * 5;
+      for (int op = 0; op < ops.length; op++) {
+        x.set(a, b);
+        switch (op) {
+        case 0: x.add(c, d); break;
+        case 1: x.sub(c, d); break;
+        case 2: x.mul(c, d); break;
+        default: x.div(c, d); break;
+        }
+        if (op == 3 && c <= 0 && d >= 0) {
+          assertFalse(x.isValid());
+          continue;
+        }
+        for (int k = 0; k < 10; k++) {
+          double p = a + (b - a) * random.nextDouble();
+          double q = c + (d - c) * random.nextDouble();
+          double r = ops[op].applyAsDouble(p, q);
+          assertTrue(x.contains(r), op + ": " + r + " not in " + x.boundsText());
+        }
+      }
+    }
+  }
+}
@@ -22,4 +22,11 @@ public class NullBoundsTest {
   public void testToString() {
     assertEquals("NullBounds [Dval..Dval]", NullBounds.create().toString());
   }
+
+  @Test
+  public void nullBoundsAreEqual() {
+    assertEquals(Bounds.nullBounds(), Bounds.nullBounds());
+    assertEquals(Bounds.nullBounds().hashCode(), Bounds.nullBounds().hashCode());
+    assertFalse(Bounds.nullBounds().equals(Bounds.empty()));
+  }
 }
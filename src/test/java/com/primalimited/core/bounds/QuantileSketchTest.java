@@ -0,0 +1,93 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class QuantileSketchTest {
+  @Test
+  public void emptySketch() {
+    QuantileSketch sketch = QuantileSketch.create();
+    assertEquals(0, sketch.count());
+    assertTrue(Dval.isDval(sketch.quantile(0.5)));
+    assertTrue(Dval.isDval(sketch.getMin()));
+    assertTrue(sketch.toBounds(0.01, 0.99).isNull());
+  }
+
+  @Test
+  public void skipsMissingValues() {
+    QuantileSketch sketch = QuantileSketch.create();
+    sketch.add(new double[] { 1, Dval.DVAL_DOUBLE, Double.NaN, 3, Double.NEGATIVE_INFINITY });
+    assertEquals(2, sketch.count());
+    assertEquals(1, sketch.getMin(), 0.0);
+    assertEquals(3, sketch.getMax(), 0.0);
+  }
+
+  @Test
+  public void approximatesUniformQuantiles() {
+    QuantileSketch sketch = QuantileSketch.create();
+    int n = 1_000_000;
+    for (int i = 0; i < n; i++)
+      sketch.add(i);
+
+    assertTrue(sketch.retained() < 4 * QuantileSketch.DEFAULT_K);
+    assertEquals(0, sketch.quantile(0), 0.0);
+    assertEquals(n - 1, sketch.quantile(1), 0.0);
+    for (double q = 0.05; q < 1.0; q += 0.05)
+      assertEquals(q * n, sketch.quantile(q), 0.02 * n);
+  }
+
+  @Test
+  public void mergedSketchesMatchSingleSketch() {
+    Random random = new Random(11);
+    QuantileSketch all = QuantileSketch.create();
+    QuantileSketch[] parts = new QuantileSketch[4];
+    for (int p = 0; p < parts.length; p++)
+      parts[p] = QuantileSketch.create();
+    for (int i = 0; i < 200_000; i++) {
+      double value = random.nextGaussian();
+      all.add(value);
+      parts[i % parts.length].add(value);
+    }
+
+    QuantileSketch merged = QuantileSketch.create();
+    for (QuantileSketch part : parts)
+      merged.merge(part);
+
+    assertEquals(all.count(), merged.count());
+    assertEquals(all.getMin(), merged.getMin(), 0.0);
+    assertEquals(all.getMax(), merged.getMax(), 0.0);
+    Bounds bounds = merged.toBounds(0.025, 0.975);
+    assertEquals(-1.96, bounds.getMin(), 0.1);
+    assertEquals(1.96, bounds.getMax(), 0.1);
+  }
+
+  @Test
+  public void selfMerge() {
+    Random random = new Random(5);
+    QuantileSketch sketch = QuantileSketch.create();
+    for (int i = 0; i < 50_000; i++)
+      sketch.add(random.nextDouble());
+    double median = sketch.quantile(0.5);
+
+    sketch.merge(sketch);
+    assertEquals(100_000, sketch.count());
+    assertEquals(median, sketch.quantile(0.5), 0.02);
+    assertEquals(0.5, sketch.quantile(0.5), 0.02);
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> QuantileSketch.create(2));
+    QuantileSketch sketch = QuantileSketch.create();
+    sketch.add(1);
+    assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+    assertThrows(IllegalArgumentException.class, () -> sketch.toBounds(0.9, 0.1));
+  }
+}
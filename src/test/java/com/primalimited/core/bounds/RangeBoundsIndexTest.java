@@ -0,0 +1,97 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class RangeBoundsIndexTest {
+  @Test
+  public void matchesCopyOfRange() {
+    Random random = new Random(23);
+    double[] array = new double[1_000];
+    for (int i = 0; i < array.length; i++)
+      array[i] = random.nextInt(15) == 0 ? Dval.DVAL_DOUBLE : random.nextGaussian();
+
+    for (int blockSize : new int[] { 1, 7, 32, 2_000 }) {
+      RangeBoundsIndex index = RangeBoundsIndex.of(array, blockSize);
+      assertEquals(blockSize, index.blockSize());
+      for (int trial = 0; trial < 2_000; trial++) {
+        int from = random.nextInt(array.length + 1);
+        int to = from + random.nextInt(array.length - from + 1);
+        Bounds expected = Bounds.of(Arrays.copyOfRange(array, from, to));
+        Bounds actual = index.getBounds(from, to);
+        assertEquals(expected.isValid(), actual.isValid());
+        if (expected.isValid()) {
+          assertEquals(expected.getMin(), actual.getMin(), 0.0);
+          assertEquals(expected.getMax(), actual.getMax(), 0.0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void skipsInvalid() {
+    double[] array = new double[] { Double.NaN, 3, Double.POSITIVE_INFINITY, -1, Double.NEGATIVE_INFINITY, Dval.DVAL_DOUBLE };
+    RangeBoundsIndex index = RangeBoundsIndex.of(array, 2);
+    Bounds bounds = index.getBounds(0, array.length);
+    assertEquals(-1, bounds.getMin(), 0.0);
+    assertEquals(3, bounds.getMax(), 0.0);
+    assertTrue(index.getBounds(4, 6).isNull());
+    assertTrue(Dval.isDval(index.getMin(2, 2)));
+    assertTrue(Dval.isDval(index.getMax(5, 6)));
+  }
+
+  @Test
+  public void pointUpdates() {
+    double[] array = new double[100];
+    for (int i = 0; i < array.length; i++)
+      array[i] = i;
+    RangeBoundsIndex index = RangeBoundsIndex.of(array, 8);
+
+    index.set(50, -10);
+    assertEquals(-10, array[50], 0.0);
+    assertEquals(-10, index.getMin(0, 100), 0.0);
+    assertEquals(20, index.getMin(20, 50), 0.0);
+
+    index.set(99, Dval.DVAL_DOUBLE);
+    assertEquals(98, index.getMax(0, 100), 0.0);
+
+    assertThrows(IndexOutOfBoundsException.class, () -> index.set(100, 1));
+  }
+
+  @Test
+  public void floatArray() {
+    float[] array = new float[] { 2f, Dval.DVAL_FLOAT, -3.5f, 8f, Float.NaN };
+    RangeBoundsIndex index = RangeBoundsIndex.of(array, 2);
+    assertEquals(5, index.size());
+    Bounds bounds = index.getBounds(0, 5);
+    assertEquals(-3.5, bounds.getMin(), 0.0);
+    assertEquals(8, bounds.getMax(), 0.0);
+
+    index.set(3, Dval.DVAL_DOUBLE);
+    assertTrue(Dval.isDval(array[3]));
+    assertEquals(2, index.getMax(0, 5), 0.0);
+  }
+
+  @Test
+  public void emptyArray() {
+    RangeBoundsIndex index = RangeBoundsIndex.of(new double[0]);
+    assertTrue(index.getBounds(0, 0).isNull());
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> RangeBoundsIndex.of(new double[4], 0));
+    RangeBoundsIndex index = RangeBoundsIndex.of(new double[4]);
+    assertThrows(IllegalArgumentException.class, () -> index.getBounds(3, 2));
+    assertThrows(IllegalArgumentException.class, () -> index.getMin(-1, 2));
+    assertThrows(IllegalArgumentException.class, () -> index.getMax(0, 5));
+  }
+}
@@ -0,0 +1,55 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+public class RangeMapTest {
+  private final RangeMap<String> zones = RangeMap.of(
+      Arrays.asList(Bounds.of(1_000, 1_999), Bounds.of(0, Math.nextDown(1_000.0)), Bounds.of(2_500, 4_000)),
+      Arrays.asList("shale", "sand", "basement"));
+
+  @Test
+  public void lookup() {
+    assertEquals(3, zones.size());
+    assertEquals("sand", zones.get(0));
+    assertEquals("sand", zones.get(999.99));
+    assertEquals("shale", zones.get(1_000));
+    assertEquals("basement", zones.get(4_000));
+    assertNull(zones.get(2_200));
+    assertEquals("unknown", zones.getOrDefault(2_200, "unknown"));
+    assertEquals("sand", zones.getValue(0));
+    assertEquals(2_500, zones.getRange(2).getMin(), 0.0);
+    assertEquals(1, zones.indexOf(1_500));
+  }
+
+  @Test
+  public void bulkLookup() {
+    double[] depths = new double[] { 10, 1_500, 2_000, 3_000, Double.NaN };
+    String[] expected = new String[] { "sand", "shale", null, "basement", null };
+    String[] output = new String[depths.length];
+    zones.get(depths, output);
+    assertArrayEquals(expected, output);
+    Arrays.fill(output, "x");
+    zones.parallelGet(depths, output);
+    assertArrayEquals(expected, output);
+    int[] indices = new int[depths.length];
+    zones.parallelIndexOf(depths, indices);
+    assertArrayEquals(new int[] { 0, 1, -1, 2, -1 }, indices);
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> RangeMap.of(
+        Arrays.asList(Bounds.of(0, 1)), Collections.emptyList()));
+    assertThrows(IllegalArgumentException.class, () -> RangeMap.of(
+        Arrays.asList(Bounds.of(0, 2), Bounds.of(1, 3)), Arrays.asList("a", "b")));
+    assertThrows(IllegalArgumentException.class, () -> zones.get(new double[1], new String[2]));
+  }
+}
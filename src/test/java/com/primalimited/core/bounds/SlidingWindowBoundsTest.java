@@ -0,0 +1,112 @@
+package com.primalimited.core.bounds;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class SlidingWindowBoundsTest {
+  @Test
+  public void emptyWindow() {
+    SlidingWindowBounds window = SlidingWindowBounds.ofCount(3);
+    assertFalse(window.isValid());
+    assertTrue(window.getBounds().isNull());
+    assertTrue(Dval.isDval(window.getMin()));
+    assertTrue(Dval.isDval(window.getMax()));
+  }
+
+  @Test
+  public void countWindowShrinks() {
+    SlidingWindowBounds window = SlidingWindowBounds.ofCount(3);
+    window.add(10);
+    window.add(1);
+    window.add(5);
+    assertEquals(1, window.getMin(), 0.0);
+    assertEquals(10, window.getMax(), 0.0);
+
+    window.add(4);
+    assertEquals(1, window.getMin(), 0.0);
+    assertEquals(5, window.getMax(), 0.0);
+
+    window.add(Dval.DVAL_DOUBLE);
+    window.add(Double.NaN);
+    assertEquals(4, window.getMin(), 0.0);
+    assertEquals(4, window.getMax(), 0.0);
+
+    window.add(Dval.DVAL_DOUBLE);
+    assertFalse(window.isValid());
+  }
+
+  @Test
+  public void countWindowMatchesBruteForce() {
+    Random random = new Random(5);
+    int size = 50;
+    double[] values = new double[5_000];
+    SlidingWindowBounds window = SlidingWindowBounds.ofCount(size);
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(10) == 0 ? Dval.DVAL_DOUBLE : random.nextGaussian();
+      window.add(values[i]);
+      Bounds expected = Bounds.of(Arrays.copyOfRange(values, Math.max(0, i - size + 1), i + 1));
+      assertEquals(expected.getMin(), window.getBounds().getMin(), 0.0);
+      assertEquals(expected.getMax(), window.getBounds().getMax(), 0.0);
+    }
+  }
+
+  @Test
+  public void durationWindow() {
+    SlidingWindowBounds window = SlidingWindowBounds.ofDuration(10);
+    window.add(100, 7);
+    window.add(105, 3);
+    window.add(109, 5);
+    assertEquals(3, window.getMin(), 0.0);
+    assertEquals(7, window.getMax(), 0.0);
+
+    window.add(110, 4);
+    assertEquals(3, window.getMin(), 0.0);
+    assertEquals(5, window.getMax(), 0.0);
+
+    window.advanceTo(118);
+    assertEquals(4, window.getMin(), 0.0);
+    assertEquals(5, window.getMax(), 0.0);
+
+    window.advanceTo(200);
+    assertFalse(window.isValid());
+  }
+
+  @Test
+  public void durationWindowGrows() {
+    SlidingWindowBounds window = SlidingWindowBounds.ofDuration(1_000_000);
+    for (int i = 0; i < 10_000; i++)
+      window.add(i, i);
+    assertEquals(0, window.getMin(), 0.0);
+    assertEquals(9_999, window.getMax(), 0.0);
+  }
+
+  @Test
+  public void clear() {
+    SlidingWindowBounds window = SlidingWindowBounds.ofDuration(10);
+    window.add(100, 1);
+    window.clear();
+    assertFalse(window.isValid());
+    window.add(5, 2);
+    assertEquals(2, window.getMax(), 0.0);
+  }
+
+  @Test
+  public void invalidUsage() {
+    assertThrows(IllegalArgumentException.class, () -> SlidingWindowBounds.ofCount(0));
+    assertThrows(IllegalArgumentException.class, () -> SlidingWindowBounds.ofDuration(-1));
+    assertThrows(IllegalStateException.class, () -> SlidingWindowBounds.ofCount(2).add(1L, 1.0));
+    assertThrows(IllegalStateException.class, () -> SlidingWindowBounds.ofDuration(2).add(1.0));
+    SlidingWindowBounds window = SlidingWindowBounds.ofDuration(10);
+    window.add(10, 1);
+    assertThrows(IllegalArgumentException.class, () -> window.add(9, 1));
+  }
+}
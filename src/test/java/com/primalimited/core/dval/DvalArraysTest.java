@@ -0,0 +1,132 @@
+package com.primalimited.core.dval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.DvalArrays.Placement;
+
+public class DvalArraysTest {
+  private static final MissingValuePolicy POLICY = MissingValuePolicy.defaultPolicy();
+
+  @Test
+  public void sortMissingLast() {
+    double[] array = new double[] { 5, Dval.DVAL_DOUBLE, -1, Double.NaN, 3 };
+    int count = DvalArrays.sort(array);
+    assertEquals(3, count);
+    assertEquals(-1, array[0], 1e-10);
+    assertEquals(3, array[1], 1e-10);
+    assertEquals(5, array[2], 1e-10);
+    assertTrue(POLICY.isMissing(array[3]));
+    assertTrue(POLICY.isMissing(array[4]));
+  }
+
+  @Test
+  public void sortMissingFirst() {
+    double[] array = new double[] { 5, Dval.DVAL_DOUBLE, -1, Double.NaN, 3 };
+    int count = DvalArrays.parallelSort(array, POLICY, Placement.FIRST);
+    assertEquals(3, count);
+    assertTrue(POLICY.isMissing(array[0]));
+    assertTrue(POLICY.isMissing(array[1]));
+    assertEquals(-1, array[2], 1e-10);
+    assertEquals(3, array[3], 1e-10);
+    assertEquals(5, array[4], 1e-10);
+  }
+
+  @Test
+  public void sortNaNOnlyPolicyKeepsDvalAsValue() {
+    double[] array = new double[] { Dval.DVAL_DOUBLE, Double.NaN, 1 };
+    int count = DvalArrays.sort(array, MissingValuePolicy.NAN_ONLY, Placement.LAST);
+    assertEquals(2, count);
+    assertEquals(1, array[0], 1e-10);
+    assertEquals(Dval.DVAL_DOUBLE, array[1], 1e-10);
+  }
+
+  @Test
+  public void argsortIsStableAndDoesNotModify() {
+    double[] array = new double[] { 2, Dval.DVAL_DOUBLE, 1, 2, Double.NaN, 0 };
+    double[] copy = array.clone();
+
+    int[] last = DvalArrays.argsort(array, POLICY, Placement.LAST);
+    assertTrue(Arrays.equals(new int[] { 5, 2, 0, 3, 1, 4 }, last));
+
+    int[] first = DvalArrays.argsort(array, POLICY, Placement.FIRST);
+    assertTrue(Arrays.equals(new int[] { 1, 4, 5, 2, 0, 3 }, first));
+
+    assertTrue(Arrays.equals(copy, array));
+  }
+
+  @Test
+  public void parallelArgsortMatchesSort() {
+    Random random = new Random(42);
+    double[] array = randomWithMissing(random, 50_000);
+    int[] order = DvalArrays.parallelArgsort(array, POLICY, Placement.LAST);
+
+    double[] sorted = array.clone();
+    int count = DvalArrays.sort(sorted);
+    for (int i = 0; i < count; i++)
+      assertEquals(sorted[i], array[order[i]], 0.0);
+    for (int i = count; i < array.length; i++)
+      assertTrue(POLICY.isMissing(array[order[i]]));
+    for (int i = 1; i < count; i++)
+      if (array[order[i - 1]] == array[order[i]])
+        assertTrue(order[i - 1] < order[i]);
+  }
+
+  @Test
+  public void selectMatchesSort() {
+    Random random = new Random(7);
+    for (int trial = 0; trial < 50; trial++) {
+      double[] array = randomWithMissing(random, 1 + random.nextInt(500));
+      double[] sorted = array.clone();
+      int count = DvalArrays.sort(sorted);
+      if (count == 0)
+        continue;
+      int k = random.nextInt(count);
+      double selected = DvalArrays.select(array, k, POLICY);
+      assertEquals(sorted[k], selected, 0.0);
+      for (int i = 0; i < k; i++)
+        assertTrue(array[i] <= selected);
+      for (int i = k + 1; i < count; i++)
+        assertTrue(array[i] >= selected);
+    }
+  }
+
+  @Test
+  public void selectWithManyDuplicates() {
+    double[] array = new double[10_000];
+    for (int i = 0; i < array.length; i++)
+      array[i] = i % 3;
+    assertEquals(1, DvalArrays.select(array, 5_000, POLICY), 0.0);
+  }
+
+  @Test
+  public void selectOutOfRangeReturnsDval() {
+    double[] array = new double[] { 1, Dval.DVAL_DOUBLE };
+    assertTrue(Dval.isDval(DvalArrays.select(array, 1, POLICY)));
+    assertTrue(Dval.isDval(DvalArrays.select(array, -1, POLICY)));
+    assertFalse(Dval.isDval(DvalArrays.select(array, 0, POLICY)));
+  }
+
+  @Test
+  public void partitionValid() {
+    double[] array = new double[] { Double.NaN, 1, Dval.DVAL_DOUBLE, 2 };
+    assertEquals(2, DvalArrays.partitionValid(array, POLICY));
+    assertEquals(1, array[0], 0.0);
+    assertEquals(2, array[1], 0.0);
+  }
+
+  private static double[] randomWithMissing(Random random, int size) {
+    double[] array = new double[size];
+    for (int i = 0; i < size; i++) {
+      int r = random.nextInt(20);
+      array[i] = r == 0 ? Dval.DVAL_DOUBLE : r == 1 ? Double.NaN : Math.floor(random.nextGaussian() * 100);
+    }
+    return array;
+  }
+}
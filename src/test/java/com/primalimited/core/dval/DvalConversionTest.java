@@ -0,0 +1,174 @@
+package com.primalimited.core.dval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.DvalConversion.Overflow;
+import com.primalimited.core.dval.DvalConversion.Rounding;
+
+public class DvalConversionTest {
+  @Test
+  public void floatToDoubleTranslatesDval() {
+    float[] src = new float[] { 1.5f, Dval.DVAL_FLOAT, -2.25f, Float.NaN };
+    double[] dst = new double[src.length];
+    DvalConversion.convert(src, dst);
+    assertEquals(1.5, dst[0], 1e-10);
+    assertEquals(Dval.DVAL_DOUBLE, dst[1], 1e-10);
+    assertEquals(-2.25, dst[2], 1e-10);
+    assertEquals(Double.NaN, dst[3]);
+  }
+
+  @Test
+  public void integerWideningTranslatesDval() {
+    int[] ints = new int[] { 7, Dval.DVAL_INT, Integer.MIN_VALUE };
+    long[] longs = new long[ints.length];
+    DvalConversion.convert(ints, longs);
+    assertEquals(7L, longs[0]);
+    assertEquals(Dval.DVAL_LONG, longs[1]);
+    assertEquals(Integer.MIN_VALUE, longs[2]);
+
+    byte[] bytes = new byte[] { 3, Dval.DVAL_BYTE };
+    double[] doubles = new double[bytes.length];
+    DvalConversion.convert(bytes, doubles);
+    assertEquals(3.0, doubles[0], 1e-10);
+    assertEquals(Dval.DVAL_DOUBLE, doubles[1], 1e-10);
+
+    float[] floats = new float[ints.length];
+    DvalConversion.convert(ints, floats);
+    assertEquals(Dval.DVAL_FLOAT, floats[1], 0f);
+  }
+
+  @Test
+  public void doubleToFloatOverflow() {
+    double[] src = new double[] { Dval.DVAL_DOUBLE, 1e300, -1e300, Double.POSITIVE_INFINITY, 2.5 };
+    float[] dst = new float[src.length];
+
+    DvalConversion.convert(src, dst);
+    assertEquals(Dval.DVAL_FLOAT, dst[0], 0f);
+    assertEquals(Dval.DVAL_FLOAT, dst[1], 0f);
+    assertEquals(Dval.DVAL_FLOAT, dst[2], 0f);
+    assertEquals(Float.POSITIVE_INFINITY, dst[3], 0f);
+    assertEquals(2.5f, dst[4], 0f);
+
+    DvalConversion.convert(src, dst, Overflow.SATURATE);
+    assertEquals(Float.MAX_VALUE, dst[1], 0f);
+    assertEquals(-Float.MAX_VALUE, dst[2], 0f);
+  }
+
+  @Test
+  public void validDoubleNeverBecomesFloatDval() {
+    double[] src = new double[] { Dval.DVAL_FLOAT };
+    float[] dst = new float[1];
+    DvalConversion.convert(src, dst);
+    assertEquals(false, Dval.isDval(dst[0]));
+  }
+
+  @Test
+  public void doubleToIntRounding() {
+    double[] src = new double[] { 2.5, -2.5, 2.7, -2.7 };
+    int[] dst = new int[src.length];
+
+    DvalConversion.convert(src, dst);
+    assertEquals(2, dst[0]);
+    assertEquals(-2, dst[1]);
+    assertEquals(2, dst[2]);
+    assertEquals(-2, dst[3]);
+
+    DvalConversion.convert(src, dst, Overflow.DVAL, Rounding.NEAREST);
+    assertEquals(2, dst[0]);
+    assertEquals(-2, dst[1]);
+    assertEquals(3, dst[2]);
+    assertEquals(-3, dst[3]);
+
+    DvalConversion.convert(src, dst, Overflow.DVAL, Rounding.FLOOR);
+    assertEquals(2, dst[0]);
+    assertEquals(-3, dst[1]);
+
+    DvalConversion.convert(src, dst, Overflow.DVAL, Rounding.CEILING);
+    assertEquals(3, dst[0]);
+    assertEquals(-2, dst[1]);
+  }
+
+  @Test
+  public void doubleToIntOverflow() {
+    double[] src = new double[] { Dval.DVAL_DOUBLE, Double.NaN, 1e12, -1e12, Integer.MAX_VALUE };
+    int[] dst = new int[src.length];
+
+    DvalConversion.convert(src, dst);
+    for (int value : dst)
+      assertEquals(Dval.DVAL_INT, value);
+
+    DvalConversion.convert(src, dst, Overflow.SATURATE, Rounding.TRUNCATE);
+    assertEquals(Dval.DVAL_INT, dst[0]);
+    assertEquals(Dval.DVAL_INT, dst[1]);
+    assertEquals(Dval.DVAL_INT - 1, dst[2]);
+    assertEquals(Integer.MIN_VALUE, dst[3]);
+    assertEquals(Dval.DVAL_INT - 1, dst[4]);
+  }
+
+  @Test
+  public void doubleToLongOverflow() {
+    double[] src = new double[] { 1e19, -1e19, 1234.9, Double.NEGATIVE_INFINITY };
+    long[] dst = new long[src.length];
+
+    DvalConversion.convert(src, dst, Overflow.SATURATE, Rounding.TRUNCATE);
+    assertEquals(Dval.DVAL_LONG - 1, dst[0]);
+    assertEquals(Long.MIN_VALUE, dst[1]);
+    assertEquals(1234L, dst[2]);
+    assertEquals(Long.MIN_VALUE, dst[3]);
+
+    DvalConversion.convert(src, dst);
+    assertEquals(Dval.DVAL_LONG, dst[0]);
+    assertEquals(Dval.DVAL_LONG, dst[3]);
+  }
+
+  @Test
+  public void floatToByte() {
+    float[] src = new float[] { Dval.DVAL_FLOAT, 12.6f, 300f, -300f };
+    byte[] dst = new byte[src.length];
+
+    DvalConversion.convert(src, dst, Overflow.SATURATE, Rounding.NEAREST);
+    assertEquals(Dval.DVAL_BYTE, dst[0]);
+    assertEquals((byte) 13, dst[1]);
+    assertEquals(Byte.MAX_VALUE, dst[2]);
+    assertEquals((byte) (Dval.DVAL_BYTE + 1), dst[3]);
+  }
+
+  @Test
+  public void integerNarrowing() {
+    long[] longs = new long[] { Dval.DVAL_LONG, 42L, Integer.MAX_VALUE, Long.MIN_VALUE };
+    int[] ints = new int[longs.length];
+
+    DvalConversion.convert(longs, ints);
+    assertEquals(Dval.DVAL_INT, ints[0]);
+    assertEquals(42, ints[1]);
+    assertEquals(Dval.DVAL_INT, ints[2]);
+    assertEquals(Dval.DVAL_INT, ints[3]);
+
+    DvalConversion.convert(longs, ints, Overflow.SATURATE);
+    assertEquals(Dval.DVAL_INT, ints[0]);
+    assertEquals(Dval.DVAL_INT - 1, ints[2]);
+    assertEquals(Integer.MIN_VALUE, ints[3]);
+
+    int[] src = new int[] { Dval.DVAL_INT, -128, 127 };
+    byte[] bytes = new byte[src.length];
+    DvalConversion.convert(src, bytes, Overflow.SATURATE);
+    assertEquals(Dval.DVAL_BYTE, bytes[0]);
+    assertEquals((byte) -127, bytes[1]);
+    assertEquals((byte) 127, bytes[2]);
+  }
+
+  @Test
+  public void destinationTooShortThrows() {
+    assertThrows(IllegalArgumentException.class,
+        () -> DvalConversion.convert(new float[4], new double[3]));
+  }
+
+  @Test
+  public void nullPolicyThrows() {
+    assertThrows(NullPointerException.class,
+        () -> DvalConversion.convert(new double[1], new int[1], null, Rounding.FLOOR));
+  }
+}
@@ -0,0 +1,56 @@
+package com.primalimited.core.dval;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class MissingValuePolicyTest {
+  @Test
+  public void defaultPolicyMatchesDvalIsValid() {
+    MissingValuePolicy policy = MissingValuePolicy.defaultPolicy();
+    assertEquals(MissingValuePolicy.DVAL_OR_NAN, policy);
+    double[] values = new double[] {
+        0, -1.5, 1e300, Dval.DVAL_DOUBLE, Double.NaN,
+        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+    for (double value : values)
+      assertEquals(Dval.isValid.test(value), policy.isValid(value));
+  }
+
+  @Test
+  public void nanOnly() {
+    MissingValuePolicy policy = MissingValuePolicy.NAN_ONLY;
+    assertTrue(policy.isValid(Dval.DVAL_DOUBLE));
+    assertTrue(policy.isValid(2.0));
+    assertFalse(policy.isValid(Double.NaN));
+    assertFalse(policy.isValid(Double.NEGATIVE_INFINITY));
+    assertTrue(policy.isMissing(Double.NaN));
+  }
+
+  @Test
+  public void dvalOnly() {
+    MissingValuePolicy policy = MissingValuePolicy.DVAL_ONLY;
+    assertFalse(policy.isValid(Dval.DVAL_DOUBLE));
+    assertTrue(policy.isValid(2.0));
+    assertTrue(policy.isValid(Double.NaN));
+  }
+
+  @Test
+  public void predicate() {
+    assertTrue(MissingValuePolicy.NAN_ONLY.test(3.0));
+    assertFalse(MissingValuePolicy.NAN_ONLY.negate().test(3.0));
+  }
+
+  @Test
+  public void arrayQueries() {
+    double[] array = new double[] { 1, Double.NaN, 3 };
+    assertTrue(Dval.hasMissing(array, MissingValuePolicy.NAN_ONLY));
+    assertFalse(Dval.hasMissing(array, MissingValuePolicy.DVAL_ONLY));
+    assertTrue(Dval.hasAnyValid(array, MissingValuePolicy.NAN_ONLY));
+    assertFalse(Dval.allValuesAreMissing(array, MissingValuePolicy.NAN_ONLY));
+    assertTrue(Dval.allValuesAreMissing(new double[] { Double.NaN }, MissingValuePolicy.NAN_ONLY));
+    assertTrue(Dval.allValuesAreMissing(new double[0], MissingValuePolicy.NAN_ONLY));
+  }
+}
@@ -0,0 +1,189 @@
+package com.primalimited.core.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.dval.Dval;
+
+public class KdTreeTest {
+  private static final DistanceMetric[] METRICS = {
+      DistanceMetric.EUCLIDEAN, DistanceMetric.SQUARED_EUCLIDEAN, DistanceMetric.MANHATTAN,
+  };
+
+  /* sorted distances from the query to every valid point */
+  private static double[] bruteForce(double[] x, double[] y, double qx, double qy, DistanceMetric metric) {
+    double[] distances = new double[x.length];
+    for (int i = 0; i < x.length; i++)
+      distances[i] = metric.distance(qx - x[i], qy - y[i]);
+    Arrays.sort(distances);
+    return distances;
+  }
+
+  @Test
+  public void nearestMatchesBruteForce() {
+    Random random = new Random(50);
+    for (int n : new int[] { 1, 2, 3, 10, 1_000 }) {
+      double[] x = new double[n];
+      double[] y = new double[n];
+      for (int i = 0; i < n; i++) {
+        /* coarse grid, so there are duplicates and ties */
+        x[i] = random.nextInt(50);
+        y[i] = random.nextInt(50);
+      }
+      for (DistanceMetric metric : METRICS) {
+        KdTree tree = KdTree.of(x, y, metric);
+        assertEquals(n, tree.size());
+        for (int q = 0; q < 50; q++) {
+          double qx = random.nextDouble() * 60 - 5;
+          double qy = random.nextDouble() * 60 - 5;
+          double[] expected = bruteForce(x, y, qx, qy, metric);
+          int k = 1 + random.nextInt(12);
+          KdTree.Neighbors neighbors = tree.nearest(qx, qy, k);
+          assertEquals(Math.min(k, n), neighbors.size());
+          for (int j = 0; j < neighbors.size(); j++) {
+            assertEquals(expected[j], neighbors.getDistance(j), 0.0);
+            int i = neighbors.getIndex(j);
+            assertEquals(metric.distance(qx - x[i], qy - y[i]), neighbors.getDistance(j), 0.0);
+          }
+          int nearest = tree.nearest(qx, qy);
+          assertEquals(expected[0], metric.distance(qx - x[nearest], qy - y[nearest]), 0.0);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void adversarialLayouts() {
+    int n = 20_000;
+    Random random = new Random(52);
+    for (int layout = 0; layout < 4; layout++) {
+      double[] x = new double[n];
+      double[] y = new double[n];
+      for (int i = 0; i < n; i++) {
+        switch (layout) {
+          case 0: x[i] = i; y[i] = i; break; // sorted
+          case 1: x[i] = n - i; y[i] = i; break; // reversed
+          case 2: x[i] = Math.min(i, n - i); y[i] = Math.min(i, n - i); break; // organ pipe
+          default: x[i] = i % 7; y[i] = i % 5; break; // few distinct keys
+        }
+      }
+      KdTree tree = KdTree.of(x, y, DistanceMetric.EUCLIDEAN);
+      assertEquals(n, tree.size());
+      for (int q = 0; q < 20; q++) {
+        double qx = random.nextDouble() * n;
+        double qy = random.nextDouble() * n;
+        double[] expected = bruteForce(x, y, qx, qy, DistanceMetric.EUCLIDEAN);
+        KdTree.Neighbors neighbors = tree.nearest(qx, qy, 5);
+        for (int j = 0; j < neighbors.size(); j++)
+          assertEquals(expected[j], neighbors.getDistance(j), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void radiusMatchesBruteForce() {
+    Random random = new Random(51);
+    int n = 2_000;
+    double[] x = new double[n];
+    double[] y = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = random.nextInt(100);
+      y[i] = random.nextInt(100);
+    }
+    for (DistanceMetric metric : METRICS) {
+      KdTree tree = KdTree.of(x, y, metric);
+      for (int q = 0; q < 30; q++) {
+        double qx = random.nextInt(100);
+        double qy = random.nextInt(100);
+        double radius = metric == DistanceMetric.SQUARED_EUCLIDEAN ? 25 : 5;
+        double[] all = bruteForce(x, y, qx, qy, metric);
+        int expected = 0;
+        while (expected < all.length && all[expected] <= radius)
+          expected++;
+        KdTree.Neighbors found = tree.withinRadius(qx, qy, radius);
+        assertEquals(expected, found.size());
+        assertArrayEquals(Arrays.copyOf(all, expected), found.getDistances(), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void parallelBatches() {
+    Random random = new Random(52);
+    int n = 100_000;
+    double[] x = new double[n];
+    double[] y = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = random.nextDouble();
+      y[i] = random.nextDouble();
+    }
+    KdTree tree = KdTree.parallel(x, y, DistanceMetric.SQUARED_EUCLIDEAN);
+    KdTree sequential = KdTree.of(x, y, DistanceMetric.SQUARED_EUCLIDEAN);
+    int queries = 500;
+    int k = 4;
+    double[] qx = new double[queries];
+    double[] qy = new double[queries];
+    for (int q = 0; q < queries; q++) {
+      qx[q] = random.nextDouble();
+      qy[q] = random.nextDouble();
+    }
+    int[] indices = new int[queries * k];
+    double[] distances = new double[queries * k];
+    int[] counts = tree.parallelNearest(qx, qy, k, indices, distances);
+    KdTree.Neighbors[] within = tree.parallelWithinRadius(qx, qy, 1e-4);
+    for (int q = 0; q < queries; q++) {
+      assertEquals(k, counts[q]);
+      KdTree.Neighbors expected = sequential.nearest(qx[q], qy[q], k);
+      for (int j = 0; j < k; j++)
+        assertEquals(expected.getDistance(j), distances[q * k + j], 0.0);
+      assertEquals(sequential.withinRadius(qx[q], qy[q], 1e-4).size(), within[q].size());
+    }
+  }
+
+  @Test
+  public void invalidPointsAndQueries() {
+    double[] x = { 0, Double.NaN, 3, Dval.DVAL_DOUBLE, Double.POSITIVE_INFINITY };
+    double[] y = { 0, 1, 4, 1, 1 };
+    KdTree tree = KdTree.of(x, y);
+    assertEquals(2, tree.size());
+    assertEquals(2, tree.nearest(3, 3.5));
+    KdTree.Neighbors neighbors = tree.nearest(0, 0, 5);
+    assertArrayEquals(new int[] { 0, 2 }, neighbors.getIndices());
+    assertArrayEquals(new double[] { 0, 5 }, neighbors.getDistances(), 1e-12);
+
+    int[] indices = new int[4];
+    double[] distances = new double[4];
+    assertEquals(2, tree.nearest(0, 0, 3, indices, distances, 1));
+    assertArrayEquals(new int[] { 0, 0, 2, -1 }, indices);
+    assertEquals(Dval.DVAL_DOUBLE, distances[3], 0.0);
+    assertEquals(0, tree.nearest(Double.NaN, 0, 1, indices, distances, 0));
+    assertEquals(-1, tree.nearest(Dval.DVAL_DOUBLE, 0));
+    assertEquals(0, tree.withinRadius(Double.NaN, 0, 10).size());
+
+    KdTree empty = KdTree.of(new Coordinate[] { null });
+    assertEquals(0, empty.size());
+    assertEquals(-1, empty.nearest(0, 0));
+    assertEquals(0, empty.nearest(0, 0, 3).size());
+
+    assertThrows(IllegalArgumentException.class, () -> KdTree.of(new double[1], new double[2]));
+    assertThrows(IllegalArgumentException.class, () -> tree.nearest(0, 0, 0));
+    assertThrows(IllegalArgumentException.class, () -> tree.withinRadius(0, 0, -1));
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.nearest(0, 0, 2, new int[2], new double[2], 1));
+    assertThrows(IllegalArgumentException.class, () -> tree.parallelNearest(new double[2], new double[2], 2, new int[3], new double[4]));
+  }
+
+  @Test
+  public void coordinates() {
+    Coordinate[] coordinates = { Coordinate.of(0, 0), Coordinate.of(10, 10), Coordinate.of(5, 5) };
+    KdTree tree = KdTree.of(coordinates, DistanceMetric.MANHATTAN);
+    assertEquals(2, tree.nearest(6, 6));
+    assertTrue(tree.getMetric() == DistanceMetric.MANHATTAN);
+  }
+}
@@ -0,0 +1,79 @@
+package com.primalimited.core.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds2D;
+
+public class LazySpatialTest {
+  @Test
+  public void computedOnceAndCopied() {
+    AtomicInteger calls = new AtomicInteger();
+    LazySpatial lazy = LazySpatial.of(() -> {
+      calls.incrementAndGet();
+      return Bounds2D.from(new double[] { 0, 5 }, new double[] { 1, 2 });
+    });
+    assertFalse(lazy.isComputed());
+    Bounds2D bounds = lazy.getBounds();
+    assertEquals(Bounds2D.create(0, 5, 1, 2).snapshot(), bounds.snapshot());
+    assertTrue(lazy.isComputed());
+    bounds.expandTo(100, 100);
+    assertEquals(Bounds2D.create(0, 5, 1, 2).snapshot(), lazy.getBounds().snapshot());
+    assertNotSame(lazy.getBounds(), lazy.getBounds());
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  public void invalidateAndVersion() {
+    double[] x = { 0, 1 };
+    AtomicLong version = new AtomicLong();
+    AtomicInteger calls = new AtomicInteger();
+    LazySpatial lazy = LazySpatial.of(() -> {
+      calls.incrementAndGet();
+      return Bounds2D.from(x, x);
+    }, version::get);
+    assertEquals(1, lazy.getBounds().getMaxX(), 0.0);
+    x[1] = 7;
+    assertEquals(1, lazy.getBounds().getMaxX(), 0.0);
+    version.set(1);
+    assertEquals(7, lazy.getBounds().getMaxX(), 0.0);
+    lazy.invalidate();
+    assertFalse(lazy.isComputed());
+    assertEquals(7, lazy.getBounds().getMaxY(), 0.0);
+    assertEquals(3, calls.get());
+  }
+
+  @Test
+  public void invalidateDuringComputationIsNotLost() {
+    double[] x = { 0, 1 };
+    AtomicInteger calls = new AtomicInteger();
+    LazySpatial[] holder = new LazySpatial[1];
+    holder[0] = LazySpatial.of(() -> {
+      Bounds2D bounds = Bounds2D.from(x, x);
+      if (calls.incrementAndGet() == 1) {
+        x[1] = 4;
+        holder[0].invalidate();
+      }
+      return bounds;
+    });
+    LazySpatial lazy = holder[0];
+    assertEquals(1, lazy.getBounds().getMaxX(), 0.0);
+    assertFalse(lazy.isComputed());
+    assertEquals(4, lazy.getBounds().getMaxX(), 0.0);
+    assertTrue(lazy.isComputed());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  public void invalidBounds() {
+    LazySpatial lazy = LazySpatial.of(Bounds2D::empty);
+    assertFalse(lazy.getBounds().isValid());
+  }
+}
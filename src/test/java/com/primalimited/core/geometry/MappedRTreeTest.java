@@ -0,0 +1,158 @@
+package com.primalimited.core.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds2D;
+
+public class MappedRTreeTest {
+  private static int[] sorted(List<Integer> list) {
+    int[] array = list.stream().mapToInt(Integer::intValue).toArray();
+    Arrays.sort(array);
+    return array;
+  }
+
+  @Test
+  public void matchesBruteForce() throws IOException {
+    Random random = new Random(48);
+    Path path = Files.createTempFile("rtree", ".idx");
+    try {
+      for (int n : new int[] { 0, 1, 16, 17, 2_000 }) {
+        Bounds2D[] items = new Bounds2D[n];
+        for (int i = 0; i < n; i++) {
+          double x = random.nextInt(1000);
+          double y = random.nextInt(1000);
+          items[i] = Bounds2D.create(x, x + random.nextInt(20), y, y + random.nextInt(20));
+        }
+        assertEquals(n, MappedRTree.write(path, items));
+        MappedRTree tree = MappedRTree.open(path);
+        assertEquals(n, tree.size());
+        for (int q = 0; q < 50; q++) {
+          double x = random.nextInt(1100) - 50;
+          double y = random.nextInt(1100) - 50;
+          Bounds2D query = Bounds2D.create(x, x + random.nextInt(200), y, y + random.nextInt(200));
+          List<Integer> expected = new ArrayList<>();
+          for (int i = 0; i < n; i++)
+            if (items[i].intersects(query))
+              expected.add(i);
+          List<Integer> found = new ArrayList<>();
+          assertTrue(tree.intersects(query, found::add));
+          assertArrayEquals(sorted(expected), sorted(found));
+          int[] array = tree.intersects(query);
+          Arrays.sort(array);
+          assertArrayEquals(sorted(expected), array);
+        }
+      }
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void smallChunksMatchSingleChunk() throws IOException {
+    Random random = new Random(49);
+    int n = 5_000;
+    double[] minX = new double[n];
+    double[] maxX = new double[n];
+    double[] minY = new double[n];
+    double[] maxY = new double[n];
+    for (int i = 0; i < n; i++) {
+      minX[i] = random.nextInt(1000);
+      maxX[i] = minX[i] + random.nextInt(20);
+      minY[i] = random.nextInt(1000);
+      maxY[i] = minY[i] + random.nextInt(20);
+    }
+    Path path = Files.createTempFile("rtree", ".idx");
+    try {
+      /* 256-byte chunks: boxes, indices and ends each span many chunks */
+      assertEquals(n, MappedRTree.write(path, minX, maxX, minY, maxY, 8, 8));
+      MappedRTree chunked = MappedRTree.open(path, 8);
+      MappedRTree whole = MappedRTree.open(path);
+      MappedRTree wrapped = MappedRTree.wrap(ByteBuffer.wrap(Files.readAllBytes(path)), 8);
+      assertEquals(whole.getBounds().snapshot(), chunked.getBounds().snapshot());
+      for (int q = 0; q < 50; q++) {
+        double x = random.nextInt(1100) - 50;
+        double y = random.nextInt(1100) - 50;
+        Bounds2D query = Bounds2D.create(x, x + random.nextInt(200), y, y + random.nextInt(200));
+        List<Integer> brute = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+          if (Bounds2D.create(minX[i], maxX[i], minY[i], maxY[i]).intersects(query))
+            brute.add(i);
+        int[] expected = sorted(brute);
+        int[] found = whole.intersects(query);
+        Arrays.sort(found);
+        assertArrayEquals(expected, found);
+        found = chunked.intersects(query);
+        Arrays.sort(found);
+        assertArrayEquals(expected, found);
+        found = wrapped.intersects(query);
+        Arrays.sort(found);
+        assertArrayEquals(expected, found);
+      }
+      assertThrows(IllegalArgumentException.class, () -> MappedRTree.open(path, 4));
+      assertThrows(IllegalArgumentException.class, () -> MappedRTree.open(path, 31));
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void boundsAndEarlyTermination() throws IOException {
+    Path path = Files.createTempFile("rtree", ".idx");
+    try {
+      double[] minX = { 0, 5, Double.NaN, 2 };
+      double[] maxX = { 1, 6, 1, 3 };
+      double[] minY = { 0, 5, 0, -2 };
+      double[] maxY = { 1, 6, 1, -1 };
+      assertEquals(3, MappedRTree.write(path, minX, maxX, minY, maxY, 2));
+      MappedRTree tree = MappedRTree.open(path);
+      assertEquals(2, tree.getNodeSize());
+      assertEquals(Bounds2D.create(0, 6, -2, 6).snapshot(), tree.getBounds().snapshot());
+      int[] visits = { 0 };
+      assertFalse(tree.intersects(Bounds2D.create(-10, 10, -10, 10), index -> ++visits[0] < 2));
+      assertEquals(2, visits[0]);
+      assertEquals(0, tree.intersects(Bounds2D.empty()).length);
+
+      /* the same bytes wrapped from a heap buffer */
+      MappedRTree copy = MappedRTree.wrap(ByteBuffer.wrap(Files.readAllBytes(path)));
+      assertArrayEquals(new int[] { 1 }, copy.intersects(Bounds2D.create(6, 7, 6, 7)));
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void invalidFiles() {
+    Path unused = Paths.get(System.getProperty("java.io.tmpdir"), "never-written.idx");
+    assertThrows(IOException.class, () -> MappedRTree.wrap(ByteBuffer.allocate(8)));
+    assertThrows(IOException.class, () -> MappedRTree.wrap(ByteBuffer.allocate(64)));
+    assertThrows(IllegalArgumentException.class,
+        () -> MappedRTree.write(unused, new double[1], new double[1], new double[1], new double[1], 1));
+  }
+
+  @Test
+  public void hilbertVisitsAdjacentCells() {
+    int n = 1 << 4;
+    int[][] cells = new int[n * n][];
+    for (int x = 0; x < n; x++)
+      for (int y = 0; y < n; y++)
+        cells[(int) MappedRTree.hilbert(x, y)] = new int[] { x, y };
+    for (int h = 1; h < cells.length; h++)
+      assertEquals(1, Math.abs(cells[h][0] - cells[h - 1][0]) + Math.abs(cells[h][1] - cells[h - 1][1]));
+  }
+}
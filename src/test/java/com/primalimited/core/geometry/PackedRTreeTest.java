@@ -0,0 +1,118 @@
+package com.primalimited.core.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds2D;
+
+public class PackedRTreeTest {
+  private static Bounds2D[] randomBounds(Random random, int n) {
+    Bounds2D[] bounds = new Bounds2D[n];
+    for (int i = 0; i < n; i++) {
+      /* integer coordinates, so many rectangles share edges */
+      double x = random.nextInt(1000);
+      double y = random.nextInt(1000);
+      bounds[i] = Bounds2D.create(x, x + random.nextInt(20), y, y + random.nextInt(20));
+    }
+    return bounds;
+  }
+
+  private static int[] sorted(List<Integer> list) {
+    int[] array = list.stream().mapToInt(Integer::intValue).toArray();
+    Arrays.sort(array);
+    return array;
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    Random random = new Random(47);
+    for (int n : new int[] { 0, 1, 2, 15, 16, 17, 300, 5_000 }) {
+      Bounds2D[] items = randomBounds(random, n);
+      for (int nodeSize : new int[] { 2, 4, 16 }) {
+        double[] minX = new double[n], maxX = new double[n], minY = new double[n], maxY = new double[n];
+        for (int i = 0; i < n; i++) {
+          minX[i] = items[i].getMinX();
+          maxX[i] = items[i].getMaxX();
+          minY[i] = items[i].getMinY();
+          maxY[i] = items[i].getMaxY();
+        }
+        PackedRTree tree = PackedRTree.of(minX, maxX, minY, maxY, nodeSize);
+        assertEquals(n, tree.size());
+        for (int q = 0; q < 50; q++) {
+          double x = random.nextInt(1100) - 50;
+          double y = random.nextInt(1100) - 50;
+          Bounds2D query = Bounds2D.create(x, x + random.nextInt(200), y, y + random.nextInt(200));
+          if (q % 10 == 0 && n > 0)
+            query = Bounds2D.from(items[random.nextInt(n)]);
+          List<Integer> intersects = new ArrayList<>(), contains = new ArrayList<>(), within = new ArrayList<>();
+          for (int i = 0; i < n; i++) {
+            if (items[i].intersects(query))
+              intersects.add(i);
+            if (items[i].contains(query))
+              contains.add(i);
+            if (query.contains(items[i]))
+              within.add(i);
+          }
+          List<Integer> found = new ArrayList<>();
+          assertTrue(tree.intersects(query, found::add));
+          assertArrayEquals(sorted(intersects), sorted(found));
+          int[] array = tree.intersects(query);
+          Arrays.sort(array);
+          assertArrayEquals(sorted(intersects), array);
+          found.clear();
+          tree.contains(query, found::add);
+          assertArrayEquals(sorted(contains), sorted(found));
+          found.clear();
+          tree.within(query, found::add);
+          assertArrayEquals(sorted(within), sorted(found));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void earlyTermination() {
+    Bounds2D[] items = randomBounds(new Random(1), 1_000);
+    PackedRTree tree = PackedRTree.of(items);
+    int[] visits = { 0 };
+    assertFalse(tree.intersects(Bounds2D.create(0, 1000, 0, 1000), index -> ++visits[0] < 5));
+    assertEquals(5, visits[0]);
+  }
+
+  @Test
+  public void invalidItemsAndQueries() {
+    Bounds2D[] items = { Bounds2D.create(0, 1, 0, 1), Bounds2D.empty(), null, Bounds2D.create(2, 3, 2, 3) };
+    PackedRTree tree = PackedRTree.of(items);
+    assertEquals(2, tree.size());
+    assertEquals(Bounds2D.create(0, 3, 0, 3).snapshot(), tree.getBounds().snapshot());
+    assertArrayEquals(new int[] { 3 }, tree.intersects(Bounds2D.create(1.5, 2, 1.5, 2)));
+    assertEquals(0, tree.intersects(Bounds2D.empty()).length);
+    assertTrue(tree.within(Double.NaN, 1, 0, 1, index -> false));
+
+    PackedRTree empty = PackedRTree.of(new Bounds2D[0]);
+    assertEquals(0, empty.size());
+    assertFalse(empty.getBounds().isValid());
+    assertEquals(0, empty.intersects(Bounds2D.create(0, 1, 0, 1)).length);
+    assertThrows(IllegalArgumentException.class, () -> PackedRTree.of(new double[1], new double[1], new double[1], new double[2]));
+    assertThrows(IllegalArgumentException.class, () -> PackedRTree.of(new double[1], new double[1], new double[1], new double[1], 1));
+  }
+
+  @Test
+  public void fromSpatial() {
+    List<Spatial> features = new ArrayList<>();
+    features.add(() -> Bounds2D.create(0, 1, 0, 1));
+    features.add(() -> Bounds2D.create(5, 6, 5, 6));
+    PackedRTree tree = PackedRTree.of(features);
+    assertArrayEquals(new int[] { 1 }, tree.intersects(Bounds2D.create(4, 5, 4, 5)));
+  }
+}
@@ -0,0 +1,157 @@
+package com.primalimited.core.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds2D;
+import com.primalimited.core.dval.Dval;
+
+public class PointQuadtreeTest {
+  private static final Bounds2D EXTENT = Bounds2D.create(0, 100, 0, 100);
+
+  @Test
+  public void insertQueryDelete() {
+    PointQuadtree tree = PointQuadtree.create(EXTENT, 2, 8);
+    assertTrue(tree.insert(1, 10, 10));
+    assertTrue(tree.insert(2, 20, 20));
+    assertTrue(tree.insert(3, 80, 80));
+    assertTrue(tree.insert(4, 50, 50));
+    assertTrue(tree.insert(5, 100, 0));
+    assertFalse(tree.insert(6, 101, 0));
+    assertFalse(tree.insert(7, Double.NaN, 0));
+    assertFalse(tree.insert(8, Dval.DVAL_DOUBLE, 0));
+    assertEquals(5, tree.size());
+
+    int[] found = tree.query(Bounds2D.create(0, 50, 0, 50));
+    Arrays.sort(found);
+    assertArrayEquals(new int[] { 1, 2, 4 }, found);
+    assertEquals(0, tree.query(Bounds2D.empty()).length);
+
+    assertFalse(tree.delete(2, 20, 21));
+    assertFalse(tree.delete(9, 20, 20));
+    assertTrue(tree.delete(2, 20, 20));
+    assertEquals(4, tree.size());
+    found = tree.query(EXTENT);
+    Arrays.sort(found);
+    assertArrayEquals(new int[] { 1, 3, 4, 5 }, found);
+
+    assertTrue(tree.move(1, 10, 10, 90, 90));
+    assertFalse(tree.move(1, 10, 10, 90, 90));
+    assertFalse(tree.move(3, 80, 80, 200, 200));
+    found = tree.query(Bounds2D.create(75, 100, 75, 100));
+    Arrays.sort(found);
+    assertArrayEquals(new int[] { 1, 3 }, found);
+
+    tree.clear();
+    assertTrue(tree.isEmpty());
+  }
+
+  @Test
+  public void duplicatePointsDoNotSubdivide() {
+    PointQuadtree tree = PointQuadtree.create(EXTENT, 4, 30);
+    for (int i = 0; i < 1_000; i++)
+      assertTrue(tree.insert(i, 33.3, 33.3));
+    assertEquals(1_000, tree.size());
+    assertEquals(1_000, tree.query(Bounds2D.create(33.3, 33.3, 33.3, 33.3)).length);
+    assertTrue(tree.toString().endsWith("nodes=1"));
+    for (int i = 0; i < 1_000; i++)
+      assertTrue(tree.delete(i, 33.3, 33.3));
+    assertTrue(tree.isEmpty());
+  }
+
+  @Test
+  public void nearlyCoincidentPointsStopAtMaxDepth() {
+    PointQuadtree tree = PointQuadtree.create(EXTENT, 1, 5);
+    tree.insert(1, 50, 50);
+    tree.insert(2, Math.nextUp(50.0), 50);
+    tree.insert(3, 50, Math.nextUp(50.0));
+    assertEquals(3, tree.query(Bounds2D.create(49, 51, 49, 51)).length);
+  }
+
+  @Test
+  public void deleteCollapsesNodes() {
+    PointQuadtree tree = PointQuadtree.create(EXTENT, 4, 16);
+    for (int i = 0; i < 100; i++)
+      tree.insert(i, i, 100 - i);
+    assertFalse(tree.toString().endsWith("nodes=1"));
+    for (int i = 0; i < 97; i++)
+      tree.delete(i, i, 100 - i);
+    assertTrue(tree.toString().endsWith("nodes=1"));
+    assertEquals(3, tree.query(EXTENT).length);
+  }
+
+  @Test
+  public void earlyTermination() {
+    PointQuadtree tree = PointQuadtree.create(EXTENT);
+    for (int i = 0; i < 100; i++)
+      tree.insert(i, i, i);
+    int[] visits = { 0 };
+    assertFalse(tree.query(EXTENT, (id, x, y) -> ++visits[0] < 3));
+    assertEquals(3, visits[0]);
+  }
+
+  @Test
+  public void matchesBruteForce() {
+    Random random = new Random(49);
+    PointQuadtree tree = PointQuadtree.create(EXTENT, 4, 12);
+    int n = 3_000;
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    boolean[] present = new boolean[n];
+    for (int step = 0; step < 20_000; step++) {
+      int id = random.nextInt(n);
+      /* coarse grid, so many points coincide or lie on quadrant lines */
+      double x = random.nextInt(101);
+      double y = random.nextInt(101);
+      if (!present[id]) {
+        assertTrue(tree.insert(id, x, y));
+        present[id] = true;
+      } else if (random.nextBoolean()) {
+        assertTrue(tree.delete(id, xs[id], ys[id]));
+        present[id] = false;
+      } else {
+        assertTrue(tree.move(id, xs[id], ys[id], x, y));
+      }
+      xs[id] = x;
+      ys[id] = y;
+
+      if (step % 500 == 0) {
+        double qx = random.nextInt(100);
+        double qy = random.nextInt(100);
+        Bounds2D range = Bounds2D.create(qx, qx + random.nextInt(50), qy, qy + random.nextInt(50));
+        int expectedCount = 0;
+        for (int i = 0; i < n; i++)
+          if (present[i] && range.contains(xs[i], ys[i]))
+            expectedCount++;
+        int[] expected = new int[expectedCount];
+        int k = 0;
+        for (int i = 0; i < n; i++)
+          if (present[i] && range.contains(xs[i], ys[i]))
+            expected[k++] = i;
+        int[] found = tree.query(range);
+        Arrays.sort(found);
+        assertArrayEquals(expected, found);
+      }
+    }
+    int size = 0;
+    for (boolean p : present)
+      if (p)
+        size++;
+    assertEquals(size, tree.size());
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> PointQuadtree.create(Bounds2D.empty()));
+    assertThrows(IllegalArgumentException.class, () -> PointQuadtree.create(EXTENT, 0, 4));
+    assertThrows(IllegalArgumentException.class, () -> PointQuadtree.create(EXTENT, 4, 31));
+  }
+}
@@ -0,0 +1,105 @@
+package com.primalimited.core.geometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds2D;
+
+public class SpatialCollectionTest {
+  private static final class Feature implements Spatial {
+    private Bounds2D bounds;
+
+    Feature(double minX, double maxX, double minY, double maxY) {
+      this.bounds = Bounds2D.create(minX, maxX, minY, maxY);
+    }
+
+    @Override
+    public Bounds2D getBounds() {
+      return bounds;
+    }
+  }
+
+  @Test
+  public void addUpdateRemove() {
+    SpatialCollection<Feature> layer = SpatialCollection.create();
+    assertTrue(layer.isEmpty());
+    assertFalse(layer.getBounds().isValid());
+
+    Feature a = new Feature(0, 1, 0, 1);
+    Feature b = new Feature(5, 6, -2, 3);
+    int ha = layer.add(a);
+    int hb = layer.add(b);
+    assertEquals(2, layer.size());
+    assertSame(a, layer.get(ha));
+    assertEquals(Bounds2D.create(0, 6, -2, 3).snapshot(), layer.getBounds().snapshot());
+
+    b.bounds = Bounds2D.create(2, 3, 0, 0.5);
+    assertEquals(Bounds2D.create(0, 6, -2, 3).snapshot(), layer.getBounds().snapshot());
+    layer.update(hb);
+    assertEquals(Bounds2D.create(0, 3, 0, 1).snapshot(), layer.getBounds().snapshot());
+
+    assertSame(a, layer.remove(ha));
+    assertFalse(layer.contains(ha));
+    assertEquals(Bounds2D.create(2, 3, 0, 0.5).snapshot(), layer.getBounds().snapshot());
+    assertThrows(IllegalArgumentException.class, () -> layer.get(ha));
+    assertThrows(IllegalArgumentException.class, () -> layer.remove(ha));
+
+    /* freed handle is reused */
+    Feature c = new Feature(-1, 0, 0, 0);
+    assertEquals(ha, layer.add(c));
+    assertSame(c, layer.update(ha, new Feature(10, 11, 10, 11)));
+    assertEquals(Bounds2D.create(2, 11, 0, 11).snapshot(), layer.getBounds().snapshot());
+
+    layer.clear();
+    assertEquals(0, layer.size());
+    assertFalse(layer.isValid());
+  }
+
+  @Test
+  public void invalidFeatureBoundsIgnored() {
+    SpatialCollection<Spatial> layer = SpatialCollection.create();
+    layer.add(Bounds2D::empty);
+    assertEquals(1, layer.size());
+    assertFalse(layer.isValid());
+    layer.add(() -> Bounds2D.create(1, 2, 3, 4));
+    assertEquals(Bounds2D.create(1, 2, 3, 4).snapshot(), layer.getBounds().snapshot());
+  }
+
+  @Test
+  public void matchesRescan() {
+    Random random = new Random(46);
+    SpatialCollection<Feature> layer = SpatialCollection.create();
+    List<Integer> handles = new ArrayList<>();
+    for (int step = 0; step < 5_000; step++) {
+      int action = random.nextInt(4);
+      if (handles.isEmpty() || action < 2) {
+        double x = random.nextDouble() * 1000;
+        double y = random.nextDouble() * 1000;
+        handles.add(layer.add(new Feature(x, x + random.nextDouble(), y, y + random.nextDouble())));
+      } else if (action == 2) {
+        layer.remove(handles.remove(random.nextInt(handles.size())));
+      } else {
+        int handle = handles.get(random.nextInt(handles.size()));
+        double x = random.nextDouble() * 2000 - 500;
+        layer.get(handle).bounds = Bounds2D.create(x, x + 1, 0, 1);
+        layer.update(handle);
+      }
+      if (step % 97 == 0) {
+        Bounds2D expected = Bounds2D.empty();
+        for (int handle : handles)
+          expected.expandTo(layer.get(handle).getBounds());
+        assertEquals(expected.snapshot(), layer.getBounds().snapshot());
+        assertEquals(handles.size(), layer.size());
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package com.primalimited.core.series;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.dval.Dval;
+
+public class DecimationTest {
+  @Test
+  public void binsMatchGetBin() {
+    Random random = new Random(31);
+    int n = 10_000;
+    double[] x = new double[n];
+    double[] y = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = random.nextDouble() * 120 - 10;
+      y[i] = random.nextInt(50) == 0 ? Dval.DVAL_DOUBLE : random.nextGaussian();
+    }
+    Bounds xBounds = Bounds.of(0, 100);
+    int bins = 37;
+    Decimation decimation = Decimation.of(xBounds, bins, x, y);
+    assertEquals(bins, decimation.bins());
+
+    double[] min = new double[bins];
+    double[] max = new double[bins];
+    double[] first = new double[bins];
+    double[] last = new double[bins];
+    int[] count = new int[bins];
+    Arrays.fill(min, Double.POSITIVE_INFINITY);
+    Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    for (int i = 0; i < n; i++) {
+      int bin = xBounds.getBin(x[i], bins);
+      if (bin < 0 || !Dval.isValid.test(y[i]))
+        continue;
+      if (count[bin]++ == 0)
+        first[bin] = y[i];
+      last[bin] = y[i];
+      min[bin] = Math.min(min[bin], y[i]);
+      max[bin] = Math.max(max[bin], y[i]);
+    }
+
+    for (int bin = 0; bin < bins; bin++) {
+      assertEquals(count[bin], decimation.getCount(bin));
+      assertEquals(min[bin], decimation.getMin(bin), 0.0);
+      assertEquals(max[bin], decimation.getMax(bin), 0.0);
+      assertEquals(first[bin], decimation.getFirst(bin), 0.0);
+      assertEquals(last[bin], decimation.getLast(bin), 0.0);
+    }
+  }
+
+  @Test
+  public void parallelMatchesSequential() {
+    Random random = new Random(37);
+    int n = 1_000_000;
+    double[] x = new double[n];
+    double[] y = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = i;
+      y[i] = random.nextGaussian();
+    }
+    Bounds xBounds = Bounds.of(0, n - 1);
+    Decimation sequential = Decimation.of(xBounds, 2_000, x, y);
+    Decimation parallel = Decimation.parallel(xBounds, 2_000, x, y);
+    assertTrue(Arrays.equals(sequential.getMins(), parallel.getMins()));
+    assertTrue(Arrays.equals(sequential.getMaxes(), parallel.getMaxes()));
+    assertTrue(Arrays.equals(sequential.getFirsts(), parallel.getFirsts()));
+    assertTrue(Arrays.equals(sequential.getLasts(), parallel.getLasts()));
+    assertTrue(Arrays.equals(sequential.getCounts(), parallel.getCounts()));
+  }
+
+  @Test
+  public void emptyBinsHoldDval() {
+    double[] x = new double[] { 0.5, Dval.DVAL_DOUBLE, Double.NaN };
+    double[] y = new double[] { 3, 4, 5 };
+    Decimation decimation = Decimation.of(Bounds.of(0, 10), 10, x, y);
+    assertEquals(1, decimation.getCount(0));
+    assertEquals(3, decimation.getBounds(0).getMax(), 0.0);
+    assertEquals(0, decimation.getCount(1));
+    assertTrue(Dval.isDval(decimation.getMin(1)));
+    assertTrue(Dval.isDval(decimation.getLast(1)));
+    assertTrue(decimation.getBounds(1).isNull());
+  }
+
+  @Test
+  public void lttb() {
+    int n = 1_000;
+    double[] x = new double[n];
+    double[] y = new double[n];
+    for (int i = 0; i < n; i++) {
+      x[i] = i;
+      y[i] = Math.sin(i / 50.0);
+    }
+    y[500] = 10; // spike must survive
+    y[10] = Dval.DVAL_DOUBLE;
+
+    int[] kept = Decimation.lttb(x, y, 100);
+    assertEquals(100, kept.length);
+    assertEquals(0, kept[0]);
+    assertEquals(n - 1, kept[99]);
+    for (int i = 1; i < kept.length; i++)
+      assertTrue(kept[i] > kept[i - 1]);
+    assertTrue(Arrays.stream(kept).anyMatch(i -> i == 500));
+    assertTrue(Arrays.stream(kept).noneMatch(i -> i == 10));
+
+    assertEquals(n - 1, Decimation.lttb(x, y, 2_000).length);
+  }
+
+  @Test
+  public void invalidArguments() {
+    double[] values = new double[4];
+    assertThrows(IllegalArgumentException.class, () -> Decimation.of(Bounds.nullBounds(), 10, values, values));
+    assertThrows(IllegalArgumentException.class, () -> Decimation.of(Bounds.of(0, 1), 0, values, values));
+    assertThrows(IllegalArgumentException.class, () -> Decimation.parallel(Bounds.of(0, 1), 10, values, new double[3]));
+    assertThrows(IllegalArgumentException.class, () -> Decimation.lttb(values, new double[3], 10));
+  }
+}
@@ -0,0 +1,113 @@
+package com.primalimited.core.series;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.dval.Dval;
+
+public class FloatSeriesTest {
+  @Test
+  public void boundsFollowAppends() {
+    FloatSeries series = FloatSeries.create(0);
+    Bounds view = series.bounds();
+    assertTrue(view.isNull());
+    assertFalse(view.isValid());
+    assertTrue(series.getBounds().isNull());
+
+    series.add(Dval.DVAL_FLOAT);
+    series.add(Float.NaN);
+    assertEquals(2, series.size());
+    assertEquals(0, series.validCount());
+    assertTrue(view.isNull());
+
+    series.add(3);
+    assertSame(view, series.bounds());
+    assertEquals(3, view.getMin(), 0.0);
+    assertEquals(3, view.getMax(), 0.0);
+    assertEquals(0, view.getRange(), 0.0);
+
+    series.addAll(new float[] { 9, -1, Float.POSITIVE_INFINITY, 4 });
+    assertEquals(-1, view.getMin(), 0.0);
+    assertEquals(9, view.getMax(), 0.0);
+    assertEquals(10, view.getRange(), 0.0);
+    assertEquals(4, series.validCount());
+    assertThrows(IllegalStateException.class, () -> view.expandTo(100));
+
+    Bounds snapshot = series.getBounds();
+    series.add(-50);
+    assertEquals(-1, snapshot.getMin(), 0.0);
+    assertEquals(-50, view.getMin(), 0.0);
+    assertEquals(-50, Bounds.of(series).getMin(), 0.0);
+  }
+
+  @Test
+  public void matchesBoundsOfArray() {
+    Random random = new Random(43);
+    float[] values = new float[10_000];
+    FloatSeries series = FloatSeries.create();
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(20) == 0 ? Dval.DVAL_FLOAT : (float) random.nextGaussian();
+      if (i % 3 == 0)
+        series.add(values[i]);
+      else
+        series.addAll(values, i, i + 1);
+    }
+    double[] widened = new double[values.length];
+    for (int i = 0; i < values.length; i++)
+      widened[i] = Dval.isDval(values[i]) ? Dval.DVAL_DOUBLE : values[i];
+    Bounds expected = Bounds.of(widened);
+    assertEquals(expected.getMin(), series.getMin(), 0.0);
+    assertEquals(expected.getMax(), series.getMax(), 0.0);
+    assertEquals(values.length, series.size());
+    for (int i = 0; i < values.length; i++)
+      assertEquals(values[i], series.get(i), 0.0);
+    assertEquals(expected.getMin(), Bounds.of(FloatSeries.of(values)).getMin(), 0.0);
+  }
+
+  @Test
+  public void slices() {
+    FloatSeries series = FloatSeries.of(new float[] { 1, 2, 3, 4, 5 });
+    FloatBuffer slice = series.slice(1, 4);
+    assertEquals(3, slice.remaining());
+    assertEquals(2, slice.get(0), 0.0);
+    assertEquals(4, slice.get(2), 0.0);
+    assertTrue(slice.isReadOnly());
+    assertThrows(ReadOnlyBufferException.class, () -> slice.put(0, 7f));
+    assertEquals(5, series.asBuffer().remaining());
+    assertEquals(0, series.slice(5, 5).remaining());
+    assertThrows(IllegalArgumentException.class, () -> series.slice(2, 6));
+    assertThrows(IllegalArgumentException.class, () -> series.slice(3, 2));
+  }
+
+  @Test
+  public void clear() {
+    FloatSeries series = FloatSeries.of(new float[] { 1, 2 });
+    Bounds view = series.bounds();
+    series.clear();
+    assertTrue(series.isEmpty());
+    assertTrue(view.isNull());
+    assertEquals(0, series.toArray().length);
+    series.add(7);
+    assertEquals(7, view.getMin(), 0.0);
+    assertEquals(1, series.toArray().length);
+  }
+
+  @Test
+  public void invalidArguments() {
+    FloatSeries series = FloatSeries.create();
+    assertThrows(IllegalArgumentException.class, () -> FloatSeries.create(-1));
+    assertThrows(IndexOutOfBoundsException.class, () -> series.get(0));
+    assertThrows(IllegalArgumentException.class, () -> series.addAll(new float[2], 1, 3));
+    assertThrows(NullPointerException.class, () -> series.addAll(null));
+  }
+}
@@ -0,0 +1,138 @@
+package com.primalimited.core.series;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.primalimited.core.bounds.Bounds;
+import com.primalimited.core.dval.Dval;
+
+public class RollupStoreTest {
+  @Test
+  public void matchesBruteForceWhenAllRetained() {
+    RollupStore store = RollupStore.create(new long[] { 1, 4, 16, 64 }, new int[] { 2_000, 500, 125, 32 });
+    Random random = new Random(41);
+    int n = 1_500;
+    long[] timestamps = new long[n];
+    double[] values = new double[n];
+    for (int i = 0; i < n; i++) {
+      timestamps[i] = random.nextInt(1_800) - 100;
+      values[i] = random.nextGaussian();
+    }
+    store.add(timestamps, values);
+
+    for (int trial = 0; trial < 500; trial++) {
+      long from = random.nextInt(2_000) - 150;
+      long to = from + random.nextInt(1_000);
+      double min = Double.POSITIVE_INFINITY;
+      double max = Double.NEGATIVE_INFINITY;
+      double sum = 0;
+      long count = 0;
+      for (int i = 0; i < n; i++) {
+        if (timestamps[i] < from || timestamps[i] >= to)
+          continue;
+        min = Math.min(min, values[i]);
+        max = Math.max(max, values[i]);
+        sum += values[i];
+        count++;
+      }
+      assertEquals(count, store.getCount(from, to));
+      assertEquals(sum, store.getSum(from, to), 1e-9);
+      Bounds bounds = store.getBounds(from, to);
+      if (count == 0) {
+        assertTrue(bounds.isNull());
+        assertTrue(Dval.isDval(store.getMean(from, to)));
+      } else {
+        assertEquals(min, bounds.getMin(), 0.0);
+        assertEquals(max, bounds.getMax(), 0.0);
+        assertEquals(sum / count, store.getMean(from, to), 1e-9);
+      }
+    }
+    assertEquals(n, store.getCount(Long.MIN_VALUE, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void olderRangesComeFromCoarserLevels() {
+    /* finest level keeps 10 buckets, the coarser one keeps 100 buckets of 10 */
+    RollupStore store = RollupStore.create(new long[] { 1, 10 }, new int[] { 10, 100 });
+    for (long t = 0; t < 100; t++)
+      store.add(t, t);
+
+    /* exact at the finest level within its retention */
+    assertEquals(3, store.getCount(91, 94));
+    assertEquals(Bounds.of(91, 93).boundsText(), store.getBounds(91, 94).boundsText());
+
+    /* before it, partly overlapping buckets of the coarser level are included whole */
+    assertEquals(10, store.getCount(23, 25));
+    assertEquals(Bounds.of(20, 29).boundsText(), store.getBounds(23, 25).boundsText());
+
+    /* spanning both, no sample is counted twice */
+    assertEquals(100, store.getCount(0, 100));
+    assertEquals(10 + 5, store.getCount(85, 95)); // 80-89 whole, then 90-94 exactly
+    assertEquals(4950.0, store.getSum(0, 100), 0.0);
+    assertEquals(Bounds.of(0, 99).boundsText(), store.getBounds().boundsText());
+  }
+
+  @Test
+  public void retention() {
+    RollupStore store = RollupStore.create(new long[] { 1, 2 }, new int[] { 4, 4 });
+    store.add(0, 5);
+    store.add(100, 7);
+    store.add(1, 9); // too old for every level
+    assertEquals(1, store.getCount(Long.MIN_VALUE, Long.MAX_VALUE));
+    assertEquals(7.0, store.getBounds().getMin(), 0.0);
+    store.add(99, 3);
+    assertEquals(Bounds.of(3, 7).boundsText(), store.getBounds(90, 101).boundsText());
+  }
+
+  @Test
+  public void invalidValuesAndClear() {
+    RollupStore store = RollupStore.ofMillis();
+    assertEquals(4, store.levels());
+    assertEquals(60_000L, store.getBucketWidth(1));
+    assertEquals(86_400, store.getRetention(0));
+    assertFalse(store.add(0, Dval.DVAL_DOUBLE));
+    assertFalse(store.add(0, Double.NaN));
+    assertTrue(store.add(1_500, 2));
+    assertTrue(store.add(-1_500, -2));
+    assertEquals(Bounds.of(-2, 2).boundsText(), store.getBounds(-10_000, 10_000).boundsText());
+    assertEquals(0, store.getCount(10, 5));
+    store.clear();
+    assertTrue(store.getBounds().isNull());
+    assertEquals(0, store.getCount(Long.MIN_VALUE, Long.MAX_VALUE));
+  }
+
+  @Test
+  public void ceilDivWithoutOverflow() {
+    assertEquals(Long.MIN_VALUE / 60, RollupStore.ceilDiv(Long.MIN_VALUE, 60));
+    assertEquals(Long.MIN_VALUE, RollupStore.ceilDiv(Long.MIN_VALUE, 1));
+    assertEquals(Long.MAX_VALUE / 60 + 1, RollupStore.ceilDiv(Long.MAX_VALUE, 60));
+    assertEquals(2, RollupStore.ceilDiv(7, 4));
+    assertEquals(2, RollupStore.ceilDiv(8, 4));
+    assertEquals(-1, RollupStore.ceilDiv(-7, 4));
+    assertEquals(-2, RollupStore.ceilDiv(-8, 4));
+    assertEquals(0, RollupStore.ceilDiv(0, 4));
+
+    RollupStore store = RollupStore.ofMillis();
+    store.add(-61_000, 5);
+    store.add(59_000, 6);
+    assertEquals(Bounds.of(5, 6).boundsText(), store.getBounds(Long.MIN_VALUE, Long.MAX_VALUE).boundsText());
+    assertEquals(Bounds.of(5, 5).boundsText(), store.getBounds(Long.MIN_VALUE, 0).boundsText());
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> RollupStore.create(new long[0], new int[0]));
+    assertThrows(IllegalArgumentException.class, () -> RollupStore.create(new long[] { 1 }, new int[] { 1, 2 }));
+    assertThrows(IllegalArgumentException.class, () -> RollupStore.create(new long[] { 0 }, new int[] { 1 }));
+    assertThrows(IllegalArgumentException.class, () -> RollupStore.create(new long[] { 1 }, new int[] { 0 }));
+    assertThrows(IllegalArgumentException.class, () -> RollupStore.create(new long[] { 10, 15 }, new int[] { 1, 1 }));
+    assertThrows(IllegalArgumentException.class, () -> RollupStore.create(new long[] { 10, 10 }, new int[] { 1, 1 }));
+    assertThrows(IllegalArgumentException.class, () -> RollupStore.ofMillis().add(new long[1], new double[2]));
+  }
+}